@@ -0,0 +1,52 @@
+package com.sample.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * === 设计要点 ===
+ * 基准测试入口：统一开启分配剖析（GC profiler），结果输出为 JSON 基线文件。
+ *
+ * 用法：
+ * <pre>
+ * java -jar sample-benchmark.jar                       # 全量，结果写入 baselines/yyyy-MM-dd.json
+ * java -jar sample-benchmark.jar "Money.*" -t 4        # 追加任意 JMH 命令行参数
+ * </pre>
+ *
+ * 基线文件是 JMH 标准 JSON 格式，每个结果同时包含吞吐/耗时与
+ * gc.alloc.rate.norm（每次操作分配的字节数），可以直接用于版本间对比。
+ */
+public final class BenchmarkRunner {
+
+    private static final String BASELINE_DIR = "baselines";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Files.createDirectories(Path.of(BASELINE_DIR));
+        String result = BASELINE_DIR + "/" + LocalDate.now() + ".json";
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .shouldFailOnError(true);
+        if (args.length == 0) {
+            options.include("com\\.sample\\.benchmark\\..*");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,328 @@
+package com.sample.benchmark;
+
+import com.sample.common.DomainEvent;
+import com.sample.common.codec.BinaryCodec;
+import com.sample.common.codec.DomainEventCodec;
+import com.sample.common.codec.WireFormat;
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.event.RepairCompletedEvent;
+import com.sample.inventory.domain.event.StockOutEvent;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.codec.InventoryBinaryCodecs;
+import com.sample.purchase.domain.event.PurchaseCompletedEvent;
+import com.sample.purchase.domain.model.PurchaseItem;
+import com.sample.purchase.domain.model.PurchaseOrder;
+import com.sample.purchase.domain.model.PurchaseStatus;
+import com.sample.purchase.domain.vo.PurchaseOrderId;
+import com.sample.purchase.infrastructure.codec.PurchaseBinaryCodecs;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * === 设计要点 ===
+ * 二进制编解码的往返校验：编码 → 解码后逐字段比对，再喂入损坏的数据确认解码器拒绝而不是读出垃圾。
+ *
+ * 覆盖：
+ * 1. 聚合根：InventoryItem（BinaryCodec 直接编解码）、带已收 SN 的 PurchaseOrder
+ * 2. 领域事件：StockOutEvent、RepairCompletedEvent、PurchaseCompletedEvent，经由 DomainEventCodec
+ * 3. 边界值：null 字符串、中文、代理对（emoji）、落单代理字符（按 String.getBytes(UTF_8) 替换为 '?'）、
+ *    负数与 long 边界的金额、超出定点数范围的金额（编码时抛出 ArithmeticException）
+ * 4. 损坏数据：状态 / 来源类型序号越界、字符串长度前缀为负、集合个数超出剩余字节，一律 IllegalStateException
+ *
+ * 与基准共用一个模块（已依赖全部上下文），改动编解码器或 WireFormat 后、重新录制基线之前先运行：
+ * <pre>
+ * java -cp &lt;classpath&gt; com.sample.benchmark.BinaryCodecRoundTrip
+ * </pre>
+ * 任何不一致都以 IllegalStateException 终止（退出码非零）。
+ */
+public final class BinaryCodecRoundTrip {
+
+    private static final LocalDateTime OCCURRED_AT = LocalDateTime.of(2024, 11, 11, 23, 59, 59, 123_456_789);
+
+    /** 非 ASCII、代理对、落单的高位 / 低位代理字符 */
+    private static final String CHINESE = "销售单-华东仓-0042";
+    private static final String SURROGATE_PAIR = "SO-📦-包裹";
+    private static final String LONE_SURROGATES = "SO-\uD800-\uDC00x";
+
+    private final DomainEventCodec eventCodec =
+            PurchaseBinaryCodecs.registerEvents(InventoryBinaryCodecs.registerEvents(new DomainEventCodec()));
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    private int checks;
+
+    private BinaryCodecRoundTrip() {
+    }
+
+    public static void main(String[] args) {
+        BinaryCodecRoundTrip roundTrip = new BinaryCodecRoundTrip();
+        roundTrip.inventoryItem();
+        roundTrip.purchaseOrder();
+        roundTrip.stockOutEvent();
+        roundTrip.repairCompletedEvent();
+        roundTrip.purchaseCompletedEvent();
+        roundTrip.moneyOutOfRange();
+        roundTrip.corruptData();
+        System.out.println("编解码往返校验通过: " + roundTrip.checks + " 项");
+    }
+
+    // ========== 聚合根 ==========
+
+    private void inventoryItem() {
+        InventoryItem item = InventoryItem.stockIn(SnCode.of("c02xk1zjjg5h-2024"), 10_086L, WarehouseId.of(12L),
+                Money.of("7999.99"), SourceType.PURCHASE, CHINESE);
+        item.startInspection();
+        item.assignVersion(3L);
+        checkItem(item, roundTrip(InventoryBinaryCodecs.INVENTORY_ITEM, item));
+
+        // 未分配 ID、null 字符串、负数与 long 边界的金额 / SKU
+        for (Money cost : List.of(Money.ofCents(-1L), Money.of("-123456.78"), Money.ofCents(Long.MAX_VALUE),
+                Money.ofCents(Long.MIN_VALUE))) {
+            InventoryItem edge = InventoryItem.reconstruct(null, SnCode.of("SN-EDGE-0001"), Long.MIN_VALUE,
+                    WarehouseId.of(Long.MAX_VALUE), InventoryStatus.values()[InventoryStatus.values().length - 1],
+                    cost, Money.ZERO, null, null, null);
+            checkItem(edge, roundTrip(InventoryBinaryCodecs.INVENTORY_ITEM, edge));
+        }
+
+        InventoryItem locked = InventoryItem.reconstruct(InventoryItemId.of(Long.MAX_VALUE), SnCode.of("SN-LOCKED-01"), 1L,
+                WarehouseId.of(1L), InventoryStatus.LOCKED, Money.of("1.00"), Money.of("2.50"),
+                SourceType.values()[SourceType.values().length - 1], SURROGATE_PAIR, LONE_SURROGATES);
+        InventoryItem decoded = roundTrip(InventoryBinaryCodecs.INVENTORY_ITEM, locked);
+        check("SO-?-?x", decoded.getLockedByOrderId(), "落单代理字符替换为 '?'");
+        check(SURROGATE_PAIR, decoded.getSourceOrderId(), "代理对");
+        checkItem(locked, decoded);
+    }
+
+    private void purchaseOrder() {
+        PurchaseOrder order = PurchaseOrder.createDraft(-7L, CHINESE + SURROGATE_PAIR);
+        order.addItem(10_086L, 3, Money.of("7999.00"));
+        order.addItem(Long.MAX_VALUE, 2, Money.ofCents(-500L));
+        order.addItem(20_000L, 1, Money.ZERO);
+        order.submit();
+        order.approve();
+        order.receiveItem(10_086L, "abc-12345");
+        order.receiveItem(10_086L, "SN-0002");
+        order.receiveItem(Long.MAX_VALUE, "SN-0003");
+        order.assignVersion(5L);
+        checkOrder(order, roundTrip(PurchaseBinaryCodecs.PURCHASE_ORDER, order));
+
+        PurchaseOrder empty = PurchaseOrder.reconstruct(null, 1L, PurchaseStatus.DRAFT, List.of(), Money.ZERO, null);
+        checkOrder(empty, roundTrip(PurchaseBinaryCodecs.PURCHASE_ORDER, empty));
+    }
+
+    // ========== 领域事件 ==========
+
+    private void stockOutEvent() {
+        for (String salesOrderId : Arrays.asList(CHINESE, SURROGATE_PAIR, "", null)) {
+            StockOutEvent event = new StockOutEvent(SnCode.of("C02XK1ZJJG5H-2024"), salesOrderId,
+                    Money.ofCents(Long.MIN_VALUE), Long.MAX_VALUE, WarehouseId.of(12L), null, OCCURRED_AT);
+            StockOutEvent decoded = (StockOutEvent) roundTrip(event);
+            checkEvent(event, decoded);
+            check(event.getSnCode(), decoded.getSnCode(), "snCode");
+            check(event.getSalesOrderId(), decoded.getSalesOrderId(), "salesOrderId");
+            check(event.getAccumulatedCost(), decoded.getAccumulatedCost(), "accumulatedCost");
+            check(event.getSkuId(), decoded.getSkuId(), "skuId");
+            check(event.getWarehouseId(), decoded.getWarehouseId(), "warehouseId");
+            check(event.getSourceType(), decoded.getSourceType(), "sourceType");
+        }
+        for (SourceType sourceType : SourceType.values()) {
+            StockOutEvent event = new StockOutEvent(SnCode.of("SN-0001"), "SO-1", Money.of("-0.01"), 1L,
+                    WarehouseId.of(1L), sourceType, OCCURRED_AT);
+            check(sourceType, ((StockOutEvent) roundTrip(event)).getSourceType(), "sourceType");
+        }
+    }
+
+    private void repairCompletedEvent() {
+        RepairCompletedEvent event = new RepairCompletedEvent(InventoryItemId.of(Long.MAX_VALUE), 7L,
+                SnCode.of("SN-REPAIR-01"), Money.of("-99.99"), Money.ofCents(Long.MAX_VALUE),
+                Money.of("12345678901234.56"), OCCURRED_AT);
+        RepairCompletedEvent decoded = (RepairCompletedEvent) roundTrip(event);
+        checkEvent(event, decoded);
+        check(event.getSnCode(), decoded.getSnCode(), "snCode");
+        check(event.getPartsCost(), decoded.getPartsCost(), "partsCost");
+        check(event.getLaborCost(), decoded.getLaborCost(), "laborCost");
+        check(event.getAccumulatedCost(), decoded.getAccumulatedCost(), "accumulatedCost");
+        check(event.getItemId(), decoded.getItemId(), "itemId");
+        check(event.getAggregateVersion(), decoded.getAggregateVersion(), "aggregateVersion");
+
+        RepairCompletedEvent unsaved = new RepairCompletedEvent(null, 1L, SnCode.of("SN-REPAIR-03"),
+                Money.of("1.00"), Money.ZERO, Money.of("1.00"), OCCURRED_AT);
+        check(null, ((RepairCompletedEvent) roundTrip(unsaved)).getItemId(), "itemId");
+    }
+
+    private void purchaseCompletedEvent() {
+        List<PurchaseItem> items = List.of(
+                PurchaseItem.reconstruct(10_086L, 3, Money.of("7999.00"), List.of("SN-0001", "sn-0002", "SN-中文")),
+                PurchaseItem.reconstruct(Long.MIN_VALUE, Integer.MAX_VALUE, Money.ofCents(-1L), List.of()));
+        PurchaseCompletedEvent event = new PurchaseCompletedEvent(PurchaseOrderId.of(Long.MAX_VALUE), -1L, items,
+                OCCURRED_AT);
+        PurchaseCompletedEvent decoded = (PurchaseCompletedEvent) roundTrip(event);
+        checkEvent(event, decoded);
+        check(event.getOrderId(), decoded.getOrderId(), "orderId");
+        check(event.getSupplierId(), decoded.getSupplierId(), "supplierId");
+        checkItems(event.getItems(), decoded.getItems());
+    }
+
+    // ========== 异常路径 ==========
+
+    private void moneyOutOfRange() {
+        Money huge = Money.ofCents(Long.MAX_VALUE).add(Money.ofCents(1L));
+        RepairCompletedEvent event = new RepairCompletedEvent(InventoryItemId.of(1L), 1L, SnCode.of("SN-REPAIR-02"),
+                huge, Money.ZERO, huge, OCCURRED_AT);
+        expect(ArithmeticException.class, () -> eventCodec.serialize(event), "超出定点数范围的金额");
+    }
+
+    private void corruptData() {
+        InventoryItem item = InventoryItem.reconstruct(InventoryItemId.of(1L), SnCode.of("SN-0001"), 1L,
+                WarehouseId.of(1L), InventoryStatus.IN_STOCK, Money.ZERO, Money.ZERO, SourceType.PURCHASE, "PO-1",
+                null);
+        byte[] encoded = encode(InventoryBinaryCodecs.INVENTORY_ITEM, item);
+        // | 版本 | itemId | version | SN（长度 + 7 字节） | skuId | warehouseId | 状态 | 金额 × 2 | 来源类型 | ...
+        int statusOffset = 1 + 1 + 1 + 1 + 7 + 1 + 1;
+        check(InventoryStatus.IN_STOCK.ordinal(), (int) encoded[statusOffset], "状态字节位置");
+        int sourceTypeOffset = statusOffset + 1 + 1 + 1;
+        check(SourceType.PURCHASE.ordinal() + 1, (int) encoded[sourceTypeOffset], "来源类型字节位置");
+
+        expectCorrupt(InventoryBinaryCodecs.INVENTORY_ITEM, patch(encoded, statusOffset, InventoryStatus.values().length),
+                "状态序号越界");
+        expectCorrupt(InventoryBinaryCodecs.INVENTORY_ITEM, patch(encoded, statusOffset, -1), "状态序号为负");
+        expectCorrupt(InventoryBinaryCodecs.INVENTORY_ITEM,
+                patch(encoded, sourceTypeOffset, SourceType.values().length + 1), "来源类型序号越界");
+
+        PurchaseOrder order = PurchaseOrder.reconstruct(PurchaseOrderId.of(1L), 1L, PurchaseStatus.APPROVED,
+                List.of(PurchaseItem.reconstruct(1L, 1, Money.ZERO, List.of("SN-0001"))), Money.ZERO, null);
+        byte[] encodedOrder = encode(PurchaseBinaryCodecs.PURCHASE_ORDER, order);
+        // | 版本 | orderId | version | supplierId | 状态 | 金额 | remark | 明细个数 | ...
+        int orderStatusOffset = 1 + 1 + 1 + 1;
+        check(PurchaseStatus.APPROVED.ordinal(), (int) encodedOrder[orderStatusOffset], "采购状态字节位置");
+        expectCorrupt(PurchaseBinaryCodecs.PURCHASE_ORDER,
+                patch(encodedOrder, orderStatusOffset, PurchaseStatus.values().length), "采购状态序号越界");
+        expectCorrupt(PurchaseBinaryCodecs.PURCHASE_ORDER, patch(encodedOrder, orderStatusOffset + 3, 0x7F),
+                "明细个数超出剩余字节");
+
+        // 字符串长度前缀：varint 0xFFFFFFFF → 长度 -2
+        ByteBuffer corrupt = ByteBuffer.wrap(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        expect(IllegalStateException.class, () -> WireFormat.getString(corrupt), "字符串长度前缀为负");
+        ByteBuffer tooLong = ByteBuffer.wrap(new byte[] {0x10, 'a', 'b'});
+        expect(IllegalStateException.class, () -> WireFormat.getString(tooLong), "字符串长度超出剩余数据");
+    }
+
+    // ========== 比对 ==========
+
+    private void checkItem(InventoryItem expected, InventoryItem actual) {
+        check(expected.getItemId(), actual.getItemId(), "itemId");
+        check(expected.getVersion(), actual.getVersion(), "version");
+        check(expected.getSnCode(), actual.getSnCode(), "snCode");
+        check(expected.getSkuId(), actual.getSkuId(), "skuId");
+        check(expected.getWarehouseId(), actual.getWarehouseId(), "warehouseId");
+        check(expected.getStatus(), actual.getStatus(), "status");
+        check(expected.getAcquisitionCost(), actual.getAcquisitionCost(), "acquisitionCost");
+        check(expected.getAccumulatedCost(), actual.getAccumulatedCost(), "accumulatedCost");
+        check(expected.getSourceType(), actual.getSourceType(), "sourceType");
+        check(utf8(expected.getSourceOrderId()), actual.getSourceOrderId(), "sourceOrderId");
+        check(utf8(expected.getLockedByOrderId()), actual.getLockedByOrderId(), "lockedByOrderId");
+    }
+
+    private void checkOrder(PurchaseOrder expected, PurchaseOrder actual) {
+        check(expected.getOrderId(), actual.getOrderId(), "orderId");
+        check(expected.getVersion(), actual.getVersion(), "version");
+        check(expected.getSupplierId(), actual.getSupplierId(), "supplierId");
+        check(expected.getStatus(), actual.getStatus(), "status");
+        check(expected.getTotalAmount(), actual.getTotalAmount(), "totalAmount");
+        check(expected.getRemark(), actual.getRemark(), "remark");
+        checkItems(expected.getItems(), actual.getItems());
+    }
+
+    private void checkItems(List<PurchaseItem> expected, List<PurchaseItem> actual) {
+        check(expected.size(), actual.size(), "明细行数");
+        for (int i = 0; i < expected.size(); i++) {
+            PurchaseItem e = expected.get(i);
+            PurchaseItem a = actual.get(i);
+            check(e.getSkuId(), a.getSkuId(), "skuId");
+            check(e.getQuantity(), a.getQuantity(), "quantity");
+            check(e.getUnitPrice(), a.getUnitPrice(), "unitPrice");
+            check(e.getReceivedQty(), a.getReceivedQty(), "receivedQty");
+            check(e.getReceivedSnCodes(), a.getReceivedSnCodes(), "receivedSnCodes");
+            // 解码后重建了哈希索引：按非规范形式也能查到
+            for (String snCode : e.getReceivedSnCodes()) {
+                check(true, a.getReceivedSnCodes().contains(snCode.toLowerCase()), "已收 SN 查找 " + snCode);
+            }
+        }
+    }
+
+    private void checkEvent(DomainEvent expected, DomainEvent actual) {
+        check(expected.getClass(), actual.getClass(), "事件类型");
+        check(expected.getOccurredAt(), actual.getOccurredAt(), "occurredAt");
+        check(expected.getAggregateId(), actual.getAggregateId(), "aggregateId");
+    }
+
+    // ========== 工具方法 ==========
+
+    private <T> T roundTrip(BinaryCodec<T> codec, T value) {
+        ByteBuffer encoded = ByteBuffer.wrap(encode(codec, value));
+        T decoded = codec.decode(encoded);
+        check(0, encoded.remaining(), "解码后剩余字节");
+        // 再编码一次，字节必须完全一致
+        check(true, Arrays.equals(encoded.array(), encode(codec, decoded)), "二次编码字节一致");
+        return decoded;
+    }
+
+    private DomainEvent roundTrip(DomainEvent event) {
+        byte[] payload = eventCodec.serialize(event);
+        DomainEvent decoded = eventCodec.deserialize(payload);
+        check(true, Arrays.equals(payload, eventCodec.serialize(decoded)), "事件二次编码字节一致");
+        return decoded;
+    }
+
+    private <T> byte[] encode(BinaryCodec<T> codec, T value) {
+        buffer.clear();
+        codec.encode(value, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static byte[] patch(byte[] encoded, int offset, int value) {
+        byte[] copy = encoded.clone();
+        copy[offset] = (byte) value;
+        return copy;
+    }
+
+    private void expectCorrupt(BinaryCodec<?> codec, byte[] corrupt, String what) {
+        expect(IllegalStateException.class, () -> codec.decode(ByteBuffer.wrap(corrupt)), what);
+    }
+
+    private void expect(Class<? extends Throwable> expected, Runnable action, String what) {
+        try {
+            action.run();
+        } catch (Throwable e) {
+            if (!expected.isInstance(e)) {
+                throw new IllegalStateException(what + ": 期望 " + expected.getSimpleName() + "，实际 " + e, e);
+            }
+            checks++;
+            return;
+        }
+        throw new IllegalStateException(what + ": 期望 " + expected.getSimpleName() + "，实际没有抛出异常");
+    }
+
+    private void check(Object expected, Object actual, String field) {
+        if (!Objects.equals(expected, actual)) {
+            throw new IllegalStateException(field + " 不一致: 期望 " + expected + "，实际 " + actual);
+        }
+        checks++;
+    }
+
+    /**
+     * 与 String.getBytes(UTF_8) 往返一次的结果（落单代理字符变为 '?'），null 保持 null。
+     */
+    private static String utf8(String value) {
+        return value == null ? null : new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sample.benchmark.common;
+
+import com.sample.common.DomainEvent;
+import com.sample.common.event.RingBufferEventBus;
+import com.sample.common.event.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内事件总线：发布吞吐（目标 ≥ 100 万事件/秒）与发布延迟分布。
+ *
+ * 两个订阅者模拟 StockOutEvent 的财务消费者和一个故意很慢的消费者，
+ * 用于验证慢消费者不会拖慢发布端。
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventBusBenchmark {
+
+    @Param({"65536"})
+    public int capacity;
+
+    @Param({"sleeping", "yielding"})
+    public String waitStrategy;
+
+    private RingBufferEventBus bus;
+    private final LongAdder consumed = new LongAdder();
+    private final BenchEvent event = new BenchEvent();
+
+    @Setup
+    public void setUp() {
+        WaitStrategy strategy = "yielding".equals(waitStrategy) ? WaitStrategy.yielding() : WaitStrategy.sleeping();
+        bus = new RingBufferEventBus(capacity, strategy);
+        bus.subscribe("finance", BenchEvent.class, batch -> consumed.add(batch.size()));
+        bus.subscribe("slow", DomainEvent.class, batch -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        bus.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void publishThroughput() {
+        bus.publish(event);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void publishLatency() {
+        bus.publish(event);
+    }
+
+    static final class BenchEvent extends DomainEvent {
+        BenchEvent() {
+            super("BENCH");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sample.benchmark.common;
+
+import com.sample.common.vo.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money 运算：定点数 vs 原先的 BigDecimal + 每次 setScale。
+ * sum* 模拟月结时对数百万个 SN 的累计成本求和。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MoneyBenchmark {
+
+    @Param({"1000000"})
+    public int snCount;
+
+    private Money[] costs;
+    private BigDecimal[] legacyCosts;
+
+    private final Money a = Money.of("3999.99");
+    private final Money b = Money.of("120.50");
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        costs = new Money[snCount];
+        legacyCosts = new BigDecimal[snCount];
+        for (int i = 0; i < snCount; i++) {
+            long cents = 10_000 + random.nextLong(1_000_000);
+            costs[i] = Money.ofCents(cents);
+            legacyCosts[i] = BigDecimal.valueOf(cents, 2);
+        }
+    }
+
+    @Benchmark
+    public Money sumCosts() {
+        Money total = Money.ZERO;
+        for (Money cost : costs) {
+            total = total.add(cost);
+        }
+        return total;
+    }
+
+    /** 改造前的 Money.add：BigDecimal 加法 + 构造函数中的 setScale(2, HALF_UP) */
+    @Benchmark
+    public BigDecimal sumCostsLegacy() {
+        BigDecimal total = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+        for (BigDecimal cost : legacyCosts) {
+            total = total.add(cost).setScale(2, RoundingMode.HALF_UP);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Money addSubtract() {
+        return a.add(b).subtract(b);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Money parse() {
+        return Money.of("3999.99");
+    }
+}
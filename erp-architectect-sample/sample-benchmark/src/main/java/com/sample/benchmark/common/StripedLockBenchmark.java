@@ -0,0 +1,66 @@
+package com.sample.benchmark.common;
+
+import com.sample.common.lock.StripedLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SN 锁的争用：吞吐随线程数的变化。
+ *
+ * 用不同线程数分别运行（-t 1 / 2 / 4 / 8 ...）：
+ * - stripes = 1：等价于一把全局锁，线程越多越差
+ * - stripes = 4096 + keySpace = 100000：不同 SN 并行，吞吐应近似随核数线性增长
+ * - keySpace = 1：所有线程抢同一个 SN，必然串行（锁的正确性要求）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StripedLockBenchmark {
+
+    @Param({"1", "4096"})
+    public int stripes;
+
+    @Param({"1", "100000"})
+    public int keySpace;
+
+    private StripedLock lock;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        lock = new StripedLock(stripes);
+        keys = new String[keySpace];
+        for (int i = 0; i < keySpace; i++) {
+            keys[i] = "inventory:sn:BENCH-" + (1_000_000 + i);
+        }
+    }
+
+    /**
+     * 加锁 → 极短的临界区（模拟一次内存中的状态变更）→ 解锁。
+     */
+    @Benchmark
+    public long lockUnlock() {
+        String key = keys[ThreadLocalRandom.current().nextInt(keySpace)];
+        lock.lock(key);
+        try {
+            return key.hashCode() * 31L;
+        } finally {
+            lock.unlock(key);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.sample.benchmark.common;
+
+import com.sample.common.timer.HierarchicalTimingWheel;
+import com.sample.common.timer.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁定有效期的调度与取消：时间轮 vs ScheduledThreadPoolExecutor（堆）。
+ *
+ * 先挂上 outstanding 个 30 分钟后到期的任务（模拟促销期间未支付的锁定），
+ * 再测量"锁定一个 SN + 出库时取消"的一对操作。堆的两项操作都是 O(log n)，时间轮都是 O(1)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimingWheelBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"10000", "1000000"})
+    public int outstanding;
+
+    private HierarchicalTimingWheel wheel;
+    private ScheduledThreadPoolExecutor heap;
+
+    @Setup
+    public void setUp() {
+        wheel = new HierarchicalTimingWheel(Duration.ofMillis(10), Runnable::run);
+        heap = new ScheduledThreadPoolExecutor(1);
+        heap.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < outstanding; i++) {
+            wheel.schedule(NOOP, TTL);
+            heap.schedule(NOOP, TTL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        wheel.close();
+        heap.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean timingWheelScheduleCancel() {
+        Timeout timeout = wheel.schedule(NOOP, TTL);
+        return timeout.cancel();
+    }
+
+    @Benchmark
+    public boolean heapScheduleCancel() {
+        ScheduledFuture<?> future = heap.schedule(NOOP, TTL.toMillis(), TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+}
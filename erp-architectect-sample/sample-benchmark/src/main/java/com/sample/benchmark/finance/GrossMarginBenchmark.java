@@ -0,0 +1,88 @@
+package com.sample.benchmark.finance;
+
+import com.sample.finance.domain.model.MarginReport;
+import com.sample.finance.infrastructure.projection.GrossMarginAggregator;
+import com.sample.finance.infrastructure.projection.StockOutHistory;
+import com.sample.inventory.domain.model.SourceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 月结毛利汇总：对 rows 行出库明细按 SKU × 仓库 × 来源类型分组。
+ * 明细分布在一年内，aggregateMonth 只命中约 1/12 的行，但仍需扫描全部行的日期列。
+ * singleThread 使用并行度为 1 的线程池，作为并行扫描的对照。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GrossMarginBenchmark {
+
+    @Param({"10000000", "50000000"})
+    public int rows;
+
+    private static final int SKUS = 2_000;
+    private static final int WAREHOUSES = 8;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private StockOutHistory history;
+    private GrossMarginAggregator parallel;
+    private GrossMarginAggregator sequential;
+    private ForkJoinPool singleThreadPool;
+
+    @Setup
+    public void setUp() {
+        history = new StockOutHistory();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < rows; i++) {
+            long cost = 100_000 + random.nextLong(400_000);
+            history.append(
+                    1 + random.nextInt(SKUS),
+                    1 + random.nextInt(WAREHOUSES),
+                    random.nextInt(10) < 7 ? SourceType.PURCHASE : SourceType.RECOVERY,
+                    FIRST_DAY.plusDays(random.nextInt(365)),
+                    cost,
+                    cost + random.nextLong(100_000));
+        }
+        parallel = new GrossMarginAggregator();
+        singleThreadPool = new ForkJoinPool(1);
+        sequential = new GrossMarginAggregator(singleThreadPool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThreadPool.shutdown();
+    }
+
+    @Benchmark
+    public MarginReport aggregateAll() {
+        return parallel.aggregate(history);
+    }
+
+    @Benchmark
+    public MarginReport aggregateMonth() {
+        return parallel.aggregate(history, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1));
+    }
+
+    @Benchmark
+    public MarginReport aggregateAllSingleThread() {
+        return sequential.aggregate(history);
+    }
+}
@@ -0,0 +1,139 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.inventory.application.InventoryApplicationService;
+import com.sample.inventory.domain.exception.InvalidStatusTransitionException;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.infrastructure.repository.InMemoryInventoryItemRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有交集的销售单同时锁定：整单锁定（lockForOrder(orderId, itemIds)）vs 逐个锁定 + 失败时手动回滚。
+ *
+ * 每张订单锁定库存池中随机位置连续的 orderSize 个库存项，池子很小，订单之间大量重叠。
+ * 锁定成功后立即逐个释放（模拟订单取消），让库存回到池中。
+ * 辅助计数 committed / rejected 给出整单成功与整单被拒的次数：
+ * 逐个锁定在冲突时已经写入了一部分，需要逐个回滚，被拒订单的代价随 orderSize 增长；
+ * 整单锁定在锁内先校验，被拒订单不产生任何写入。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BatchLockBenchmark {
+
+    @Param({"20", "200"})
+    public int orderSize;
+
+    @Param({"2000"})
+    public int poolSize;
+
+    private static final long SN_BASE = 10_000_000L;
+
+    private InventoryApplicationService service;
+    private long[] pool;
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    /**
+     * 每个线程的订单结果计数。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long committed;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            committed = 0;
+            rejected = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        InMemoryInventoryItemRepository repository = new InMemoryInventoryItemRepository(poolSize * 2);
+        service = new InventoryApplicationService(repository);
+        pool = new long[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            InventoryItemId id = service.stockIn(
+                    "BL-" + (SN_BASE + i), 1L, 1L, "1999.00", SourceType.PURCHASE, "PO-1");
+            InventoryItem item = repository.findById(id).orElseThrow();
+            item.startInspection();
+            repository.save(item);
+            service.passInspection(id.getValue());
+            pool[i] = id.getValue();
+        }
+    }
+
+    @Benchmark
+    public void batchLock(Outcome outcome) {
+        List<Long> itemIds = nextOrder();
+        String orderId = "SO-" + orderSequence.incrementAndGet();
+        try {
+            service.lockForOrder(orderId, itemIds);
+        } catch (InvalidStatusTransitionException e) {
+            outcome.rejected++;
+            return;
+        }
+        outcome.committed++;
+        releaseAll(itemIds);
+    }
+
+    @Benchmark
+    public void sequentialLock(Outcome outcome) {
+        List<Long> itemIds = nextOrder();
+        String orderId = "SO-" + orderSequence.incrementAndGet();
+        List<Long> locked = new ArrayList<>(itemIds.size());
+        try {
+            for (Long itemId : itemIds) {
+                service.lockForOrder(itemId, orderId);
+                locked.add(itemId);
+            }
+        } catch (InvalidStatusTransitionException e) {
+            releaseAll(locked);
+            outcome.rejected++;
+            return;
+        }
+        outcome.committed++;
+        releaseAll(itemIds);
+    }
+
+    private List<Long> nextOrder() {
+        int start = ThreadLocalRandom.current().nextInt(poolSize);
+        List<Long> itemIds = new ArrayList<>(orderSize);
+        for (int i = 0; i < orderSize; i++) {
+            itemIds.add(pool[(start + i) % poolSize]);
+        }
+        return itemIds;
+    }
+
+    private void releaseAll(List<Long> itemIds) {
+        for (Long itemId : itemIds) {
+            service.releaseLock(itemId);
+        }
+    }
+}
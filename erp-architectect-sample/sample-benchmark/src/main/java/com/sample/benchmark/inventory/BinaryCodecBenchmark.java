@@ -0,0 +1,242 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.common.codec.DomainEventCodec;
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.event.StockOutEvent;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.codec.InventoryBinaryCodecs;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二进制编解码 vs JSON：出库事件与库存项的编码、解码速度和编码后大小。
+ *
+ * JSON 基线是手写的（StringBuilder 拼接 + 按字段顺序扫描解析），没有反射、没有通用的树模型，
+ * 是反射式 JSON 库的速度下限；大小与任何 JSON 库相同（键名 + 十进制文本）。
+ * 辅助计数 encodedBytes 累计编码输出的字节数，除以同一轮的调用次数即为每条的大小。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BinaryCodecBenchmark {
+
+    private final DomainEventCodec eventCodec = InventoryBinaryCodecs.registerEvents(new DomainEventCodec());
+
+    private StockOutEvent event;
+    private InventoryItem item;
+
+    private byte[] binaryEvent;
+    private byte[] jsonEvent;
+    private byte[] binaryItem;
+    private byte[] jsonItem;
+
+    /**
+     * 每个线程的编码输出字节数，以及复用的编码缓冲区。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+        public long encodedBytes;
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        final StringBuilder text = new StringBuilder(512);
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        SnCode snCode = SnCode.of("C02XK1ZJJG5H-2024");
+        event = new StockOutEvent(snCode, "SO-20241111-000123", Money.of("8999.00"), 10_086L, WarehouseId.of(12L),
+                SourceType.PURCHASE);
+        item = InventoryItem.stockIn(snCode, 10_086L, WarehouseId.of(12L), Money.of("7999.00"),
+                SourceType.PURCHASE, "PO-20241101-0042");
+        item.startInspection();
+        item.passInspection();
+        item.lockForOrder("SO-20241111-000123");
+        item.assignVersion(4L);
+
+        Output output = new Output();
+        binaryEvent = eventCodec.serialize(event);
+        jsonEvent = encodeJson(event, output.text);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        InventoryBinaryCodecs.INVENTORY_ITEM.encode(item, buffer);
+        binaryItem = Arrays.copyOf(buffer.array(), buffer.position());
+        jsonItem = encodeJson(item, output.text);
+    }
+
+    // ========== 出库事件 ==========
+
+    @Benchmark
+    public int binaryEncodeEvent(Output output) {
+        ByteBuffer buffer = output.buffer;
+        buffer.clear();
+        eventCodec.encode(event, buffer);
+        output.encodedBytes += buffer.position();
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int jsonEncodeEvent(Output output) {
+        byte[] bytes = encodeJson(event, output.text);
+        output.encodedBytes += bytes.length;
+        return bytes.length;
+    }
+
+    @Benchmark
+    public Object binaryDecodeEvent() {
+        return eventCodec.decode(ByteBuffer.wrap(binaryEvent));
+    }
+
+    @Benchmark
+    public Object jsonDecodeEvent() {
+        JsonReader reader = new JsonReader(jsonEvent);
+        return new StockOutEvent(
+                SnCode.of(reader.next()),
+                reader.next(),
+                Money.of(reader.next()),
+                Long.parseLong(reader.next()),
+                WarehouseId.of(Long.parseLong(reader.next())),
+                SourceType.valueOf(reader.next()),
+                LocalDateTime.parse(reader.next()));
+    }
+
+    // ========== 库存项 ==========
+
+    @Benchmark
+    public int binaryEncodeItem(Output output) {
+        ByteBuffer buffer = output.buffer;
+        buffer.clear();
+        InventoryBinaryCodecs.INVENTORY_ITEM.encode(item, buffer);
+        output.encodedBytes += buffer.position();
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int jsonEncodeItem(Output output) {
+        byte[] bytes = encodeJson(item, output.text);
+        output.encodedBytes += bytes.length;
+        return bytes.length;
+    }
+
+    @Benchmark
+    public InventoryItem binaryDecodeItem() {
+        return InventoryBinaryCodecs.INVENTORY_ITEM.decode(ByteBuffer.wrap(binaryItem));
+    }
+
+    @Benchmark
+    public InventoryItem jsonDecodeItem() {
+        JsonReader reader = new JsonReader(jsonItem);
+        long itemId = Long.parseLong(reader.next());
+        long version = Long.parseLong(reader.next());
+        InventoryItem decoded = InventoryItem.reconstruct(
+                InventoryItemId.of(itemId),
+                SnCode.of(reader.next()),
+                Long.parseLong(reader.next()),
+                WarehouseId.of(Long.parseLong(reader.next())),
+                InventoryStatus.valueOf(reader.next()),
+                Money.of(reader.next()),
+                Money.of(reader.next()),
+                SourceType.valueOf(reader.next()),
+                reader.next(),
+                reader.next());
+        decoded.assignVersion(version);
+        return decoded;
+    }
+
+    // ========== JSON 基线 ==========
+
+    private static byte[] encodeJson(StockOutEvent event, StringBuilder text) {
+        text.setLength(0);
+        text.append('{');
+        string(text, "snCode", event.getSnCode().getValue()).append(',');
+        string(text, "salesOrderId", event.getSalesOrderId()).append(',');
+        number(text, "accumulatedCost", event.getAccumulatedCost().getAmount().toPlainString()).append(',');
+        number(text, "skuId", event.getSkuId().toString()).append(',');
+        number(text, "warehouseId", event.getWarehouseId().getValue().toString()).append(',');
+        string(text, "sourceType", event.getSourceType().name()).append(',');
+        string(text, "occurredAt", event.getOccurredAt().toString());
+        return text.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeJson(InventoryItem item, StringBuilder text) {
+        text.setLength(0);
+        text.append('{');
+        number(text, "itemId", item.getItemId().getValue().toString()).append(',');
+        number(text, "version", Long.toString(item.getVersion())).append(',');
+        string(text, "snCode", item.getSnCode().getValue()).append(',');
+        number(text, "skuId", item.getSkuId().toString()).append(',');
+        number(text, "warehouseId", item.getWarehouseId().getValue().toString()).append(',');
+        string(text, "status", item.getStatus().name()).append(',');
+        number(text, "acquisitionCost", item.getAcquisitionCost().getAmount().toPlainString()).append(',');
+        number(text, "accumulatedCost", item.getAccumulatedCost().getAmount().toPlainString()).append(',');
+        string(text, "sourceType", item.getSourceType().name()).append(',');
+        string(text, "sourceOrderId", item.getSourceOrderId()).append(',');
+        string(text, "lockedByOrderId", item.getLockedByOrderId());
+        return text.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder string(StringBuilder text, String name, String value) {
+        text.append('"').append(name).append("\":");
+        return value == null ? text.append("null") : text.append('"').append(value).append('"');
+    }
+
+    private static StringBuilder number(StringBuilder text, String name, String value) {
+        return text.append('"').append(name).append("\":").append(value);
+    }
+
+    /**
+     * 按写入顺序逐个读取字段值（不支持转义与嵌套，基线的取值里都没有）。
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int position;
+
+        JsonReader(byte[] json) {
+            this.text = new String(json, StandardCharsets.UTF_8);
+        }
+
+        String next() {
+            position = text.indexOf("\":", position) + 2;
+            if (text.charAt(position) == '"') {
+                int end = text.indexOf('"', position + 1);
+                String value = text.substring(position + 1, end);
+                position = end + 1;
+                return value;
+            }
+            int end = position;
+            while (text.charAt(end) != ',' && text.charAt(end) != '}') {
+                end++;
+            }
+            String value = text.substring(position, end);
+            position = end;
+            return "null".equals(value) ? null : value;
+        }
+    }
+}
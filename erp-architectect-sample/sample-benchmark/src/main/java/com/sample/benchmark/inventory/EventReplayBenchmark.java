@@ -0,0 +1,137 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.eventstore.EventSourcedInventoryItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 事件溯源仓储：启动回放的事件吞吐、单个库存项按链回溯重建、追加一次保存的开销。
+ * 每个库存项的事件：入库、质检、合格、3 次锁定/释放（共 9 个）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EventReplayBenchmark {
+
+    private static final int ITEMS = 50_000;
+    private static final int EVENTS_PER_ITEM = 9;
+    private static final int LOCK_CYCLES = 3;
+
+    /** 保证 SN 长度满足 5~50 的规则 */
+    private static final long SN_BASE = 10_000_000L;
+
+    private Path replayDirectory;
+    private Path appendDirectory;
+    private EventSourcedInventoryItemRepository repository;
+    private long[] itemIds;
+
+    @Setup
+    public void setUp() throws IOException {
+        replayDirectory = Files.createTempDirectory("event-replay");
+        itemIds = new long[ITEMS];
+        try (EventSourcedInventoryItemRepository writer =
+                     EventSourcedInventoryItemRepository.open(replayDirectory, 32, ITEMS)) {
+            List<InventoryItem> batch = new ArrayList<>(1000);
+            for (int i = 0; i < ITEMS; i++) {
+                InventoryItem item = InventoryItem.stockIn(SnCode.of("SN-" + (SN_BASE + i)), 1L + i % 100,
+                        WarehouseId.of(1L + i % 8), Money.of("1999.00"), SourceType.PURCHASE, "PO-1");
+                item.startInspection();
+                item.passInspection();
+                for (int c = 0; c < LOCK_CYCLES; c++) {
+                    item.lockForOrder("SO-" + i);
+                    item.releaseLock();
+                }
+                batch.add(item);
+                if (batch.size() == 1000) {
+                    writer.saveAll(batch);
+                    for (int k = 0; k < batch.size(); k++) {
+                        itemIds[i - batch.size() + 1 + k] = batch.get(k).getItemId().getValue();
+                    }
+                    batch.clear();
+                }
+            }
+        }
+
+        appendDirectory = Files.createTempDirectory("event-append");
+        Files.copy(replayDirectory.resolve("inventory-events.log"), appendDirectory.resolve("inventory-events.log"));
+        repository = EventSourcedInventoryItemRepository.open(appendDirectory, 32, ITEMS);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        repository.close();
+        deleteRecursively(replayDirectory);
+        deleteRecursively(appendDirectory);
+    }
+
+    /**
+     * 启动：全量回放日志并载入投影，结果按"每个事件"计。
+     */
+    @Benchmark
+    @OperationsPerInvocation(ITEMS * EVENTS_PER_ITEM)
+    public int replayAll() {
+        try (EventSourcedInventoryItemRepository replayed =
+                     EventSourcedInventoryItemRepository.open(replayDirectory, 32, ITEMS)) {
+            return replayed.size();
+        }
+    }
+
+    /**
+     * 不经投影，只用日志重建单个库存项（沿 prev 链回溯）。
+     */
+    @Benchmark
+    public InventoryItem loadFromLog() {
+        long id = itemIds[ThreadLocalRandom.current().nextInt(ITEMS)];
+        return repository.loadFromLog(InventoryItemId.of(id)).orElseThrow();
+    }
+
+    /**
+     * 加载 → 锁定并释放 → 保存：一次追加两个事件（偶尔加一个快照帧）。
+     */
+    @Benchmark
+    public InventoryItem lockReleaseAndAppend() {
+        long id = itemIds[ThreadLocalRandom.current().nextInt(ITEMS)];
+        InventoryItem item = repository.findById(InventoryItemId.of(id)).orElseThrow();
+        item.lockForOrder("SO-B");
+        item.releaseLock();
+        repository.save(item);
+        return item;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
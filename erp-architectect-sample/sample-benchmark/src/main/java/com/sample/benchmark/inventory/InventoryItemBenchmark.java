@@ -0,0 +1,80 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InventoryItem 聚合根的热点路径：完整生命周期、维修循环（completeRepair 成本累加）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InventoryItemBenchmark {
+
+    private final SnCode snCode = SnCode.of("BENCH-SN-0001");
+    private final WarehouseId warehouseId = WarehouseId.of(1L);
+    private final Money acquisitionCost = Money.of("3000.00");
+    private final Money repairCost = Money.of("120.50");
+
+    /** 处于 REPAIRING 状态的库存项，维修循环在它上面反复执行 */
+    private InventoryItem repairing;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repairing = InventoryItem.stockIn(snCode, 1L, warehouseId, acquisitionCost, SourceType.RECOVERY, "RC-1");
+        repairing.startInspection();
+        repairing.failInspection();
+        repairing.startRepair();
+    }
+
+    /**
+     * 入库 → 质检 → 维修 → 复检 → 上架 → 锁定 → 出库，共 9 次状态变更。
+     */
+    @Benchmark
+    public InventoryItem fullLifecycle() {
+        InventoryItem item = InventoryItem.stockIn(
+                snCode, 1L, warehouseId, acquisitionCost, SourceType.PURCHASE, "PO-1");
+        item.startInspection();
+        item.failInspection();
+        item.startRepair();
+        item.completeRepair(repairCost);
+        item.startInspection();
+        item.passInspection();
+        item.lockForOrder("SO-1");
+        item.confirmStockOut();
+        item.clearDomainEvents();
+        return item;
+    }
+
+    /**
+     * REPAIRING → REPAIRED → INSPECTING → NEED_REPAIR → REPAIRING 的闭环，
+     * 每轮一次 completeRepair（Money 加法）和四次状态校验。
+     */
+    @Benchmark
+    public Money repairCycle() {
+        repairing.completeRepair(repairCost);
+        repairing.startInspection();
+        repairing.failInspection();
+        repairing.startRepair();
+        return repairing.getAccumulatedCost();
+    }
+}
@@ -0,0 +1,97 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.inventory.application.InventoryApplicationService;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.infrastructure.repository.InMemoryInventoryItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InventoryApplicationService 端到端（加载 → 业务方法 → 保存）基于内存仓储的吞吐。
+ * 多线程运行时（-t N）同时覆盖 SN 锁与仓储索引的并发开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InventoryServiceBenchmark {
+
+    @Param({"100000"})
+    public int stockedItems;
+
+    private InMemoryInventoryItemRepository repository;
+    private InventoryApplicationService service;
+    private long[] inStockIds;
+
+    /** 保证 SN 长度满足 5~50 的规则 */
+    private static final long SN_BASE = 10_000_000L;
+
+    private final AtomicLong snSequence = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryInventoryItemRepository(stockedItems * 4);
+        service = new InventoryApplicationService(repository);
+        inStockIds = new long[stockedItems];
+        for (int i = 0; i < stockedItems; i++) {
+            InventoryItemId id = service.stockIn(nextSn(), 1L + i % 100, 1L + i % 8, "1999.00", SourceType.PURCHASE, "PO-1");
+            InventoryItem item = repository.findById(id).orElseThrow();
+            item.startInspection();
+            repository.save(item);
+            service.passInspection(id.getValue());
+            inStockIds[i] = id.getValue();
+        }
+    }
+
+    @Benchmark
+    public InventoryItemId stockIn() {
+        return service.stockIn(nextSn(), 1L, 1L, "1999.00", SourceType.PURCHASE, "PO-2");
+    }
+
+    /**
+     * 锁定 + 释放：两次完整的"加锁 → 加载 → 调用 → 保存"。
+     * 随机挑选库存项，多线程下偶发同一 SN 冲突，会抛出状态转换异常，计入失败但不影响测量。
+     */
+    @Benchmark
+    public void lockAndRelease() {
+        long id = inStockIds[ThreadLocalRandom.current().nextInt(inStockIds.length)];
+        try {
+            service.lockForOrder(id, "SO-1");
+            service.releaseLock(id);
+        } catch (RuntimeException e) {
+            // 另一个线程正锁着同一个 SN
+        }
+    }
+
+    @Benchmark
+    public boolean existsActiveBySnCode() {
+        // 一半命中已入库的 SN，一半未命中
+        return repository.existsActiveBySnCode(snCode(ThreadLocalRandom.current().nextInt(stockedItems * 2)));
+    }
+
+    private String nextSn() {
+        return "BM-" + (SN_BASE + snSequence.getAndIncrement());
+    }
+
+    private static SnCode snCode(long sequence) {
+        return SnCode.of("BM-" + (SN_BASE + sequence));
+    }
+}
@@ -0,0 +1,85 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.inventory.domain.model.InventoryStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.sample.inventory.domain.model.InventoryStatus.*;
+
+/**
+ * 状态转换校验：预计算位掩码表 vs 原先的 switch + EnumSet（每次调用新建集合）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InventoryStatusBenchmark {
+
+    private static final InventoryStatus[] VALUES = InventoryStatus.values();
+    /** 9 个状态两两组合；注解参数必须是编译期常量，新增状态时同步修改 */
+    private static final int PAIRS = 9 * 9;
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int bitmaskTable() {
+        int allowed = 0;
+        for (InventoryStatus from : VALUES) {
+            for (InventoryStatus to : VALUES) {
+                if (from.canTransitionTo(to)) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int legacySwitchEnumSet() {
+        int allowed = 0;
+        for (InventoryStatus from : VALUES) {
+            for (InventoryStatus to : VALUES) {
+                if (legacyAllowedTransitions(from).contains(to)) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * 批量过滤：一次算出掩码，再逐条位与。
+     */
+    @Benchmark
+    public int transitionsFromMask() {
+        return InventoryStatus.transitionsFrom(InventoryStatus.maskOf(INSPECTING, REPAIRED, LOCKED));
+    }
+
+    /** 改造前 InventoryStatus.allowedTransitions() 的实现，保留作对照 */
+    private static Set<InventoryStatus> legacyAllowedTransitions(InventoryStatus status) {
+        return switch (status) {
+            case PENDING_INSPECT -> EnumSet.of(INSPECTING);
+            case INSPECTING -> EnumSet.of(IN_STOCK, NEED_REPAIR, SCRAPPED);
+            case IN_STOCK -> EnumSet.of(LOCKED);
+            case NEED_REPAIR -> EnumSet.of(REPAIRING);
+            case REPAIRING -> EnumSet.of(REPAIRED);
+            case REPAIRED -> EnumSet.of(INSPECTING);
+            case LOCKED -> EnumSet.of(IN_STOCK, SOLD);
+            case SOLD, SCRAPPED -> EnumSet.noneOf(InventoryStatus.class);
+        };
+    }
+}
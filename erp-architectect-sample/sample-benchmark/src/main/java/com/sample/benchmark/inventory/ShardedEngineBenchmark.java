@@ -0,0 +1,124 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.common.vo.Money;
+import com.sample.inventory.application.InventoryApplicationService;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.repository.InMemoryInventoryItemRepository;
+import com.sample.inventory.infrastructure.shard.ShardedInventoryEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 锁定 + 释放的吞吐：按仓库分片的单写者引擎（1/2/4/8 个分片）vs 共享仓储上的应用服务。
+ *
+ * 库存池分布在 64 个仓库中，每个压测线程只操作属于自己的库存项（按下标取模划分），
+ * 因此两种实现都不会出现业务上的锁定冲突，测到的是写入路径本身的开销与争用：
+ * 共享仓储经过 SN 条带锁 + 主索引临界区，分片引擎经过写线程队列。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShardedEngineBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int WAREHOUSES = 64;
+    private static final int POOL_SIZE = 8192;
+    private static final long SN_BASE = 10_000_000L;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    private ShardedInventoryEngine engine;
+    private InventoryItemId[] engineItems;
+    private InventoryApplicationService service;
+    private long[] serviceItems;
+    private final AtomicInteger threadSequence = new AtomicInteger();
+
+    /**
+     * 每个线程负责的库存项下标：thread, thread + THREADS, thread + 2 * THREADS ...
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int thread = -1;
+        int next;
+
+        int nextIndex(ShardedEngineBenchmark benchmark) {
+            if (thread < 0) {
+                thread = benchmark.threadSequence.getAndIncrement() % THREADS;
+                next = thread;
+            }
+            int index = next;
+            next += THREADS;
+            if (next >= POOL_SIZE) {
+                next = thread;
+            }
+            return index;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        engine = new ShardedInventoryEngine(shards);
+        engineItems = new InventoryItemId[POOL_SIZE];
+        InMemoryInventoryItemRepository repository = new InMemoryInventoryItemRepository(POOL_SIZE * 2);
+        service = new InventoryApplicationService(repository);
+        serviceItems = new long[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            long warehouseId = i % WAREHOUSES;
+            InventoryItemId id = engine.stockIn(SnCode.of("SE-" + (SN_BASE + i)), 1L, WarehouseId.of(warehouseId),
+                    Money.of("1999.00"), SourceType.PURCHASE, "PO-1").join();
+            engine.execute(id, InventoryItem::startInspection);
+            engine.execute(id, InventoryItem::passInspection).join();
+            engineItems[i] = id;
+
+            InventoryItemId serviceId = service.stockIn(
+                    "SS-" + (SN_BASE + i), 1L, warehouseId, "1999.00", SourceType.PURCHASE, "PO-1");
+            InventoryItem item = repository.findById(serviceId).orElseThrow();
+            item.startInspection();
+            repository.save(item);
+            service.passInspection(serviceId.getValue());
+            serviceItems[i] = serviceId.getValue();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public InventoryItem shardedLockRelease(Cursor cursor) {
+        InventoryItemId id = engineItems[cursor.nextIndex(this)];
+        engine.execute(id, item -> item.lockForOrder("SO-1"));
+        return engine.execute(id, InventoryItem::releaseLock).join();
+    }
+
+    @Benchmark
+    public void sharedRepositoryLockRelease(Cursor cursor) {
+        long id = serviceItems[cursor.nextIndex(this)];
+        service.lockForOrder(id, "SO-1");
+        service.releaseLock(id);
+    }
+}
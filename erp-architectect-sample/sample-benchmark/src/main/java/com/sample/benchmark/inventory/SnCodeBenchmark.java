@@ -0,0 +1,77 @@
+package com.sample.benchmark.inventory;
+
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.SnCodeCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnCode 解析：单遍字符表校验 vs 原先的 trim + toUpperCase + 正则。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SnCodeBenchmark {
+
+    /** 扫码枪的典型输入：已经是规范形式 */
+    private final String canonical = "C02XK1ABJGH5";
+
+    /** 手工录入的典型输入：小写 + 首尾空白 */
+    private final String messy = "  c02xk1abjgh5 ";
+
+    private final byte[] bytes = canonical.getBytes(StandardCharsets.US_ASCII);
+    private final SnCodeCache cache = new SnCodeCache(1 << 16);
+
+    @Benchmark
+    public SnCode ofCanonical() {
+        return SnCode.of(canonical);
+    }
+
+    @Benchmark
+    public SnCode ofMessy() {
+        return SnCode.of(messy);
+    }
+
+    @Benchmark
+    public SnCode ofBytes() {
+        return SnCode.ofBytes(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public SnCode cacheHit() {
+        return cache.of(messy);
+    }
+
+    @Benchmark
+    public String legacyRegex() {
+        return legacyOf(canonical);
+    }
+
+    /** 改造前 SnCode.of() 的校验逻辑，保留作对照 */
+    private static String legacyOf(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException();
+        }
+        String trimmed = value.trim().toUpperCase();
+        if (trimmed.length() < 5 || trimmed.length() > 50) {
+            throw new IllegalArgumentException();
+        }
+        if (!trimmed.matches("^[A-Z0-9\\-]+$")) {
+            throw new IllegalArgumentException();
+        }
+        return trimmed;
+    }
+}
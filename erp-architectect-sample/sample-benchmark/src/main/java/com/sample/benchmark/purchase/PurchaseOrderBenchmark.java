@@ -0,0 +1,109 @@
+package com.sample.benchmark.purchase;
+
+import com.sample.common.vo.Money;
+import com.sample.purchase.domain.model.PurchaseOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大采购单（框架订单）：逐行添加明细、按 SKU 扫码收货。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PurchaseOrderBenchmark {
+
+    /** 每轮收货使用的 SN 数；用完后重建订单，保证同一订单内 SN 不重复 */
+    private static final int SN_POOL = 1 << 20;
+
+    @Param({"1000", "10000"})
+    public int lines;
+
+    private final Money unitPrice = Money.of("2999.00");
+    private String[] snCodes;
+    private PurchaseOrder receivingOrder;
+    private int snCursor;
+
+    @Setup
+    public void prepareSnCodes() {
+        snCodes = new String[SN_POOL];
+        for (int i = 0; i < SN_POOL; i++) {
+            snCodes[i] = "RCV-" + (10_000_000 + i);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareOrder() {
+        receivingOrder = approvedOrder();
+        snCursor = 0;
+    }
+
+    /**
+     * 从空草稿开始添加 N 行明细（每行触发一次总额维护，增量维护为 O(n)）。
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PurchaseOrder addItems() {
+        PurchaseOrder order = PurchaseOrder.createDraft(1L, "bench");
+        for (int i = 0; i < lines; i++) {
+            order.addItem((long) i, 1000, unitPrice);
+        }
+        return order;
+    }
+
+    /**
+     * 对照组：改造前每次 addItem 后重新遍历全部明细求和（每行再创建两个临时 Money），O(n²)。
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Money addItemsLegacyTotal() {
+        PurchaseOrder order = PurchaseOrder.createDraft(1L, "bench");
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            order.addItem((long) i, 1000, unitPrice);
+            total = order.getItems().stream()
+                    .map(item -> item.getUnitPrice()
+                            .add(Money.of(String.valueOf(item.getQuantity() - 1))
+                                    .subtract(Money.of(String.valueOf(item.getQuantity() - 1)))))
+                    .reduce(Money.ZERO, Money::add);
+        }
+        return total;
+    }
+
+    /**
+     * 扫码收货：目标是最后一行的 SKU（按行查找的最坏情况）。
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public PurchaseOrder receiveItem() {
+        if (snCursor == SN_POOL) {
+            prepareOrder();
+        }
+        receivingOrder.receiveItem((long) (lines - 1), snCodes[snCursor++]);
+        return receivingOrder;
+    }
+
+    private PurchaseOrder approvedOrder() {
+        PurchaseOrder order = PurchaseOrder.createDraft(1L, "bench");
+        for (int i = 0; i < lines; i++) {
+            order.addItem((long) i, SN_POOL, unitPrice);
+        }
+        order.submit();
+        order.approve();
+        return order;
+    }
+}
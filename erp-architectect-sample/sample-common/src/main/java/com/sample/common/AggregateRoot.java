@@ -14,12 +14,20 @@ import java.util.List;
  * 2. 事件不会立即发送，而是先暂存在聚合根内部
  * 3. 应用服务（Application Service）在提交事务后，统一取出事件并发布
  * 4. 这保证了"先持久化，后发事件"的一致性
+ *
+ * 乐观并发控制：
+ * - version 是聚合根在存储中的版本号，0 表示尚未持久化
+ * - Repository 的 save 是"比较并交换"：存储中的版本与聚合根的版本一致才写入，写入后版本加一；
+ *   不一致说明加载之后有人抢先保存过，抛出 VersionConflictException，由调用方重新执行整个用例
  */
 public abstract class AggregateRoot {
 
     /** 暂存的领域事件列表 */
     private final List<DomainEvent> domainEvents = new ArrayList<>();
 
+    /** 乐观锁版本号，只由 Repository 维护 */
+    private long version;
+
     /**
      * 注册一个领域事件（由聚合根的业务方法调用）。
      * 事件不会立即发送，而是等应用服务统一处理。
@@ -42,4 +50,21 @@ public abstract class AggregateRoot {
     public void clearDomainEvents() {
         this.domainEvents.clear();
     }
+
+    /**
+     * 加载时的存储版本号（0 表示尚未持久化）。
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 回填存储版本号（仅由 Repository 实现在加载或保存成功后调用）。
+     */
+    public void assignVersion(long version) {
+        if (version < 0) {
+            throw new IllegalArgumentException("版本号不能为负数: " + version);
+        }
+        this.version = version;
+    }
 }
@@ -23,6 +23,17 @@ public abstract class DomainEvent {
         this.occurredAt = LocalDateTime.now();
     }
 
+    /**
+     * 重建已发生的事件（反序列化使用），保留原始发生时间。
+     */
+    protected DomainEvent(String aggregateId, LocalDateTime occurredAt) {
+        if (occurredAt == null) {
+            throw new IllegalArgumentException("事件发生时间不能为空");
+        }
+        this.aggregateId = aggregateId;
+        this.occurredAt = occurredAt;
+    }
+
     public LocalDateTime getOccurredAt() {
         return occurredAt;
     }
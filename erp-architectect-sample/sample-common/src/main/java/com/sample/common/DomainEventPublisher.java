@@ -0,0 +1,25 @@
+package com.sample.common;
+
+import java.util.List;
+
+/**
+ * === 设计要点 ===
+ * 领域事件发布端口：定义在 common，由基础设施实现（MQ、进程内总线等）。
+ *
+ * 应用服务不直接调用它，而是通过 Outbox 先把事件可靠地落盘，
+ * 再由后台 Relay 调用 publish，保证"先持久化，后发事件"。
+ */
+public interface DomainEventPublisher {
+
+    void publish(DomainEvent event);
+
+    /**
+     * 批量发布。默认逐个发布，支持批量发送的实现（如 MQ 批量 API）应覆盖此方法。
+     * 任何一个事件发布失败都应抛出异常，调用方会整批重试（至少一次语义）。
+     */
+    default void publishAll(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            publish(event);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sample.common.cache;
+
+import com.sample.common.AggregateRoot;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * 写缓存背后的存储：由各模块的缓存仓储把自己的底层仓储适配进来。
+ *
+ * write / writeAll 遵循仓储的比较并交换语义：成功写入的聚合根版本号加一并回填，
+ * 失败的保持原版本号 —— 缓存据此判断一次批量写入中哪些记录已经生效。
+ */
+public interface BackingStore<ID, T extends AggregateRoot> {
+
+    /** 聚合根的标识，尚未持久化时为 null */
+    ID idOf(T aggregate);
+
+    /** 复制聚合根的持久化状态（含版本号） */
+    T copyOf(T aggregate);
+
+    Optional<T> load(ID id);
+
+    void write(T aggregate);
+
+    void writeAll(Collection<T> aggregates);
+}
@@ -0,0 +1,667 @@
+package com.sample.common.cache;
+
+import com.sample.common.AggregateRoot;
+import com.sample.common.concurrency.VersionConflictException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * === 设计要点 ===
+ * 聚合根写缓存：读取走内存，保存在刷新窗口内合并、按批写入底层存储。
+ *
+ * 场景：一台设备在几秒内依次 startInspection → passInspection → lockForOrder，
+ * 每一步都同步保存同一行；有了写缓存，窗口内的多次保存只写入最后一个状态。
+ *
+ * 版本号：缓存是这些聚合根的唯一写入者
+ * - 每条缓存记录有两个版本号：对外的缓存版本（每次 save 加一）与底层存储中的版本
+ * - save() 的比较并交换在缓存内完成，与仓储的语义一致（不一致抛出 VersionConflictException）
+ * - 刷新时把快照的版本号换成存储版本再写入，存储照常做比较并交换
+ * - 绕过缓存直接写底层存储会在刷新时冲突：冲突的记录被丢弃并计数，下次读取从存储重新加载
+ *
+ * 新建的聚合根（尚无 ID 或版本号为 0，即从未保存过）一律同步写入，此后的修改才进入缓存。
+ *
+ * 刷新：
+ * 1. 脏记录进入队列（每条记录最多排队一次），由单个刷新者按 batchSize 分批取出
+ * 2. 一批快照一次 writeAll；失败时按版本号是否前进区分已生效的记录，其余逐条重试以隔离失败
+ * 3. 逐条失败：版本冲突或存储拒绝（IllegalStateException）→ 丢弃该记录；其他异常 → 保留，下个周期重试
+ *    回写模式下被丢弃的是调用方已经返回的保存，所以存储的约束要由使用方在 save() 之前校验
+ *    （例如 WriteBehindInventoryItemRepository 先检查 SN 唯一），刷新时只剩绕过缓存造成的版本冲突会丢弃
+ * 4. 刷新期间的新保存不受影响：记录刷新时捕获的缓存版本，写入后仍比它新的记录继续保持脏状态
+ * 5. 组提交的 save() 最多等待 commitTimeout：超时抛出 IllegalStateException，cause 是这条记录最近一次写入失败的异常
+ *
+ * 内存上限：记录数超过 maxEntries 时，按最近访问时间淘汰已落盘的记录，一次淘汰到上限的 7/8；
+ * 脏记录不淘汰，超出上限时由保存者同步刷新（背压）。
+ * 淘汰与加载之间的竞态用淘汰计数检测：加载期间发生过淘汰（或丢弃）则重新加载，避免缓存旧状态。
+ *
+ * 持久性见 WriteDurability；三种模式共用同一套读取与淘汰逻辑。
+ */
+public class WriteBehindCache<ID, T extends AggregateRoot> implements AutoCloseable {
+
+    private final String aggregateType;
+    private final BackingStore<ID, T> store;
+    private final WriteBehindPolicy policy;
+
+    private final ConcurrentHashMap<ID, Entry<ID, T>> entries;
+    private final ConcurrentLinkedQueue<Entry<ID, T>> dirtyQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    /** 淘汰与丢弃的次数，加载时据此判断读到的状态是否可能已过期 */
+    private final AtomicLong evictionEpoch = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param aggregateType 聚合根类型名，用于冲突异常的消息
+     */
+    public WriteBehindCache(String aggregateType, BackingStore<ID, T> store, WriteBehindPolicy policy) {
+        this.aggregateType = Objects.requireNonNull(aggregateType, "聚合根类型不能为空");
+        this.store = Objects.requireNonNull(store, "底层存储不能为空");
+        this.policy = Objects.requireNonNull(policy, "缓存配置不能为空");
+        this.entries = new ConcurrentHashMap<>(Math.min(policy.getMaxEntries(), 1 << 20));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "write-behind-" + aggregateType);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = policy.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, millis, Math.max(1L, millis), TimeUnit.MILLISECONDS);
+    }
+
+    // ========== 读取 ==========
+
+    /**
+     * 聚合根的最新状态（副本）；未缓存时从底层存储加载并缓存。
+     */
+    public Optional<T> get(ID id) {
+        while (true) {
+            Entry<ID, T> entry = entryFor(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                entry.lastAccess = System.nanoTime();
+                return Optional.of(store.copyOf(entry.state));
+            }
+        }
+    }
+
+    /**
+     * 已缓存时返回最新状态（副本），不访问底层存储。
+     */
+    public Optional<T> peek(ID id) {
+        Entry<ID, T> entry = entries.get(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            return entry.removed ? Optional.empty() : Optional.of(store.copyOf(entry.state));
+        }
+    }
+
+    /**
+     * 是否有尚未写入底层存储的保存。
+     */
+    public boolean isDirty(ID id) {
+        Entry<ID, T> entry = entries.get(id);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            return !entry.removed && entry.isDirty();
+        }
+    }
+
+    /**
+     * 所有脏记录的最新状态（副本）。底层存储的查询结果需要用它们覆盖，才能看到尚未刷新的保存。
+     */
+    public List<T> dirtySnapshots() {
+        List<T> result = new ArrayList<>();
+        for (Entry<ID, T> entry : entries.values()) {
+            synchronized (entry) {
+                if (!entry.removed && entry.isDirty()) {
+                    result.add(store.copyOf(entry.state));
+                }
+            }
+        }
+        return result;
+    }
+
+    // ========== 保存 ==========
+
+    /**
+     * 保存聚合根：比较并交换语义，成功后版本号加一并回填。
+     * 返回时的持久性由 WriteDurability 决定。
+     */
+    public void save(T aggregate) {
+        Objects.requireNonNull(aggregate, aggregateType + "不能为空");
+        ensureOpen();
+        ID id = store.idOf(aggregate);
+        if (isNew(aggregate)) {
+            insert(aggregate);
+            return;
+        }
+        while (true) {
+            Entry<ID, T> entry = entryFor(id);
+            if (entry == null) {
+                // 带着外部指定的 ID、存储中尚不存在：按新建处理
+                insert(aggregate);
+                return;
+            }
+            long version;
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                if (aggregate.getVersion() != entry.version) {
+                    throw new VersionConflictException(aggregateType, id, aggregate.getVersion(), entry.version);
+                }
+                if (policy.getDurability() == WriteDurability.WRITE_THROUGH) {
+                    writeThrough(entry, aggregate);
+                    return;
+                }
+                boolean wasClean = !entry.isDirty();
+                version = entry.version + 1;
+                entry.state = snapshotOf(aggregate, version);
+                entry.version = version;
+                entry.lastAccess = System.nanoTime();
+                aggregate.assignVersion(version);
+                if (wasClean) {
+                    dirtyCount.incrementAndGet();
+                }
+                if (!entry.queued) {
+                    entry.queued = true;
+                    dirtyQueue.offer(entry);
+                }
+            }
+            saves.increment();
+            afterSave();
+            if (policy.getDurability() == WriteDurability.GROUP_COMMIT) {
+                awaitFlushed(entry, version);
+            }
+            return;
+        }
+    }
+
+    /**
+     * 批量保存：新建的聚合根合并为一次同步写入，已有的逐条进入缓存。
+     */
+    public void saveAll(Collection<T> aggregates) {
+        ensureOpen();
+        List<T> created = new ArrayList<>();
+        List<T> updated = new ArrayList<>();
+        for (T aggregate : aggregates) {
+            (isNew(aggregate) ? created : updated).add(aggregate);
+        }
+        if (!created.isEmpty()) {
+            long[] before = versionsOf(created);
+            try {
+                store.writeAll(created);
+            } finally {
+                for (int i = 0; i < created.size(); i++) {
+                    T aggregate = created.get(i);
+                    if (aggregate.getVersion() != before[i]) {
+                        admit(aggregate);
+                    }
+                }
+            }
+        }
+        for (T aggregate : updated) {
+            save(aggregate);
+        }
+    }
+
+    // ========== 刷新 ==========
+
+    /**
+     * 把当前所有脏记录写入底层存储（调用期间新产生的保存留给下一次刷新）。
+     *
+     * @return 本次写入的记录数
+     */
+    public synchronized int flush() {
+        int written = 0;
+        int budget = dirtyQueue.size();
+        List<Entry<ID, T>> batch = new ArrayList<>(policy.getBatchSize());
+        while (budget > 0) {
+            batch.clear();
+            while (budget > 0 && batch.size() < policy.getBatchSize()) {
+                Entry<ID, T> entry = dirtyQueue.poll();
+                if (entry == null) {
+                    budget = 0;
+                    break;
+                }
+                budget--;
+                synchronized (entry) {
+                    entry.queued = false;
+                }
+                batch.add(entry);
+            }
+            written += writeBatch(batch);
+        }
+        evictIfNeeded();
+        return written;
+    }
+
+    /**
+     * 只刷新一条记录。用于底层存储的其他约束依赖这条记录的最新状态时（例如释放 SN 唯一索引）。
+     *
+     * @return 是否写入了底层存储
+     */
+    public synchronized boolean flush(ID id) {
+        Entry<ID, T> entry = entries.get(id);
+        return entry != null && writeBatch(List.of(entry)) > 0;
+    }
+
+    /**
+     * 刷新全部脏记录并停止后台线程。之后的保存会被拒绝。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (dirtyCount.get() > 0 && flush() > 0) {
+            // 直到没有可写入的记录（写入失败的记录保留在缓存中，由 getDirtyCount() 反映）
+        }
+    }
+
+    // ========== 统计 ==========
+
+    /** 已缓存的聚合根数 */
+    public int size() {
+        return entries.size();
+    }
+
+    /** 尚未写入底层存储的聚合根数 */
+    public int getDirtyCount() {
+        return dirtyCount.get();
+    }
+
+    /** 进入缓存的保存次数（不含直写与新建） */
+    public long getSaveCount() {
+        return saves.sum();
+    }
+
+    /** 写入底层存储的记录数（save 次数与它之差即被合并掉的写入） */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    /** 批量写入次数 */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /** 因版本冲突或存储拒绝而被丢弃的记录数（回写模式下即丢失的写入） */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public WriteBehindPolicy getPolicy() {
+        return policy;
+    }
+
+    // ========== 私有方法：加载与新建 ==========
+
+    /**
+     * 取得缓存记录，未缓存时加载；存储中不存在返回 null。
+     */
+    private Entry<ID, T> entryFor(ID id) {
+        while (true) {
+            Entry<ID, T> entry = entries.get(id);
+            if (entry != null) {
+                return entry;
+            }
+            long epoch = evictionEpoch.get();
+            Optional<T> loaded = store.load(id);
+            if (loaded.isEmpty()) {
+                return null;
+            }
+            if (evictionEpoch.get() != epoch) {
+                // 加载期间有记录被淘汰，读到的可能是淘汰之前的旧状态
+                continue;
+            }
+            Entry<ID, T> created = new Entry<>(id, loaded.get());
+            Entry<ID, T> raced = entries.putIfAbsent(id, created);
+            if (raced == null) {
+                ensureCapacity();
+                return created;
+            }
+            return raced;
+        }
+    }
+
+    /**
+     * 从未保存过：没有 ID（由存储分配），或工厂方法已生成 ID 但版本号仍为 0。
+     */
+    private boolean isNew(T aggregate) {
+        return store.idOf(aggregate) == null || aggregate.getVersion() == 0L;
+    }
+
+    private void insert(T aggregate) {
+        store.write(aggregate);
+        writes.increment();
+        admit(aggregate);
+    }
+
+    /**
+     * 缓存一个刚写入底层存储的聚合根。
+     */
+    private void admit(T aggregate) {
+        entries.put(store.idOf(aggregate), new Entry<>(store.idOf(aggregate), store.copyOf(aggregate)));
+        ensureCapacity();
+    }
+
+    /**
+     * 直写（在记录的监视器内调用）：同一聚合根的写入按顺序到达存储。
+     */
+    private void writeThrough(Entry<ID, T> entry, T aggregate) {
+        T snapshot = snapshotOf(aggregate, entry.persistedVersion);
+        try {
+            store.write(snapshot);
+        } catch (VersionConflictException e) {
+            // 存储已被绕过缓存修改：失效这条记录，调用方重试时重新加载
+            entry.removed = true;
+            evictionEpoch.incrementAndGet();
+            entries.remove(entry.id, entry);
+            throw e;
+        }
+        writes.increment();
+        long version = entry.version + 1;
+        entry.persistedVersion = snapshot.getVersion();
+        entry.state = snapshotOf(aggregate, version);
+        entry.version = version;
+        entry.flushedVersion = version;
+        entry.lastAccess = System.nanoTime();
+        aggregate.assignVersion(version);
+    }
+
+    // ========== 私有方法：刷新 ==========
+
+    /**
+     * 写入一批记录（持有刷新锁时调用）。
+     */
+    private int writeBatch(List<Entry<ID, T>> batch) {
+        List<Entry<ID, T>> pending = new ArrayList<>(batch.size());
+        List<T> snapshots = new ArrayList<>(batch.size());
+        List<Long> captured = new ArrayList<>(batch.size());
+        for (Entry<ID, T> entry : batch) {
+            synchronized (entry) {
+                if (entry.removed || !entry.isDirty()) {
+                    continue;
+                }
+                pending.add(entry);
+                snapshots.add(snapshotOf(entry.state, entry.persistedVersion));
+                captured.add(entry.version);
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        long[] before = versionsOf(snapshots);
+        RuntimeException failure = null;
+        try {
+            if (snapshots.size() == 1) {
+                store.write(snapshots.get(0));
+            } else {
+                store.writeAll(snapshots);
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        batches.increment();
+
+        int written = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            Entry<ID, T> entry = pending.get(i);
+            T snapshot = snapshots.get(i);
+            if (failure == null || snapshot.getVersion() != before[i]) {
+                complete(entry, captured.get(i), snapshot.getVersion());
+                written++;
+                continue;
+            }
+            // 批量写入失败且这条未生效：单独重试，隔离出真正失败的记录
+            try {
+                store.write(snapshot);
+                complete(entry, captured.get(i), snapshot.getVersion());
+                written++;
+            } catch (VersionConflictException | IllegalStateException e) {
+                drop(entry, e);
+            } catch (RuntimeException e) {
+                requeue(entry, e);
+            }
+        }
+        writes.add(written);
+        return written;
+    }
+
+    private void complete(Entry<ID, T> entry, long flushedVersion, long persistedVersion) {
+        synchronized (entry) {
+            entry.persistedVersion = persistedVersion;
+            entry.flushedVersion = flushedVersion;
+            entry.failure = null;
+            if (!entry.isDirty()) {
+                dirtyCount.decrementAndGet();
+            }
+            entry.notifyAll();
+        }
+    }
+
+    private void drop(Entry<ID, T> entry, RuntimeException failure) {
+        synchronized (entry) {
+            if (entry.isDirty()) {
+                dirtyCount.decrementAndGet();
+            }
+            entry.removed = true;
+            entry.failure = failure;
+            entry.notifyAll();
+        }
+        evictionEpoch.incrementAndGet();
+        entries.remove(entry.id, entry);
+        dropped.increment();
+    }
+
+    private void requeue(Entry<ID, T> entry, RuntimeException failure) {
+        synchronized (entry) {
+            entry.failure = failure;
+            if (!entry.queued) {
+                entry.queued = true;
+                dirtyQueue.offer(entry);
+            }
+        }
+    }
+
+    /**
+     * 组提交：等待包含 version 的批次写入完成，最多等待 commitTimeout。
+     */
+    private void awaitFlushed(Entry<ID, T> entry, long version) {
+        long deadline = System.nanoTime() + policy.getCommitTimeout().toNanos();
+        synchronized (entry) {
+            while (entry.flushedVersion < version) {
+                if (entry.removed) {
+                    throw entry.failure != null
+                            ? entry.failure
+                            : new IllegalStateException(aggregateType + " [" + entry.id + "] 的写入未能提交");
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    throw new IllegalStateException("等待" + aggregateType + " [" + entry.id + "] 写入超时（"
+                            + policy.getCommitTimeout() + "），写入仍在缓存中重试，可能稍后生效", entry.failure);
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(entry, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("等待" + aggregateType + "写入时被中断，写入可能稍后生效", e);
+                }
+            }
+        }
+    }
+
+    private void afterSave() {
+        if (policy.getDurability() == WriteDurability.GROUP_COMMIT
+                || dirtyCount.get() >= policy.getBatchSize()) {
+            requestFlush();
+        }
+        ensureCapacity();
+    }
+
+    /**
+     * 请求后台立即刷新一次；已有未执行的请求时不重复提交。
+     */
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    flushRequested.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // 正在关闭：close() 会刷新剩余的脏记录
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * 后台任务：异常不能逃逸，否则 ScheduledExecutorService 会取消后续调度。
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // 写入失败的记录已重新排队，下个周期重试
+        }
+    }
+
+    // ========== 私有方法：容量 ==========
+
+    /**
+     * 超出容量时由调用者同步刷新并淘汰（在任何记录的监视器之外调用）。
+     */
+    private void ensureCapacity() {
+        if (entries.size() > policy.getMaxEntries()) {
+            flush();
+        }
+    }
+
+    /**
+     * 淘汰最久未访问的已落盘记录，直到记录数降到上限的 7/8（持有刷新锁时调用）。
+     */
+    private void evictIfNeeded() {
+        int limit = policy.getMaxEntries();
+        if (entries.size() <= limit) {
+            return;
+        }
+        int target = limit - limit / 8;
+        List<Entry<ID, T>> candidates = new ArrayList<>();
+        for (Entry<ID, T> entry : entries.values()) {
+            if (!entry.queued) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+        for (Entry<ID, T> entry : candidates) {
+            if (entries.size() <= target) {
+                break;
+            }
+            synchronized (entry) {
+                if (entry.removed || entry.isDirty()) {
+                    continue;
+                }
+                entry.removed = true;
+            }
+            evictionEpoch.incrementAndGet();
+            entries.remove(entry.id, entry);
+            evictions.increment();
+        }
+    }
+
+    // ========== 私有方法：工具 ==========
+
+    private T snapshotOf(T aggregate, long version) {
+        T snapshot = store.copyOf(aggregate);
+        snapshot.assignVersion(version);
+        return snapshot;
+    }
+
+    private static long[] versionsOf(List<? extends AggregateRoot> aggregates) {
+        long[] versions = new long[aggregates.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = aggregates.get(i).getVersion();
+        }
+        return versions;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException(aggregateType + "写缓存已关闭");
+        }
+    }
+
+    /**
+     * 一个聚合根的缓存记录；除 id 外的字段都在记录的监视器内读写。
+     */
+    private static final class Entry<ID, T extends AggregateRoot> {
+        final ID id;
+        /** 最新状态（版本号为缓存版本），从不直接交给调用方 */
+        T state;
+        /** 缓存版本：每次保存加一 */
+        long version;
+        /** 底层存储中的版本 */
+        long persistedVersion;
+        /** 已写入底层存储的缓存版本 */
+        long flushedVersion;
+        boolean queued;
+        boolean removed;
+        /** 丢弃的原因；未丢弃时为最近一次写入失败（成功写入后清空） */
+        RuntimeException failure;
+        /** 最近访问时间，淘汰时无锁读取，允许略有滞后 */
+        volatile long lastAccess;
+
+        Entry(ID id, T persisted) {
+            this.id = id;
+            this.state = persisted;
+            this.version = persisted.getVersion();
+            this.persistedVersion = persisted.getVersion();
+            this.flushedVersion = persisted.getVersion();
+            this.lastAccess = System.nanoTime();
+        }
+
+        boolean isDirty() {
+            return version != flushedVersion;
+        }
+    }
+}
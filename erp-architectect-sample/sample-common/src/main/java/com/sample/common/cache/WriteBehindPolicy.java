@@ -0,0 +1,106 @@
+package com.sample.common.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 写缓存的配置：持久性等级、容量上限、批次大小与刷新窗口。
+ */
+public final class WriteBehindPolicy {
+
+    /** 组提交模式下的后台重试周期（写入失败的批次在下个周期重试） */
+    private static final Duration GROUP_COMMIT_RETRY = Duration.ofMillis(100);
+
+    /** 组提交模式下 save() 等待落盘的默认上限 */
+    public static final Duration DEFAULT_COMMIT_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WriteDurability durability;
+    private final int maxEntries;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration commitTimeout;
+
+    private WriteBehindPolicy(WriteDurability durability, int maxEntries, int batchSize, Duration flushInterval,
+                              Duration commitTimeout) {
+        Objects.requireNonNull(durability, "持久性等级不能为空");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于零: " + maxEntries);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批次大小必须大于零: " + batchSize);
+        }
+        if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("刷新窗口必须大于零: " + flushInterval);
+        }
+        if (commitTimeout == null || commitTimeout.isNegative() || commitTimeout.isZero()) {
+            throw new IllegalArgumentException("提交等待上限必须大于零: " + commitTimeout);
+        }
+        this.durability = durability;
+        this.maxEntries = maxEntries;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.commitTimeout = commitTimeout;
+    }
+
+    /**
+     * 直写：只缓存读取。
+     */
+    public static WriteBehindPolicy writeThrough(int maxEntries) {
+        return new WriteBehindPolicy(WriteDurability.WRITE_THROUGH, maxEntries, 1, GROUP_COMMIT_RETRY,
+                DEFAULT_COMMIT_TIMEOUT);
+    }
+
+    /**
+     * 组提交：保存等待所在批次落盘，每批最多 batchSize 条，最多等待 DEFAULT_COMMIT_TIMEOUT。
+     */
+    public static WriteBehindPolicy groupCommit(int maxEntries, int batchSize) {
+        return groupCommit(maxEntries, batchSize, DEFAULT_COMMIT_TIMEOUT);
+    }
+
+    /**
+     * 组提交：底层存储持续失败时，save() 等待 commitTimeout 后抛出异常，而不是一直阻塞。
+     */
+    public static WriteBehindPolicy groupCommit(int maxEntries, int batchSize, Duration commitTimeout) {
+        return new WriteBehindPolicy(WriteDurability.GROUP_COMMIT, maxEntries, batchSize, GROUP_COMMIT_RETRY,
+                commitTimeout);
+    }
+
+    /**
+     * 回写：每隔 flushWindow 批量写入一次；脏记录攒满 batchSize 条时提前刷新。
+     */
+    public static WriteBehindPolicy writeBehind(int maxEntries, int batchSize, Duration flushWindow) {
+        return new WriteBehindPolicy(WriteDurability.WRITE_BEHIND, maxEntries, batchSize, flushWindow,
+                DEFAULT_COMMIT_TIMEOUT);
+    }
+
+    public WriteDurability getDurability() {
+        return durability;
+    }
+
+    /** 缓存的聚合根数量上限，超出后淘汰最久未访问的已落盘记录 */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /** 一次批量写入的最大条数 */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /** 后台刷新周期：回写模式下即可能丢失的最大时间窗口 */
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    /** 组提交模式下 save() 等待所在批次落盘的上限，其他模式不使用 */
+    public Duration getCommitTimeout() {
+        return commitTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindPolicy[" + durability + " maxEntries=" + maxEntries
+                + " batchSize=" + batchSize + " flushInterval=" + flushInterval
+                + (durability == WriteDurability.GROUP_COMMIT ? " commitTimeout=" + commitTimeout : "") + "]";
+    }
+}
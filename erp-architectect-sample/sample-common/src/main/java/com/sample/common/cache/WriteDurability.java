@@ -0,0 +1,30 @@
+package com.sample.common.cache;
+
+/**
+ * 写缓存的持久性等级：save() 返回时，写入落到了哪里。
+ */
+public enum WriteDurability {
+
+    /**
+     * 直写：save() 同步写入底层存储后返回，不合并。
+     * 缓存只加速读取，进程崩溃不丢失任何已返回的写入。
+     */
+    WRITE_THROUGH,
+
+    /**
+     * 组提交：save() 等到包含本次写入的批次写入底层存储后才返回。
+     * 并发的保存在同一批次中一起写入，同一聚合根在批次形成前的多次保存合并为一次写入；
+     * 进程崩溃不丢失任何已返回的写入，代价是每次保存要等一个批次的写入延迟。
+     * 底层存储持续失败时最多等待 commitTimeout，超时抛出异常（附最近一次写入失败的原因），
+     * 写入仍留在缓存中继续重试，之后可能生效。
+     */
+    GROUP_COMMIT,
+
+    /**
+     * 回写：save() 只更新缓存即返回，后台每个刷新窗口批量写入一次。
+     * 窗口内对同一聚合根的多次保存只写入最后一次；
+     * 进程崩溃会丢失最近一个窗口内已返回的写入，只适合可以从上游重放的数据。
+     * 已返回的保存在刷新时不应再被存储拒绝：存储的约束（如 SN 唯一）由仓储在 save() 时先行校验。
+     */
+    WRITE_BEHIND
+}
@@ -0,0 +1,47 @@
+package com.sample.common.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * === 设计要点 ===
+ * 手写二进制编解码器：把一个对象直接写入 / 读出 ByteBuffer，不经过反射、不产生中间对象。
+ *
+ * 编码格式：
+ * <pre>
+ * | schemaVersion: byte | body（由各实现定义，字段编码见 WireFormat） |
+ * </pre>
+ * - 每个编码值都以自己的格式版本号开头，解码时把版本号交给 decodeBody，
+ *   新版本的解码器据此兼容旧数据（缺少的字段取默认值）
+ * - 版本号为 0 或高于当前版本的数据（由更新的代码写入）一律拒绝，不猜测格式
+ *
+ * 读写都使用 buffer 的相对位置：encode 之后 position 停在值的末尾，多个值可以首尾相接地写入同一个 buffer。
+ * 空间不足时抛出 BufferOverflowException，buffer 的 position 处于写了一半的位置，调用方应整体重写。
+ */
+public interface BinaryCodec<T> {
+
+    /** 当前的格式版本号（1–255） */
+    int schemaVersion();
+
+    void encodeBody(T value, ByteBuffer buffer);
+
+    /**
+     * @param schemaVersion 数据写入时的格式版本号，不高于 schemaVersion()
+     */
+    T decodeBody(ByteBuffer buffer, int schemaVersion);
+
+    default void encode(T value, ByteBuffer buffer) {
+        buffer.put((byte) schemaVersion());
+        encodeBody(value, buffer);
+    }
+
+    /**
+     * @throws IllegalStateException 版本号不受支持
+     */
+    default T decode(ByteBuffer buffer) {
+        int version = buffer.get() & 0xFF;
+        if (version == 0 || version > schemaVersion()) {
+            throw new IllegalStateException("不支持的编码版本: " + version + "（当前最高版本 " + schemaVersion() + "）");
+        }
+        return decodeBody(buffer, version);
+    }
+}
@@ -0,0 +1,135 @@
+package com.sample.common.codec;
+
+import com.sample.common.DomainEvent;
+import com.sample.common.outbox.EventSerializer;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * === 设计要点 ===
+ * 领域事件的二进制序列化器：按事件类型分派到各上下文注册的 BinaryCodec。
+ *
+ * 编码格式：
+ * <pre>
+ * | typeTag: varint | schemaVersion: byte | body |
+ * </pre>
+ * - typeTag 由注册方分配，写入后不可更改、不可复用（日志中的旧事件仍按它解码）；
+ *   各上下文使用不重叠的区段：库存 1–31，采购 32–63
+ * - 事件类名不进入编码：重命名、挪包都不影响已写入的数据
+ *
+ * 与 Outbox 配合：实现 EventSerializer，可直接交给 JournalOutbox / OutboxRelay。
+ * serialize() 先写入线程本地的缓冲区再按实际长度复制出 byte[]，缓冲区不够时加倍重写；
+ * 已经持有 ByteBuffer 的调用方（批量写日志、网络发送）使用 encode() / decode()，不产生 byte[]。
+ *
+ * 注册应在启动阶段完成；注册表是并发安全的，之后的编解码只做一次哈希查找。
+ */
+public class DomainEventCodec implements EventSerializer {
+
+    private static final int INITIAL_BUFFER_SIZE = 1 << 10;
+    private static final int MAX_BUFFER_SIZE = 1 << 26;
+
+    private final ConcurrentHashMap<Class<?>, Registration<?>> byType = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Registration<?>> byTag = new ConcurrentHashMap<>();
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    /**
+     * 注册一种事件的编解码器。
+     *
+     * @throws IllegalStateException 类型或标签已被注册
+     */
+    public <E extends DomainEvent> DomainEventCodec register(int typeTag, Class<E> type, BinaryCodec<E> codec) {
+        if (typeTag <= 0) {
+            throw new IllegalArgumentException("事件类型标签必须大于零: " + typeTag);
+        }
+        Objects.requireNonNull(type, "事件类型不能为空");
+        Objects.requireNonNull(codec, "编解码器不能为空");
+        Registration<E> registration = new Registration<>(typeTag, type, codec);
+        Registration<?> existing = byTag.putIfAbsent(typeTag, registration);
+        if (existing != null) {
+            throw new IllegalStateException("事件类型标签 " + typeTag + " 已被 " + existing.type.getSimpleName() + " 使用");
+        }
+        if (byType.putIfAbsent(type, registration) != null) {
+            byTag.remove(typeTag, registration);
+            throw new IllegalStateException("事件类型已注册: " + type.getSimpleName());
+        }
+        return this;
+    }
+
+    // ========== ByteBuffer ==========
+
+    /**
+     * @throws IllegalArgumentException 事件类型未注册
+     */
+    public void encode(DomainEvent event, ByteBuffer buffer) {
+        Registration<?> registration = byType.get(event.getClass());
+        if (registration == null) {
+            throw new IllegalArgumentException("未注册的事件类型: " + event.getClass().getName());
+        }
+        WireFormat.putVarInt(buffer, registration.typeTag);
+        registration.encode(event, buffer);
+    }
+
+    /**
+     * @throws IllegalStateException 标签未注册或版本不受支持
+     */
+    public DomainEvent decode(ByteBuffer buffer) {
+        int typeTag = WireFormat.getVarInt(buffer);
+        Registration<?> registration = byTag.get(typeTag);
+        if (registration == null) {
+            throw new IllegalStateException("未知的事件类型标签: " + typeTag);
+        }
+        return registration.codec.decode(buffer);
+    }
+
+    // ========== EventSerializer ==========
+
+    @Override
+    public byte[] serialize(DomainEvent event) {
+        ByteBuffer buffer = scratch.get();
+        while (true) {
+            buffer.clear();
+            try {
+                encode(event, buffer);
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (BufferOverflowException e) {
+                if (buffer.capacity() >= MAX_BUFFER_SIZE) {
+                    throw new IllegalArgumentException("事件编码后超过 " + MAX_BUFFER_SIZE + " 字节: " + event.getClass().getSimpleName(), e);
+                }
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                scratch.set(buffer);
+            }
+        }
+    }
+
+    @Override
+    public DomainEvent deserialize(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        DomainEvent event = decode(buffer);
+        if (buffer.hasRemaining()) {
+            throw new IllegalStateException("事件解码后剩余 " + buffer.remaining() + " 字节，数据与编解码器不匹配");
+        }
+        return event;
+    }
+
+    // ========== 内部类 ==========
+
+    private static final class Registration<E extends DomainEvent> {
+        final int typeTag;
+        final Class<E> type;
+        final BinaryCodec<E> codec;
+
+        Registration(int typeTag, Class<E> type, BinaryCodec<E> codec) {
+            this.typeTag = typeTag;
+            this.type = type;
+            this.codec = codec;
+        }
+
+        void encode(DomainEvent event, ByteBuffer buffer) {
+            codec.encode(type.cast(event), buffer);
+        }
+    }
+}
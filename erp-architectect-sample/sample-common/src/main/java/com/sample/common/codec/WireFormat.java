@@ -0,0 +1,227 @@
+package com.sample.common.codec;
+
+import com.sample.common.vo.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * === 设计要点 ===
+ * 二进制编码的字段格式（BinaryCodec 实现共用）。
+ *
+ * 1. varint：无符号 LEB128，每字节 7 位有效数据，最高位为 1 表示后面还有字节。
+ *    ID、版本号、数量这类小的非负整数只占 1–3 字节，而定长 long 总是 8 字节
+ * 2. 有符号 varint：先 zigzag（0, -1, 1, -2 … → 0, 1, 2, 3 …），绝对值小的负数同样很短
+ * 3. 金额：Money 的定点表示（分）按有符号 varint 写入，¥1999.00 = 199900 分 = 3 字节；
+ *    超出 long 范围的金额没有定点表示，编码时抛出 ArithmeticException
+ * 4. 字符串：varint(UTF-8 字节数 + 1) + UTF-8 字节，长度 0 表示 null；
+ *    编码时逐字符写入 buffer，不生成 byte[]
+ * 5. 时间：LocalDateTime 按 UTC 换算的秒数（有符号 varint）+ 纳秒（varint）
+ *
+ * 读取时 varint 超过 10 字节、字符串长度为负或超出剩余数据、枚举序号越界都视为数据损坏（IllegalStateException），
+ * 数据不足时抛出 BufferUnderflowException。
+ */
+public final class WireFormat {
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private WireFormat() {
+    }
+
+    // ========== 整数 ==========
+
+    public static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long getVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0, i = 0; i < MAX_VARINT_BYTES; i++, shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("varint 超过 " + MAX_VARINT_BYTES + " 字节，数据已损坏");
+    }
+
+    public static void putVarInt(ByteBuffer buffer, int value) {
+        putVarLong(buffer, value & 0xFFFFFFFFL);
+    }
+
+    public static int getVarInt(ByteBuffer buffer) {
+        long value = getVarLong(buffer);
+        if ((value >>> 32) != 0) {
+            throw new IllegalStateException("varint 超出 int 范围: " + value);
+        }
+        return (int) value;
+    }
+
+    public static void putSignedVarLong(ByteBuffer buffer, long value) {
+        putVarLong(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    public static long getSignedVarLong(ByteBuffer buffer) {
+        long encoded = getVarLong(buffer);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    // ========== 金额 ==========
+
+    /**
+     * @throws ArithmeticException 金额超出定点数范围
+     */
+    public static void putMoney(ByteBuffer buffer, Money money) {
+        putSignedVarLong(buffer, money.toCents());
+    }
+
+    public static Money getMoney(ByteBuffer buffer) {
+        return Money.ofCents(getSignedVarLong(buffer));
+    }
+
+    // ========== 字符串 ==========
+
+    public static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        int length = value.length();
+        int ascii = 0;
+        while (ascii < length && value.charAt(ascii) < 0x80) {
+            ascii++;
+        }
+        putVarInt(buffer, ascii == length ? length + 1 : utf8Length(value, ascii) + 1);
+        for (int i = 0; i < ascii; i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+        for (int i = ascii; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // 落单的代理字符与 String.getBytes(UTF_8) 一致，替换为 '?'
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * 堆内 buffer 直接在底层数组上解码；堆外 buffer 需要先复制到临时数组。
+     */
+    public static String getString(ByteBuffer buffer) {
+        int length = getBytesLength(buffer);
+        if (length < 0) {
+            return null;
+        }
+        int position = buffer.position();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(position + length);
+        return value;
+    }
+
+    /**
+     * 读取字符串的长度前缀，position 停在字节内容的开头；供需要直接解析字节的调用方使用（如 SN 编码）。
+     *
+     * @return UTF-8 字节数，-1 表示 null
+     */
+    public static int getBytesLength(ByteBuffer buffer) {
+        int length = getVarInt(buffer) - 1;
+        if (length < -1) {
+            throw new IllegalStateException("字符串长度前缀无效: " + length + "，数据已损坏");
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("字符串长度 " + length + " 超出剩余数据 " + buffer.remaining() + " 字节");
+        }
+        return length;
+    }
+
+    /**
+     * 读取集合的元素个数。每个元素至少占 1 字节，个数为负或超过剩余字节数说明数据已损坏。
+     */
+    public static int getCount(ByteBuffer buffer) {
+        int count = getVarInt(buffer);
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalStateException("元素个数无效: " + count + "，剩余 " + buffer.remaining() + " 字节，数据已损坏");
+        }
+        return count;
+    }
+
+    // ========== 枚举 ==========
+
+    /**
+     * 读取 1 字节的枚举序号，越界（数据损坏或由新增了枚举值的更新代码写入）时抛出 IllegalStateException。
+     */
+    public static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+        int ordinal = buffer.get() & 0xFF;
+        if (ordinal >= values.length) {
+            throw new IllegalStateException(values[0].getDeclaringClass().getSimpleName() + " 序号越界: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    // ========== 时间 ==========
+
+    public static void putTimestamp(ByteBuffer buffer, LocalDateTime time) {
+        putSignedVarLong(buffer, time.toEpochSecond(ZoneOffset.UTC));
+        putVarInt(buffer, time.getNano());
+    }
+
+    public static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        long epochSecond = getSignedVarLong(buffer);
+        return LocalDateTime.ofEpochSecond(epochSecond, getVarInt(buffer), ZoneOffset.UTC);
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * @param from 第一个非 ASCII 字符的下标，之前的字符各占 1 字节
+     */
+    private static int utf8Length(String value, int from) {
+        int length = value.length();
+        int utf8Length = length;
+        for (int i = from; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                utf8Length += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // 一对代理字符 = 2 个 char = 4 字节
+                utf8Length += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                utf8Length += 2;
+            }
+        }
+        return utf8Length;
+    }
+}
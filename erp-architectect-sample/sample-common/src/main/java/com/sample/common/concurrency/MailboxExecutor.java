@@ -0,0 +1,242 @@
+package com.sample.common.concurrency;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * === 设计要点 ===
+ * 按聚合根分信箱的命令执行器：同一个键的命令严格按提交顺序串行执行，不同键之间完全并行。
+ *
+ * 为什么需要？
+ * - 应用服务是同步方法，调用方要自带线程池，还要靠锁保证同一聚合根的命令不并发
+ * - 把命令投递到聚合根自己的信箱，串行化由信箱保证，不需要任何显式的锁；
+ *   进程内不再有同一聚合根的版本冲突，乐观锁只用来防住进程外的写入
+ *
+ * 结构：
+ * 1. 信箱 = 一个命令队列 + "是否已调度"标记，保存在 ConcurrentHashMap 中
+ * 2. 有命令到达空闲信箱时，把信箱作为一个任务提交给承载执行器；任务依次执行队列中的命令
+ * 3. 一次最多执行 throughput 条命令后重新排队，让出承载线程，热点聚合根不会饿死其他信箱
+ * 4. 队列取空后信箱从表中移除 —— 空闲聚合根不占用任何内存
+ *
+ * 投递与回收的竞态：二者都在 ConcurrentHashMap.compute() 内对同一个键做决定，按键互斥：
+ * 回收时发现队列非空就继续调度；回收之后到达的命令会建立新的信箱。
+ *
+ * 承载执行器：命令内部会访问仓储（阻塞 I/O），因此默认使用固定大小的平台线程池（withThreads）。
+ * 信箱本身不绑定线程，JDK 21 上可以直接传入 Executors.newVirtualThreadPerTaskExecutor()，
+ * 阻塞的命令只挂起虚拟线程；本工程面向 JDK 17，不依赖虚拟线程。
+ *
+ * 调用方拿到 CompletableFuture：命令的返回值或异常原样传递；承载执行器拒绝时，排队中的命令以该异常结束。
+ */
+public class MailboxExecutor<K> implements AutoCloseable {
+
+    private static final int DEFAULT_THROUGHPUT = 32;
+
+    private final Executor carrier;
+    private final ExecutorService ownedCarrier;
+    private final int throughput;
+    private final ConcurrentHashMap<K, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param carrier    承载执行器，由调用方管理生命周期
+     * @param throughput 信箱每次占用承载线程时最多执行的命令数
+     */
+    public MailboxExecutor(Executor carrier, int throughput) {
+        this(carrier, null, throughput);
+    }
+
+    private MailboxExecutor(Executor carrier, ExecutorService ownedCarrier, int throughput) {
+        if (throughput <= 0) {
+            throw new IllegalArgumentException("单次执行的命令数必须大于零: " + throughput);
+        }
+        this.carrier = Objects.requireNonNull(carrier, "承载执行器不能为空");
+        this.ownedCarrier = ownedCarrier;
+        this.throughput = throughput;
+    }
+
+    /**
+     * 使用自有的固定线程池作为承载执行器，close() 时一并关闭。
+     *
+     * @param threads 承载线程数；命令以阻塞 I/O 为主时应明显大于 CPU 核数
+     */
+    public static <K> MailboxExecutor<K> withThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须大于零: " + threads);
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "mailbox-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new MailboxExecutor<>(pool, pool, DEFAULT_THROUGHPUT);
+    }
+
+    // ========== 提交 ==========
+
+    /**
+     * 把命令投递到 key 的信箱，排在该键此前所有命令之后执行。
+     */
+    public <R> CompletableFuture<R> submit(K key, Supplier<R> command) {
+        Objects.requireNonNull(key, "信箱的键不能为空");
+        Objects.requireNonNull(command, "命令不能为空");
+        ensureOpen();
+        Envelope<R> envelope = new Envelope<>(command);
+
+        boolean[] schedule = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(key, (k, current) -> {
+            Mailbox target = current == null ? new Mailbox(k) : current;
+            target.queue.add(envelope);
+            if (!target.scheduled) {
+                target.scheduled = true;
+                schedule[0] = true;
+            }
+            return target;
+        });
+        if (schedule[0]) {
+            dispatch(mailbox);
+        }
+        return envelope.future;
+    }
+
+    /**
+     * 无返回值的命令。
+     */
+    public CompletableFuture<Void> execute(K key, Runnable command) {
+        Objects.requireNonNull(command, "命令不能为空");
+        return submit(key, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * 不属于任何已有聚合根的命令（如新建聚合根）：直接交给承载执行器，不排队。
+     */
+    public <R> CompletableFuture<R> submitUnordered(Supplier<R> command) {
+        Objects.requireNonNull(command, "命令不能为空");
+        ensureOpen();
+        return CompletableFuture.supplyAsync(command, carrier);
+    }
+
+    // ========== 统计与关闭 ==========
+
+    /** 当前有待执行命令的信箱数（空闲的信箱已被回收） */
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    /**
+     * 停止接受新命令；自有的承载线程池在已投递的命令执行完后关闭。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (ownedCarrier == null) {
+            return;
+        }
+        // 信箱会把自己重新提交给线程池：等到全部信箱取空后再关闭，否则排队中的命令会被拒绝
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!mailboxes.isEmpty() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        ownedCarrier.shutdown();
+        try {
+            ownedCarrier.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private void dispatch(Mailbox mailbox) {
+        try {
+            carrier.execute(mailbox);
+        } catch (RejectedExecutionException e) {
+            // 承载执行器已关闭：回收信箱，排队中的命令以异常结束
+            mailboxes.remove(mailbox.key, mailbox);
+            Envelope<?> envelope;
+            while ((envelope = mailbox.queue.poll()) != null) {
+                envelope.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("命令执行器已关闭");
+        }
+    }
+
+    /**
+     * 一个键的信箱：scheduled 只在 mailboxes.compute() 内读写。
+     */
+    private final class Mailbox implements Runnable {
+
+        final K key;
+        final ConcurrentLinkedQueue<Envelope<?>> queue = new ConcurrentLinkedQueue<>();
+        boolean scheduled;
+
+        Mailbox(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < throughput; i++) {
+                Envelope<?> envelope = queue.poll();
+                if (envelope == null) {
+                    break;
+                }
+                envelope.run();
+            }
+            boolean[] reschedule = new boolean[1];
+            mailboxes.compute(key, (k, current) -> {
+                if (current != this) {
+                    return current;
+                }
+                if (queue.isEmpty()) {
+                    scheduled = false;
+                    return null;
+                }
+                reschedule[0] = true;
+                return this;
+            });
+            if (reschedule[0]) {
+                dispatch(this);
+            }
+        }
+    }
+
+    /**
+     * 排队中的一条命令及其结果。
+     */
+    private static final class Envelope<R> {
+
+        final Supplier<R> command;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+
+        Envelope(Supplier<R> command) {
+            this.command = command;
+        }
+
+        void run() {
+            try {
+                future.complete(command.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
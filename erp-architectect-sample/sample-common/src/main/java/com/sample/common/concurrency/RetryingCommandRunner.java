@@ -0,0 +1,110 @@
+package com.sample.common.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * === 设计要点 ===
+ * 乐观并发的命令执行器：发生版本冲突时重新执行整个"加载 → 调用 → 保存"。
+ *
+ * 为什么重试整个命令，而不是只重试 save？
+ * - 冲突说明聚合根已经过期，必须基于最新状态重新执行业务方法
+ *   （例如两次并发的维修完成：第二次必须在第一次累加后的成本上再累加）
+ * - 因此传入的命令必须自己负责加载，不能捕获外部已加载的聚合根
+ *
+ * 退避策略：指数退避 + 全抖动（full jitter），上限封顶
+ * - 第 n 次重试前等待 random(0, min(maxBackoff, initialBackoff × 2^n))
+ * - 抖动让同时冲突的请求错开，避免下一轮再次撞在一起
+ *
+ * 无冲突时的开销只有一次 try/catch，不影响非争用场景的吞吐。
+ * 只重试 VersionConflictException；业务异常（非法状态转换等）立即抛出。
+ */
+public class RetryingCommandRunner {
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    /** 累计发生的冲突次数（含最终成功的重试），用于监控热点 */
+    private final LongAdder conflicts = new LongAdder();
+
+    /**
+     * @param maxAttempts    最多执行次数（含第一次），必须大于零
+     * @param initialBackoff 第一次重试前的退避上限
+     * @param maxBackoff     单次退避的封顶时长
+     */
+    public RetryingCommandRunner(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("最多执行次数必须大于零: " + maxAttempts);
+        }
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("退避时长非法: " + initialBackoff + " ~ " + maxBackoff);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * 默认策略：最多 5 次，退避从 1ms 起，单次不超过 50ms。
+     */
+    public static RetryingCommandRunner defaults() {
+        return new RetryingCommandRunner(5, Duration.ofMillis(1), Duration.ofMillis(50));
+    }
+
+    /**
+     * 执行有返回值的命令。
+     *
+     * @throws VersionConflictException 重试次数用尽仍然冲突
+     */
+    public <T> T call(Supplier<T> command) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return command.get();
+            } catch (VersionConflictException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * 执行无返回值的命令。
+     */
+    public void run(Runnable command) {
+        call(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    // ========== 私有方法 ==========
+
+    private void backoff(int attempt, VersionConflictException conflict) {
+        long ceiling = initialBackoffNanos << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoffNanos) {
+            ceiling = maxBackoffNanos;
+        }
+        if (ceiling > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            // 被中断时不再重试，保留中断标记并抛出本次冲突
+            throw conflict;
+        }
+    }
+}
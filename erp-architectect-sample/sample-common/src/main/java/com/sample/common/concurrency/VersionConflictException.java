@@ -0,0 +1,49 @@
+package com.sample.common.concurrency;
+
+/**
+ * === 设计要点 ===
+ * 乐观锁冲突：聚合根加载之后，存储中的版本已被其他人更新。
+ *
+ * 为什么是专用异常？
+ * 1. 冲突是可重试的 —— RetryingCommandRunner 只重试这一种异常，业务异常原样抛出
+ * 2. 携带聚合根类型、ID 与前后版本号，日志中可以直接定位热点聚合
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String aggregateType;
+    private final Object aggregateId;
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    public VersionConflictException(
+            String aggregateType,
+            Object aggregateId,
+            long expectedVersion,
+            long actualVersion) {
+        super(String.format(
+                "%s [%s] 已被并发修改：加载时版本 %d，当前版本 %d",
+                aggregateType, aggregateId, expectedVersion, actualVersion));
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public Object getAggregateId() {
+        return aggregateId;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getActualVersion() {
+        return actualVersion;
+    }
+}
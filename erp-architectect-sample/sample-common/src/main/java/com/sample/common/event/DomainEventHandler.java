@@ -0,0 +1,27 @@
+package com.sample.common.event;
+
+import com.sample.common.DomainEvent;
+
+import java.util.List;
+
+/**
+ * 进程内事件总线的批量消费者。
+ *
+ * 每个订阅者在自己的线程上被回调；一次回调拿到的是自上次以来累积的全部同类事件（受批次上限约束），
+ * 适合财务记账、投影更新等"攒一批再写"的场景。
+ */
+@FunctionalInterface
+public interface DomainEventHandler<T extends DomainEvent> {
+
+    /**
+     * 处理一批事件。列表在回调结束后会被复用，处理器不能持有它的引用。
+     */
+    void onEvents(List<T> batch);
+
+    /**
+     * 订阅者处理太慢、被生产者套圈时回调，missed 为被覆盖而错过的事件数。
+     * 总线不保留被覆盖的事件，这里只能记录与告警。
+     */
+    default void onOverflow(long missed) {
+    }
+}
@@ -0,0 +1,291 @@
+package com.sample.common.event;
+
+import com.sample.common.DomainEvent;
+import com.sample.common.DomainEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * === 设计要点 ===
+ * 基于环形缓冲区的进程内领域事件总线（发布/订阅）。
+ *
+ * 场景：同一个事件有多个消费者 ——
+ * PurchaseCompletedEvent → 库存入库 + 财务应付；StockOutEvent → 各类看板与通知
+ * （财务成本结转不能丢事件，经由 OutboxRelay 接收）。
+ *
+ * 结构：
+ * 1. 预分配的环形数组（容量为 2 的幂），发布事件不产生额外对象
+ * 2. 生产者用一个原子计数器领取序号，写入 slot 后再发布该 slot 的序号
+ * 3. 每个订阅者一个线程 + 自己的消费序号，一次把所有已发布的事件作为一批交给处理器
+ *
+ * 慢消费者不阻塞命令路径：
+ * - 生产者从不等待消费者（与传统 Disruptor 不同），环满了就覆盖最旧的事件
+ * - 被套圈的消费者会检测到并跳过被覆盖的部分，通过 onOverflow() 报告错过的数量
+ * - 总线只负责"快"，不保证送达：被覆盖的事件、处理器抛出异常的批次对这个订阅者来说就丢失了，
+ *   总线不保留副本，也没有重放接口。错过与失败的数量由 Subscription 的计数暴露，供监控告警；
+ *   不能丢事件的消费者应当经由 OutboxRelay（至少一次投递）接收事件，而不是直接订阅本总线
+ *
+ * slot 的发布协议（availability[slot]）：
+ * - 值为 seq：序号 seq 的事件已写完，可读
+ * - 值为 WRITING + seq：序号 seq 的事件正在写入
+ * - 生产者写入 seq 前，等待同一 slot 上一圈（seq - capacity）的发布完成，
+ *   这只是生产者之间的短暂等待，与消费者无关
+ * - 消费者读取事件前后各检查一次 availability，前后一致才说明读到的事件没有被覆盖
+ */
+public class RingBufferEventBus implements DomainEventPublisher, AutoCloseable {
+
+    private static final long WRITING = 1L << 62;
+    private static final int DEFAULT_MAX_BATCH = 1024;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<DomainEvent> entries;
+    private final AtomicLongArray availability;
+    private final WaitStrategy waitStrategy;
+
+    /** 下一个待领取的序号 */
+    private final AtomicLong cursor = new AtomicLong();
+
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity 环的容量，会向上取整为 2 的幂；决定慢消费者最多能落后多少个事件
+     */
+    public RingBufferEventBus(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("容量必须在 1 ~ 2^30 之间: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.availability = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            // 视为"上一圈"已发布，使第一圈的生产者无需等待
+            availability.set(i, i - (long) size);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    // ========== 订阅 ==========
+
+    /**
+     * 订阅某一类事件（含子类）。每个订阅者拥有独立线程，从订阅时刻之后的事件开始消费。
+     */
+    public <T extends DomainEvent> Subscription<T> subscribe(
+            String name, Class<T> eventType, DomainEventHandler<T> handler) {
+        return subscribe(name, eventType, handler, DEFAULT_MAX_BATCH);
+    }
+
+    public <T extends DomainEvent> Subscription<T> subscribe(
+            String name, Class<T> eventType, DomainEventHandler<T> handler, int maxBatch) {
+        if (!running) {
+            throw new IllegalStateException("事件总线已关闭");
+        }
+        Subscription<T> subscription = new Subscription<>(name, eventType, handler, maxBatch, cursor.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    // ========== 发布（命令路径） ==========
+
+    /**
+     * 发布事件：领取序号 → 写入 slot → 发布序号。不等待任何消费者。
+     */
+    @Override
+    public void publish(DomainEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("事件不能为空");
+        }
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+
+        // 等待同一 slot 上一圈的生产者发布完成（生产者之间的短暂等待）
+        long previous = sequence - capacity;
+        while (availability.get(slot) != previous) {
+            Thread.onSpinWait();
+        }
+
+        availability.set(slot, WRITING + sequence);
+        entries.set(slot, event);
+        availability.set(slot, sequence);
+
+        waitStrategy.signalAll();
+    }
+
+    /**
+     * 已领取的序号总数（即累计发布的事件数）。
+     */
+    public long getPublishedCount() {
+        return cursor.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 停止所有订阅者线程。已发布但尚未消费的事件会被丢弃。
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.thread.interrupt();
+        }
+        for (Subscription<?> subscription : subscriptions) {
+            try {
+                subscription.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // ========== 订阅者 ==========
+
+    /**
+     * 订阅句柄：暴露消费进度，便于监控积压与溢出。
+     */
+    public final class Subscription<T extends DomainEvent> {
+
+        private final String name;
+        private final Class<T> eventType;
+        private final DomainEventHandler<T> handler;
+        private final int maxBatch;
+        private final Thread thread;
+
+        /** 下一个要读取的序号（只由订阅者线程写） */
+        private volatile long sequence;
+        private volatile long missed;
+        /** 以下计数只由订阅者线程写 */
+        private volatile long handlerFailures;
+        private volatile long failedEvents;
+
+        private Subscription(
+                String name, Class<T> eventType, DomainEventHandler<T> handler, int maxBatch, long start) {
+            if (maxBatch <= 0) {
+                throw new IllegalArgumentException("批次上限必须大于零: " + maxBatch);
+            }
+            this.name = name;
+            this.eventType = eventType;
+            this.handler = handler;
+            this.maxBatch = maxBatch;
+            this.sequence = start;
+            this.thread = new Thread(this::run, "event-bus-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 积压：已发布但尚未处理的事件数（含不属于本订阅类型的事件）。
+         */
+        public long getLag() {
+            return Math.max(0, cursor.get() - sequence);
+        }
+
+        /**
+         * 累计因被套圈而错过的事件数。
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        /**
+         * 处理器回调（onEvents / onOverflow）抛出异常的累计次数。
+         */
+        public long getHandlerFailures() {
+            return handlerFailures;
+        }
+
+        /**
+         * 累计因 onEvents 抛出异常而未能处理的事件数（整批计入，处理器可能已处理了其中一部分）。
+         */
+        public long getFailedEvents() {
+            return failedEvents;
+        }
+
+        private void run() {
+            List<T> batch = new ArrayList<>(Math.min(maxBatch, capacity));
+            int idleRounds = 0;
+            while (running) {
+                long next = sequence;
+                long end = Math.min(cursor.get(), next + maxBatch);
+                batch.clear();
+
+                while (next < end) {
+                    int slot = (int) (next & mask);
+                    long before = availability.get(slot);
+                    if (before == next) {
+                        DomainEvent event = entries.get(slot);
+                        if (availability.get(slot) == next) {
+                            if (eventType.isInstance(event)) {
+                                batch.add(eventType.cast(event));
+                            }
+                            next++;
+                            continue;
+                        }
+                        before = availability.get(slot);
+                    }
+                    long published = before >= WRITING ? before - WRITING : before;
+                    if (published > next) {
+                        next = skipOverwritten(next);
+                        continue;
+                    }
+                    break; // 该序号尚未发布完成，先处理已拿到的部分
+                }
+
+                boolean progressed = next != sequence;
+                if (!batch.isEmpty()) {
+                    try {
+                        handler.onEvents(batch);
+                    } catch (RuntimeException e) {
+                        // 处理器异常不能终止订阅线程：计数后丢弃这一批
+                        handlerFailures++;
+                        failedEvents += batch.size();
+                    }
+                }
+                sequence = next;
+
+                if (progressed) {
+                    idleRounds = 0;
+                } else {
+                    try {
+                        waitStrategy.idle(idleRounds++);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 被套圈：跳到环中仍然有效的最旧序号。
+         */
+        private long skipOverwritten(long next) {
+            long oldest = Math.max(next + 1, cursor.get() - capacity + 1);
+            long skipped = oldest - next;
+            missed += skipped;
+            try {
+                handler.onOverflow(skipped);
+            } catch (RuntimeException e) {
+                handlerFailures++;
+            }
+            return oldest;
+        }
+    }
+}
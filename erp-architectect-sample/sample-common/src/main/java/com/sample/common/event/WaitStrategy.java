@@ -0,0 +1,101 @@
+package com.sample.common.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * === 设计要点 ===
+ * 消费者的等待策略：没有新事件时，消费者线程如何等待。
+ *
+ * 只影响消费者，生产者（命令路径）永远不等待消费者。
+ *
+ * | 策略 | 延迟 | CPU 占用 | 适用场景 |
+ * | busySpin | 最低 | 独占一个核 | 有独立核可用的延迟敏感消费者 |
+ * | yielding | 低 | 高 | 核数充足 |
+ * | sleeping | 中（约 100μs） | 低 | 默认，后台统计/投影 |
+ * | blocking | 较高 | 最低 | 事件稀疏 |
+ */
+public interface WaitStrategy {
+
+    /**
+     * 消费者发现没有新事件时调用。
+     *
+     * @param idleRounds 连续空转的次数，用于逐级退避
+     */
+    void idle(int idleRounds) throws InterruptedException;
+
+    /**
+     * 生产者发布事件后调用，唤醒阻塞等待的消费者。默认无操作。
+     */
+    default void signalAll() {
+    }
+
+    static WaitStrategy busySpin() {
+        return idleRounds -> Thread.onSpinWait();
+    }
+
+    static WaitStrategy yielding() {
+        return idleRounds -> {
+            if (idleRounds < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        };
+    }
+
+    static WaitStrategy sleeping() {
+        return idleRounds -> {
+            if (idleRounds < 100) {
+                Thread.onSpinWait();
+            } else if (idleRounds < 200) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(100_000L);
+            }
+        };
+    }
+
+    static WaitStrategy blocking() {
+        return new BlockingWaitStrategy();
+    }
+
+    /**
+     * 阻塞策略：消费者在条件变量上等待，生产者发布后唤醒。
+     * 只有存在等待者时生产者才会去拿锁，避免每次发布都付出加锁成本。
+     * 等待带超时，防止错过唤醒信号后永久挂起。
+     */
+    final class BlockingWaitStrategy implements WaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        private volatile int waiters;
+
+        @Override
+        public void idle(int idleRounds) throws InterruptedException {
+            lock.lock();
+            try {
+                waiters++;
+                published.await(1, TimeUnit.MILLISECONDS);
+            } finally {
+                waiters--;
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signalAll() {
+            if (waiters == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.sample.common.lock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * === 设计要点 ===
+ * 锁抽象：应用服务只依赖这个接口，不关心锁的实现方式。
+ *
+ * 为什么要抽象成接口？
+ * 1. 单机部署 / 单元测试时使用本地分段锁 {@link StripedLock}
+ * 2. 集群部署时替换为 Redis / ZooKeeper 实现，应用服务代码不变
+ * 3. 锁的粒度由调用方通过 key 决定（如 "inventory:sn:XXX"），实现只负责互斥
+ *
+ * 使用约定：lock() 与 unlock()、lockAll() 与 unlockAll() 必须成对出现，且释放放在 finally 中。
+ */
+public interface DistributedLock {
+
+    /**
+     * 不加锁的空实现：完全依赖仓储的乐观并发控制（版本号比较 + RetryingCommandRunner 重试）。
+     */
+    DistributedLock NONE = new DistributedLock() {
+        @Override
+        public void lock(String key) {
+        }
+
+        @Override
+        public boolean tryLock(String key, long timeout, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void unlock(String key) {
+        }
+
+        @Override
+        public void lockAll(Collection<String> keys) {
+        }
+
+        @Override
+        public void unlockAll(Collection<String> keys) {
+        }
+    };
+
+    /**
+     * 阻塞获取锁，直到成功。
+     */
+    void lock(String key);
+
+    /**
+     * 在指定时间内尝试获取锁。
+     *
+     * @return true 表示获取成功，调用方必须在 finally 中 unlock()
+     */
+    boolean tryLock(String key, long timeout, TimeUnit unit);
+
+    /**
+     * 释放锁。
+     */
+    void unlock(String key);
+
+    /**
+     * 一次获取多把锁，全部成功后返回；中途失败时释放已获取的锁。
+     *
+     * 多个调用方各自需要若干把锁时，必须按同一个全局顺序获取才不会互相死锁：
+     * 默认实现按 key 的字典序逐个加锁，重复的 key 只加一次。
+     * 把多个 key 映射到同一把底层锁的实现（如分段锁）应按底层锁的顺序覆盖本方法。
+     */
+    default void lockAll(Collection<String> keys) {
+        List<String> ordered = new ArrayList<>(new TreeSet<>(keys));
+        int acquired = 0;
+        try {
+            for (String key : ordered) {
+                lock(key);
+                acquired++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = acquired - 1; i >= 0; i--) {
+                unlock(ordered.get(i));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 释放 lockAll() 获取的全部锁（传入相同的 key 集合）。
+     */
+    default void unlockAll(Collection<String> keys) {
+        List<String> ordered = new ArrayList<>(new TreeSet<>(keys));
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            unlock(ordered.get(i));
+        }
+    }
+
+    /**
+     * 在锁保护下执行一段逻辑（模板方法，避免调用方忘记释放）。
+     */
+    default void executeWithLock(String key, Runnable action) {
+        lock(key);
+        try {
+            action.run();
+        } finally {
+            unlock(key);
+        }
+    }
+}
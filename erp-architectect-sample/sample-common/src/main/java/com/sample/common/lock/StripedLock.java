@@ -0,0 +1,146 @@
+package com.sample.common.lock;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * === 设计要点 ===
+ * 本地分段锁（Lock Striping）：DistributedLock 的单机实现。
+ *
+ * 为什么不用一把全局锁？
+ * - 全局锁会把所有 SN 的状态变更串行化，抢购时吞吐量退化为单线程
+ *
+ * 为什么不给每个 key 建一把锁？
+ * - 千万级 SN 意味着千万个锁对象，且需要额外的回收机制
+ *
+ * 分段锁的折中：
+ * 1. 预分配固定数量（2 的幂）的 ReentrantLock
+ * 2. key 经过 hash 扰动后映射到其中一段
+ * 3. 同一个 key 永远落在同一段 → 同一 SN 串行
+ * 4. 不同 key 大概率落在不同段 → 不同 SN 并行
+ *
+ * 段数越多，不同 key 碰撞到同一段的概率越低；默认取 CPU 核数 × 64。
+ * 使用 ReentrantLock 而非 synchronized，是为了支持 tryLock 超时与可重入。
+ */
+public class StripedLock implements DistributedLock {
+
+    private static final int MAX_STRIPES = 1 << 16;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock() {
+        this(Runtime.getRuntime().availableProcessors() * 64);
+    }
+
+    /**
+     * @param stripeCount 期望的段数，会向上取整为 2 的幂
+     */
+    public StripedLock(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("分段数必须大于零: " + stripeCount);
+        }
+        int size = 1;
+        while (size < Math.min(stripeCount, MAX_STRIPES)) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void lock(String key) {
+        stripeFor(key).lock();
+    }
+
+    @Override
+    public boolean tryLock(String key, long timeout, TimeUnit unit) {
+        try {
+            return stripeFor(key).tryLock(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void unlock(String key) {
+        stripeFor(key).unlock();
+    }
+
+    /**
+     * 按段下标递增的顺序加锁：不同 key 可能落在同一段，按 key 排序并不能保证段的获取顺序一致，
+     * 只有按段下标排序，两批有交集的 key 才不会以相反的顺序等待对方持有的段。
+     */
+    @Override
+    public void lockAll(Collection<String> keys) {
+        int[] order = stripeOrder(keys);
+        int acquired = 0;
+        try {
+            for (int index : order) {
+                stripes[index].lock();
+                acquired++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlockAll(Collection<String> keys) {
+        int[] order = stripeOrder(keys);
+        for (int i = order.length - 1; i >= 0; i--) {
+            stripes[order[i]].unlock();
+        }
+    }
+
+    /**
+     * 段数（2 的幂）。
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * 计算 key 所在的段下标。
+     * 与 HashMap 相同的高位扰动，避免 hashCode 低位分布不均导致段倾斜。
+     */
+    int indexFor(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("锁 key 不能为空");
+        }
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * 去重后升序排列的段下标。
+     */
+    private int[] stripeOrder(Collection<String> keys) {
+        int[] indexes = new int[keys.size()];
+        int count = 0;
+        for (String key : keys) {
+            indexes[count++] = indexFor(key);
+        }
+        Arrays.sort(indexes);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || indexes[i] != indexes[unique - 1]) {
+                indexes[unique++] = indexes[i];
+            }
+        }
+        return Arrays.copyOf(indexes, unique);
+    }
+
+    private ReentrantLock stripeFor(String key) {
+        return stripes[indexFor(key)];
+    }
+}
@@ -0,0 +1,13 @@
+package com.sample.common.outbox;
+
+import com.sample.common.DomainEvent;
+
+/**
+ * 领域事件序列化器：Outbox 日志只存字节，事件的编码方式由各上下文提供。
+ */
+public interface EventSerializer {
+
+    byte[] serialize(DomainEvent event);
+
+    DomainEvent deserialize(byte[] payload);
+}
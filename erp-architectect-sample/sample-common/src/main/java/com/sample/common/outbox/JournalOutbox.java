@@ -0,0 +1,105 @@
+package com.sample.common.outbox;
+
+import com.sample.common.AggregateRoot;
+import com.sample.common.DomainEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * === 设计要点 ===
+ * 基于 OutboxJournal 的 Outbox 实现。
+ *
+ * 工作单元的三个步骤：
+ * 1. 把聚合根中暂存的事件序列化，连同聚合根的键（SaveVerifier.keyOf）与保存后的版本号（当前版本 + 1）
+ *    以 PENDING 状态追加到日志
+ * 2. 执行保存
+ * 3. 保存成功 → COMMITTED + 清空聚合根中的事件；保存失败（任何 Throwable）→ ABORTED，事件保留在聚合根中
+ *
+ * 批量保存中途失败（仓储逐条写入、在第 k 条抛出）：前 k - 1 条已经落地。按仓储的比较并交换语义，
+ * 版本号已前进到记录值的聚合根就是已写入的 —— 它们的事件照常提交并清空，其余作废，
+ * 调用方可以只重试未写入的部分而不丢失已写入部分的事件。
+ *
+ * 崩溃恢复：步骤 2 与 3 之间崩溃会遗留 PENDING 记录。构造时用 SaveVerifier 逐条核对：
+ * 存储中的版本号恰好等于记录值的提交（至少一次），其余作废。因此每个日志只能创建一个 JournalOutbox，且要在接受写入之前创建。
+ *
+ * 没有事件的保存不会触碰日志，开销只是一次 isEmpty 判断。
+ */
+public class JournalOutbox implements Outbox {
+
+    private final OutboxJournal journal;
+    private final EventSerializer serializer;
+    private final SaveVerifier verifier;
+
+    /**
+     * @param verifier 核对崩溃遗留的 PENDING 记录；核对抛出异常时构造失败，记录保持 PENDING，下次打开时重试
+     */
+    public JournalOutbox(OutboxJournal journal, EventSerializer serializer, SaveVerifier verifier) {
+        this.journal = journal;
+        this.serializer = serializer;
+        this.verifier = verifier;
+        journal.resolvePending((key, version) -> verifier.storedVersion(key) == version);
+    }
+
+    @Override
+    public void saveAndRecordAll(Collection<? extends AggregateRoot> aggregates, Runnable save) {
+        // 先在日志之外完成序列化：序列化失败不应留下半批记录
+        int eventCount = 0;
+        for (AggregateRoot aggregate : aggregates) {
+            eventCount += aggregate.getDomainEvents().size();
+        }
+        if (eventCount == 0) {
+            save.run();
+            return;
+        }
+        byte[][] payloads = new byte[eventCount][];
+        long[] keys = new long[eventCount];
+        long[] versions = new long[eventCount];
+        AggregateRoot[] owners = new AggregateRoot[eventCount];
+        int index = 0;
+        for (AggregateRoot aggregate : aggregates) {
+            List<DomainEvent> events = aggregate.getDomainEvents();
+            if (events.isEmpty()) {
+                continue;
+            }
+            long key = verifier.keyOf(aggregate);
+            for (DomainEvent event : events) {
+                keys[index] = key;
+                versions[index] = aggregate.getVersion() + 1;
+                owners[index] = aggregate;
+                payloads[index++] = serializer.serialize(event);
+            }
+        }
+
+        long[] offsets = new long[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            offsets[i] = journal.append(payloads[i], keys[i], versions[i]);
+        }
+
+        try {
+            save.run();
+        } catch (Throwable e) {
+            // Error 也要裁决：留下的 PENDING 记录会让 Relay 停在这里直到下次重启
+            for (int i = 0; i < eventCount; i++) {
+                if (owners[i].getVersion() == versions[i]) {
+                    journal.commit(offsets[i]);
+                } else {
+                    journal.abort(offsets[i]);
+                }
+            }
+            for (int i = 0; i < eventCount; i++) {
+                if (owners[i].getVersion() == versions[i]) {
+                    owners[i].clearDomainEvents();
+                }
+            }
+            throw e;
+        }
+
+        for (long offset : offsets) {
+            journal.commit(offset);
+        }
+        for (AggregateRoot aggregate : aggregates) {
+            aggregate.clearDomainEvents();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sample.common.outbox;
+
+import com.sample.common.AggregateRoot;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * === 设计要点 ===
+ * 事务性发件箱（Transactional Outbox）：把"保存聚合根"和"记录领域事件"放进同一个工作单元。
+ *
+ * 为什么不在 save 之后直接 publish？
+ * - save 成功、publish 失败（MQ 宕机）→ 事件丢失，财务永远收不到 StockOutEvent
+ * - publish 成功、save 失败 → 财务收到了一个没有发生过的出库
+ *
+ * Outbox 的做法：
+ * 1. 先把事件写入本地日志（未提交）
+ * 2. 执行 save
+ * 3. save 成功 → 标记提交并清空聚合根中的事件；save 失败 → 标记作废，异常照常抛出
+ *    （批量保存中途失败时，版本号已前进的聚合根视为已写入，它们的事件照常提交）
+ * 4. 后台 Relay 只投递已提交的事件
+ */
+public interface Outbox {
+
+    /**
+     * 不记录事件的空实现：只执行保存，事件留在聚合根中（等价于未接入 Outbox 之前的行为）。
+     */
+    Outbox NONE = (aggregates, save) -> save.run();
+
+    /**
+     * 在同一个工作单元内保存聚合根并记录它的领域事件。
+     */
+    default void saveAndRecord(AggregateRoot aggregate, Runnable save) {
+        saveAndRecordAll(List.of(aggregate), save);
+    }
+
+    /**
+     * 批量版本：一次保存多个聚合根（如批量入库的 saveAll）。
+     */
+    void saveAndRecordAll(Collection<? extends AggregateRoot> aggregates, Runnable save);
+}
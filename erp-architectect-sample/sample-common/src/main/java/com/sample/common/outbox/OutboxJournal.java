@@ -0,0 +1,412 @@
+package com.sample.common.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * === 设计要点 ===
+ * Outbox 日志：基于内存映射文件（mmap）的只追加日志。
+ *
+ * 为什么用 mmap？
+ * - 追加一条记录只是一次内存拷贝，不需要系统调用
+ * - 进程崩溃后已写入页缓存的数据仍由操作系统写回磁盘
+ *
+ * 文件组织：
+ * - 日志由固定大小的段（segment）组成，文件名是该段起始的全局偏移量（20 位数字补零）
+ * - 全局偏移量单调递增，Relay 用它记录投递进度
+ * - 已完全投递的段可以整段删除（truncateBefore）；含有未确认死信的段一直保留，死信随日志一起持久化
+ *
+ * 记录格式（8 字节对齐）：
+ * <pre>
+ * | length: int | state: byte | 3 字节填充 | aggregateKey: long | aggregateVersion: long | payload: length 字节 | 对齐填充 |
+ * </pre>
+ * - length = 0：此处尚未写入（日志末尾）
+ * - length = -1：本段剩余空间不足，下一条记录在下一段开头
+ * - state：PENDING（已写入，保存尚未完成）/ COMMITTED（可投递）/ ABORTED（保存失败，跳过）/
+ *   DEAD_LETTER（投递失败被 Relay 跳过，等待人工处理）
+ * - aggregateKey / aggregateVersion：事件所属聚合根在存储中的键，以及这次保存成功后的版本号；
+ *   崩溃恢复时按键加载聚合根，版本号恰好相等才说明保存已落地（事件本身未必带有聚合根的键，如按 SN 标识的出库事件）
+ *
+ * 写入顺序：先写 state 和 payload，最后写 length —— length 非零即表示记录完整。
+ *
+ * 并发：所有读写都在本对象的监视器内进行（追加本来就必须串行），
+ * Relay 在锁内复制出 payload，发布动作在锁外执行。
+ */
+public class OutboxJournal implements AutoCloseable {
+
+    public static final byte PENDING = 1;
+    public static final byte COMMITTED = 2;
+    public static final byte ABORTED = 3;
+    public static final byte DEAD_LETTER = 4;
+
+    /** 记录对齐单位，也是段末结束标记占用的空间 */
+    private static final int ALIGNMENT = 8;
+    private static final int HEADER_SIZE = 24;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SUFFIX = ".outbox";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    /** 段起始偏移量 → 映射缓冲区（按偏移量有序） */
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    /** 下一条记录的全局偏移量 */
+    private long writeOffset;
+
+    /** 未确认死信的偏移量：最早的一条所在的段及之后的段不能删除 */
+    private final TreeSet<Long> deadLetters = new TreeSet<>();
+
+    /**
+     * 崩溃遗留的 PENDING 记录的裁决：对应的保存是否已经落地。
+     */
+    @FunctionalInterface
+    public interface PendingResolver {
+        /**
+         * @param aggregateKey     append 时记录的聚合根键
+         * @param aggregateVersion append 时记录的聚合根版本号（保存成功后的版本）
+         * @return true → 提交（投递）；false → 作废
+         */
+        boolean isSaved(long aggregateKey, long aggregateVersion);
+    }
+
+    /**
+     * 打开（或创建）日志目录，并执行崩溃恢复。
+     *
+     * @param segmentSize 每个段的字节数，必须是 8 的倍数且不小于 48
+     */
+    public OutboxJournal(Path directory, int segmentSize) {
+        if (segmentSize < HEADER_SIZE * 2 || segmentSize % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("段大小必须是 8 的倍数且不小于 " + HEADER_SIZE * 2 + ": " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                    segments.put(base, map(file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开 Outbox 日志失败: " + directory, e);
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, createSegment(0L));
+        }
+        recover();
+    }
+
+    // ========== 写入 ==========
+
+    /**
+     * 追加一条未提交（PENDING）的记录。
+     *
+     * @param aggregateKey     事件所属聚合根在存储中的键，供崩溃恢复时加载
+     * @param aggregateVersion 事件所属聚合根保存成功后的版本号，供崩溃恢复时核对
+     * @return 记录的全局偏移量，用于之后 commit / abort
+     */
+    public synchronized long append(byte[] payload, long aggregateKey, long aggregateVersion) {
+        int recordSize = align(HEADER_SIZE + payload.length);
+        if (recordSize > segmentSize - ALIGNMENT) {
+            throw new IllegalArgumentException("事件过大，超过单段容量: " + payload.length + " 字节");
+        }
+
+        Map.Entry<Long, MappedByteBuffer> segment = segments.lastEntry();
+        int position = (int) (writeOffset - segment.getKey());
+        if (position + recordSize > segmentSize - ALIGNMENT) {
+            // 本段放不下：写结束标记，切换到新段
+            segment.getValue().putInt(position, END_OF_SEGMENT);
+            long base = segment.getKey() + segmentSize;
+            segments.put(base, createSegment(base));
+            segment = segments.lastEntry();
+            writeOffset = base;
+            position = 0;
+        }
+
+        MappedByteBuffer buffer = segment.getValue();
+        buffer.put(position + 4, PENDING);
+        buffer.putLong(position + 8, aggregateKey);
+        buffer.putLong(position + 16, aggregateVersion);
+        buffer.put(position + HEADER_SIZE, payload);
+        buffer.putInt(position, payload.length); // 最后写 length，表示记录完整
+
+        long offset = writeOffset;
+        writeOffset += recordSize;
+        return offset;
+    }
+
+    /**
+     * 标记记录已提交（聚合根保存成功），Relay 可以投递。
+     */
+    public synchronized void commit(long offset) {
+        setState(offset, COMMITTED);
+    }
+
+    /**
+     * 标记记录作废（聚合根保存失败），Relay 会跳过。
+     */
+    public synchronized void abort(long offset) {
+        setState(offset, ABORTED);
+    }
+
+    /**
+     * 裁决日志中所有 PENDING 记录：resolver 确认保存已落地的提交，其余作废。
+     *
+     * 只能在没有进行中的工作单元时调用（打开日志之后、接受写入之前），
+     * 否则会把正在保存的记录误判为崩溃遗留。resolver 抛出异常时，尚未裁决的记录保持 PENDING，
+     * Relay 停在第一条 PENDING 记录处，下次裁决时继续。
+     *
+     * @return 裁决的记录数
+     */
+    public synchronized int resolvePending(PendingResolver resolver) {
+        int resolved = 0;
+        long offset = segments.firstKey();
+        while (offset < writeOffset) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(offset);
+            MappedByteBuffer buffer = segment.getValue();
+            int position = (int) (offset - segment.getKey());
+            int length = buffer.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                offset = segment.getKey() + segmentSize;
+                continue;
+            }
+            if (buffer.get(position + 4) == PENDING) {
+                boolean saved = resolver.isSaved(buffer.getLong(position + 8), buffer.getLong(position + 16));
+                buffer.put(position + 4, saved ? COMMITTED : ABORTED);
+                resolved++;
+            }
+            offset += align(HEADER_SIZE + length);
+        }
+        return resolved;
+    }
+
+    // ========== 读取 ==========
+
+    /**
+     * 从指定偏移量开始读取已提交的记录。
+     *
+     * 遇到 PENDING 记录时停止（保存仍在进行中），保证事件按写入顺序投递。
+     *
+     * @param out 读取到的 payload 追加到这里
+     * @return 已读取范围之后的偏移量（下一次从这里继续）
+     */
+    public synchronized long readCommitted(long fromOffset, int maxRecords, List<byte[]> out) {
+        long offset = fromOffset;
+        int read = 0;
+        while (read < maxRecords && offset < writeOffset) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(offset);
+            if (segment == null) {
+                throw new IllegalStateException("偏移量所在的段已被删除: " + offset);
+            }
+            MappedByteBuffer buffer = segment.getValue();
+            int position = (int) (offset - segment.getKey());
+            int length = buffer.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                offset = segment.getKey() + segmentSize;
+                continue;
+            }
+            byte state = buffer.get(position + 4);
+            if (state == PENDING) {
+                break;
+            }
+            if (state == COMMITTED) {
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_SIZE, payload);
+                out.add(payload);
+                read++;
+            }
+            offset += align(HEADER_SIZE + length);
+        }
+        return offset;
+    }
+
+    // ========== 维护 ==========
+
+    /**
+     * 把 [fromOffset, toOffset) 范围内已提交的记录标记为死信：Relay 不再投递，所在的段在确认之前不会被删除。
+     *
+     * @return 第一条被标记的记录的偏移量；范围内没有已提交记录时返回 -1
+     */
+    public synchronized long markDeadLetters(long fromOffset, long toOffset) {
+        long first = -1L;
+        long offset = fromOffset;
+        while (offset < toOffset && offset < writeOffset) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(offset);
+            MappedByteBuffer buffer = segment.getValue();
+            int position = (int) (offset - segment.getKey());
+            int length = buffer.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                offset = segment.getKey() + segmentSize;
+                continue;
+            }
+            if (buffer.get(position + 4) == COMMITTED) {
+                buffer.put(position + 4, DEAD_LETTER);
+                deadLetters.add(offset);
+                if (first < 0) {
+                    first = offset;
+                }
+            }
+            offset += align(HEADER_SIZE + length);
+        }
+        return first;
+    }
+
+    /**
+     * 确认死信已人工处理：记录改为 ABORTED（与作废记录一样被跳过），不再阻止所在的段被删除。
+     */
+    public synchronized void acknowledgeDeadLetter(long offset) {
+        if (!deadLetters.remove(offset)) {
+            throw new IllegalArgumentException("不是未确认的死信: " + offset);
+        }
+        setState(offset, ABORTED);
+    }
+
+    /**
+     * 未确认死信的偏移量（升序，含重启之前标记的）。
+     */
+    public synchronized List<Long> getDeadLetterOffsets() {
+        return List.copyOf(deadLetters);
+    }
+
+    /**
+     * 读取指定偏移量处记录的 payload（不论状态）。
+     */
+    public synchronized byte[] readPayload(long offset) {
+        Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(offset);
+        if (segment == null || offset >= writeOffset) {
+            throw new IllegalArgumentException("无效的 Outbox 偏移量: " + offset);
+        }
+        int position = (int) (offset - segment.getKey());
+        byte[] payload = new byte[segment.getValue().getInt(position)];
+        segment.getValue().get(position + HEADER_SIZE, payload);
+        return payload;
+    }
+
+    /**
+     * 删除完全位于 offset 之前的段（这些段中的事件均已投递）。
+     * 含有未确认死信的段及其之后的段保留，直到死信被确认。
+     */
+    public synchronized void truncateBefore(long offset) {
+        if (!deadLetters.isEmpty()) {
+            offset = Math.min(offset, deadLetters.first());
+        }
+        while (segments.size() > 1) {
+            Map.Entry<Long, MappedByteBuffer> first = segments.firstEntry();
+            if (first.getKey() + segmentSize > offset) {
+                return;
+            }
+            segments.pollFirstEntry();
+            try {
+                Files.deleteIfExists(segmentFile(first.getKey()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("删除 Outbox 段失败", e);
+            }
+        }
+    }
+
+    /**
+     * 把映射区的修改强制刷到磁盘（应对操作系统崩溃，进程崩溃不需要）。
+     */
+    public synchronized void force() {
+        for (MappedByteBuffer buffer : segments.values()) {
+            buffer.force();
+        }
+    }
+
+    public synchronized long getWriteOffset() {
+        return writeOffset;
+    }
+
+    /**
+     * 最早仍保留的偏移量。
+     */
+    public synchronized long getStartOffset() {
+        return segments.firstKey();
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        segments.clear();
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 崩溃恢复：找到日志末尾（第一个 length = 0 的位置）作为写入点，并重建未确认死信的索引。
+     *
+     * 遗留的 PENDING 记录原样保留：进程可能在保存成功之后、commit 之前崩溃，
+     * 一律作废会丢掉已经发生的出库。它们由 resolvePending() 逐条核对后提交或作废（JournalOutbox 打开时执行）。
+     */
+    private void recover() {
+        List<Long> bases = new ArrayList<>(segments.keySet());
+        long offset = bases.get(0);
+        while (true) {
+            Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(offset);
+            int position = (int) (offset - segment.getKey());
+            int length = position + ALIGNMENT > segmentSize ? END_OF_SEGMENT : segment.getValue().getInt(position);
+            if (length == END_OF_SEGMENT) {
+                long next = segment.getKey() + segmentSize;
+                if (!segments.containsKey(next)) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            if (length == 0) {
+                break;
+            }
+            if (segment.getValue().get(position + 4) == DEAD_LETTER) {
+                deadLetters.add(offset);
+            }
+            offset += align(HEADER_SIZE + length);
+        }
+        this.writeOffset = offset;
+    }
+
+    private void setState(long offset, byte state) {
+        Map.Entry<Long, MappedByteBuffer> segment = segments.floorEntry(offset);
+        if (segment == null || offset >= writeOffset) {
+            throw new IllegalArgumentException("无效的 Outbox 偏移量: " + offset);
+        }
+        segment.getValue().put((int) (offset - segment.getKey()) + 4, state);
+    }
+
+    private MappedByteBuffer createSegment(long base) {
+        try {
+            return map(segmentFile(base));
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建 Outbox 段失败: " + base, e);
+        }
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 映射在通道关闭后依然有效
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentFile(long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) & ~(ALIGNMENT - 1);
+    }
+}
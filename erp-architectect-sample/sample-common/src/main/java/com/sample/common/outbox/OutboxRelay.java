@@ -0,0 +1,304 @@
+package com.sample.common.outbox;
+
+import com.sample.common.DomainEvent;
+import com.sample.common.DomainEventPublisher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * === 设计要点 ===
+ * Outbox 投递器：后台线程把日志中已提交的事件批量发布出去。
+ *
+ * 投递语义：至少一次（at-least-once）
+ * 1. 从已持久化的偏移量开始读取一批已提交事件
+ * 2. 调用 DomainEventPublisher.publishAll()
+ * 3. 发布成功后才推进并持久化偏移量
+ * 4. 发布失败 → 偏移量不动，下个周期整批重试
+ * 5. 进程崩溃 → 重启后从持久化的偏移量继续，最后一批可能重复投递
+ *
+ * 因此消费者必须幂等（例如财务按 SN + 事件类型去重）。
+ *
+ * 重试按时间而不是按轮询次数计算：
+ * - 失败后指数退避（initialBackoff 起翻倍，maxBackoff 封顶），退避期间的 drain() 直接返回，不打扰下游
+ * - 同一位置从第一次失败起持续失败超过 retryWindow，才认定是毒消息；
+ *   轮询间隔再短，下游的短暂故障（重启、切换）也不会把正常事件送进死信
+ *
+ * 毒消息：反序列化或发布总是失败的记录会让偏移量永远停在原地。
+ * 1. 同一批在 retryWindow 内一直失败 → 拆成逐条投递，找出是哪一条
+ * 2. 单条在 retryWindow 内一直失败 → 在日志中标记为 DEAD_LETTER，偏移量越过它，后面的事件继续投递
+ * 死信留在日志里（所在的段在确认之前不会被删除），重启后仍可通过 getDeadLetters() 取出；
+ * 人工处理后调用 acknowledgeDeadLetter() 释放。失败次数由 getFailureCount() 暴露。
+ * 下游整体不可用超过 retryWindow 时，仍会每个窗口误判一条，retryWindow 应覆盖预期的故障时长。
+ *
+ * 偏移量文件是一个 8 字节的内存映射文件，每次推进后 force() 落盘。
+ */
+public class OutboxRelay implements AutoCloseable {
+
+    public static final Duration DEFAULT_RETRY_WINDOW = Duration.ofMinutes(5);
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final OutboxJournal journal;
+    private final EventSerializer serializer;
+    private final DomainEventPublisher publisher;
+    private final int batchSize;
+    private final long retryWindowNanos;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final MappedByteBuffer offsetFile;
+    private final ScheduledExecutorService scheduler;
+
+    // ========== 以下只在 drain() 的监视器内访问 ==========
+    /** 下一条待投递记录的偏移量 */
+    private long offset;
+    /** 当前位置是否处于失败重试中 */
+    private boolean failing;
+    /** 当前位置第一次失败的时刻（System.nanoTime） */
+    private long failingSince;
+    /** 下一次退避时长 */
+    private long backoffNanos;
+    /** 退避结束、可以再次尝试的时刻 */
+    private long nextAttemptAt;
+    /** 逐条投递直到这个偏移量（找出毒消息所在的批次范围） */
+    private long isolateUntil;
+    private long failureCount;
+    /** 本进程标记的死信的失败原因（只在内存中；重启之前标记的死信没有原因） */
+    private final Map<Long, RuntimeException> deadLetterCauses = new HashMap<>();
+
+    /**
+     * 投递失败被跳过的记录：日志中 offset 处状态为 DEAD_LETTER 的记录。
+     */
+    public static final class DeadLetter {
+        private final long offset;
+        private final byte[] payload;
+        private final RuntimeException cause;
+
+        private DeadLetter(long offset, byte[] payload, RuntimeException cause) {
+            this.offset = offset;
+            this.payload = payload;
+            this.cause = cause;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public byte[] getPayload() {
+            return payload.clone();
+        }
+
+        /**
+         * @return 失败原因；重启之前标记的死信返回 null
+         */
+        public RuntimeException getCause() {
+            return cause;
+        }
+    }
+
+    public OutboxRelay(
+            OutboxJournal journal,
+            EventSerializer serializer,
+            DomainEventPublisher publisher,
+            Path offsetPath,
+            int batchSize) {
+        this(journal, serializer, publisher, offsetPath, batchSize,
+                DEFAULT_RETRY_WINDOW, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    /**
+     * @param retryWindow    同一批（或隔离后的同一条）从第一次失败起持续失败多久后拆批 / 标记为死信
+     * @param initialBackoff 第一次失败后的退避时长
+     * @param maxBackoff     单次退避的封顶时长
+     */
+    public OutboxRelay(
+            OutboxJournal journal,
+            EventSerializer serializer,
+            DomainEventPublisher publisher,
+            Path offsetPath,
+            int batchSize,
+            Duration retryWindow,
+            Duration initialBackoff,
+            Duration maxBackoff) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批次大小必须大于零: " + batchSize);
+        }
+        if (retryWindow.isNegative()) {
+            throw new IllegalArgumentException("重试窗口不能为负数: " + retryWindow);
+        }
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("退避时长非法: " + initialBackoff + " ~ " + maxBackoff);
+        }
+        this.journal = journal;
+        this.serializer = serializer;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.retryWindowNanos = retryWindow.toNanos();
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        try (FileChannel channel = FileChannel.open(offsetPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.offsetFile = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开 Outbox 偏移量文件失败: " + offsetPath, e);
+        }
+        // 新建的偏移量文件内容为 0；段被清理过时从最早保留的位置开始
+        this.offset = Math.max(offsetFile.getLong(0), journal.getStartOffset());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 启动后台投递，每隔 pollInterval 检查一次新事件（不足 1 毫秒按 1 毫秒计）。
+     */
+    public void start(Duration pollInterval) {
+        long millis = Math.max(1L, pollInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::drainQuietly, 0, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 投递当前所有已提交的事件（直到遇到未提交记录或日志末尾）。
+     * 同一时刻只能由一个线程调用；后台模式下由投递线程调用。
+     *
+     * 处于退避期时不尝试投递，直接返回 0。
+     *
+     * @return 本次投递的事件数（不含标记为死信的）
+     * @throws RuntimeException 本批投递失败且仍在 retryWindow 内，偏移量不变
+     */
+    public synchronized int drain() {
+        int published = 0;
+        List<byte[]> payloads = new ArrayList<>(batchSize);
+        while (true) {
+            payloads.clear();
+            int limit = offset < isolateUntil ? 1 : batchSize;
+            long next = journal.readCommitted(offset, limit, payloads);
+            if (next == offset) {
+                return published;
+            }
+            if (!payloads.isEmpty()) {
+                if (failing && System.nanoTime() - nextAttemptAt < 0) {
+                    return published;
+                }
+                try {
+                    List<DomainEvent> events = new ArrayList<>(payloads.size());
+                    for (byte[] payload : payloads) {
+                        events.add(serializer.deserialize(payload));
+                    }
+                    publisher.publishAll(events);
+                    published += events.size();
+                } catch (RuntimeException e) {
+                    failureCount++;
+                    if (retryLater()) {
+                        throw e;
+                    }
+                    failing = false;
+                    if (limit > 1) {
+                        // 整批在重试窗口内一直失败：拆成逐条，立即重新投递这一段
+                        isolateUntil = next;
+                        continue;
+                    }
+                    long deadLetter = journal.markDeadLetters(offset, next);
+                    deadLetterCauses.put(deadLetter, e);
+                }
+            }
+            failing = false;
+            commitOffset(next);
+        }
+    }
+
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * 累计投递失败次数（每次失败的尝试计一次，含最终放入死信的）。
+     */
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * 尚未确认的毒消息（按日志顺序，含重启之前标记的）。
+     */
+    public synchronized List<DeadLetter> getDeadLetters() {
+        List<DeadLetter> result = new ArrayList<>();
+        for (long deadLetter : journal.getDeadLetterOffsets()) {
+            result.add(new DeadLetter(deadLetter, journal.readPayload(deadLetter), deadLetterCauses.get(deadLetter)));
+        }
+        return result;
+    }
+
+    /**
+     * 确认死信已人工处理（重新投递或放弃）：释放它所在的段，之后可以随投递进度一起删除。
+     */
+    public synchronized void acknowledgeDeadLetter(long deadLetterOffset) {
+        journal.acknowledgeDeadLetter(deadLetterOffset);
+        deadLetterCauses.remove(deadLetterOffset);
+        journal.truncateBefore(offset);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 记录一次失败并安排退避。
+     *
+     * @return true 表示仍在重试窗口内（稍后整批重试）；false 表示窗口已用尽
+     */
+    private boolean retryLater() {
+        long now = System.nanoTime();
+        if (!failing) {
+            failing = true;
+            failingSince = now;
+            backoffNanos = initialBackoffNanos;
+        }
+        if (now - failingSince >= retryWindowNanos) {
+            return false;
+        }
+        nextAttemptAt = now + backoffNanos;
+        backoffNanos = Math.min(maxBackoffNanos, backoffNanos * 2);
+        return true;
+    }
+
+    private void commitOffset(long next) {
+        offsetFile.putLong(0, next);
+        offsetFile.force();
+        this.offset = next;
+        journal.truncateBefore(next);
+    }
+
+    /**
+     * 后台周期任务：异常不能逃逸，否则 ScheduledExecutorService 会取消后续调度。
+     */
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            // 已计入 failureCount：偏移量未推进，下个周期重试
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sample.common.outbox;
+
+import com.sample.common.AggregateRoot;
+
+/**
+ * 崩溃恢复时核对保存是否落地：进程在"保存成功"与"标记提交"之间崩溃，日志中会遗留 PENDING 事件。
+ *
+ * 记录事件时，JournalOutbox 用 keyOf() 取出聚合根在存储中的键，连同保存成功后的版本号写进记录头；
+ * 恢复时按键加载聚合根，存储中的版本号恰好等于记录值才认为保存已落地。
+ *
+ * 为什么不按事件里的标识加载、也不用"≥"？
+ * - 出库、维修事件按 SN 标识，售出、报废后的库存项已经不能按活跃 SN 找到 —— 真实发生的出库会被作废
+ * - 存储版本更大可能是别的写入者在我们失败之后保存的，"≥"会投递从未发生过的事件
+ *
+ * 仍无法区分的情况：另一个写入者以相同的目标版本抢先保存（我们的保存因版本冲突失败），
+ * 且进程恰好在 abort 之前崩溃。区分它需要存储记录每次保存的令牌，超出了仓储接口的能力。
+ */
+public interface SaveVerifier {
+
+    /**
+     * 聚合根在存储中的键（通常是 ID 的数值）。只对带有事件的聚合根、在保存之前调用，聚合根必须已有标识。
+     */
+    long keyOf(AggregateRoot aggregate);
+
+    /**
+     * @return 存储中该聚合根的当前版本号；不存在时返回 0
+     */
+    long storedVersion(long aggregateKey);
+}
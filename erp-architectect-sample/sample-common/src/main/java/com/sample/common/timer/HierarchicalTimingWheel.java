@@ -0,0 +1,269 @@
+package com.sample.common.timer;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * === 设计要点 ===
+ * 分层时间轮：海量定时任务的 O(1) 调度与取消。
+ *
+ * 场景：每个被订单锁定的 SN 都带一个到期时间，促销期间同时挂着上百万个；
+ * 用 DelayQueue / ScheduledThreadPoolExecutor（堆，O(log n)）调度与取消都要排序，且取消后仍占着堆。
+ *
+ * 结构（与 Linux 内核定时器、Kafka 的 TimingWheel 同一思路）：
+ * 1. 时间离散为 tick；共 5 层，每层 64 个槽，第 L 层一个槽覆盖 64^L 个 tick，总跨度 64^5 ≈ 10^9 个 tick
+ * 2. 任务按到期 tick 与当前 tick 的"最高不同位"放入对应层的槽：越远的任务放在越粗的层
+ * 3. 每个 tick：低位全为 0 的层把当前槽中的任务"降级"重新放入更细的层（从高层到低层），再执行第 0 层当前槽
+ * 4. 超出总跨度的任务放在顶层 0 号槽，每转一圈重新计算一次
+ *
+ * 线程模型：槽位链表只由单个工作线程访问，不需要锁
+ * - schedule() / cancel() 从任意线程调用：只做一次 CAS 与一次无锁入队（新任务队列 / 取消队列）
+ * - 工作线程每个 tick 先摘除已取消的任务（释放内存），再把新任务挂入槽位
+ * - 槽是侵入式双向链表，挂入与摘除都是 O(1)
+ *
+ * 到期的任务交给 taskExecutor 执行，工作线程不执行业务代码，一个慢任务不会拖慢时钟。
+ * 精度为一个 tick：任务在到期时间之后的一个 tick 内执行。
+ */
+public class HierarchicalTimingWheel implements AutoCloseable {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+
+    /** 每个 tick 最多挂入的新任务数，避免突发的海量调度拖住时钟 */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Executor taskExecutor;
+    private final Bucket[][] wheels = new Bucket[LEVELS][SLOTS];
+    private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /** 已处理到的 tick（只由工作线程访问） */
+    private long currentTick;
+
+    /**
+     * @param tick         时钟精度，不小于 1 毫秒
+     * @param taskExecutor 执行到期任务的执行器
+     */
+    public HierarchicalTimingWheel(Duration tick, Executor taskExecutor) {
+        if (tick == null || tick.toMillis() < 1) {
+            throw new IllegalArgumentException("时间轮精度不能小于 1 毫秒: " + tick);
+        }
+        this.tickNanos = tick.toNanos();
+        this.taskExecutor = Objects.requireNonNull(taskExecutor, "任务执行器不能为空");
+        for (Bucket[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = new Bucket();
+            }
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, "timing-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 在 delay 之后执行 task。
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        Objects.requireNonNull(task, "定时任务不能为空");
+        if (delay == null || delay.isNegative()) {
+            throw new IllegalArgumentException("延迟不能为空或为负数: " + delay);
+        }
+        if (!running) {
+            throw new IllegalStateException("时间轮已停止");
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        long deadlineNanos = elapsed + Math.min(delay.toNanos(), Long.MAX_VALUE / 2 - elapsed);
+        long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(this, task, deadlineTick);
+        pending.incrementAndGet();
+        scheduled.offer(timeout);
+        return timeout;
+    }
+
+    /** 尚未到期、也未取消的任务数 */
+    public long pendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * 停止时钟。尚未到期的任务不再执行。
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== 供 Timeout 调用 ==========
+
+    void cancelled(Timeout timeout) {
+        pending.decrementAndGet();
+        cancelled.offer(timeout);
+    }
+
+    // ========== 工作线程 ==========
+
+    private void run() {
+        while (running) {
+            long wait = startNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            // 落后（GC 停顿等）时逐个 tick 追赶，不跳过任何槽
+            currentTick++;
+            removeCancelled();
+            transferScheduled();
+            advance(currentTick);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isPending()) {
+                place(timeout, currentTick);
+            }
+        }
+    }
+
+    /**
+     * 先从高层到低层降级当前槽，再执行第 0 层的当前槽。
+     */
+    private void advance(long tick) {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            int shift = SLOT_BITS * level;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                Timeout timeout = wheels[level][(int) (tick >>> shift) & SLOT_MASK].clear();
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    timeout.prev = null;
+                    timeout.next = null;
+                    if (timeout.isPending()) {
+                        place(timeout, tick);
+                    }
+                    timeout = next;
+                }
+            }
+        }
+
+        Timeout timeout = wheels[0][(int) tick & SLOT_MASK].clear();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            if (timeout.expire()) {
+                pending.decrementAndGet();
+                execute(timeout.task);
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * 放入"到期 tick 与当前 tick 最高不同位"所在层的槽。
+     * 同一层更高位都相同时，到期 tick 在该层的位一定大于当前 tick 的位，因此槽会在到期之前被降级或执行。
+     */
+    private void place(Timeout timeout, long now) {
+        long deadline = Math.max(timeout.deadlineTick, now);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((deadline >>> shift) == (now >>> shift)) {
+                wheels[level][(int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK].add(timeout);
+                return;
+            }
+        }
+        // 超出总跨度：顶层 0 号槽在下一圈开始时降级，届时重新计算
+        wheels[LEVELS - 1][0].add(timeout);
+    }
+
+    private void execute(Runnable task) {
+        try {
+            taskExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 执行器已关闭：丢弃到期任务，时钟继续运行
+        } catch (RuntimeException e) {
+            // 同步执行器中的任务异常不能打断时钟
+        }
+    }
+
+    /**
+     * 一个槽：侵入式双向链表。
+     */
+    static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * 摘下整条链表并返回表头；链表中各任务的 bucket 置空。
+         */
+        Timeout clear() {
+            Timeout first = head;
+            for (Timeout t = first; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+}
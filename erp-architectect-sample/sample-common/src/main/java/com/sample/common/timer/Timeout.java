@@ -0,0 +1,68 @@
+package com.sample.common.timer;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 时间轮中的一个定时任务。
+ *
+ * 状态只会从 PENDING 单向变为 CANCELLED 或 EXPIRED，由一次 CAS 决定：
+ * cancel() 成功则任务一定不会执行；返回 false 说明任务已经到期（正在或已经执行）。
+ * 调用方据此判断"取消"与"到期"谁先发生，不需要额外的锁。
+ */
+public final class Timeout {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    private final HierarchicalTimingWheel wheel;
+    final Runnable task;
+    final long deadlineTick;
+    private volatile int state;
+
+    // ========== 槽位链表（只由时间轮的工作线程访问） ==========
+    Timeout prev;
+    Timeout next;
+    HierarchicalTimingWheel.Bucket bucket;
+
+    Timeout(HierarchicalTimingWheel wheel, Runnable task, long deadlineTick) {
+        this.wheel = wheel;
+        this.task = task;
+        this.deadlineTick = deadlineTick;
+    }
+
+    /**
+     * 取消任务，O(1)。
+     *
+     * @return true 表示取消成功、任务不会执行；false 表示任务已到期或早已取消
+     */
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+            return false;
+        }
+        wheel.cancelled(this);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+
+    boolean isPending() {
+        return state == PENDING;
+    }
+
+    /**
+     * 由工作线程在到期时调用：与 cancel() 竞争同一个 CAS。
+     */
+    boolean expire() {
+        return STATE.compareAndSet(this, PENDING, EXPIRED);
+    }
+}
@@ -1,8 +1,8 @@
 package com.sample.common.vo;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
-import java.util.Objects;
 
 /**
  * === 设计要点 ===
@@ -18,18 +18,39 @@ import java.util.Objects;
  * - 通过值相等（equals 比较内容，不是引用）
  * - 不可变（所有字段 final，方法返回新对象）
  * - 自校验（构造时即确保合法性）
+ *
+ * 性能：内部以"分"为单位的 long 定点数存储，加减比较都是整数运算、零中间对象；
+ * 只有超出 long 范围（约 9 × 10^16 元）时才退回 BigDecimal，对外的值语义与舍入规则不变。
  */
 public final class Money {
 
-    public static final Money ZERO = new Money(BigDecimal.ZERO);
+    public static final Money ZERO = new Money(0L);
+
+    /** 金额的精度：2 位小数（分） */
+    private static final int SCALE = 2;
 
-    /** 金额值，精确到2位小数 */
-    private final BigDecimal amount;
+    /**
+     * 金额，单位：分。
+     * 绝大多数金额都落在 long 范围内，运算只是整数加减，不产生任何中间对象。
+     */
+    private final long cents;
+
+    /**
+     * 超出 long 范围时的兜底表示（精确到 2 位小数）；正常范围内为 null。
+     * 规范化约定：能用 cents 表示的金额一定用 cents 表示，因此同一个值只有一种表示形式。
+     */
+    private final BigDecimal overflow;
 
     // ========== 构造方法（自校验） ==========
 
-    private Money(BigDecimal amount) {
-        this.amount = amount.setScale(2, RoundingMode.HALF_UP);
+    private Money(long cents) {
+        this.cents = cents;
+        this.overflow = null;
+    }
+
+    private Money(BigDecimal overflow) {
+        this.cents = 0L;
+        this.overflow = overflow;
     }
 
     /**
@@ -40,7 +61,12 @@ public final class Money {
         if (amount == null || amount.isBlank()) {
             throw new IllegalArgumentException("金额不能为空");
         }
-        return new Money(new BigDecimal(amount));
+        long parsed = parseCents(amount);
+        if (parsed != UNPARSED) {
+            return new Money(parsed);
+        }
+        // 科学计数法、超长数字等少见格式交给 BigDecimal 解析（非法格式同样抛出 NumberFormatException）
+        return of(new BigDecimal(amount));
     }
 
     /**
@@ -50,35 +76,94 @@ public final class Money {
         if (amount == null) {
             throw new IllegalArgumentException("金额不能为空");
         }
-        return new Money(amount);
+        BigDecimal scaled = amount.setScale(SCALE, RoundingMode.HALF_UP);
+        BigInteger unscaled = scaled.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            return new Money(unscaled.longValue());
+        }
+        return new Money(scaled);
+    }
+
+    /**
+     * 工厂方法：从"分"创建（定点数，用于序列化、统计汇总等场景）。
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0L ? ZERO : new Money(cents);
     }
 
     // ========== 业务运算（返回新对象，不修改自身） ==========
 
     /** 加法 */
     public Money add(Money other) {
-        return new Money(this.amount.add(other.amount));
+        if (this.overflow == null && other.overflow == null) {
+            long result = this.cents + other.cents;
+            // 两个同号数相加结果变号 → 溢出
+            if (((this.cents ^ result) & (other.cents ^ result)) >= 0) {
+                return new Money(result);
+            }
+        }
+        return of(this.toBigDecimal().add(other.toBigDecimal()));
     }
 
     /** 减法 */
     public Money subtract(Money other) {
-        return new Money(this.amount.subtract(other.amount));
+        if (this.overflow == null && other.overflow == null) {
+            long result = this.cents - other.cents;
+            // 两个异号数相减结果与被减数变号 → 溢出
+            if (((this.cents ^ other.cents) & (this.cents ^ result)) >= 0) {
+                return new Money(result);
+            }
+        }
+        return of(this.toBigDecimal().subtract(other.toBigDecimal()));
+    }
+
+    /**
+     * 乘以数量（单价 × 数量 = 金额），结果精确，不涉及舍入。
+     */
+    public Money multiply(long quantity) {
+        if (overflow == null) {
+            long high = Math.multiplyHigh(cents, quantity);
+            long result = cents * quantity;
+            // 128 位乘积的高 64 位只是低 64 位的符号扩展 → 未溢出
+            if (high == (result >> 63)) {
+                return result == 0L ? ZERO : new Money(result);
+            }
+        }
+        return of(toBigDecimal().multiply(BigDecimal.valueOf(quantity)));
     }
 
     /** 是否大于 */
     public boolean isGreaterThan(Money other) {
-        return this.amount.compareTo(other.amount) > 0;
+        if (this.overflow == null && other.overflow == null) {
+            return this.cents > other.cents;
+        }
+        return this.toBigDecimal().compareTo(other.toBigDecimal()) > 0;
     }
 
     /** 是否小于零 */
     public boolean isNegative() {
-        return this.amount.compareTo(BigDecimal.ZERO) < 0;
+        return overflow == null ? cents < 0 : overflow.signum() < 0;
     }
 
     // ========== 值对象标准方法 ==========
 
+    /**
+     * 金额（2 位小数）。定点表示下按需生成 BigDecimal，热点路径请使用 toCents()。
+     */
     public BigDecimal getAmount() {
-        return amount;
+        return toBigDecimal();
+    }
+
+    /**
+     * 金额，单位：分。
+     *
+     * @throws ArithmeticException 金额超出 long 范围
+     */
+    public long toCents() {
+        if (overflow != null) {
+            throw new ArithmeticException("金额超出定点数范围: " + overflow.toPlainString());
+        }
+        return cents;
     }
 
     @Override
@@ -88,17 +173,90 @@ public final class Money {
         if (o == null || getClass() != o.getClass())
             return false;
         Money money = (Money) o;
-        // 注意：使用 compareTo 而非 equals，因为 BigDecimal 的 equals 会比较精度
-        return amount.compareTo(money.amount) == 0;
+        // 规范化表示保证：同一金额要么都是定点数，要么都是 BigDecimal
+        if (overflow == null || money.overflow == null) {
+            return overflow == money.overflow && cents == money.cents;
+        }
+        return overflow.compareTo(money.overflow) == 0;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount.stripTrailingZeros());
+        return overflow == null ? Long.hashCode(cents) : overflow.hashCode();
     }
 
     @Override
     public String toString() {
-        return "¥" + amount.toPlainString();
+        if (overflow != null) {
+            return "¥" + overflow.toPlainString();
+        }
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "¥-" : "¥") + (abs / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    // ========== 私有方法 ==========
+
+    private BigDecimal toBigDecimal() {
+        return overflow != null ? overflow : BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /** parseCents 无法处理时的返回值（合法金额不可能是 Long.MIN_VALUE 分：整数位最多 16 位） */
+    private static final long UNPARSED = Long.MIN_VALUE;
+
+    /** 快速路径支持的最大整数位数：10^16 元 × 100 仍在 long 范围内 */
+    private static final int MAX_INTEGER_DIGITS = 16;
+
+    /**
+     * 快速解析 [+-]?digits[.digits] 格式的金额，按 HALF_UP 舍入到分，不创建 BigDecimal。
+     * 与 new BigDecimal(s).setScale(2, HALF_UP) 结果一致；其他格式返回 UNPARSED。
+     */
+    private static long parseCents(String s) {
+        int length = s.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+
+        long units = 0;
+        int integerDigits = 0;
+        for (; i < length && s.charAt(i) != '.'; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9' || ++integerDigits > MAX_INTEGER_DIGITS) {
+                return UNPARSED;
+            }
+            units = units * 10 + (c - '0');
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (i < length) {
+            i++; // 跳过小数点
+            for (; i < length; i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') {
+                    return UNPARSED;
+                }
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + (c - '0');
+                } else if (fractionDigits == SCALE) {
+                    // HALF_UP：只看被舍弃部分的第一位
+                    roundUp = c >= '5';
+                }
+                fractionDigits++;
+            }
+        }
+        if (integerDigits == 0 && fractionDigits == 0) {
+            return UNPARSED;
+        }
+        for (int d = fractionDigits; d < SCALE; d++) {
+            fraction *= 10;
+        }
+
+        long magnitude = units * 100 + fraction + (roundUp ? 1 : 0);
+        return negative ? -magnitude : magnitude;
     }
 }
@@ -0,0 +1,115 @@
+package com.sample.finance.application;
+
+import com.sample.common.DomainEvent;
+import com.sample.common.DomainEventPublisher;
+import com.sample.finance.domain.model.CostType;
+import com.sample.finance.infrastructure.projection.CostLedgerProjection;
+import com.sample.inventory.domain.event.RepairCompletedEvent;
+import com.sample.inventory.domain.event.StockOutEvent;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.purchase.domain.event.PurchaseCompletedEvent;
+import com.sample.purchase.domain.model.PurchaseItem;
+
+/**
+ * === 设计要点 ===
+ * 成本账本的事件消费者：把采购、维修、出库事件增量应用到 CostLedgerProjection。
+ *
+ * 事件 → 账本：
+ * - PurchaseCompletedEvent：每个已收 SN 归集 ACQUISITION（采购单价，来源 = 采购单号）；
+ *   SN 按 SnCode 的规则规范化、来源单号与 PurchaseCompletedTranslator 写入库存的格式一致，维修与出库事件才能对上同一行
+ * - RepairCompletedEvent：归集 REPAIR_PARTS + REPAIR_LABOR，按 itemId + aggregateVersion 去重
+ * - StockOutEvent：settleOut() 成本结转
+ *
+ * 事件来源是 OutboxRelay（把本对象作为 DomainEventPublisher 交给采购与库存两个发件箱的投递器），
+ * 而不是 RingBufferEventBus：总线在订阅落后时覆盖旧事件且没有重放，丢一个维修或出库事件账本就永久不对；
+ * 投递器是至少一次、按日志顺序，崩溃后重复投递的最后一批由账本的幂等规则吸收
+ * （采购按来源单号、维修按幂等键、出库按销售单号）。
+ * 同一发件箱内按日志顺序处理，库存上下文的维修不会晚于同一库存项之后的出库被处理。
+ *
+ * 单个事件被拒绝（结转后归集、不同来源等）只计数，不影响同批次的其他事件，也不让投递器整批重试。
+ * 两个投递器各有自己的线程，publish() 在本对象的监视器内执行，投影仍然只有一个写者。
+ */
+public class CostLedgerProjector implements DomainEventPublisher {
+
+    private final CostLedgerProjection projection;
+
+    /** 以下计数只在 publish() 内（监视器内）写入 */
+    private volatile long appliedEvents;
+    private volatile long rejectedEntries;
+    private volatile long duplicateRepairs;
+
+    public CostLedgerProjector(CostLedgerProjection projection) {
+        this.projection = projection;
+    }
+
+    /**
+     * 应用单个事件（由 OutboxRelay 调用）。与账本无关的事件忽略。
+     */
+    @Override
+    public synchronized void publish(DomainEvent event) {
+        if (event instanceof PurchaseCompletedEvent purchase) {
+            onPurchaseCompleted(purchase);
+        } else if (event instanceof RepairCompletedEvent repair) {
+            try {
+                if (!projection.recordRepair(repair.getSnCode().getValue(), repair.getPartsCost(),
+                        repair.getLaborCost(), repair.getItemId() == null ? 0L : repair.getItemId().getValue(),
+                        repair.getAggregateVersion(), repair.getAccumulatedCost())) {
+                    duplicateRepairs++;
+                }
+            } catch (RuntimeException e) {
+                rejectedEntries++;
+            }
+        } else if (event instanceof StockOutEvent stockOut) {
+            try {
+                projection.settleOut(stockOut.getSnCode().getValue(), stockOut.getSalesOrderId());
+            } catch (RuntimeException e) {
+                rejectedEntries++;
+            }
+        } else {
+            return;
+        }
+        appliedEvents++;
+    }
+
+    public CostLedgerProjection getProjection() {
+        return projection;
+    }
+
+    public long getAppliedEvents() {
+        return appliedEvents;
+    }
+
+    /** 被拒绝的账本条目数（一个采购事件可能包含多个） */
+    public long getRejectedEntries() {
+        return rejectedEntries;
+    }
+
+    /** 被识别为重复投递而忽略的维修事件数 */
+    public long getDuplicateRepairs() {
+        return duplicateRepairs;
+    }
+
+    // ========== 私有方法 ==========
+
+    private void onPurchaseCompleted(PurchaseCompletedEvent event) {
+        String sourceOrderId = String.valueOf(event.getOrderId().getValue());
+        int snCount = 0;
+        for (PurchaseItem item : event.getItems()) {
+            snCount += item.getReceivedSnCodes().size();
+        }
+        projection.reserve(snCount);
+
+        long rejected = 0;
+        for (PurchaseItem item : event.getItems()) {
+            for (String snCode : item.getReceivedSnCodes()) {
+                try {
+                    projection.recordCost(SnCode.of(snCode).getValue(), CostType.ACQUISITION,
+                            item.getUnitPrice(), sourceOrderId);
+                } catch (RuntimeException e) {
+                    rejected++;
+                }
+            }
+        }
+        rejectedEntries += rejected;
+    }
+}
@@ -0,0 +1,145 @@
+package com.sample.finance.domain.model;
+
+import com.sample.common.vo.Money;
+
+import java.util.Objects;
+
+/**
+ * === 设计要点 ===
+ * CostBreakdown 值对象：某个 SN 成本账本在某一时刻的快照（查询结果）。
+ *
+ * 账本本身以列式存储在投影中，不为每个 SN 常驻对象；
+ * 只有查询时才按需组装一个 CostBreakdown，调用方可以随意持有，不受后续归集影响。
+ */
+public final class CostBreakdown {
+
+    private final String snCode;
+    private final Money acquisition;
+    private final Money repairParts;
+    private final Money repairLabor;
+    private final Money logistics;
+    private final Money totalCost;
+    private final String acquisitionSourceOrderId;
+    private final int repairCount;
+    private final String settledSalesOrderId;
+    private final boolean settled;
+
+    public CostBreakdown(
+            String snCode,
+            Money acquisition,
+            Money repairParts,
+            Money repairLabor,
+            Money logistics,
+            Money totalCost,
+            String acquisitionSourceOrderId,
+            int repairCount,
+            boolean settled,
+            String settledSalesOrderId) {
+        this.snCode = snCode;
+        this.acquisition = acquisition;
+        this.repairParts = repairParts;
+        this.repairLabor = repairLabor;
+        this.logistics = logistics;
+        this.totalCost = totalCost;
+        this.acquisitionSourceOrderId = acquisitionSourceOrderId;
+        this.repairCount = repairCount;
+        this.settled = settled;
+        this.settledSalesOrderId = settledSalesOrderId;
+    }
+
+    /**
+     * 按类型取某一列的金额。
+     */
+    public Money get(CostType type) {
+        return switch (type) {
+            case ACQUISITION -> acquisition;
+            case REPAIR_PARTS -> repairParts;
+            case REPAIR_LABOR -> repairLabor;
+            case LOGISTICS -> logistics;
+        };
+    }
+
+    /**
+     * 毛利 = 实际售价 - 总成本。
+     */
+    public Money grossMargin(Money salePrice) {
+        return salePrice.subtract(totalCost);
+    }
+
+    public String getSnCode() {
+        return snCode;
+    }
+
+    public Money getAcquisition() {
+        return acquisition;
+    }
+
+    public Money getRepairParts() {
+        return repairParts;
+    }
+
+    public Money getRepairLabor() {
+        return repairLabor;
+    }
+
+    public Money getLogistics() {
+        return logistics;
+    }
+
+    public Money getTotalCost() {
+        return totalCost;
+    }
+
+    /** 获取成本的来源单号（采购单 / 回收单），尚未归集获取成本时为 null */
+    public String getAcquisitionSourceOrderId() {
+        return acquisitionSourceOrderId;
+    }
+
+    /** 归集过的维修次数 */
+    public int getRepairCount() {
+        return repairCount;
+    }
+
+    public boolean isSettled() {
+        return settled;
+    }
+
+    /** 结转时的销售单号（直接调用 settleOut 结转时为 null） */
+    public String getSettledSalesOrderId() {
+        return settledSalesOrderId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        CostBreakdown that = (CostBreakdown) o;
+        return repairCount == that.repairCount
+                && settled == that.settled
+                && snCode.equals(that.snCode)
+                && acquisition.equals(that.acquisition)
+                && repairParts.equals(that.repairParts)
+                && repairLabor.equals(that.repairLabor)
+                && logistics.equals(that.logistics)
+                && Objects.equals(acquisitionSourceOrderId, that.acquisitionSourceOrderId)
+                && Objects.equals(settledSalesOrderId, that.settledSalesOrderId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(snCode, acquisition, repairParts, repairLabor, logistics, settled);
+    }
+
+    @Override
+    public String toString() {
+        return "CostBreakdown[" + snCode
+                + " ACQUISITION=" + acquisition
+                + " REPAIR_PARTS=" + repairParts
+                + " REPAIR_LABOR=" + repairLabor
+                + " LOGISTICS=" + logistics
+                + " total=" + totalCost
+                + (settled ? " settled" : "") + "]";
+    }
+}
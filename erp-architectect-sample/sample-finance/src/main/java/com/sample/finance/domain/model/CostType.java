@@ -0,0 +1,19 @@
+package com.sample.finance.domain.model;
+
+/**
+ * 成本类型（成本账本的列）。
+ */
+public enum CostType {
+
+    /** 获取成本：采购价或回收价，每个 SN 只有一条 */
+    ACQUISITION,
+
+    /** 维修配件，可多次累加 */
+    REPAIR_PARTS,
+
+    /** 维修人工，可多次累加 */
+    REPAIR_LABOR,
+
+    /** 物流运输，手动录入 */
+    LOGISTICS
+}
@@ -0,0 +1,16 @@
+package com.sample.finance.domain.model;
+
+/**
+ * 毛利报表的分组维度。
+ */
+public enum MarginDimension {
+
+    /** 按 SKU */
+    SKU,
+
+    /** 按仓库 */
+    WAREHOUSE,
+
+    /** 按来源类型（采购 / 回收） */
+    SOURCE_TYPE
+}
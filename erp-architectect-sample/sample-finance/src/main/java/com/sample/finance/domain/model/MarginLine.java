@@ -0,0 +1,113 @@
+package com.sample.finance.domain.model;
+
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.model.SourceType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * === 设计要点 ===
+ * MarginLine 值对象：毛利报表的一行（一个分组的汇总）。
+ *
+ * 分组维度为 null 表示该维度已被汇总（例如只按 SKU 汇总时，warehouseId 与 sourceType 为 null）。
+ * 金额以"分"保存，汇总（rollup）时只做整数加法，读取时才生成 Money。
+ */
+public final class MarginLine {
+
+    private final Long skuId;
+    private final Long warehouseId;
+    private final SourceType sourceType;
+    private final long count;
+    private final long costCents;
+    private final long revenueCents;
+
+    public MarginLine(Long skuId, Long warehouseId, SourceType sourceType,
+                      long count, long costCents, long revenueCents) {
+        this.skuId = skuId;
+        this.warehouseId = warehouseId;
+        this.sourceType = sourceType;
+        this.count = count;
+        this.costCents = costCents;
+        this.revenueCents = revenueCents;
+    }
+
+    public Long getSkuId() {
+        return skuId;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public SourceType getSourceType() {
+        return sourceType;
+    }
+
+    /** 出库台数 */
+    public long getCount() {
+        return count;
+    }
+
+    /** 结转成本合计 */
+    public Money getCost() {
+        return Money.ofCents(costCents);
+    }
+
+    /** 销售收入合计 */
+    public Money getRevenue() {
+        return Money.ofCents(revenueCents);
+    }
+
+    /** 毛利 = 收入 - 成本 */
+    public Money getGrossMargin() {
+        return Money.ofCents(revenueCents - costCents);
+    }
+
+    /**
+     * 毛利率 = 毛利 / 收入（4 位小数）；收入为零时返回 0。
+     */
+    public BigDecimal getMarginRate() {
+        if (revenueCents == 0L) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(revenueCents - costCents)
+                .divide(BigDecimal.valueOf(revenueCents), 4, RoundingMode.HALF_UP);
+    }
+
+    long getCostCents() {
+        return costCents;
+    }
+
+    long getRevenueCents() {
+        return revenueCents;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        MarginLine that = (MarginLine) o;
+        return count == that.count
+                && costCents == that.costCents
+                && revenueCents == that.revenueCents
+                && Objects.equals(skuId, that.skuId)
+                && Objects.equals(warehouseId, that.warehouseId)
+                && sourceType == that.sourceType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(skuId, warehouseId, sourceType, count, costCents, revenueCents);
+    }
+
+    @Override
+    public String toString() {
+        return "MarginLine[sku=" + skuId + " warehouse=" + warehouseId + " source=" + sourceType
+                + " count=" + count + " cost=" + getCost() + " revenue=" + getRevenue()
+                + " margin=" + getGrossMargin() + "]";
+    }
+}
@@ -0,0 +1,109 @@
+package com.sample.finance.domain.model;
+
+import com.sample.inventory.domain.model.SourceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * === 设计要点 ===
+ * 毛利报表：最细粒度（SKU × 仓库 × 来源类型）的汇总行。
+ *
+ * 扫描明细只做一次（最细粒度），更粗的报表由 rollup() 在汇总行上再次合并 ——
+ * 汇总行的数量与 SN 数量无关（通常是几千到几十万行），合并代价可以忽略。
+ */
+public final class MarginReport {
+
+    private final List<MarginLine> lines;
+    private final long scannedRows;
+
+    public MarginReport(List<MarginLine> lines, long scannedRows) {
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        this.scannedRows = scannedRows;
+    }
+
+    /**
+     * 按指定维度重新汇总，未指定的维度被合并（对应字段为 null）。
+     */
+    public MarginReport rollup(MarginDimension... dimensions) {
+        Set<MarginDimension> keep = dimensions.length == 0
+                ? EnumSet.noneOf(MarginDimension.class)
+                : EnumSet.copyOf(Arrays.asList(dimensions));
+        boolean bySku = keep.contains(MarginDimension.SKU);
+        boolean byWarehouse = keep.contains(MarginDimension.WAREHOUSE);
+        boolean bySource = keep.contains(MarginDimension.SOURCE_TYPE);
+
+        Map<GroupKey, long[]> sums = new LinkedHashMap<>();
+        for (MarginLine line : lines) {
+            GroupKey key = new GroupKey(
+                    bySku ? line.getSkuId() : null,
+                    byWarehouse ? line.getWarehouseId() : null,
+                    bySource ? line.getSourceType() : null);
+            long[] sum = sums.computeIfAbsent(key, k -> new long[3]);
+            sum[0] += line.getCount();
+            sum[1] += line.getCostCents();
+            sum[2] += line.getRevenueCents();
+        }
+
+        List<MarginLine> rolledUp = new ArrayList<>(sums.size());
+        for (Map.Entry<GroupKey, long[]> entry : sums.entrySet()) {
+            GroupKey key = entry.getKey();
+            long[] sum = entry.getValue();
+            rolledUp.add(new MarginLine(key.skuId, key.warehouseId, key.sourceType, sum[0], sum[1], sum[2]));
+        }
+        return new MarginReport(rolledUp, scannedRows);
+    }
+
+    /**
+     * 全部汇总成一行。
+     */
+    public MarginLine total() {
+        List<MarginLine> all = rollup().lines;
+        return all.isEmpty() ? new MarginLine(null, null, null, 0L, 0L, 0L) : all.get(0);
+    }
+
+    public List<MarginLine> getLines() {
+        return lines;
+    }
+
+    /** 本次扫描的明细行数（含未落在时间范围内的行） */
+    public long getScannedRows() {
+        return scannedRows;
+    }
+
+    private static final class GroupKey {
+        final Long skuId;
+        final Long warehouseId;
+        final SourceType sourceType;
+
+        GroupKey(Long skuId, Long warehouseId, SourceType sourceType) {
+            this.skuId = skuId;
+            this.warehouseId = warehouseId;
+            this.sourceType = sourceType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof GroupKey))
+                return false;
+            GroupKey that = (GroupKey) o;
+            return Objects.equals(skuId, that.skuId)
+                    && Objects.equals(warehouseId, that.warehouseId)
+                    && sourceType == that.sourceType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(skuId, warehouseId, sourceType);
+        }
+    }
+}
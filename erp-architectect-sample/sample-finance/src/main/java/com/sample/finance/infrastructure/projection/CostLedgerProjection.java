@@ -0,0 +1,414 @@
+package com.sample.finance.infrastructure.projection;
+
+import com.sample.common.vo.Money;
+import com.sample.finance.domain.model.CostBreakdown;
+import com.sample.finance.domain.model.CostType;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * === 设计要点 ===
+ * 成本账本投影：以 SN 为维度的个别计价，由采购、维修、出库事件增量构建。
+ *
+ * 为什么不按文档那样每个 SN 一个 CostLedger 对象 + List&lt;CostEntry&gt;？
+ * - 百万级 SN 时，每个账本一个对象、每条明细一个对象（含 Money、来源单号），对象头和引用占了大头
+ * - 结转与毛利只需要每一类的合计，逐笔明细属于采购单、库存履历等源头数据，不在投影里重复保存
+ *
+ * 列式存储（一行 = 一个 SN 的一个生命周期，行号 = 生命周期开始的顺序）：
+ * 1. costCents[row * 4 + type]：四类成本的合计（分），同一 SN 的四列相邻，一次缓存行读完
+ * 2. totalCents[row]：总成本的冗余列，每次归集时同步累加 —— settleOut() 只读这一列，O(1)
+ * 3. flags / repairCounts / 来源单号 / 结转单号：其余元数据，同样按行号存放
+ * 4. 开放寻址哈希表 slots：SN → 当前生命周期的行号 + 1（0 表示空槽），线性探测，负载因子不超过 2/3
+ * 5. previousRows[row]：同一 SN 上一个生命周期的行号（-1 表示没有），用于识别旧生命周期的重复投递
+ * 6. repairItemIds / repairVersions / repairWatermarks[row]：该行最近一次归集的维修的幂等键（库存项 ID、版本、累计成本）
+ *
+ * SN 的 String 对象直接引用事件中的实例（hashCode 已缓存，查找不需要重新计算）；
+ * 同一张采购单的来源单号在所有 SN 间共享同一个 String。
+ *
+ * 业务规则（见 process/cost-tracking.md）：
+ * - 单调递增：归集金额必须大于零，合计只增不减
+ * - 唯一来源：每个生命周期只能有一条 ACQUISITION；同一来源重复投递视为幂等，不同来源拒绝
+ * - 结转之后该生命周期不再接受新的成本
+ *
+ * 生命周期：已售出的 SN 可以再次入库（售后回收），之后还会有维修和出库。
+ * 已结转的 SN 再收到成本（新的采购、回收后的维修）时开启一个新行，旧行保留为历史，不再参与哈希表。
+ * 旧生命周期事件的重复投递（相同的采购来源 / 销售单 / 维修键）按幂等处理，不会开启新行。
+ *
+ * 维修的幂等键是 RepairCompletedEvent 的 itemId + aggregateVersion（同一次保存内的多轮维修再按累计成本区分）。
+ * 同一库存项的维修按版本顺序投递（OutboxRelay 按日志顺序），因此每行只需记住最近一次的键作为水位：
+ * 不高于水位的维修就是重复投递。没有幂等键的维修（itemId = 0）照常累加。
+ *
+ * 并发：写入来自事件订阅线程（单写者），查询来自任意线程，所有方法都在本对象的监视器内。
+ */
+public class CostLedgerProjection {
+
+    private static final CostType[] COST_TYPES = CostType.values();
+    private static final int STRIDE = COST_TYPES.length;
+
+    private static final byte HAS_ACQUISITION = 1;
+    private static final byte SETTLED = 1 << 1;
+    /** 已被同一 SN 的新生命周期取代，不在哈希表中 */
+    private static final byte SUPERSEDED = 1 << 2;
+
+    private String[] snCodes;
+    private long[] costCents;
+    private long[] totalCents;
+    private int[] repairCounts;
+    private byte[] flags;
+    private String[] acquisitionSources;
+    private String[] settledSalesOrderIds;
+    private int[] previousRows;
+    private long[] repairItemIds;
+    private long[] repairVersions;
+    private long[] repairWatermarks;
+    private int rows;
+    private int settledRows;
+
+    private int[] slots;
+    private int mask;
+
+    public CostLedgerProjection() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSns 预估 SN 数量，用于预设列与哈希表的容量
+     */
+    public CostLedgerProjection(int expectedSns) {
+        int capacity = Math.max(16, expectedSns);
+        this.snCodes = new String[capacity];
+        this.costCents = new long[capacity * STRIDE];
+        this.totalCents = new long[capacity];
+        this.repairCounts = new int[capacity];
+        this.flags = new byte[capacity];
+        this.acquisitionSources = new String[capacity];
+        this.settledSalesOrderIds = new String[capacity];
+        this.previousRows = new int[capacity];
+        this.repairItemIds = new long[capacity];
+        this.repairVersions = new long[capacity];
+        this.repairWatermarks = new long[capacity];
+        int tableSize = 16;
+        while (tableSize * 2 < capacity * 3) {
+            tableSize <<= 1;
+        }
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    // ========== 归集 ==========
+
+    /**
+     * 归集一笔成本。SN 当前的生命周期已结转时开启新的生命周期。
+     *
+     * @return false 表示同一来源的获取成本重复投递，账本不变
+     */
+    public synchronized boolean recordCost(String snCode, CostType type, Money amount, String sourceOrderId) {
+        if (type == null) {
+            throw new IllegalArgumentException("成本类型不能为空");
+        }
+        long cents = positiveCents(amount);
+        int slot = slotOf(snCode);
+        int row = slots[slot] - 1;
+
+        if (row >= 0 && (flags[row] & SETTLED) != 0) {
+            if (type == CostType.ACQUISITION && acquiredBefore(row, sourceOrderId)) {
+                return false;
+            }
+            row = -1;
+        }
+        if (row >= 0) {
+            if (type == CostType.ACQUISITION && (flags[row] & HAS_ACQUISITION) != 0) {
+                if (Objects.equals(acquisitionSources[row], sourceOrderId)) {
+                    return false;
+                }
+                throw new IllegalStateException("SN [" + snCode + "] 已有获取成本记录（来源 "
+                        + acquisitionSources[row] + "），每个 SN 只能有一条");
+            }
+        }
+        if (type == CostType.ACQUISITION && (sourceOrderId == null || sourceOrderId.isBlank())) {
+            throw new IllegalArgumentException("获取成本必须关联来源单号");
+        }
+
+        if (row < 0) {
+            row = open(slot, snCode);
+        }
+        add(row, type, cents);
+        if (type == CostType.ACQUISITION) {
+            flags[row] |= HAS_ACQUISITION;
+            acquisitionSources[row] = sourceOrderId;
+        }
+        return true;
+    }
+
+    /**
+     * 归集一次没有幂等键的维修（重复调用会重复累加）。
+     */
+    public void recordRepair(String snCode, Money partsCost, Money laborCost) {
+        recordRepair(snCode, partsCost, laborCost, 0L, 0L, Money.ZERO);
+    }
+
+    /**
+     * 归集一次维修：配件与人工两列、维修次数一起更新。其中一项可以为零，合计必须大于零。
+     *
+     * @param itemId           库存项 ID，0 表示没有幂等键
+     * @param aggregateVersion 包含这次维修的保存之后库存项的版本号
+     * @param accumulatedCost  维修后库存项的累计成本，区分同一次保存内的多轮维修
+     * @return false 表示同一维修重复投递，账本不变
+     */
+    public synchronized boolean recordRepair(String snCode, Money partsCost, Money laborCost,
+                                             long itemId, long aggregateVersion, Money accumulatedCost) {
+        long parts = nonNegativeCents(partsCost);
+        long labor = nonNegativeCents(laborCost);
+        if (parts + labor <= 0L) {
+            throw new IllegalArgumentException("维修成本必须大于零");
+        }
+        long watermark = nonNegativeCents(accumulatedCost);
+        int slot = slotOf(snCode);
+        int row = slots[slot] - 1;
+        if (itemId != 0L && repairedBefore(row, itemId, aggregateVersion, watermark)) {
+            return false;
+        }
+        if (row < 0 || (flags[row] & SETTLED) != 0) {
+            row = open(slot, snCode);
+        }
+        add(row, CostType.REPAIR_PARTS, parts);
+        add(row, CostType.REPAIR_LABOR, labor);
+        repairCounts[row]++;
+        if (itemId != 0L) {
+            repairItemIds[row] = itemId;
+            repairVersions[row] = aggregateVersion;
+            repairWatermarks[row] = watermark;
+        }
+        return true;
+    }
+
+    /**
+     * 为即将到来的一批 SN 预留容量（如一张大采购单），避免逐个扩容。
+     */
+    public synchronized void reserve(int additionalSns) {
+        ensureCapacity(rows + additionalSns);
+        while ((rows + additionalSns) * 3 > slots.length * 2) {
+            rehash(slots.length * 2);
+        }
+    }
+
+    // ========== 结转 ==========
+
+    /**
+     * 成本结转：O(1) 返回总成本，并把账本标记为已结转。
+     */
+    public Money settleOut(String snCode) {
+        return settleOut(snCode, null);
+    }
+
+    /**
+     * 成本结转（关联销售单号）。同一销售单重复结转返回相同结果（幂等，包括已被取代的旧生命周期），
+     * 当前生命周期已由其他销售单结转时拒绝。
+     */
+    public synchronized Money settleOut(String snCode, String salesOrderId) {
+        int row = slots[slotOf(snCode)] - 1;
+        if (row < 0) {
+            throw new IllegalStateException("SN [" + snCode + "] 没有成本账本，无法结转");
+        }
+        if (salesOrderId != null) {
+            for (int earlier = previousRows[row]; earlier >= 0; earlier = previousRows[earlier]) {
+                if (salesOrderId.equals(settledSalesOrderIds[earlier])) {
+                    return Money.ofCents(totalCents[earlier]);
+                }
+            }
+        }
+        if ((flags[row] & SETTLED) != 0) {
+            if (!Objects.equals(settledSalesOrderIds[row], salesOrderId)) {
+                throw new IllegalStateException("SN [" + snCode + "] 已由销售单 "
+                        + settledSalesOrderIds[row] + " 结转");
+            }
+        } else {
+            flags[row] |= SETTLED;
+            settledSalesOrderIds[row] = salesOrderId;
+            settledRows++;
+        }
+        return Money.ofCents(totalCents[row]);
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * SN 当前（最近一个）生命周期的成本明细。
+     */
+    public synchronized Optional<CostBreakdown> find(String snCode) {
+        int row = slots[slotOf(snCode)] - 1;
+        if (row < 0) {
+            return Optional.empty();
+        }
+        int base = row * STRIDE;
+        return Optional.of(new CostBreakdown(
+                snCodes[row],
+                Money.ofCents(costCents[base + CostType.ACQUISITION.ordinal()]),
+                Money.ofCents(costCents[base + CostType.REPAIR_PARTS.ordinal()]),
+                Money.ofCents(costCents[base + CostType.REPAIR_LABOR.ordinal()]),
+                Money.ofCents(costCents[base + CostType.LOGISTICS.ordinal()]),
+                Money.ofCents(totalCents[row]),
+                acquisitionSources[row],
+                repairCounts[row],
+                (flags[row] & SETTLED) != 0,
+                settledSalesOrderIds[row]));
+    }
+
+    /**
+     * 当前总成本（不结转）。SN 没有账本时返回 null。
+     */
+    public synchronized Money totalCost(String snCode) {
+        int row = slots[slotOf(snCode)] - 1;
+        return row < 0 ? null : Money.ofCents(totalCents[row]);
+    }
+
+    /** 账本数量（SN 生命周期数，再次入库的 SN 计多次） */
+    public synchronized int size() {
+        return rows;
+    }
+
+    /** 已结转的账本数量 */
+    public synchronized int settledCount() {
+        return settledRows;
+    }
+
+    // ========== 私有方法 ==========
+
+    private void add(int row, CostType type, long cents) {
+        int column = row * STRIDE + type.ordinal();
+        costCents[column] = Math.addExact(costCents[column], cents);
+        totalCents[row] = Math.addExact(totalCents[row], cents);
+    }
+
+    /**
+     * 这个已结转的生命周期（或更早的）是否已由该来源归集过获取成本。
+     */
+    private boolean acquiredBefore(int row, String sourceOrderId) {
+        for (; row >= 0; row = previousRows[row]) {
+            if ((flags[row] & HAS_ACQUISITION) != 0 && Objects.equals(acquisitionSources[row], sourceOrderId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 该库存项的这次维修是否已归集过：从当前行往前找最近一次归集过该库存项维修的行，
+     * 键（版本, 累计成本）不高于那一行的水位即为重复投递。
+     */
+    private boolean repairedBefore(int row, long itemId, long aggregateVersion, long watermark) {
+        for (; row >= 0; row = previousRows[row]) {
+            if (repairItemIds[row] == itemId) {
+                return aggregateVersion < repairVersions[row]
+                        || (aggregateVersion == repairVersions[row] && watermark <= repairWatermarks[row]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 开启 SN 的新生命周期：槽位为空时插入，否则取代槽位中已结转的行。
+     */
+    private int open(int slot, String snCode) {
+        int current = slots[slot] - 1;
+        if (current < 0) {
+            int row = insert(slot, snCode);
+            previousRows[row] = -1;
+            return row;
+        }
+        ensureCapacity(rows + 1);
+        int row = rows++;
+        snCodes[row] = snCodes[current];
+        previousRows[row] = current;
+        flags[current] |= SUPERSEDED;
+        slots[slot] = row + 1;
+        return row;
+    }
+
+    private static long positiveCents(Money amount) {
+        if (amount == null || !amount.isGreaterThan(Money.ZERO)) {
+            throw new IllegalArgumentException("成本金额必须大于零");
+        }
+        return amount.toCents();
+    }
+
+    private static long nonNegativeCents(Money amount) {
+        if (amount == null || amount.isNegative()) {
+            throw new IllegalArgumentException("成本金额不能为空或为负数");
+        }
+        return amount.toCents();
+    }
+
+    /**
+     * SN 所在的槽位；不存在时返回它应当插入的空槽。
+     */
+    private int slotOf(String snCode) {
+        if (snCode == null || snCode.isBlank()) {
+            throw new IllegalArgumentException("SN 不能为空");
+        }
+        int slot = hash(snCode) & mask;
+        while (slots[slot] != 0) {
+            if (snCodes[slots[slot] - 1].equals(snCode)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int insert(int slot, String snCode) {
+        ensureCapacity(rows + 1);
+        int row = rows++;
+        snCodes[row] = snCode;
+        slots[slot] = row + 1;
+        if (rows * 3 > slots.length * 2) {
+            rehash(slots.length * 2);
+        }
+        return row;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= snCodes.length) {
+            return;
+        }
+        int capacity = Math.max(required, snCodes.length * 2);
+        snCodes = Arrays.copyOf(snCodes, capacity);
+        costCents = Arrays.copyOf(costCents, capacity * STRIDE);
+        totalCents = Arrays.copyOf(totalCents, capacity);
+        repairCounts = Arrays.copyOf(repairCounts, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        acquisitionSources = Arrays.copyOf(acquisitionSources, capacity);
+        settledSalesOrderIds = Arrays.copyOf(settledSalesOrderIds, capacity);
+        previousRows = Arrays.copyOf(previousRows, capacity);
+        repairItemIds = Arrays.copyOf(repairItemIds, capacity);
+        repairVersions = Arrays.copyOf(repairVersions, capacity);
+        repairWatermarks = Arrays.copyOf(repairWatermarks, capacity);
+    }
+
+    private void rehash(int tableSize) {
+        int[] table = new int[tableSize];
+        int newMask = tableSize - 1;
+        for (int row = 0; row < rows; row++) {
+            if ((flags[row] & SUPERSEDED) != 0) {
+                continue;
+            }
+            int slot = hash(snCodes[row]) & newMask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & newMask;
+            }
+            table[slot] = row + 1;
+        }
+        this.slots = table;
+        this.mask = newMask;
+    }
+
+    /**
+     * String.hashCode() 已缓存；再把高位混入低位（槽位只取低位）。
+     */
+    private static int hash(String snCode) {
+        int h = snCode.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,164 @@
+package com.sample.finance.infrastructure.projection;
+
+import com.sample.finance.domain.model.MarginLine;
+import com.sample.finance.domain.model.MarginReport;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * === 设计要点 ===
+ * 毛利汇总引擎：对 StockOutHistory 做 fork/join 并行扫描。
+ *
+ * 为什么快？
+ * 1. 列式扫描：每行只读 group / day / 成本 / 售价四个原始类型数组，顺序访问，不产生任何对象（不创建 Money）
+ * 2. 分组字典编码：分组键已在写入时编码为连续的 int，累加就是数组下标访问，没有哈希查找
+ * 3. 每个工作线程一个累加器：叶子任务累加到所在线程的累加器，线程之间不共享写入，没有伪共享和 CAS；
+ *    扫描结束后把各线程的累加器逐组相加（可合并）。累加器只属于本次扫描（不用 ThreadLocal），
+ *    扫描结束即可回收，不会滞留在线程池的线程上
+ *
+ * 累加器布局：long[groupCount * 3]，每组 [台数, 成本分, 收入分] 相邻。
+ * 金额以"分"的 long 累加，单组合计上限约 9 × 10^16 元，足够任何报表。
+ *
+ * 扫描基于调用时刻的快照（已发布的行数与分组数），与持续写入互不阻塞。
+ */
+public class GrossMarginAggregator {
+
+    /** 叶子任务的行数：足够摊薄任务调度开销，又能让各线程均衡 */
+    private static final int LEAF_ROWS = 1 << 18;
+
+    private static final int COUNT = 0;
+    private static final int COST = 1;
+    private static final int REVENUE = 2;
+    private static final int WIDTH = 3;
+
+    private final ForkJoinPool pool;
+
+    public GrossMarginAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public GrossMarginAggregator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 汇总全部出库明细。
+     */
+    public MarginReport aggregate(StockOutHistory history) {
+        return aggregate(history, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 汇总出库日期落在 [from, to) 内的明细（例如月结：本月 1 日 ~ 下月 1 日）。
+     */
+    public MarginReport aggregate(StockOutHistory history, LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("时间范围无效: [" + from + ", " + to + ")");
+        }
+        return aggregate(history, Math.toIntExact(from.toEpochDay()), Math.toIntExact(to.toEpochDay()));
+    }
+
+    // ========== 私有方法 ==========
+
+    private MarginReport aggregate(StockOutHistory history, int fromDay, int toDay) {
+        // 先读行数再读分组数：已发布的行引用的分组一定已发布
+        int rows = history.size();
+        int groups = history.groupCount();
+        StockOutHistory.Chunk[] chunks = history.chunks();
+
+        Map<Thread, long[]> accumulators = new ConcurrentHashMap<>();
+        pool.invoke(new ScanTask(chunks, 0, rows, fromDay, toDay, groups, accumulators));
+
+        long[] merged = new long[groups * WIDTH];
+        for (long[] accumulator : accumulators.values()) {
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += accumulator[i];
+            }
+        }
+
+        List<MarginLine> lines = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            int at = group * WIDTH;
+            if (merged[at + COUNT] == 0L) {
+                continue;
+            }
+            lines.add(new MarginLine(
+                    history.groupSku(group),
+                    history.groupWarehouse(group),
+                    history.groupSource(group),
+                    merged[at + COUNT],
+                    merged[at + COST],
+                    merged[at + REVENUE]));
+        }
+        return new MarginReport(lines, rows);
+    }
+
+    /**
+     * 扫描 [from, to) 行：超过 LEAF_ROWS 时二分，否则累加到当前线程的累加器。
+     */
+    private static final class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final StockOutHistory.Chunk[] chunks;
+        private final int from;
+        private final int to;
+        private final int fromDay;
+        private final int toDay;
+        private final int groups;
+        private final Map<Thread, long[]> accumulators;
+
+        ScanTask(StockOutHistory.Chunk[] chunks, int from, int to, int fromDay, int toDay,
+                 int groups, Map<Thread, long[]> accumulators) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.groups = groups;
+            this.accumulators = accumulators;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_ROWS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new ScanTask(chunks, from, middle, fromDay, toDay, groups, accumulators),
+                        new ScanTask(chunks, middle, to, fromDay, toDay, groups, accumulators));
+                return;
+            }
+            long[] accumulator = accumulators.computeIfAbsent(Thread.currentThread(), t -> new long[groups * WIDTH]);
+            int row = from;
+            while (row < to) {
+                StockOutHistory.Chunk chunk = chunks[row >>> StockOutHistory.CHUNK_SHIFT];
+                int start = row & StockOutHistory.CHUNK_MASK;
+                int end = Math.min(StockOutHistory.CHUNK_SIZE, start + (to - row));
+                scan(chunk, start, end, accumulator);
+                row += end - start;
+            }
+        }
+
+        private void scan(StockOutHistory.Chunk chunk, int start, int end, long[] accumulator) {
+            int[] groupIds = chunk.groups;
+            int[] days = chunk.days;
+            long[] costs = chunk.costCents;
+            long[] prices = chunk.salePriceCents;
+            for (int i = start; i < end; i++) {
+                int day = days[i];
+                if (day >= fromDay && day < toDay) {
+                    int at = groupIds[i] * WIDTH;
+                    accumulator[at + COUNT]++;
+                    accumulator[at + COST] += costs[i];
+                    accumulator[at + REVENUE] += prices[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.sample.finance.infrastructure.projection;
+
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.event.StockOutEvent;
+import com.sample.inventory.domain.model.SourceType;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * === 设计要点 ===
+ * 出库明细的列式存储：毛利报表的扫描对象。
+ *
+ * 每个出库 SN 一行，只保存报表需要的列：
+ * <pre>
+ * | group: int | day: int | costCents: long | salePriceCents: long |  = 24 字节/行
+ * </pre>
+ * - group：分组字典编码（SKU × 仓库 × 来源类型 → 连续的 int），扫描时直接作为累加数组的下标
+ * - day：出库日期（epoch day），用于按月/按区间过滤
+ *
+ * 分块：每 2^20 行一个块，扩容只追加新块，不复制已有数据；块也是并行扫描的天然切分单位。
+ *
+ * 并发：写入（append）在本对象的监视器内；扫描不加锁 ——
+ * 行的各列先写入，再通过 volatile 的 size 发布，读者先读 size 再读块，只会看到完整的行。
+ * 分组字典同理，先写字典再发布 groupCount。
+ */
+public class StockOutHistory {
+
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final SourceType[] SOURCE_TYPES = SourceType.values();
+    private static final byte NO_SOURCE = -1;
+
+    /**
+     * 一个块的列。
+     */
+    static final class Chunk {
+        final int[] groups = new int[CHUNK_SIZE];
+        final int[] days = new int[CHUNK_SIZE];
+        final long[] costCents = new long[CHUNK_SIZE];
+        final long[] salePriceCents = new long[CHUNK_SIZE];
+    }
+
+    private volatile Chunk[] chunks = new Chunk[8];
+    private volatile int size;
+
+    // ========== 分组字典 ==========
+    private long[] groupSkus = new long[1024];
+    private long[] groupWarehouses = new long[1024];
+    private byte[] groupSources = new byte[1024];
+    private volatile int groupCount;
+    private int[] groupSlots = new int[2048];
+    private int groupMask = 2047;
+
+    // ========== 写入 ==========
+
+    /**
+     * 记录一次出库：成本取自事件，售价由销售侧提供。
+     */
+    public void record(StockOutEvent event, Money salePrice) {
+        if (salePrice == null || salePrice.isNegative()) {
+            throw new IllegalArgumentException("售价不能为空或为负数");
+        }
+        append(event.getSkuId(),
+                event.getWarehouseId().getValue(),
+                event.getSourceType(),
+                event.getOccurredAt().toLocalDate(),
+                event.getAccumulatedCost().toCents(),
+                salePrice.toCents());
+    }
+
+    public synchronized void append(long skuId, long warehouseId, SourceType sourceType,
+                                    LocalDate day, long costCents, long salePriceCents) {
+        int group = groupOf(skuId, warehouseId, sourceType);
+        int row = size;
+        Chunk[] current = chunks;
+        int chunkIndex = row >>> CHUNK_SHIFT;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        Chunk chunk = current[chunkIndex];
+        if (chunk == null) {
+            chunk = new Chunk();
+            current[chunkIndex] = chunk;
+            chunks = current;
+        }
+        int i = row & CHUNK_MASK;
+        chunk.groups[i] = group;
+        chunk.days[i] = Math.toIntExact(day.toEpochDay());
+        chunk.costCents[i] = costCents;
+        chunk.salePriceCents[i] = salePriceCents;
+        size = row + 1; // 发布
+    }
+
+    // ========== 查询 ==========
+
+    /** 已发布的行数 */
+    public int size() {
+        return size;
+    }
+
+    /** 分组数（SKU × 仓库 × 来源类型的不同组合数） */
+    public int groupCount() {
+        return groupCount;
+    }
+
+    // ========== 供扫描使用（包级私有） ==========
+
+    Chunk[] chunks() {
+        return chunks;
+    }
+
+    long groupSku(int group) {
+        return groupSkus[group];
+    }
+
+    long groupWarehouse(int group) {
+        return groupWarehouses[group];
+    }
+
+    SourceType groupSource(int group) {
+        byte source = groupSources[group];
+        return source == NO_SOURCE ? null : SOURCE_TYPES[source];
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 分组字典：开放寻址，槽中存放分组编号 + 1；新分组追加到末尾。
+     */
+    private int groupOf(long skuId, long warehouseId, SourceType sourceType) {
+        byte source = sourceType == null ? NO_SOURCE : (byte) sourceType.ordinal();
+        int slot = hash(skuId, warehouseId, source) & groupMask;
+        while (groupSlots[slot] != 0) {
+            int group = groupSlots[slot] - 1;
+            if (groupSkus[group] == skuId && groupWarehouses[group] == warehouseId && groupSources[group] == source) {
+                return group;
+            }
+            slot = (slot + 1) & groupMask;
+        }
+
+        int group = groupCount;
+        if (group == groupSkus.length) {
+            groupSkus = Arrays.copyOf(groupSkus, group * 2);
+            groupWarehouses = Arrays.copyOf(groupWarehouses, group * 2);
+            groupSources = Arrays.copyOf(groupSources, group * 2);
+        }
+        groupSkus[group] = skuId;
+        groupWarehouses[group] = warehouseId;
+        groupSources[group] = source;
+        groupSlots[slot] = group + 1;
+        groupCount = group + 1; // 发布
+        if ((group + 1) * 3 > groupSlots.length * 2) {
+            rehashGroups();
+        }
+        return group;
+    }
+
+    private void rehashGroups() {
+        int[] table = new int[groupSlots.length * 2];
+        int mask = table.length - 1;
+        for (int group = 0; group < groupCount; group++) {
+            int slot = hash(groupSkus[group], groupWarehouses[group], groupSources[group]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = group + 1;
+        }
+        this.groupSlots = table;
+        this.groupMask = mask;
+    }
+
+    private static int hash(long skuId, long warehouseId, byte source) {
+        long h = skuId * 0x9E3779B97F4A7C15L + warehouseId * 0xC2B2AE3D27D4EB4FL + source;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
@@ -1,6 +1,10 @@
 package com.sample.inventory.application;
 
 import com.sample.common.DomainEvent;
+import com.sample.common.concurrency.RetryingCommandRunner;
+import com.sample.common.lock.DistributedLock;
+import com.sample.common.lock.StripedLock;
+import com.sample.common.outbox.Outbox;
 import com.sample.common.vo.Money;
 import com.sample.inventory.domain.model.InventoryItem;
 import com.sample.inventory.domain.model.SourceType;
@@ -9,6 +13,15 @@ import com.sample.inventory.domain.vo.InventoryItemId;
 import com.sample.inventory.domain.vo.SnCode;
 import com.sample.inventory.domain.vo.WarehouseId;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
 /**
  * === 设计要点 ===
  * InventoryApplicationService：应用服务层。
@@ -31,13 +44,44 @@ import com.sample.inventory.domain.vo.WarehouseId;
  */
 public class InventoryApplicationService {
 
+    /** SN 级别锁的 key 前缀 */
+    private static final String SN_LOCK_PREFIX = "inventory:sn:";
+
     private final InventoryItemRepository repository;
-    // 实际项目中还需要 EventPublisher、DistributedLock 等
-    // private final DomainEventPublisher eventPublisher;
-    // private final DistributedLock distributedLock;
+    private final DistributedLock distributedLock;
+    private final Outbox outbox;
+    private final RetryingCommandRunner commandRunner;
 
+    /**
+     * 单机部署时使用本地分段锁，不接入 Outbox。
+     */
     public InventoryApplicationService(InventoryItemRepository repository) {
+        this(repository, new StripedLock(), Outbox.NONE);
+    }
+
+    /**
+     * @param outbox 接入持久化日志时用 InventoryItemSaveVerifier.openOutbox(journal, serializer, repository) 打开，
+     *               崩溃遗留的事件按同一个仓储核对
+     */
+    public InventoryApplicationService(
+            InventoryItemRepository repository,
+            DistributedLock distributedLock,
+            Outbox outbox) {
+        this(repository, distributedLock, outbox, RetryingCommandRunner.defaults());
+    }
+
+    /**
+     * @param distributedLock 传入 DistributedLock.NONE 时不加悲观锁，完全依赖版本号比较 + 重试
+     */
+    public InventoryApplicationService(
+            InventoryItemRepository repository,
+            DistributedLock distributedLock,
+            Outbox outbox,
+            RetryingCommandRunner commandRunner) {
         this.repository = repository;
+        this.distributedLock = distributedLock;
+        this.outbox = outbox;
+        this.commandRunner = commandRunner;
     }
 
     /**
@@ -46,8 +90,7 @@ public class InventoryApplicationService {
      * 注意应用服务的职责边界：
      * 1. 前置校验（SN 唯一性，跨聚合的校验放这里）
      * 2. 调用聚合根工厂方法创建
-     * 3. 持久化
-     * 4. 发布事件
+     * 3. 持久化 + 记录事件（同一个工作单元，由 Outbox 负责后续投递）
      *
      * 业务逻辑（如成本初始化、状态设置）全在聚合根内部。
      */
@@ -72,16 +115,88 @@ public class InventoryApplicationService {
         // 3. 调用聚合根的工厂方法（业务逻辑在聚合根内部）
         InventoryItem item = InventoryItem.stockIn(snCode, skuId, whId, cost, sourceType, sourceOrderId);
 
-        // 4. 持久化
-        repository.save(item);
-
-        // 5. 发布事件（实际项目中通过 EventPublisher）
-        // item.getDomainEvents().forEach(eventPublisher::publish);
-        // item.clearDomainEvents();
+        // 4. 持久化 + 记录事件
+        outbox.saveAndRecord(item, () -> repository.save(item));
 
         return item.getItemId();
     }
 
+    /**
+     * 用例：整单批量入库（采购完成后由 PurchaseCompletedTranslator 翻译采购事件得到命令）。
+     *
+     * 与逐个调用 stockIn() 的区别：
+     * - stockIn() 每个 SN 各做一次唯一性查询 + 一次保存，5000 台设备 = 10000 次仓储调用
+     * - 这里整批只做一次 existsActiveBySnCodes() + 一次 saveAll()
+     *
+     * 单个 SN 的失败（格式非法、批内重复、已有活跃记录）只记录到结果中，不中断整批。
+     * 查询之后、保存之前同一 SN 被并发入库时，saveAll() 会在那一条抛出 IllegalStateException：
+     * 此时已写入的库存项照常生效（Outbox 按版本号判断、提交它们的事件），其余的逐个重新保存，
+     * 被占用的 SN 同样记入失败结果 —— 调用方总是拿到逐个 SN 的结果，重试不会撞上自己已写入的记录。
+     * 获取成本取明细的单价，业务校验仍然在 InventoryItem.stockIn() 内部。
+     */
+    public StockInBatchResult stockInBatch(StockInBatchCommand command) {
+        WarehouseId whId = WarehouseId.of(command.getWarehouseId());
+        String sourceOrderId = command.getSourceOrderId();
+        LinkedHashMap<String, String> failures = new LinkedHashMap<>();
+
+        // 1. 构建值对象 + 批内去重（LinkedHashMap 保持收货顺序）
+        Map<SnCode, StockInBatchCommand.Line> candidates = new LinkedHashMap<>();
+        for (StockInBatchCommand.Line line : command.getLines()) {
+            for (String rawSn : line.getSnCodes()) {
+                SnCode snCode;
+                try {
+                    snCode = SnCode.of(rawSn);
+                } catch (IllegalArgumentException e) {
+                    failures.put(rawSn, e.getMessage());
+                    continue;
+                }
+                if (candidates.putIfAbsent(snCode, line) != null) {
+                    failures.put(rawSn, "同一采购单内 SN 重复");
+                }
+            }
+        }
+
+        // 2. 跨聚合的唯一性校验：整批一次查询
+        Set<SnCode> existing = candidates.isEmpty()
+                ? Set.of()
+                : repository.existsActiveBySnCodes(candidates.keySet());
+
+        // 3. 调用聚合根工厂方法逐个创建（业务校验在聚合根内部）
+        List<InventoryItem> items = new ArrayList<>(candidates.size());
+        for (Map.Entry<SnCode, StockInBatchCommand.Line> entry : candidates.entrySet()) {
+            SnCode snCode = entry.getKey();
+            if (existing.contains(snCode)) {
+                failures.put(snCode.getValue(), "SN [" + snCode + "] 已存在活跃库存记录，不允许重复入库");
+                continue;
+            }
+            StockInBatchCommand.Line line = entry.getValue();
+            try {
+                items.add(InventoryItem.stockIn(
+                        snCode, line.getSkuId(), whId, line.getUnitCost(), SourceType.PURCHASE, sourceOrderId));
+            } catch (IllegalArgumentException e) {
+                failures.put(snCode.getValue(), e.getMessage());
+            }
+        }
+
+        // 4. 持久化：整批一次写入，事件在同一个工作单元内记录
+        List<InventoryItemId> ids = new ArrayList<>(items.size());
+        if (items.isEmpty()) {
+            return new StockInBatchResult(ids, failures);
+        }
+        try {
+            outbox.saveAndRecordAll(items, () -> repository.saveAll(items));
+        } catch (IllegalStateException e) {
+            // 查询之后有并发入库占用了某个 SN：已写入的保留，其余逐个保存并报告
+            saveRemainingOneByOne(items, failures);
+        }
+        for (InventoryItem item : items) {
+            if (item.getVersion() > 0L) {
+                ids.add(item.getItemId());
+            }
+        }
+        return new StockInBatchResult(ids, failures);
+    }
+
     /**
      * 用例：质检通过。
      *
@@ -90,30 +205,80 @@ public class InventoryApplicationService {
      * 所有状态校验逻辑都在 InventoryItem.passInspection() 内部。
      */
     public void passInspection(Long itemId) {
-        // 1. 加载聚合根
-        InventoryItem item = repository.findById(InventoryItemId.of(itemId))
-                .orElseThrow(() -> new IllegalArgumentException("库存项不存在: " + itemId));
-
-        // 2. 调用业务方法（所有状态校验在聚合根内部）
-        item.passInspection();
-
-        // 3. 持久化
-        repository.save(item);
+        // 加载 → 调用业务方法（所有状态校验在聚合根内部）→ 持久化
+        executeWithSnLock(itemId, InventoryItem::passInspection);
     }
 
     /**
      * 用例：订单锁定库存。
+     *
+     * 抢购场景下多个订单可能同时锁定同一个 SN，
+     * 必须在 SN 级别的锁保护下执行"加载 → 锁定 → 保存"，否则两个订单都会读到 IN_STOCK。
      */
     public void lockForOrder(Long itemId, String orderId) {
-        InventoryItem item = repository.findById(InventoryItemId.of(itemId))
-                .orElseThrow(() -> new IllegalArgumentException("库存项不存在: " + itemId));
+        executeWithSnLock(itemId, item -> item.lockForOrder(orderId));
+    }
+
+    /**
+     * 用例：整单锁定 —— 一张销售单的全部库存项要么都锁定，要么一个都不锁定。
+     *
+     * 与逐个调用 lockForOrder() 的区别：
+     * 1. 加锁顺序：全部 SN 锁通过 DistributedLock.lockAll() 按规范顺序一次获取，
+     *    两张有交集的订单不会因为以相反的顺序加锁而死锁
+     * 2. 先校验后提交：在锁内对每个库存项执行 lockForOrder()，任何一个不允许锁定就整单拒绝，什么都不保存
+     * 3. 提交：一次 saveAll()；仓储部分写入后失败（锁失效时的版本冲突等）→ 已写入的逐个释放，
+     *    版本冲突照常由 RetryingCommandRunner 整单重试
+     *
+     * 重复的库存项 ID 只锁定一次。
+     * 这里的锁定没有有效期；需要到期自动释放时经由 LockReservations.lockForOrder(orderId, itemIds, ttl)。
+     */
+    public void lockForOrder(String orderId, List<Long> itemIds) {
+        if (itemIds == null || itemIds.isEmpty()) {
+            throw new IllegalArgumentException("锁定的库存项不能为空");
+        }
+        Set<InventoryItemId> ids = new LinkedHashSet<>();
+        for (Long itemId : itemIds) {
+            ids.add(InventoryItemId.of(itemId));
+        }
 
-        // 实际项目中这里应该加分布式锁
-        // distributedLock.lock("inventory:sn:" + item.getSnCode().getValue());
+        commandRunner.run(() -> {
+            List<String> lockKeys = new ArrayList<>(ids.size());
+            for (InventoryItemId id : ids) {
+                lockKeys.add(SN_LOCK_PREFIX + loadItem(id).getSnCode().getValue());
+            }
 
-        item.lockForOrder(orderId);
+            distributedLock.lockAll(lockKeys);
+            try {
+                // 全部校验通过之前不保存任何一个
+                List<InventoryItem> items = new ArrayList<>(ids.size());
+                for (InventoryItemId id : ids) {
+                    InventoryItem item = loadItem(id);
+                    item.lockForOrder(orderId);
+                    items.add(item);
+                }
+                saveAllOrRelease(items);
+            } finally {
+                distributedLock.unlockAll(lockKeys);
+            }
+        });
+    }
+
+    /**
+     * 用例：释放锁定（订单取消）。
+     */
+    public void releaseLock(Long itemId) {
+        executeWithSnLock(itemId, InventoryItem::releaseLock);
+    }
 
-        repository.save(item);
+    /**
+     * 用例：锁定到期自动释放（由 LockReservations 的到期回调调用）。
+     *
+     * @return 是否释放了锁定；锁定已不属于该订单（已出库、已释放、已被重新锁定）时不保存
+     */
+    public boolean releaseExpiredLock(Long itemId, String orderId) {
+        boolean[] released = new boolean[1];
+        executeWithSnLockIfChanged(itemId, item -> released[0] = item.releaseExpiredLock(orderId));
+        return released[0];
     }
 
     /**
@@ -121,32 +286,120 @@ public class InventoryApplicationService {
      *
      * 注意事件的处理流程：
      * 1. 聚合根的 confirmStockOut() 内部注册了 StockOutEvent
-     * 2. 应用服务在持久化后取出事件并发布
-     * 3. 财务中心监听 StockOutEvent 执行成本结转
+     * 2. 应用服务保存聚合根时，Outbox 在同一个工作单元内记录事件
+     * 3. 后台 Relay 投递事件，财务中心监听 StockOutEvent 执行成本结转
      */
     public void confirmStockOut(Long itemId) {
-        InventoryItem item = repository.findById(InventoryItemId.of(itemId))
-                .orElseThrow(() -> new IllegalArgumentException("库存项不存在: " + itemId));
+        executeWithSnLock(itemId, InventoryItem::confirmStockOut);
+    }
+
+    /**
+     * 用例：维修完成。
+     */
+    public void completeRepair(Long itemId, String repairCostStr) {
+        Money repairCost = Money.of(repairCostStr);
+        executeWithSnLock(itemId, item -> item.completeRepair(repairCost));
+    }
 
-        item.confirmStockOut();
+    /**
+     * 用例：维修完成（配件与人工分开计价）。
+     */
+    public void completeRepair(Long itemId, String partsCostStr, String laborCostStr) {
+        Money partsCost = Money.of(partsCostStr);
+        Money laborCost = Money.of(laborCostStr);
+        executeWithSnLock(itemId, item -> item.completeRepair(partsCost, laborCost));
+    }
 
-        repository.save(item);
+    // ========== 私有方法 ==========
 
-        // 发布领域事件
-        // item.getDomainEvents().forEach(eventPublisher::publish);
-        // item.clearDomainEvents();
+    /**
+     * 在 SN 级别的锁保护下执行"加载 → 调用 → 保存（含事件记录）"，版本冲突时整体重试。
+     *
+     * 锁的粒度是 SN 而不是全局：
+     * - 同一 SN 的并发操作串行执行
+     * - 不同 SN 的操作落在不同的锁段上，完全并行
+     *
+     * 注意：SN 在库存项生命周期内不可变，所以可以先加载一次拿到 SN 作为锁 key；
+     * 但加锁前读到的状态可能已过期，因此必须在锁内重新加载后再执行业务方法。
+     *
+     * 锁与版本号是两道防线：锁避免同一进程内的无谓冲突；锁失效（集群中锁服务故障、
+     * 或使用 DistributedLock.NONE）时，save 的版本比较保证不会丢失更新 ——
+     * 例如两次并发的 completeRepair，后保存的一方会冲突并基于最新成本重新累加。
+     * 重试在锁外进行，退避期间不占用锁。
+     */
+    private InventoryItem executeWithSnLock(Long itemId, Consumer<InventoryItem> action) {
+        return executeWithSnLockIfChanged(itemId, item -> {
+            action.accept(item);
+            return true;
+        });
     }
 
     /**
-     * 用例：维修完成。
+     * 同 executeWithSnLock，但 action 返回 false（没有任何变更）时不保存。
      */
-    public void completeRepair(Long itemId, String repairCostStr) {
-        InventoryItem item = repository.findById(InventoryItemId.of(itemId))
-                .orElseThrow(() -> new IllegalArgumentException("库存项不存在: " + itemId));
+    private InventoryItem executeWithSnLockIfChanged(Long itemId, Predicate<InventoryItem> action) {
+        InventoryItemId id = InventoryItemId.of(itemId);
+        return commandRunner.call(() -> {
+            String lockKey = SN_LOCK_PREFIX + loadItem(id).getSnCode().getValue();
 
-        Money repairCost = Money.of(repairCostStr);
-        item.completeRepair(repairCost);
+            distributedLock.lock(lockKey);
+            try {
+                InventoryItem item = loadItem(id);
+                if (action.test(item)) {
+                    outbox.saveAndRecord(item, () -> repository.save(item));
+                }
+                return item;
+            } finally {
+                distributedLock.unlock(lockKey);
+            }
+        });
+    }
+
+    /**
+     * 批量入库的 saveAll() 中途失败后：跳过已写入的（版本号已前进），其余逐个保存，SN 冲突记入失败结果。
+     */
+    private void saveRemainingOneByOne(List<InventoryItem> items, Map<String, String> failures) {
+        for (InventoryItem item : items) {
+            if (item.getVersion() > 0L) {
+                continue;
+            }
+            try {
+                outbox.saveAndRecord(item, () -> repository.save(item));
+            } catch (IllegalStateException e) {
+                failures.put(item.getSnCode().getValue(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 整单保存刚锁定的库存项；失败时把已经写入的释放掉，再抛出原异常。
+     */
+    private void saveAllOrRelease(List<InventoryItem> items) {
+        long[] versions = new long[items.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = items.get(i).getVersion();
+        }
+        try {
+            outbox.saveAndRecordAll(items, () -> repository.saveAll(items));
+        } catch (RuntimeException e) {
+            for (int i = 0; i < versions.length; i++) {
+                InventoryItem item = items.get(i);
+                if (item.getVersion() != versions[i]) {
+                    // 版本号前进说明这一条已经写入（仓储的比较并交换语义）
+                    try {
+                        item.releaseLock();
+                        outbox.saveAndRecord(item, () -> repository.save(item));
+                    } catch (RuntimeException releaseFailure) {
+                        e.addSuppressed(releaseFailure);
+                    }
+                }
+            }
+            throw e;
+        }
+    }
 
-        repository.save(item);
+    private InventoryItem loadItem(InventoryItemId id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("库存项不存在: " + id.getValue()));
     }
 }
@@ -0,0 +1,104 @@
+package com.sample.inventory.application;
+
+import com.sample.common.concurrency.MailboxExecutor;
+import com.sample.common.lock.StripedLock;
+import com.sample.common.outbox.Outbox;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+import com.sample.inventory.domain.vo.InventoryItemId;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * === 设计要点 ===
+ * 库存命令的异步入口：把应用服务的用例投递到库存项自己的信箱（MailboxExecutor）。
+ *
+ * 与直接调用 InventoryApplicationService 的区别：
+ * - 调用方不需要自带线程池，拿到 CompletableFuture 即可组合后续处理
+ * - 同一 InventoryItemId 的单项命令按提交顺序串行执行，不同库存项完全并行；
+ *   同一库存项的命令不再在 SN 锁上互相等待，版本号比较只用来防住进程外的写入
+ *
+ * 信箱只能串行化单个库存项的命令，以下写入不经过任何一个信箱：
+ * - 整单锁定 lockForOrder(orderId, itemIds) 涉及多个库存项，在承载执行器上直接执行
+ * - LockReservations 的到期回调在时间轮的执行器上调用应用服务
+ * 因此应用服务仍然要持有 SN 锁（见 withStripedLock），不能换成 DistributedLock.NONE：
+ * 否则整单锁定或到期释放可能与信箱中同一库存项的命令交错，只剩版本冲突后的重试兜底。
+ *
+ * 新建库存项（入库、批量入库）还没有 ID，不进入信箱，直接在承载执行器上执行；
+ * 同一 SN 的并发入库由仓储的 SN 唯一索引拒绝。
+ *
+ * 前提：同一库存项的所有单项命令都经过同一个分发器，否则串行化不成立（SN 锁与版本号比较仍然兜底）。
+ */
+public class InventoryCommandDispatcher {
+
+    private final InventoryApplicationService service;
+    private final MailboxExecutor<InventoryItemId> mailboxes;
+
+    public InventoryCommandDispatcher(InventoryApplicationService service, MailboxExecutor<InventoryItemId> mailboxes) {
+        this.service = service;
+        this.mailboxes = mailboxes;
+    }
+
+    /**
+     * 单机部署：应用服务使用本地分段锁。信箱内的命令在锁上几乎没有竞争，
+     * 锁只用来与整单锁定、到期释放这些不经过信箱的写入互斥。
+     */
+    public static InventoryCommandDispatcher withStripedLock(
+            InventoryItemRepository repository,
+            Outbox outbox,
+            MailboxExecutor<InventoryItemId> mailboxes) {
+        return new InventoryCommandDispatcher(
+                new InventoryApplicationService(repository, new StripedLock(), outbox), mailboxes);
+    }
+
+    public CompletableFuture<InventoryItemId> stockIn(
+            String snCode,
+            Long skuId,
+            Long warehouseId,
+            String acquisitionCost,
+            SourceType sourceType,
+            String sourceOrderId) {
+        return mailboxes.submitUnordered(() ->
+                service.stockIn(snCode, skuId, warehouseId, acquisitionCost, sourceType, sourceOrderId));
+    }
+
+    public CompletableFuture<StockInBatchResult> stockInBatch(StockInBatchCommand command) {
+        return mailboxes.submitUnordered(() -> service.stockInBatch(command));
+    }
+
+    public CompletableFuture<Void> passInspection(Long itemId) {
+        return mailboxes.execute(InventoryItemId.of(itemId), () -> service.passInspection(itemId));
+    }
+
+    public CompletableFuture<Void> lockForOrder(Long itemId, String orderId) {
+        return mailboxes.execute(InventoryItemId.of(itemId), () -> service.lockForOrder(itemId, orderId));
+    }
+
+    /**
+     * 整单锁定：涉及多个库存项，不进入任何一个信箱，由应用服务按规范顺序获取全部 SN 锁。
+     */
+    public CompletableFuture<Void> lockForOrder(String orderId, List<Long> itemIds) {
+        return mailboxes.submitUnordered(() -> {
+            service.lockForOrder(orderId, itemIds);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> releaseLock(Long itemId) {
+        return mailboxes.execute(InventoryItemId.of(itemId), () -> service.releaseLock(itemId));
+    }
+
+    public CompletableFuture<Void> confirmStockOut(Long itemId) {
+        return mailboxes.execute(InventoryItemId.of(itemId), () -> service.confirmStockOut(itemId));
+    }
+
+    public CompletableFuture<Void> completeRepair(Long itemId, String repairCost) {
+        return mailboxes.execute(InventoryItemId.of(itemId), () -> service.completeRepair(itemId, repairCost));
+    }
+
+    public CompletableFuture<Void> completeRepair(Long itemId, String partsCost, String laborCost) {
+        return mailboxes.execute(InventoryItemId.of(itemId),
+                () -> service.completeRepair(itemId, partsCost, laborCost));
+    }
+}
@@ -0,0 +1,192 @@
+package com.sample.inventory.application;
+
+import com.sample.common.timer.HierarchicalTimingWheel;
+import com.sample.common.timer.Timeout;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * === 设计要点 ===
+ * 带有效期的订单锁定：到期未出库的锁定自动释放，SN 回到可售库存。
+ *
+ * 为什么需要？
+ * - lockForOrder 之后只有出库确认或手动 releaseLock 才能离开 LOCKED
+ * - 促销期间大量订单下单后放弃支付，锁住的设备迟迟回不到可售库存
+ *
+ * 结构：
+ * 1. 每个锁定对应一个 Reservation（订单号 + 时间轮中的 Timeout），按库存项 ID 索引
+ * 2. 到期回调调用 InventoryApplicationService.releaseExpiredLock(itemId, orderId)：
+ *    只有仍被该订单锁定时才释放，晚到的回调不会误放别的订单的锁
+ * 3. 时间轮的调度与取消都是 O(1)，百万级未到期锁定只占内存（每个约一百多字节），不增加 CPU 开销
+ *
+ * 出库确认与到期的原子性：二者争夺同一个 Timeout 的 CAS
+ * - confirmStockOut 先 cancel()：成功 → 到期回调一定不会执行，再确认出库
+ * - cancel() 失败 → 到期回调已经赢了（正在或已经释放锁定），出库被拒绝，订单需要重新锁定
+ * - 确认出库本身失败（如仓储异常）→ 按剩余时间重新挂上定时器，锁定仍会到期
+ *
+ * 到期回调直接调用应用服务，不经过 InventoryCommandDispatcher 的信箱，
+ * 与同一库存项其他命令的互斥依靠应用服务的 SN 锁，应用服务不能使用 DistributedLock.NONE。
+ *
+ * 有效期只保存在内存中：重启后调用 recover() 为所有 LOCKED 的库存项重新计时（按完整有效期，宁可晚放不可早放）。
+ */
+public class LockReservations {
+
+    /** 到期释放失败（版本冲突重试耗尽、仓储异常）后的重试间隔 */
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final InventoryApplicationService service;
+    private final HierarchicalTimingWheel wheel;
+    private final ConcurrentHashMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * @param wheel 到期回调由时间轮的任务执行器执行，回调内部会访问仓储
+     */
+    public LockReservations(InventoryApplicationService service, HierarchicalTimingWheel wheel) {
+        this.service = Objects.requireNonNull(service, "应用服务不能为空");
+        this.wheel = Objects.requireNonNull(wheel, "时间轮不能为空");
+    }
+
+    /**
+     * 用例：订单锁定，ttl 之后仍未出库则自动释放。
+     */
+    public void lockForOrder(Long itemId, String orderId, Duration ttl) {
+        checkTtl(ttl);
+        service.lockForOrder(itemId, orderId);
+        arm(itemId, orderId, ttl);
+    }
+
+    /**
+     * 用例：整单锁定（全部锁定或全部不锁定），整单提交之后为每个库存项各挂一个到期定时器。
+     * 之后按库存项逐个出库确认或释放，与单项锁定的预留相同；到期时每个库存项各自释放。
+     */
+    public void lockForOrder(String orderId, List<Long> itemIds, Duration ttl) {
+        checkTtl(ttl);
+        service.lockForOrder(orderId, itemIds);
+        for (Long itemId : new LinkedHashSet<>(itemIds)) {
+            arm(itemId, orderId, ttl);
+        }
+    }
+
+    /**
+     * 用例：出库确认。先取消到期定时器，取消失败说明锁定已经到期。
+     *
+     * @throws IllegalStateException 锁定已到期被释放
+     */
+    public void confirmStockOut(Long itemId) {
+        Reservation reservation = reservations.remove(itemId);
+        if (reservation != null && !reservation.timeout.cancel()) {
+            throw new IllegalStateException("库存项 [" + itemId + "] 的锁定已过期，需重新锁定后出库");
+        }
+        try {
+            service.confirmStockOut(itemId);
+        } catch (RuntimeException e) {
+            if (reservation != null) {
+                arm(itemId, reservation.orderId, reservation.remaining());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 用例：手动释放锁定（订单取消），同时取消到期定时器。
+     */
+    public void releaseLock(Long itemId) {
+        Reservation reservation = reservations.remove(itemId);
+        if (reservation != null) {
+            reservation.timeout.cancel();
+        }
+        service.releaseLock(itemId);
+    }
+
+    /**
+     * 启动恢复：为仓储中所有 LOCKED 的库存项按 ttl 重新计时。
+     *
+     * @return 重新计时的锁定数
+     */
+    public int recover(InventoryItemRepository repository, Duration ttl) {
+        int recovered = 0;
+        for (InventoryItem item : repository.findByStatus(InventoryStatus.LOCKED)) {
+            Long itemId = item.getItemId().getValue();
+            if (!reservations.containsKey(itemId)) {
+                arm(itemId, item.getLockedByOrderId(), ttl);
+                recovered++;
+            }
+        }
+        return recovered;
+    }
+
+    /** 尚未到期的锁定数 */
+    public int outstanding() {
+        return reservations.size();
+    }
+
+    /** 到期自动释放的锁定数 */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    // ========== 私有方法 ==========
+
+    private static void checkTtl(Duration ttl) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("锁定有效期必须大于零: " + ttl);
+        }
+    }
+
+    private void arm(Long itemId, String orderId, Duration ttl) {
+        Reservation reservation = new Reservation(orderId, System.nanoTime() + ttl.toNanos());
+        reservation.timeout = wheel.schedule(() -> expire(itemId, reservation), ttl);
+        Reservation previous = reservations.put(itemId, reservation);
+        if (previous != null) {
+            previous.timeout.cancel();
+        }
+    }
+
+    /**
+     * 到期回调（在时间轮的任务执行器上执行）。
+     */
+    private void expire(Long itemId, Reservation reservation) {
+        reservations.remove(itemId, reservation);
+        releaseExpired(itemId, reservation.orderId);
+    }
+
+    private void releaseExpired(Long itemId, String orderId) {
+        try {
+            if (service.releaseExpiredLock(itemId, orderId)) {
+                expired.increment();
+            }
+        } catch (IllegalArgumentException e) {
+            // 库存项已不存在：没有可释放的锁定
+        } catch (RuntimeException e) {
+            // 稍后重试；期间若已出库或被重新锁定，重试时什么也不做
+            wheel.schedule(() -> releaseExpired(itemId, orderId), RETRY_DELAY);
+        }
+    }
+
+    /**
+     * 一次锁定的有效期；timeout 在放入索引之前赋值。
+     */
+    private static final class Reservation {
+        final String orderId;
+        final long deadlineNanos;
+        Timeout timeout;
+
+        Reservation(String orderId, long deadlineNanos) {
+            this.orderId = orderId;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        Duration remaining() {
+            return Duration.ofNanos(Math.max(0L, deadlineNanos - System.nanoTime()));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.sample.inventory.application;
+
+import com.sample.common.vo.Money;
+
+import java.util.List;
+
+/**
+ * === 设计要点 ===
+ * 批量入库命令：库存上下文自己的入参，不依赖采购上下文的领域模型。
+ *
+ * 为什么不直接接收 PurchaseCompletedEvent？
+ * - 应用层引用别的上下文的事件与实体，采购模型的任何改动都会波及库存
+ * - 翻译放在集成边界（infrastructure.integration.PurchaseCompletedTranslator），
+ *   应用服务只认识"来源单号 + 按 SKU 分组的 SN 与获取成本"
+ */
+public final class StockInBatchCommand {
+
+    private final String sourceOrderId;
+    private final Long warehouseId;
+    private final List<Line> lines;
+
+    private StockInBatchCommand(String sourceOrderId, Long warehouseId, List<Line> lines) {
+        this.sourceOrderId = sourceOrderId;
+        this.warehouseId = warehouseId;
+        this.lines = lines;
+    }
+
+    /**
+     * @param sourceOrderId 来源单号（写入库存项，财务按它对账）
+     * @param warehouseId   收货仓库
+     */
+    public static StockInBatchCommand of(String sourceOrderId, Long warehouseId, List<Line> lines) {
+        if (sourceOrderId == null || sourceOrderId.isBlank()) {
+            throw new IllegalArgumentException("来源单号不能为空");
+        }
+        if (warehouseId == null) {
+            throw new IllegalArgumentException("仓库 ID 不能为空");
+        }
+        if (lines == null) {
+            throw new IllegalArgumentException("入库明细不能为空");
+        }
+        return new StockInBatchCommand(sourceOrderId, warehouseId, List.copyOf(lines));
+    }
+
+    public String getSourceOrderId() {
+        return sourceOrderId;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * 一个 SKU 的入库明细：同一获取成本的一组 SN（原始字符串，由应用服务构建 SnCode 并逐个报告失败）。
+     */
+    public static final class Line {
+
+        private final Long skuId;
+        private final Money unitCost;
+        private final List<String> snCodes;
+
+        private Line(Long skuId, Money unitCost, List<String> snCodes) {
+            this.skuId = skuId;
+            this.unitCost = unitCost;
+            this.snCodes = snCodes;
+        }
+
+        /**
+         * @param snCodes 不复制：可以直接传入只读视图（如采购明细的已收 SN 集合）
+         */
+        public static Line of(Long skuId, Money unitCost, List<String> snCodes) {
+            if (skuId == null) {
+                throw new IllegalArgumentException("SKU 不能为空");
+            }
+            if (unitCost == null) {
+                throw new IllegalArgumentException("获取成本不能为空");
+            }
+            return new Line(skuId, unitCost, snCodes == null ? List.of() : snCodes);
+        }
+
+        public Long getSkuId() {
+            return skuId;
+        }
+
+        public Money getUnitCost() {
+            return unitCost;
+        }
+
+        public List<String> getSnCodes() {
+            return snCodes;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sample.inventory.application;
+
+import com.sample.inventory.domain.vo.InventoryItemId;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * === 设计要点 ===
+ * 批量入库结果：成功入库的库存项 + 逐个 SN 的失败原因。
+ *
+ * 为什么不在第一个失败时直接抛异常？
+ * - 一个货柜几千台设备，个别 SN 重复/格式错误不应该阻塞整批入库
+ * - 失败的 SN 交给人工处理，成功的部分正常进入质检流程
+ */
+public class StockInBatchResult {
+
+    private final List<InventoryItemId> stockedInIds;
+
+    /** key: 原始 SN 字符串，value: 失败原因（保持事件中的顺序） */
+    private final Map<String, String> failures;
+
+    StockInBatchResult(List<InventoryItemId> stockedInIds, LinkedHashMap<String, String> failures) {
+        this.stockedInIds = Collections.unmodifiableList(stockedInIds);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public List<InventoryItemId> getStockedInIds() {
+        return stockedInIds;
+    }
+
+    public Map<String, String> getFailures() {
+        return failures;
+    }
+
+    public int getSuccessCount() {
+        return stockedInIds.size();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package com.sample.inventory.domain.event;
+
+import com.sample.common.DomainEvent;
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * === 设计要点 ===
+ * RepairCompletedEvent：维修完成领域事件。
+ *
+ * 当一个 SN 维修完成(REPAIRED)时发布。
+ * 消费者：财务中心 — 把配件与人工成本分别归集到该 SN 的成本账本。
+ *
+ * 聚合根只关心两者之和（累计成本），拆分只有财务需要，因此只在事件中携带。
+ *
+ * 幂等键：itemId + aggregateVersion（这次保存之后库存项的版本号）。OutboxRelay 是至少一次投递，
+ * 账本按这个键识别重复投递；同一次保存里完成了两轮维修时版本号相同，再以 accumulatedCost（只增不减）区分。
+ * 未分配 ID 的库存项（尚未持久化）itemId 为 null，没有幂等键。
+ */
+public class RepairCompletedEvent extends DomainEvent {
+
+    /** 库存项 ID，尚未持久化时为 null */
+    private final InventoryItemId itemId;
+
+    /** 包含本次维修的那次保存之后的版本号 */
+    private final long aggregateVersion;
+
+    /** 维修的 SN */
+    private final SnCode snCode;
+
+    /** 配件成本 */
+    private final Money partsCost;
+
+    /** 人工成本 */
+    private final Money laborCost;
+
+    /** 维修后的累计总成本 */
+    private final Money accumulatedCost;
+
+    public RepairCompletedEvent(InventoryItemId itemId, long aggregateVersion,
+                                SnCode snCode, Money partsCost, Money laborCost, Money accumulatedCost) {
+        super(snCode.getValue());
+        this.itemId = itemId;
+        this.aggregateVersion = aggregateVersion;
+        this.snCode = snCode;
+        this.partsCost = partsCost;
+        this.laborCost = laborCost;
+        this.accumulatedCost = accumulatedCost;
+    }
+
+    /**
+     * 重建方法（反序列化使用），保留原始发生时间。
+     */
+    public RepairCompletedEvent(InventoryItemId itemId, long aggregateVersion,
+                                SnCode snCode, Money partsCost, Money laborCost, Money accumulatedCost,
+                                LocalDateTime occurredAt) {
+        super(snCode.getValue(), occurredAt);
+        this.itemId = itemId;
+        this.aggregateVersion = aggregateVersion;
+        this.snCode = snCode;
+        this.partsCost = partsCost;
+        this.laborCost = laborCost;
+        this.accumulatedCost = accumulatedCost;
+    }
+
+    public InventoryItemId getItemId() {
+        return itemId;
+    }
+
+    public long getAggregateVersion() {
+        return aggregateVersion;
+    }
+
+    public SnCode getSnCode() {
+        return snCode;
+    }
+
+    public Money getPartsCost() {
+        return partsCost;
+    }
+
+    public Money getLaborCost() {
+        return laborCost;
+    }
+
+    public Money getAccumulatedCost() {
+        return accumulatedCost;
+    }
+}
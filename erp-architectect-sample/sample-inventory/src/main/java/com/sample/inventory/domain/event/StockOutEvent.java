@@ -2,14 +2,18 @@ package com.sample.inventory.domain.event;
 
 import com.sample.common.DomainEvent;
 import com.sample.common.vo.Money;
+import com.sample.inventory.domain.model.SourceType;
 import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+
+import java.time.LocalDateTime;
 
 /**
  * === 设计要点 ===
  * StockOutEvent：出库确认领域事件。
  *
  * 当一个 SN 被确认出库(SOLD)时发布。
- * 消费者：财务中心 — 执行成本结转，计算毛利。
+ * 消费者：财务中心 — 执行成本结转，计算毛利；SKU、仓库、来源类型用于毛利报表的分组。
  *
  * 事件的数据设计原则：
  * 1. 只携带消费者需要的最小数据
@@ -27,11 +31,44 @@ public class StockOutEvent extends DomainEvent {
     /** 该 SN 的累计总成本（财务用于计算毛利） */
     private final Money accumulatedCost;
 
-    public StockOutEvent(SnCode snCode, String salesOrderId, Money accumulatedCost) {
+    private final Long skuId;
+    private final WarehouseId warehouseId;
+    private final SourceType sourceType;
+
+    public StockOutEvent(
+            SnCode snCode,
+            String salesOrderId,
+            Money accumulatedCost,
+            Long skuId,
+            WarehouseId warehouseId,
+            SourceType sourceType) {
         super(snCode.getValue());
         this.snCode = snCode;
         this.salesOrderId = salesOrderId;
         this.accumulatedCost = accumulatedCost;
+        this.skuId = skuId;
+        this.warehouseId = warehouseId;
+        this.sourceType = sourceType;
+    }
+
+    /**
+     * 重建方法（反序列化使用），保留原始发生时间。
+     */
+    public StockOutEvent(
+            SnCode snCode,
+            String salesOrderId,
+            Money accumulatedCost,
+            Long skuId,
+            WarehouseId warehouseId,
+            SourceType sourceType,
+            LocalDateTime occurredAt) {
+        super(snCode.getValue(), occurredAt);
+        this.snCode = snCode;
+        this.salesOrderId = salesOrderId;
+        this.accumulatedCost = accumulatedCost;
+        this.skuId = skuId;
+        this.warehouseId = warehouseId;
+        this.sourceType = sourceType;
     }
 
     public SnCode getSnCode() {
@@ -45,4 +82,16 @@ public class StockOutEvent extends DomainEvent {
     public Money getAccumulatedCost() {
         return accumulatedCost;
     }
+
+    public Long getSkuId() {
+        return skuId;
+    }
+
+    public WarehouseId getWarehouseId() {
+        return warehouseId;
+    }
+
+    public SourceType getSourceType() {
+        return sourceType;
+    }
 }
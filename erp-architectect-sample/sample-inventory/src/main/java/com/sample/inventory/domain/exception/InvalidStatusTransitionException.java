@@ -14,6 +14,8 @@ import com.sample.inventory.domain.vo.SnCode;
  */
 public class InvalidStatusTransitionException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     private final SnCode snCode;
     private final InventoryStatus currentStatus;
     private final InventoryStatus targetStatus;
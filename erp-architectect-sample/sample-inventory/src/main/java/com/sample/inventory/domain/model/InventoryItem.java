@@ -1,13 +1,19 @@
 package com.sample.inventory.domain.model;
 
 import com.sample.common.AggregateRoot;
+import com.sample.common.id.IdGenerator;
 import com.sample.common.vo.Money;
+import com.sample.inventory.domain.event.RepairCompletedEvent;
 import com.sample.inventory.domain.event.StockOutEvent;
 import com.sample.inventory.domain.exception.InvalidStatusTransitionException;
 import com.sample.inventory.domain.vo.InventoryItemId;
 import com.sample.inventory.domain.vo.SnCode;
 import com.sample.inventory.domain.vo.WarehouseId;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * === 设计要点 ===
  * InventoryItem 聚合根 — L3 充血模型的核心示范。
@@ -24,11 +30,17 @@ import com.sample.inventory.domain.vo.WarehouseId;
  *
  * 3.【领域事件】业务动作完成后注册事件，不直接调用其他模块
  * - confirmStockOut() 注册 StockOutEvent → 由应用服务发布 → 通知财务中心
+ * - completeRepair() 注册 RepairCompletedEvent → 财务中心归集维修成本
  *
  * 4.【封装性】外部只能通过业务方法操作，不能直接修改内部状态
  * - 没有 setStatus()、setAccumulatedCost() 等方法
  * - 所有修改都带有业务校验
  *
+ * 5.【变更记录】每次状态转换都记录为一个 InventoryItemChange
+ * - 业务方法：校验 → apply()（修改状态）→ 记录变更
+ * - 事件溯源仓储：持久化这些变更，加载时经由 Reconstruction.replay() 按顺序重放，apply() 是两条路径共用的唯一状态修改点
+ * - 基于状态行的仓储忽略变更记录即可
+ *
  * 对比 L2 的 PurchaseOrder：
  * - PurchaseOrder 也有业务方法，但状态校验更简单（if 判断）
  * - PurchaseOrder 不需要"成本累加"这样的复杂不变量
@@ -62,6 +74,10 @@ public class InventoryItem extends AggregateRoot {
     /** 锁定这个 SN 的销售订单 ID */
     private String lockedByOrderId;
 
+    // ========== 未持久化的变更 ==========
+    /** 自上次保存以来发生的状态变更；大多数聚合根加载后只做一次转换，因此按需创建 */
+    private List<InventoryItemChange> changes;
+
     // ========== 私有构造 + 工厂方法 ==========
 
     /**
@@ -79,8 +95,25 @@ public class InventoryItem extends AggregateRoot {
      * 1. 语义更明确：stockIn() 比 new InventoryItem() 更表达业务意图
      * 2. 可以包含业务校验逻辑
      * 3. 可以自动设置初始状态
+     *
+     * 标识由进程级的 IdGenerator 生成，创建后立即可用（不等保存时由仓储回填）。
+     */
+    public static InventoryItem stockIn(
+            SnCode snCode,
+            Long skuId,
+            WarehouseId warehouseId,
+            Money acquisitionCost,
+            SourceType sourceType,
+            String sourceOrderId) {
+        return stockIn(InventoryItemId.of(IdGenerator.getDefault().nextId()),
+                snCode, skuId, warehouseId, acquisitionCost, sourceType, sourceOrderId);
+    }
+
+    /**
+     * 工厂方法：入库，使用调用方生成的标识（如分片引擎按分片生成的 ID）。
      */
     public static InventoryItem stockIn(
+            InventoryItemId itemId,
             SnCode snCode,
             Long skuId,
             WarehouseId warehouseId,
@@ -88,6 +121,8 @@ public class InventoryItem extends AggregateRoot {
             SourceType sourceType,
             String sourceOrderId) {
         // ---- 前置校验 ----
+        if (itemId == null)
+            throw new IllegalArgumentException("库存项 ID 不能为空");
         if (snCode == null)
             throw new IllegalArgumentException("SN 编码不能为空");
         if (skuId == null)
@@ -100,6 +135,7 @@ public class InventoryItem extends AggregateRoot {
 
         // ---- 创建并初始化 ----
         InventoryItem item = new InventoryItem();
+        item.itemId = itemId;
         item.snCode = snCode;
         item.skuId = skuId;
         item.warehouseId = warehouseId;
@@ -108,6 +144,7 @@ public class InventoryItem extends AggregateRoot {
         item.sourceType = sourceType;
         item.sourceOrderId = sourceOrderId;
         item.status = InventoryStatus.PENDING_INSPECT; // 固定初始状态
+        item.record(InventoryItemChange.stockIn());
 
         return item;
     }
@@ -153,16 +190,39 @@ public class InventoryItem extends AggregateRoot {
      *
      * 注意：这里维修成本的累加是不变量保护的示范。
      * accumulatedCost 只能增加不能减少。
+     *
+     * 不区分配件与人工时，整笔维修成本按配件计入财务账本。
      */
     public void completeRepair(Money repairCost) {
-        if (repairCost == null || !repairCost.isGreaterThan(Money.ZERO)) {
+        completeRepair(repairCost, Money.ZERO);
+    }
+
+    /**
+     * 维修完成（配件与人工分开计价）。
+     * REPAIRING → REPAIRED
+     *
+     * 聚合根累加两者之和；注册 RepairCompletedEvent，财务中心按类型分别归集。
+     * 事件的版本号是下一次保存之后的版本（当前版本 + 1），与发件箱记录的版本一致。
+     */
+    public void completeRepair(Money partsCost, Money laborCost) {
+        if (partsCost == null || laborCost == null || partsCost.isNegative() || laborCost.isNegative()) {
+            throw new IllegalArgumentException("配件成本与人工成本不能为空或为负数");
+        }
+        Money repairCost = partsCost.add(laborCost);
+        if (!repairCost.isGreaterThan(Money.ZERO)) {
             throw new IllegalArgumentException("维修成本必须大于零");
         }
 
-        transitionTo(InventoryStatus.REPAIRED);
+        // 不变量维护：累加维修成本（在 apply() 中完成）
+        transitionTo(InventoryStatus.REPAIRED, repairCost, null);
 
-        // 不变量维护：累加维修成本
-        this.accumulatedCost = this.accumulatedCost.add(repairCost);
+        registerEvent(new RepairCompletedEvent(
+                this.itemId,
+                getVersion() + 1,
+                this.snCode,
+                partsCost,
+                laborCost,
+                this.accumulatedCost));
     }
 
     /**
@@ -176,8 +236,7 @@ public class InventoryItem extends AggregateRoot {
             throw new IllegalArgumentException("订单 ID 不能为空");
         }
 
-        transitionTo(InventoryStatus.LOCKED);
-        this.lockedByOrderId = orderId;
+        transitionTo(InventoryStatus.LOCKED, null, orderId);
     }
 
     /**
@@ -186,7 +245,21 @@ public class InventoryItem extends AggregateRoot {
      */
     public void releaseLock() {
         transitionTo(InventoryStatus.IN_STOCK);
-        this.lockedByOrderId = null;
+    }
+
+    /**
+     * 锁定到期自动释放。
+     * LOCKED → IN_STOCK，仅当仍被该订单锁定时；
+     * 已出库、已手动释放或已被其他订单重新锁定时什么也不做 —— 到期通知可能晚于这些操作到达。
+     *
+     * @return 是否释放了锁定
+     */
+    public boolean releaseExpiredLock(String orderId) {
+        if (this.status != InventoryStatus.LOCKED || !this.lockedByOrderId.equals(orderId)) {
+            return false;
+        }
+        releaseLock();
+        return true;
     }
 
     /**
@@ -205,7 +278,10 @@ public class InventoryItem extends AggregateRoot {
         registerEvent(new StockOutEvent(
                 this.snCode,
                 this.lockedByOrderId,
-                this.accumulatedCost));
+                this.accumulatedCost,
+                this.skuId,
+                this.warehouseId,
+                this.sourceType));
     }
 
     /**
@@ -216,7 +292,7 @@ public class InventoryItem extends AggregateRoot {
         if (reason == null || reason.isBlank()) {
             throw new IllegalArgumentException("报废原因不能为空");
         }
-        transitionTo(InventoryStatus.SCRAPPED);
+        transitionTo(InventoryStatus.SCRAPPED, null, reason);
     }
 
     // ========== 核心：状态转换引擎 ==========
@@ -232,10 +308,140 @@ public class InventoryItem extends AggregateRoot {
      * 所有状态转换都经过这个方法，确保没有"后门"可以绕过校验。
      */
     private void transitionTo(InventoryStatus targetStatus) {
+        transitionTo(targetStatus, null, null);
+    }
+
+    /**
+     * @param amount    维修成本（仅维修完成）
+     * @param reference 销售订单 ID（锁定）或报废原因（报废）
+     */
+    private void transitionTo(InventoryStatus targetStatus, Money amount, String reference) {
         if (!this.status.canTransitionTo(targetStatus)) {
             throw new InvalidStatusTransitionException(this.snCode, this.status, targetStatus);
         }
+        apply(targetStatus, amount, reference);
+        record(InventoryItemChange.of(targetStatus, amount, reference));
+    }
+
+    /**
+     * 把一次（已校验或已发生的）变更作用到状态上，业务方法与事件回放共用。
+     */
+    private void apply(InventoryStatus targetStatus, Money amount, String reference) {
         this.status = targetStatus;
+        if (amount != null) {
+            this.accumulatedCost = this.accumulatedCost.add(amount);
+        }
+        if (targetStatus == InventoryStatus.LOCKED) {
+            this.lockedByOrderId = reference;
+        } else if (targetStatus == InventoryStatus.IN_STOCK) {
+            this.lockedByOrderId = null;
+        }
+    }
+
+    private void record(InventoryItemChange change) {
+        if (changes == null) {
+            changes = new ArrayList<>(2);
+        }
+        changes.add(change);
+    }
+
+    // ========== 事件溯源支持（Repository 实现使用） ==========
+
+    /**
+     * 自上次保存以来的状态变更（按发生顺序，只读）。
+     */
+    public List<InventoryItemChange> getUncommittedChanges() {
+        return changes == null ? List.of() : Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * 变更已持久化，清空记录（由 Repository 在保存成功后调用）。
+     */
+    public void markChangesCommitted() {
+        if (changes != null) {
+            changes.clear();
+        }
+    }
+
+    /**
+     * 开始一次回放重建：以给定状态（入库或快照）新建聚合根，之后由 Reconstruction 逐个应用已持久化的变更。
+     * 参数与 reconstruct() 相同。
+     */
+    public static Reconstruction beginReconstruction(
+            InventoryItemId itemId,
+            SnCode snCode,
+            Long skuId,
+            WarehouseId warehouseId,
+            InventoryStatus status,
+            Money acquisitionCost,
+            Money accumulatedCost,
+            SourceType sourceType,
+            String sourceOrderId,
+            String lockedByOrderId) {
+        return new Reconstruction(reconstruct(itemId, snCode, skuId, warehouseId, status,
+                acquisitionCost, accumulatedCost, sourceType, sourceOrderId, lockedByOrderId));
+    }
+
+    /**
+     * 回放会话：事件溯源仓储重建聚合根的唯一入口。
+     *
+     * 为什么不在 InventoryItem 上直接公开 replay？
+     * - 回放不记录变更、不注册领域事件，公开在聚合根上就是一个能绕过业务方法的修改入口
+     * - 会话只能持有 beginReconstruction() 新建的聚合根，finish() 之后失效，
+     *   已经交给业务使用的聚合根不可能再被回放改写
+     *
+     * 回放仍按状态机校验每一次转换：日志中出现非法转换说明数据损坏，应当尽早失败而不是重建出错误的状态。
+     */
+    public static final class Reconstruction {
+
+        private InventoryItem item;
+
+        private Reconstruction(InventoryItem item) {
+            this.item = item;
+        }
+
+        /**
+         * 回放一次已经发生过的变更：校验转换、不记录、不注册领域事件。
+         * 参数拆开传递，回放路径不必为每个事件创建 InventoryItemChange。
+         *
+         * @throws InvalidStatusTransitionException 日志中的转换不合法
+         */
+        public void replay(InventoryStatus targetStatus, Money amount, String reference) {
+            InventoryItem current = current();
+            if (!current.status.canTransitionTo(targetStatus)) {
+                throw new InvalidStatusTransitionException(current.snCode, current.status, targetStatus);
+            }
+            current.apply(targetStatus, amount, reference);
+        }
+
+        public void replay(InventoryItemChange change) {
+            if (!change.isStockIn()) {
+                replay(change.getStatus(), change.getAmount(), change.getReference());
+            }
+        }
+
+        /**
+         * 回填最近一次回放的变更对应的存储版本号。
+         */
+        public void assignVersion(long version) {
+            current().assignVersion(version);
+        }
+
+        /**
+         * 结束回放，取出重建完成的聚合根；之后会话不能再使用。
+         */
+        public InventoryItem finish() {
+            InventoryItem result = current();
+            item = null;
+            return result;
+        }
+
+        private InventoryItem current() {
+            if (item == null) {
+                throw new IllegalStateException("回放会话已结束");
+            }
+            return item;
+        }
     }
 
     // ========== 查询方法（只读，不修改状态） ===========
@@ -280,6 +486,20 @@ public class InventoryItem extends AggregateRoot {
         return lockedByOrderId;
     }
 
+    /**
+     * 回填持久化层分配的标识（仅在首次保存、标识尚未生成时由 Repository 实现调用）。
+     * 标识一旦确定不可修改。
+     */
+    public void assignId(InventoryItemId itemId) {
+        if (itemId == null) {
+            throw new IllegalArgumentException("库存项 ID 不能为空");
+        }
+        if (this.itemId != null && !this.itemId.equals(itemId)) {
+            throw new IllegalStateException("库存项 ID 已分配，不允许修改: " + this.itemId);
+        }
+        this.itemId = itemId;
+    }
+
     /**
      * 用于从数据库重建聚合根（Repository 实现中使用）。
      * 绕过业务校验，直接恢复状态。
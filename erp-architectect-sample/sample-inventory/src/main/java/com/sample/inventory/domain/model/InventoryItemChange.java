@@ -0,0 +1,100 @@
+package com.sample.inventory.domain.model;
+
+import com.sample.common.vo.Money;
+
+import java.util.Objects;
+
+/**
+ * === 设计要点 ===
+ * InventoryItemChange：库存项的一次状态变更（事件溯源中的"事件"）。
+ *
+ * 一个 SN 的完整履历 = 入库 + 依次发生的状态变更，例如：
+ * 入库 → 质检 → 需维修 → 维修中 → 已维修(¥120.00) → 复检 → 在库 → 锁定(SO-1) → 在库 → 锁定(SO-2) → 售出
+ *
+ * 为什么用"目标状态 + 附加数据"而不是每种事件一个类？
+ * - 状态机本身已经唯一确定了每次转换的业务含义（REPAIRED 必然是维修完成）
+ * - 事件形状统一，存储与回放都是一段紧凑的定长 + 变长编码，回放时不需要按类型分派
+ *
+ * 约定：
+ * - status = PENDING_INSPECT 表示入库（没有任何转换能到达 PENDING_INSPECT）
+ * - amount 只有维修完成时有值（维修成本），其余为 null
+ * - reference：锁定时为销售订单 ID，报废时为报废原因，其余为 null
+ */
+public final class InventoryItemChange {
+
+    private static final InventoryItemChange STOCK_IN =
+            new InventoryItemChange(InventoryStatus.PENDING_INSPECT, null, null);
+
+    /** 变更后的状态 */
+    private final InventoryStatus status;
+    private final Money amount;
+    private final String reference;
+
+    private InventoryItemChange(InventoryStatus status, Money amount, String reference) {
+        this.status = status;
+        this.amount = amount;
+        this.reference = reference;
+    }
+
+    public static InventoryItemChange of(InventoryStatus status, Money amount, String reference) {
+        if (status == null) {
+            throw new IllegalArgumentException("变更后的状态不能为空");
+        }
+        if (status == InventoryStatus.PENDING_INSPECT) {
+            return STOCK_IN;
+        }
+        return new InventoryItemChange(status, amount, reference);
+    }
+
+    /**
+     * 入库（流的第一个事件）。
+     */
+    public static InventoryItemChange stockIn() {
+        return STOCK_IN;
+    }
+
+    public boolean isStockIn() {
+        return status == InventoryStatus.PENDING_INSPECT;
+    }
+
+    public InventoryStatus getStatus() {
+        return status;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        InventoryItemChange that = (InventoryItemChange) o;
+        return status == that.status
+                && Objects.equals(amount, that.amount)
+                && Objects.equals(reference, that.reference);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(status, amount, reference);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(status.name());
+        if (amount != null) {
+            sb.append('(').append(amount).append(')');
+        }
+        if (reference != null) {
+            sb.append('[').append(reference).append(']');
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,9 @@
 package com.sample.inventory.domain.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -15,6 +18,9 @@ import java.util.Set;
  * 1. 状态转换规则集中管理，不会散落在各处
  * 2. 新增状态时，编译器会强制你定义转换规则
  * 3. 非法转换可以给出精确的错误信息
+ *
+ * 性能：转换规则在类加载时预计算为"每个状态一个 int 位掩码"的不可变表，
+ * canTransitionTo() 是热点路径（每次状态变更都会调用），只做位运算，零分配。
  */
 public enum InventoryStatus {
 
@@ -45,14 +51,44 @@ public enum InventoryStatus {
     /** 已报废 — 终态 */
     SCRAPPED;
 
+    // ========== 预计算的状态转换表 ==========
+
+    /** values() 每次调用都会复制数组，这里只取一次 */
+    private static final InventoryStatus[] VALUES = values();
+
+    /** 按 ordinal 索引：第 i 个状态允许到达的目标状态位掩码 */
+    private static final int[] TRANSITION_MASKS = new int[VALUES.length];
+
+    /** 按 ordinal 索引：能到达第 i 个状态的来源状态位掩码（反向表） */
+    private static final int[] SOURCE_MASKS = new int[VALUES.length];
+
+    /** 按 ordinal 索引：对外暴露的只读目标集合，与位掩码同源 */
+    private static final List<Set<InventoryStatus>> ALLOWED = new ArrayList<>(VALUES.length);
+
+    static {
+        for (InventoryStatus from : VALUES) {
+            Set<InventoryStatus> targets = from.rules();
+            int mask = 0;
+            for (InventoryStatus to : targets) {
+                mask |= to.mask();
+                SOURCE_MASKS[to.ordinal()] |= from.mask();
+            }
+            TRANSITION_MASKS[from.ordinal()] = mask;
+            ALLOWED.add(Collections.unmodifiableSet(targets));
+        }
+    }
+
     /**
-     * 状态转换表：定义每个状态允许转换到的目标状态。
+     * 状态转换规则：定义每个状态允许转换到的目标状态。
      *
      * 这比在聚合根中写 if-else 更安全：
      * - 规则集中在一处
      * - 新增状态忘记定义转换 → 默认不允许转换（安全失败）
+     *
+     * 规则只在类加载时读取一次，编译成上面的位掩码表；
+     * 运行期的转换校验只做一次数组访问 + 位与，不再分配 EnumSet。
      */
-    public Set<InventoryStatus> allowedTransitions() {
+    private Set<InventoryStatus> rules() {
         return switch (this) {
             case PENDING_INSPECT -> EnumSet.of(INSPECTING);
             case INSPECTING -> EnumSet.of(IN_STOCK, NEED_REPAIR, SCRAPPED);
@@ -65,11 +101,18 @@ public enum InventoryStatus {
         };
     }
 
+    /**
+     * 允许转换到的目标状态（只读视图，全局共享，不会每次新建）。
+     */
+    public Set<InventoryStatus> allowedTransitions() {
+        return ALLOWED.get(ordinal());
+    }
+
     /**
      * 检查是否可以转换到目标状态。
      */
     public boolean canTransitionTo(InventoryStatus target) {
-        return allowedTransitions().contains(target);
+        return target != null && (TRANSITION_MASKS[ordinal()] & target.mask()) != 0;
     }
 
     /**
@@ -78,4 +121,70 @@ public enum InventoryStatus {
     public boolean isTerminal() {
         return this == SOLD || this == SCRAPPED;
     }
+
+    // ========== 位掩码查询（批量过滤用） ==========
+
+    /**
+     * 当前状态对应的位（1 << ordinal）。
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * 当前状态是否包含在给定的状态位掩码中。
+     */
+    public boolean in(int statusMask) {
+        return (statusMask & mask()) != 0;
+    }
+
+    /**
+     * 把若干状态合并为位掩码。
+     */
+    public static int maskOf(InventoryStatus... statuses) {
+        int mask = 0;
+        for (InventoryStatus status : statuses) {
+            mask |= status.mask();
+        }
+        return mask;
+    }
+
+    /**
+     * 从给定的一组来源状态出发，一步可达的目标状态位掩码。
+     *
+     * 用法：批量作业先算出一次掩码，再对每条记录做位与判断，
+     * 例如 transitionsFrom(maskOf(INSPECTING, REPAIRED)) 得到质检/复检批次可能进入的全部状态。
+     */
+    public static int transitionsFrom(int sourceMask) {
+        int result = 0;
+        int remaining = sourceMask & ((1 << VALUES.length) - 1);
+        while (remaining != 0) {
+            int ordinal = Integer.numberOfTrailingZeros(remaining);
+            result |= TRANSITION_MASKS[ordinal];
+            remaining &= remaining - 1;
+        }
+        return result;
+    }
+
+    /**
+     * 能一步转换到目标状态的来源状态位掩码（反向查询）。
+     *
+     * 用法：批量出库前筛选候选记录 —— item.getStatus().in(sourcesOf(SOLD))。
+     */
+    public static int sourcesOf(InventoryStatus target) {
+        return SOURCE_MASKS[target.ordinal()];
+    }
+
+    /**
+     * 把位掩码还原为状态集合（用于日志、错误信息等非热点路径）。
+     */
+    public static Set<InventoryStatus> fromMask(int statusMask) {
+        EnumSet<InventoryStatus> result = EnumSet.noneOf(InventoryStatus.class);
+        for (InventoryStatus status : VALUES) {
+            if (status.in(statusMask)) {
+                result.add(status);
+            }
+        }
+        return result;
+    }
 }
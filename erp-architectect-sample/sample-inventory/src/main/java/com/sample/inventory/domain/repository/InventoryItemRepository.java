@@ -1,10 +1,15 @@
 package com.sample.inventory.domain.repository;
 
 import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
 import com.sample.inventory.domain.vo.InventoryItemId;
 import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * === 设计要点 ===
@@ -24,6 +29,10 @@ public interface InventoryItemRepository {
 
     /**
      * 保存库存项（新增或更新）。
+     * 新增时标识通常已由工厂方法生成；尚无标识的（如从外部数据重建）由实现分配并通过 InventoryItem.assignId() 回填。
+     *
+     * 比较并交换语义：仅当存储中的版本号等于 item.getVersion() 时写入（新增时为 0），
+     * 成功后版本号加一并通过 assignVersion() 回填；否则抛出 VersionConflictException，存储不变。
      */
     void save(InventoryItem item);
 
@@ -43,4 +52,33 @@ public interface InventoryItemRepository {
      * 用于入库前的唯一性检查。
      */
     boolean existsActiveBySnCode(SnCode snCode);
+
+    /**
+     * 批量检查 SN 是否已存在活跃记录。
+     * 用于批量入库前的唯一性检查，一次查询代替 N 次 existsActiveBySnCode。
+     *
+     * @return 入参中已存在活跃记录的 SN 子集
+     */
+    Set<SnCode> existsActiveBySnCodes(Collection<SnCode> snCodes);
+
+    /**
+     * 批量保存（新增或更新），实现应合并为一次批量写入。
+     * 每条记录的版本号校验规则与 save() 相同。
+     */
+    void saveAll(Collection<InventoryItem> items);
+
+    /**
+     * 按状态查询（如：所有待质检的库存项）。
+     */
+    List<InventoryItem> findByStatus(InventoryStatus status);
+
+    /**
+     * 按 SKU 查询。
+     */
+    List<InventoryItem> findBySkuId(Long skuId);
+
+    /**
+     * 按仓库查询。
+     */
+    List<InventoryItem> findByWarehouseId(WarehouseId warehouseId);
 }
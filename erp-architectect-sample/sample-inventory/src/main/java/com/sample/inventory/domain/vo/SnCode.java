@@ -1,5 +1,7 @@
 package com.sample.inventory.domain.vo;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -13,6 +15,9 @@ import java.util.Objects;
  *
  * 对比 L2 模型：L2 中的 PurchaseOrderId 只做简单的 null 校验。
  * L3 的值对象包含更丰富的业务规则校验。
+ *
+ * 性能：扫码入库、事件回放每天调用 of() 数百万次，校验用 ASCII 字符表单遍完成，
+ * 不再每次编译正则。热点 SN 需要共享实例时使用 {@link SnCodeCache}。
  */
 public final class SnCode {
 
@@ -27,21 +32,135 @@ public final class SnCode {
      *
      * 业务规则：
      * - SN 不能为空
-     * - SN 长度在 5~50 之间
-     * - SN 只能包含字母、数字、横杠
+     * - SN 长度在 5~50 之间（去掉首尾空白后）
+     * - SN 只能包含字母、数字、横杠（小写字母自动转大写）
      */
     public static SnCode of(String value) {
-        if (value == null || value.isBlank()) {
+        return of((CharSequence) value);
+    }
+
+    /**
+     * 工厂方法：从任意字符序列创建（如解析器中复用的 StringBuilder / CharBuffer）。
+     *
+     * 性能：去空白、转大写、字符校验在一次遍历中完成，不使用正则。
+     * 输入本身已是规范形式的 String 时（最常见），直接复用，不产生任何新对象。
+     */
+    public static SnCode of(CharSequence value) {
+        if (value == null) {
+            throw new IllegalArgumentException("SN 编码不能为空");
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        checkLength(end - start);
+
+        boolean hasLowerCase = false;
+        for (int i = start; i < end; i++) {
+            byte type = charType(value.charAt(i));
+            if (type == INVALID) {
+                throw invalidCharacters(value.subSequence(start, end));
+            }
+            hasLowerCase |= type == LOWER;
+        }
+
+        if (!hasLowerCase && value instanceof String && start == 0 && end == value.length()) {
+            return new SnCode((String) value);
+        }
+        byte[] normalized = new byte[end - start];
+        for (int i = start; i < end; i++) {
+            normalized[i - start] = (byte) toUpperCase(value.charAt(i));
+        }
+        return new SnCode(new String(normalized, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * 工厂方法：直接从 ASCII 字节创建（扫码枪报文、二进制编解码器使用），
+     * 不需要先把字节转成 String 再校验。
+     */
+    public static SnCode ofBytes(byte[] bytes, int offset, int length) {
+        if (bytes == null) {
             throw new IllegalArgumentException("SN 编码不能为空");
         }
-        String trimmed = value.trim().toUpperCase();
-        if (trimmed.length() < 5 || trimmed.length() > 50) {
-            throw new IllegalArgumentException("SN 编码长度必须在 5~50 之间，当前: " + trimmed.length());
+        int start = offset;
+        int end = offset + length;
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        checkLength(end - start);
+
+        boolean hasLowerCase = false;
+        for (int i = start; i < end; i++) {
+            byte type = charType((char) (bytes[i] & 0xFF));
+            if (type == INVALID) {
+                throw invalidCharacters(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+            }
+            hasLowerCase |= type == LOWER;
+        }
+
+        if (!hasLowerCase) {
+            return new SnCode(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+        }
+        byte[] normalized = new byte[end - start];
+        for (int i = start; i < end; i++) {
+            normalized[i - start] = (byte) toUpperCase((char) (bytes[i] & 0xFF));
+        }
+        return new SnCode(new String(normalized, StandardCharsets.ISO_8859_1));
+    }
+
+    // ========== 单遍校验的字符表 ==========
+
+    static final byte INVALID = 0;
+    static final byte VALID = 1;
+    static final byte LOWER = 2;
+
+    private static final int MIN_LENGTH = 5;
+    private static final int MAX_LENGTH = 50;
+
+    /** ASCII 字符分类表：合法字符 [A-Z0-9-]，小写字母需转大写，其余非法 */
+    private static final byte[] CHAR_TYPES = new byte[128];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CHAR_TYPES[c] = VALID;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_TYPES[c] = VALID;
         }
-        if (!trimmed.matches("^[A-Z0-9\\-]+$")) {
-            throw new IllegalArgumentException("SN 编码只能包含大写字母、数字和横杠，当前: " + trimmed);
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_TYPES[c] = LOWER;
         }
-        return new SnCode(trimmed);
+        CHAR_TYPES['-'] = VALID;
+    }
+
+    static byte charType(char c) {
+        return c < 128 ? CHAR_TYPES[c] : INVALID;
+    }
+
+    static char toUpperCase(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    private static void checkLength(int length) {
+        if (length == 0) {
+            throw new IllegalArgumentException("SN 编码不能为空");
+        }
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("SN 编码长度必须在 5~50 之间，当前: " + length);
+        }
+    }
+
+    /** 只在出错时才拼接错误信息（非热点路径） */
+    private static IllegalArgumentException invalidCharacters(CharSequence trimmed) {
+        return new IllegalArgumentException(
+                "SN 编码只能包含大写字母、数字和横杠，当前: " + trimmed.toString().toUpperCase(Locale.ROOT));
     }
 
     public String getValue() {
@@ -60,7 +179,7 @@ public final class SnCode {
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return value.hashCode();
     }
 
     @Override
@@ -0,0 +1,137 @@
+package com.sample.inventory.domain.vo;
+
+/**
+ * === 设计要点 ===
+ * SnCode 规范化实例缓存（可选）：让热点 SN 共享同一个 SnCode 对象。
+ *
+ * 场景：事件回放、扫码入库中同一个 SN 会被反复解析，
+ * 每次 SnCode.of() 都会产生新的 SnCode（以及可能的新 String），缓存命中时一个对象都不分配。
+ *
+ * 结构：直接映射（direct-mapped）数组
+ * - 槽位数固定（2 的幂），内存上限 = 槽位数 × 一个引用 + 被缓存的 SnCode
+ * - 哈希冲突时新值直接覆盖旧值，不需要 LRU 链表，也不需要加锁
+ * - SnCode 的字段都是 final，多线程下读到的实例一定是完整构造的；
+ *   最坏情况只是某次写入被覆盖，导致一次额外的解析
+ *
+ * 查找时直接在原始输入上计算"去空白 + 转大写"后的哈希并逐字符比较，命中路径不分配任何对象。
+ */
+public final class SnCodeCache {
+
+    private final SnCode[] slots;
+    private final int mask;
+
+    /**
+     * @param capacity 期望的槽位数，会向上取整为 2 的幂
+     */
+    public SnCodeCache(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("缓存容量必须在 1 ~ 2^30 之间: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new SnCode[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * 返回规范化后的共享实例；未命中时按 SnCode.of() 的规则解析（非法输入同样抛出异常）。
+     */
+    public SnCode of(CharSequence value) {
+        if (value == null) {
+            return SnCode.of(value);
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + SnCode.toUpperCase(value.charAt(i));
+        }
+        int index = spread(hash);
+        SnCode cached = slots[index];
+        if (cached != null && matches(cached.getValue(), value, start, end)) {
+            return cached;
+        }
+
+        SnCode parsed = SnCode.of(value);
+        slots[index] = parsed;
+        return parsed;
+    }
+
+    /**
+     * 字节版本，供二进制解析器使用。
+     */
+    public SnCode ofBytes(byte[] bytes, int offset, int length) {
+        if (bytes == null) {
+            return SnCode.ofBytes(bytes, offset, length);
+        }
+        int start = offset;
+        int end = offset + length;
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + SnCode.toUpperCase((char) (bytes[i] & 0xFF));
+        }
+        int index = spread(hash);
+        SnCode cached = slots[index];
+        if (cached != null && matches(cached.getValue(), bytes, start, end)) {
+            return cached;
+        }
+
+        SnCode parsed = SnCode.ofBytes(bytes, offset, length);
+        slots[index] = parsed;
+        return parsed;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 缓存中的值都是合法且已大写的，输入中的非法字符不可能与之逐字符相等，
+     * 因此"命中"本身就意味着输入合法。
+     */
+    private static boolean matches(String canonical, CharSequence value, int start, int end) {
+        if (canonical.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (canonical.charAt(i - start) != SnCode.toUpperCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String canonical, byte[] bytes, int start, int end) {
+        if (canonical.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (canonical.charAt(i - start) != SnCode.toUpperCase((char) (bytes[i] & 0xFF))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int spread(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,220 @@
+package com.sample.inventory.infrastructure.codec;
+
+import com.sample.common.codec.BinaryCodec;
+import com.sample.common.codec.DomainEventCodec;
+import com.sample.common.codec.WireFormat;
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.event.RepairCompletedEvent;
+import com.sample.inventory.domain.event.StockOutEvent;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * === 设计要点 ===
+ * 库存上下文的二进制编解码器：InventoryItem 的持久化状态，以及 StockOutEvent / RepairCompletedEvent。
+ *
+ * 字段编码见 WireFormat；枚举按 ordinal 写 1 字节（可空枚举写 ordinal + 1，0 表示 null），
+ * 因此 InventoryStatus / SourceType 只能在末尾追加新值，不能调整顺序。
+ *
+ * InventoryItem（版本 1）：
+ * <pre>
+ * | itemId (0 = 未分配) | version | sn | skuId | warehouseId | status | acquisitionCost | accumulatedCost
+ * | sourceType | sourceOrderId | lockedByOrderId |
+ * </pre>
+ * 一条库存项约 35–70 字节，大部分是 SN 与订单号字符串。领域事件不属于持久化状态，不编码。
+ *
+ * SN 解码直接在 buffer 的底层数组上调用 SnCode.ofBytes()，不经过 String 中转。
+ */
+public final class InventoryBinaryCodecs {
+
+    /** DomainEventCodec 中的事件类型标签（库存区段 1–31），一经写入不可更改 */
+    public static final int STOCK_OUT_EVENT_TAG = 1;
+    public static final int REPAIR_COMPLETED_EVENT_TAG = 2;
+
+    public static final BinaryCodec<InventoryItem> INVENTORY_ITEM = new InventoryItemCodec();
+    public static final BinaryCodec<StockOutEvent> STOCK_OUT_EVENT = new StockOutEventCodec();
+    public static final BinaryCodec<RepairCompletedEvent> REPAIR_COMPLETED_EVENT = new RepairCompletedEventCodec();
+
+    private static final InventoryStatus[] STATUSES = InventoryStatus.values();
+    private static final SourceType[] SOURCE_TYPES = SourceType.values();
+
+    private InventoryBinaryCodecs() {
+    }
+
+    /**
+     * 把库存上下文的事件注册到序列化器。
+     */
+    public static DomainEventCodec registerEvents(DomainEventCodec codec) {
+        return codec
+                .register(STOCK_OUT_EVENT_TAG, StockOutEvent.class, STOCK_OUT_EVENT)
+                .register(REPAIR_COMPLETED_EVENT_TAG, RepairCompletedEvent.class, REPAIR_COMPLETED_EVENT);
+    }
+
+    // ========== InventoryItem ==========
+
+    private static final class InventoryItemCodec implements BinaryCodec<InventoryItem> {
+
+        @Override
+        public int schemaVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encodeBody(InventoryItem item, ByteBuffer buffer) {
+            WireFormat.putVarLong(buffer, item.getItemId() == null ? 0L : item.getItemId().getValue());
+            WireFormat.putVarLong(buffer, item.getVersion());
+            putSnCode(buffer, item.getSnCode());
+            WireFormat.putSignedVarLong(buffer, item.getSkuId());
+            WireFormat.putSignedVarLong(buffer, item.getWarehouseId().getValue());
+            buffer.put((byte) item.getStatus().ordinal());
+            WireFormat.putMoney(buffer, item.getAcquisitionCost());
+            WireFormat.putMoney(buffer, item.getAccumulatedCost());
+            putSourceType(buffer, item.getSourceType());
+            WireFormat.putString(buffer, item.getSourceOrderId());
+            WireFormat.putString(buffer, item.getLockedByOrderId());
+        }
+
+        @Override
+        public InventoryItem decodeBody(ByteBuffer buffer, int schemaVersion) {
+            long itemId = WireFormat.getVarLong(buffer);
+            long version = WireFormat.getVarLong(buffer);
+            SnCode snCode = getSnCode(buffer);
+            long skuId = WireFormat.getSignedVarLong(buffer);
+            long warehouseId = WireFormat.getSignedVarLong(buffer);
+            InventoryStatus status = WireFormat.getEnum(buffer, STATUSES);
+            InventoryItem item = InventoryItem.reconstruct(
+                    itemId == 0L ? null : InventoryItemId.of(itemId),
+                    snCode,
+                    skuId,
+                    WarehouseId.of(warehouseId),
+                    status,
+                    WireFormat.getMoney(buffer),
+                    WireFormat.getMoney(buffer),
+                    getSourceType(buffer),
+                    WireFormat.getString(buffer),
+                    WireFormat.getString(buffer));
+            item.assignVersion(version);
+            return item;
+        }
+    }
+
+    // ========== 领域事件 ==========
+
+    private static final class StockOutEventCodec implements BinaryCodec<StockOutEvent> {
+
+        @Override
+        public int schemaVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encodeBody(StockOutEvent event, ByteBuffer buffer) {
+            WireFormat.putTimestamp(buffer, event.getOccurredAt());
+            putSnCode(buffer, event.getSnCode());
+            WireFormat.putString(buffer, event.getSalesOrderId());
+            WireFormat.putMoney(buffer, event.getAccumulatedCost());
+            WireFormat.putSignedVarLong(buffer, event.getSkuId());
+            WireFormat.putSignedVarLong(buffer, event.getWarehouseId().getValue());
+            putSourceType(buffer, event.getSourceType());
+        }
+
+        @Override
+        public StockOutEvent decodeBody(ByteBuffer buffer, int schemaVersion) {
+            LocalDateTime occurredAt = WireFormat.getTimestamp(buffer);
+            return new StockOutEvent(
+                    getSnCode(buffer),
+                    WireFormat.getString(buffer),
+                    WireFormat.getMoney(buffer),
+                    WireFormat.getSignedVarLong(buffer),
+                    WarehouseId.of(WireFormat.getSignedVarLong(buffer)),
+                    getSourceType(buffer),
+                    occurredAt);
+        }
+    }
+
+    private static final class RepairCompletedEventCodec implements BinaryCodec<RepairCompletedEvent> {
+
+        /** 版本 2：末尾追加 itemId（0 = 未分配）与 aggregateVersion；版本 1 的事件解码为没有幂等键 */
+        @Override
+        public int schemaVersion() {
+            return 2;
+        }
+
+        @Override
+        public void encodeBody(RepairCompletedEvent event, ByteBuffer buffer) {
+            WireFormat.putTimestamp(buffer, event.getOccurredAt());
+            putSnCode(buffer, event.getSnCode());
+            WireFormat.putMoney(buffer, event.getPartsCost());
+            WireFormat.putMoney(buffer, event.getLaborCost());
+            WireFormat.putMoney(buffer, event.getAccumulatedCost());
+            WireFormat.putVarLong(buffer, event.getItemId() == null ? 0L : event.getItemId().getValue());
+            WireFormat.putVarLong(buffer, event.getAggregateVersion());
+        }
+
+        @Override
+        public RepairCompletedEvent decodeBody(ByteBuffer buffer, int schemaVersion) {
+            LocalDateTime occurredAt = WireFormat.getTimestamp(buffer);
+            SnCode snCode = getSnCode(buffer);
+            Money partsCost = WireFormat.getMoney(buffer);
+            Money laborCost = WireFormat.getMoney(buffer);
+            Money accumulatedCost = WireFormat.getMoney(buffer);
+            long itemId = 0L;
+            long aggregateVersion = 0L;
+            if (schemaVersion >= 2) {
+                itemId = WireFormat.getVarLong(buffer);
+                aggregateVersion = WireFormat.getVarLong(buffer);
+            }
+            return new RepairCompletedEvent(
+                    itemId == 0L ? null : InventoryItemId.of(itemId),
+                    aggregateVersion,
+                    snCode,
+                    partsCost,
+                    laborCost,
+                    accumulatedCost,
+                    occurredAt);
+        }
+    }
+
+    // ========== 公共字段 ==========
+
+    private static void putSnCode(ByteBuffer buffer, SnCode snCode) {
+        WireFormat.putString(buffer, snCode.getValue());
+    }
+
+    private static SnCode getSnCode(ByteBuffer buffer) {
+        int length = WireFormat.getBytesLength(buffer);
+        if (length < 0) {
+            throw new IllegalStateException("SN 编码缺失，数据已损坏");
+        }
+        int position = buffer.position();
+        SnCode snCode;
+        if (buffer.hasArray()) {
+            snCode = SnCode.ofBytes(buffer.array(), buffer.arrayOffset() + position, length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            snCode = SnCode.ofBytes(bytes, 0, length);
+        }
+        buffer.position(position + length);
+        return snCode;
+    }
+
+    private static void putSourceType(ByteBuffer buffer, SourceType sourceType) {
+        buffer.put(sourceType == null ? 0 : (byte) (sourceType.ordinal() + 1));
+    }
+
+    private static SourceType getSourceType(ByteBuffer buffer) {
+        int value = buffer.get() & 0xFF;
+        if (value > SOURCE_TYPES.length) {
+            throw new IllegalStateException("SourceType 序号越界: " + (value - 1));
+        }
+        return value == 0 ? null : SOURCE_TYPES[value - 1];
+    }
+}
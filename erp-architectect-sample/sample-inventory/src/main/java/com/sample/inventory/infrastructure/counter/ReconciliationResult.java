@@ -0,0 +1,45 @@
+package com.sample.inventory.infrastructure.counter;
+
+/**
+ * 一次计数对账的结果。
+ */
+public final class ReconciliationResult {
+
+    private final int checkedCells;
+    private final int correctedCells;
+    private final int busyCells;
+    private final long drift;
+
+    public ReconciliationResult(int checkedCells, int correctedCells, int busyCells, long drift) {
+        this.checkedCells = checkedCells;
+        this.correctedCells = correctedCells;
+        this.busyCells = busyCells;
+        this.drift = drift;
+    }
+
+    /** 检查过的计数单元数 */
+    public int getCheckedCells() {
+        return checkedCells;
+    }
+
+    /** 计数与仓储不一致、已被校正的单元数 */
+    public int getCorrectedCells() {
+        return correctedCells;
+    }
+
+    /** 对账期间有写入经过、本轮跳过的单元数 */
+    public int getBusyCells() {
+        return busyCells;
+    }
+
+    /** 校正量的绝对值之和（台） */
+    public long getDrift() {
+        return drift;
+    }
+
+    @Override
+    public String toString() {
+        return "ReconciliationResult[checked=" + checkedCells + " corrected=" + correctedCells
+                + " busy=" + busyCells + " drift=" + drift + "]";
+    }
+}
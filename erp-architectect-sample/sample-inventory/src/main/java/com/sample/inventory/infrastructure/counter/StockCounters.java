@@ -0,0 +1,241 @@
+package com.sample.inventory.infrastructure.counter;
+
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+import com.sample.inventory.domain.vo.WarehouseId;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * === 设计要点 ===
+ * 实时库存计数：按 (SKU, 仓库, 状态) 维护库存项数量，O(1) 读取，不访问仓储。
+ *
+ * 场景：商城与渠道同步不停地询问"SKU X 在仓库 Y 有多少台 IN_STOCK"，
+ * 每次都对仓储做一次 count 代价太高。
+ *
+ * 计数在哪里更新？
+ * - 不在聚合根的 transitionTo() / stockIn() 里：那时变更还没有提交，
+ *   保存失败（版本冲突后重试、SN 冲突）的转换会被重复计数或错误计数
+ * - 而是在仓储提交时：用存储中的旧状态与新状态做差（新增 +1；状态/SKU/仓库变化时旧格 -1、新格 +1），
+ *   每一次成功提交的 transitionTo() / stockIn() 恰好贡献一次增量
+ *
+ * 结构：
+ * 1. 计数单元 Cell：一个 (SKU, 仓库) 一个单元，内含每个状态一个 LongAdder
+ * 2. (SKU, *) 汇总单元：仓库为 null 的单元，同步累加，跨仓库的查询同样 O(1)
+ * 3. LongAdder 在竞争时自动分散到多个槽（striped），热门 SKU 的并发写入互不争用；读取是对各槽求和
+ *
+ * 对账（reconcile）：从仓储重新统计，校正计数的漂移（进程内 bug、漏掉的写入路径等）。
+ * 每个单元另有 begun / ended 两个计数，仓储在状态可见之前 begin、之后 end；
+ * 对账前后各读一次，只有期间没有任何写入经过的单元才被校正 —— 不需要暂停写入，也不会误校正。
+ * 正在变动的单元跳过并计入结果，下一轮对账再处理。
+ */
+public class StockCounters {
+
+    private static final InventoryStatus[] STATUSES = InventoryStatus.values();
+
+    private final ConcurrentHashMap<CellKey, Cell> cells = new ConcurrentHashMap<>();
+
+    // ========== 读取 ==========
+
+    /**
+     * 某 SKU 在某仓库、某状态下的库存项数量。
+     */
+    public long count(Long skuId, WarehouseId warehouseId, InventoryStatus status) {
+        Objects.requireNonNull(warehouseId, "仓库 ID 不能为空");
+        return read(skuId, warehouseId, status);
+    }
+
+    /**
+     * 某 SKU 在所有仓库、某状态下的库存项数量。
+     */
+    public long count(Long skuId, InventoryStatus status) {
+        return read(skuId, null, status);
+    }
+
+    // ========== 仓储提交时调用 ==========
+
+    /**
+     * 提交开始（新状态对读者可见之前调用）：标记受影响的单元并应用增量。
+     *
+     * @param previous 存储中的旧状态，新增时为 null
+     */
+    public void begin(InventoryItem previous, InventoryItem current) {
+        if (!affects(previous, current)) {
+            return;
+        }
+        Cell target = cell(current.getSkuId(), current.getWarehouseId());
+        Cell targetTotal = cell(current.getSkuId(), null);
+        target.begun.increment();
+        targetTotal.begun.increment();
+        if (previous != null) {
+            Cell source = cell(previous.getSkuId(), previous.getWarehouseId());
+            Cell sourceTotal = cell(previous.getSkuId(), null);
+            if (source != target) {
+                source.begun.increment();
+            }
+            if (sourceTotal != targetTotal) {
+                sourceTotal.begun.increment();
+            }
+            source.counts[previous.getStatus().ordinal()].decrement();
+            sourceTotal.counts[previous.getStatus().ordinal()].decrement();
+        }
+        target.counts[current.getStatus().ordinal()].increment();
+        targetTotal.counts[current.getStatus().ordinal()].increment();
+    }
+
+    /**
+     * 提交结束（新状态已对读者可见之后调用），参数与 begin 相同。
+     */
+    public void end(InventoryItem previous, InventoryItem current) {
+        if (!affects(previous, current)) {
+            return;
+        }
+        Cell target = cell(current.getSkuId(), current.getWarehouseId());
+        Cell targetTotal = cell(current.getSkuId(), null);
+        target.ended.increment();
+        targetTotal.ended.increment();
+        if (previous != null) {
+            Cell source = cell(previous.getSkuId(), previous.getWarehouseId());
+            Cell sourceTotal = cell(previous.getSkuId(), null);
+            if (source != target) {
+                source.ended.increment();
+            }
+            if (sourceTotal != targetTotal) {
+                sourceTotal.ended.increment();
+            }
+        }
+    }
+
+    // ========== 对账 ==========
+
+    /**
+     * 从仓储重新统计并校正漂移，可以在写入进行时执行。
+     */
+    public ReconciliationResult reconcile(InventoryItemRepository repository) {
+        // 1. 对账窗口开始：记录每个单元的 begun / ended
+        Map<CellKey, long[]> marks = new HashMap<>(cells.size() * 2);
+        for (Map.Entry<CellKey, Cell> entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            marks.put(entry.getKey(), new long[]{cell.begun.sum(), cell.ended.sum()});
+        }
+
+        // 2. 从仓储统计
+        Map<CellKey, long[]> scanned = new HashMap<>();
+        for (InventoryStatus status : STATUSES) {
+            for (InventoryItem item : repository.findByStatus(status)) {
+                scanned.computeIfAbsent(new CellKey(item.getSkuId(), item.getWarehouseId()),
+                        k -> new long[STATUSES.length])[status.ordinal()]++;
+                scanned.computeIfAbsent(new CellKey(item.getSkuId(), null),
+                        k -> new long[STATUSES.length])[status.ordinal()]++;
+            }
+        }
+
+        // 3. 逐个单元比较；窗口内没有写入经过的单元才校正
+        Set<CellKey> keys = new HashSet<>(cells.keySet());
+        keys.addAll(scanned.keySet());
+        long[] none = new long[STATUSES.length];
+        int corrected = 0;
+        int busy = 0;
+        long drift = 0;
+        for (CellKey key : keys) {
+            Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+            long[] before = marks.getOrDefault(key, new long[2]);
+            long[] expected = scanned.getOrDefault(key, none);
+            long[] actual = new long[STATUSES.length];
+            for (int s = 0; s < STATUSES.length; s++) {
+                actual[s] = cell.counts[s].sum();
+            }
+            long begun = cell.begun.sum();
+            long ended = cell.ended.sum();
+            if (begun != before[0] || ended != before[1] || begun != ended) {
+                busy++;
+                continue;
+            }
+
+            boolean differs = false;
+            for (int s = 0; s < STATUSES.length; s++) {
+                long diff = expected[s] - actual[s];
+                if (diff != 0) {
+                    // 相对校正：与之后并发写入的增量可以交换顺序
+                    cell.counts[s].add(diff);
+                    drift += Math.abs(diff);
+                    differs = true;
+                }
+            }
+            if (differs) {
+                corrected++;
+            }
+        }
+        return new ReconciliationResult(keys.size(), corrected, busy, drift);
+    }
+
+    // ========== 私有方法 ==========
+
+    private long read(Long skuId, WarehouseId warehouseId, InventoryStatus status) {
+        Objects.requireNonNull(skuId, "SKU ID 不能为空");
+        Objects.requireNonNull(status, "库存状态不能为空");
+        Cell cell = cells.get(new CellKey(skuId, warehouseId));
+        return cell == null ? 0L : cell.counts[status.ordinal()].sum();
+    }
+
+    private static boolean affects(InventoryItem previous, InventoryItem current) {
+        return previous == null
+                || previous.getStatus() != current.getStatus()
+                || !previous.getSkuId().equals(current.getSkuId())
+                || !previous.getWarehouseId().equals(current.getWarehouseId());
+    }
+
+    private Cell cell(Long skuId, WarehouseId warehouseId) {
+        return cells.computeIfAbsent(new CellKey(skuId, warehouseId), k -> new Cell());
+    }
+
+    /**
+     * 一个 (SKU, 仓库) 的计数单元。
+     */
+    private static final class Cell {
+        final LongAdder[] counts = new LongAdder[STATUSES.length];
+        final LongAdder begun = new LongAdder();
+        final LongAdder ended = new LongAdder();
+
+        Cell() {
+            for (int s = 0; s < counts.length; s++) {
+                counts[s] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * 单元的键；warehouseId 为 null 表示该 SKU 的跨仓库汇总。
+     */
+    private static final class CellKey {
+        final Long skuId;
+        final WarehouseId warehouseId;
+
+        CellKey(Long skuId, WarehouseId warehouseId) {
+            this.skuId = skuId;
+            this.warehouseId = warehouseId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CellKey))
+                return false;
+            CellKey that = (CellKey) o;
+            return skuId.equals(that.skuId) && Objects.equals(warehouseId, that.warehouseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * skuId.hashCode() + Objects.hashCode(warehouseId);
+        }
+    }
+}
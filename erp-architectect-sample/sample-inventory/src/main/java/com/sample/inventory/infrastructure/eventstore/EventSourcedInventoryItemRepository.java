@@ -0,0 +1,529 @@
+package com.sample.inventory.infrastructure.eventstore;
+
+import com.sample.common.concurrency.VersionConflictException;
+import com.sample.common.id.IdGenerator;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryItemChange;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.counter.StockCounters;
+import com.sample.inventory.infrastructure.repository.InMemoryInventoryItemRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * === 设计要点 ===
+ * 事件溯源的库存项仓储：每次状态转换都作为事件追加到日志，聚合根通过回放事件重建。
+ *
+ * 与基于状态行的仓储相比，多了什么？
+ * - 每个 SN 的完整履历（质检、维修、复检、锁定、释放……）都保留下来，可以随时查询 loadHistory()
+ * - 日志是唯一的真实数据源，查询用的状态（投影）可以随时从日志重建
+ *
+ * 结构：
+ * 1.【事件日志】InventoryEventLog，只追加；同一库存项的帧通过 prev 指针串成反向链表
+ * 2.【快照帧】每个库存项每累计 snapshotInterval 个事件写一个快照帧，单个聚合根的回放长度有上界
+ * 3.【投影】内存中的 InMemoryInventoryItemRepository，承接全部查询及其索引
+ * 4.【检查点】writeCheckpoint() 把所有库存项的当前状态写成一个文件，启动时只需回放检查点之后的日志
+ *
+ * 保存：单写者（本对象的监视器），顺序为
+ * 版本号比较 → SN 唯一性校验 → 编码事件 → 一次追加写入日志 → 更新投影 → 清空聚合根的未提交变更。
+ * 所有校验都在写日志之前完成，日志中不会出现被拒绝的保存。
+ *
+ * 批次信封：一次保存（含 saveAll 的整批）的所有帧包在一个外层帧里，外层帧的 CRC 覆盖整批。
+ * 写入中途崩溃时留下的是一个不完整的外层帧，回放在它之前停止并截断 —— 整批要么全部重放，要么全部丢弃，
+ * 不会出现"批次的前几帧已经持久化"的情况。内层帧保留各自的帧头，prev 指针与 loadHistory() 的随机读取照常使用。
+ *
+ * 启动：加载检查点 → 顺序回放其后的日志（mmap 扫描，每帧只解码必要字段）→ 载入投影。
+ */
+public class EventSourcedInventoryItemRepository implements InventoryItemRepository, AutoCloseable {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 32;
+
+    private static final String LOG_FILE = "inventory-events.log";
+    private static final String CHECKPOINT_FILE = "inventory-events.checkpoint";
+
+    private static final int INITIAL_BUFFER_SIZE = 4 * InventoryEventCodec.MAX_FRAME_SIZE;
+
+    private final InventoryEventLog log;
+    private final Path checkpointFile;
+    private final int snapshotInterval;
+    private final InMemoryInventoryItemRepository projection;
+
+    /** 库存项 ID → 事件流末端（以下可变状态均由本对象的监视器保护） */
+    private final Map<Long, StreamHead> heads;
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private final byte[] scratch = InventoryEventCodec.newScratch();
+
+    private EventSourcedInventoryItemRepository(Path directory, int snapshotInterval, int expectedItems,
+                                                StockCounters stockCounters) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("快照间隔必须大于零: " + snapshotInterval);
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建事件存储目录失败: " + directory, e);
+        }
+        this.log = new InventoryEventLog(directory.resolve(LOG_FILE));
+        this.checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        this.snapshotInterval = snapshotInterval;
+        this.projection = new InMemoryInventoryItemRepository(expectedItems, stockCounters);
+        this.heads = new HashMap<>(expectedItems * 2);
+    }
+
+    public static EventSourcedInventoryItemRepository open(Path directory) {
+        return open(directory, DEFAULT_SNAPSHOT_INTERVAL, 1 << 16);
+    }
+
+    /**
+     * 打开事件存储并重建全部库存项。
+     *
+     * @param snapshotInterval 每个库存项每多少个事件写一个快照帧
+     * @param expectedItems    预估库存项数量，用于预设投影与索引的容量
+     */
+    public static EventSourcedInventoryItemRepository open(Path directory, int snapshotInterval, int expectedItems) {
+        return open(directory, snapshotInterval, expectedItems, null);
+    }
+
+    /**
+     * @param stockCounters 由投影维护的实时计数（启动回放时一并重建），null 表示不启用
+     */
+    public static EventSourcedInventoryItemRepository open(Path directory, int snapshotInterval, int expectedItems,
+                                                           StockCounters stockCounters) {
+        EventSourcedInventoryItemRepository repository =
+                new EventSourcedInventoryItemRepository(directory, snapshotInterval, expectedItems, stockCounters);
+        repository.recover();
+        return repository;
+    }
+
+    // ========== 写操作 ==========
+
+    @Override
+    public synchronized void save(InventoryItem item) {
+        beginBatch();
+        Pending pending = prepare(item, log.size(), null);
+        commit(List.of(pending));
+    }
+
+    /**
+     * 整批校验通过后一次写入日志；任何一条校验失败，整批都不会写入。
+     *
+     * 同一库存项不能在一批中出现两次：每次 prepare 都基于同一个（尚未提交的）事件流末端，
+     * 两份帧会指向同一个 prev、投影的版本号也会比 StreamHead 多走一步，之后的每次保存都版本冲突。
+     *
+     * @throws IllegalArgumentException 批次中有重复的库存项
+     */
+    @Override
+    public synchronized void saveAll(Collection<InventoryItem> items) {
+        beginBatch();
+        long base = log.size();
+        Set<SnCode> claimed = new HashSet<>();
+        Set<Long> ids = new HashSet<>();
+        List<Pending> pending = new ArrayList<>(items.size());
+        for (InventoryItem item : items) {
+            if (item.getItemId() != null && !ids.add(item.getItemId().getValue())) {
+                throw new IllegalArgumentException("库存项 " + item.getItemId() + " 在同一批次中重复");
+            }
+            Pending prepared = prepare(item, base, claimed);
+            ids.add(prepared.id);
+            pending.add(prepared);
+        }
+        commit(pending);
+    }
+
+    // ========== 查询：由投影承接 ==========
+
+    @Override
+    public Optional<InventoryItem> findById(InventoryItemId id) {
+        return projection.findById(id);
+    }
+
+    @Override
+    public Optional<InventoryItem> findActiveBySnCode(SnCode snCode) {
+        return projection.findActiveBySnCode(snCode);
+    }
+
+    @Override
+    public boolean existsActiveBySnCode(SnCode snCode) {
+        return projection.existsActiveBySnCode(snCode);
+    }
+
+    @Override
+    public Set<SnCode> existsActiveBySnCodes(Collection<SnCode> snCodes) {
+        return projection.existsActiveBySnCodes(snCodes);
+    }
+
+    @Override
+    public List<InventoryItem> findByStatus(InventoryStatus status) {
+        return projection.findByStatus(status);
+    }
+
+    @Override
+    public List<InventoryItem> findBySkuId(Long skuId) {
+        return projection.findBySkuId(skuId);
+    }
+
+    @Override
+    public List<InventoryItem> findByWarehouseId(WarehouseId warehouseId) {
+        return projection.findByWarehouseId(warehouseId);
+    }
+
+    // ========== 事件溯源特有的查询 ==========
+
+    /**
+     * 库存项的完整履历（按发生顺序，第一项为入库）。
+     * 通过导入（而非入库）进入本仓储的库存项，履历从导入之后开始。
+     */
+    public synchronized List<InventoryItemChange> loadHistory(InventoryItemId id) {
+        StreamHead head = heads.get(id.getValue());
+        if (head == null) {
+            return List.of();
+        }
+        Deque<InventoryItemChange> history = new ArrayDeque<>();
+        long position = head.position;
+        while (position != InventoryEventCodec.NO_PREVIOUS) {
+            ByteBuffer frame = log.read(position);
+            byte type = InventoryEventCodec.type(frame, 0);
+            if (type == InventoryEventCodec.CHANGE) {
+                history.addFirst(InventoryEventCodec.readChange(frame, 0, scratch));
+            } else if (type == InventoryEventCodec.GENESIS) {
+                history.addFirst(InventoryItemChange.stockIn());
+            }
+            // 快照帧不是事件，继续向前
+            position = InventoryEventCodec.prev(frame, 0);
+        }
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * 只用日志重建单个库存项：从最近的快照（或入库）开始回放，最多回放 snapshotInterval 个事件。
+     * 用于核对投影，或在不维护投影的部署中按需加载。
+     */
+    public synchronized Optional<InventoryItem> loadFromLog(InventoryItemId id) {
+        StreamHead head = heads.get(id.getValue());
+        if (head == null) {
+            return Optional.empty();
+        }
+        Deque<ByteBuffer> changes = new ArrayDeque<>();
+        long position = head.position;
+        while (true) {
+            ByteBuffer frame = log.read(position);
+            if (InventoryEventCodec.type(frame, 0) != InventoryEventCodec.CHANGE) {
+                InventoryItem.Reconstruction item = InventoryEventCodec.readState(frame, 0, scratch);
+                for (ByteBuffer change : changes) {
+                    InventoryEventCodec.replayChange(change, 0, item, scratch);
+                }
+                return Optional.of(item.finish());
+            }
+            changes.addFirst(frame);
+            position = InventoryEventCodec.prev(frame, 0);
+        }
+    }
+
+    /**
+     * 写检查点：所有库存项的当前状态 + 对应的日志位置。
+     * 写入期间阻塞保存（单写者），先写临时文件再原子替换。
+     */
+    public synchronized void writeCheckpoint() {
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(tmp);
+            try (InventoryEventLog out = new InventoryEventLog(tmp)) {
+                ByteBuffer frames = ByteBuffer.allocate(Math.max(INITIAL_BUFFER_SIZE, 1 << 20));
+                InventoryEventCodec.writeCheckpointHeader(frames, log.size(), heads.size());
+                for (Map.Entry<Long, StreamHead> entry : heads.entrySet()) {
+                    if (frames.remaining() < InventoryEventCodec.MAX_FRAME_SIZE) {
+                        frames.flip();
+                        out.append(frames);
+                        frames.clear();
+                    }
+                    InventoryItem state = projection.findById(InventoryItemId.of(entry.getKey()))
+                            .orElseThrow(() -> new IllegalStateException("投影缺少库存项: " + entry.getKey()));
+                    StreamHead head = entry.getValue();
+                    // 检查点中的快照帧：prev 指向该库存项在日志中的最后一帧，启动后链表可以接着回溯
+                    InventoryEventCodec.writeSnapshot(frames, state, head.version, head.position);
+                }
+                frames.flip();
+                out.append(frames);
+                out.force();
+            }
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入检查点失败: " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * 把日志刷到磁盘（应对操作系统崩溃；进程崩溃时已写入页缓存的数据不会丢）。
+     */
+    public void force() {
+        log.force();
+    }
+
+    public synchronized int size() {
+        return heads.size();
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    // ========== 保存 ==========
+
+    /**
+     * 校验并把一个聚合根的事件编码进 buffer，不修改任何已提交的状态。
+     *
+     * @param base    本批帧写入日志时的起始位置（单写者，可预先确定）
+     * @param claimed 批量保存时本批已占用的 SN，单条保存为 null
+     */
+    private Pending prepare(InventoryItem item, long base, Set<SnCode> claimed) {
+        if (item.getItemId() == null) {
+            item.assignId(InventoryItemId.of(IdGenerator.getDefault().nextId()));
+        }
+        long id = item.getItemId().getValue();
+        StreamHead head = heads.get(id);
+
+        long expectedVersion = item.getVersion();
+        long actualVersion = head == null ? 0L : head.version;
+        if (expectedVersion != actualVersion) {
+            throw new VersionConflictException("库存项", id, expectedVersion, actualVersion);
+        }
+        checkSnAvailable(item, claimed);
+
+        long version = expectedVersion + 1;
+        long position = head == null ? InventoryEventCodec.NO_PREVIOUS : head.position;
+        int sinceSnapshot = head == null ? 0 : head.changesSinceSnapshot;
+
+        List<InventoryItemChange> changes = item.getUncommittedChanges();
+        int first = 0;
+        if (head == null && !changes.isEmpty() && changes.get(0).isStockIn()) {
+            ensureCapacity();
+            long at = base + buffer.position();
+            InventoryEventCodec.writeGenesis(buffer, item, version, position);
+            position = at;
+            first = 1;
+        } else if (head == null || changes.isEmpty()) {
+            // 导入的已有数据没有履历，或者没有任何变更的保存：写一个快照帧，保证日志与投影一致
+            ensureCapacity();
+            long at = base + buffer.position();
+            InventoryEventCodec.writeSnapshot(buffer, item, version, position);
+            position = at;
+            first = changes.size();
+            sinceSnapshot = 0;
+        }
+        for (int i = first; i < changes.size(); i++) {
+            ensureCapacity();
+            long at = base + buffer.position();
+            InventoryEventCodec.writeChange(buffer, item, version, position, changes.get(i));
+            position = at;
+            sinceSnapshot++;
+        }
+        if (sinceSnapshot >= snapshotInterval) {
+            ensureCapacity();
+            long at = base + buffer.position();
+            InventoryEventCodec.writeSnapshot(buffer, item, version, position);
+            position = at;
+            sinceSnapshot = 0;
+        }
+        return new Pending(item, id, position, version, sinceSnapshot);
+    }
+
+    /**
+     * 预留批次信封的帧头：之后编码的内层帧位置 = 日志当前末尾 + 在 buffer 中的位置，已经计入信封帧头。
+     */
+    private void beginBatch() {
+        buffer.clear();
+        InventoryEventLog.beginFrame(buffer);
+    }
+
+    /**
+     * 封好批次信封，一次写入日志，然后更新事件流末端与投影。
+     * 投影的版本号与 StreamHead 始终一致，且 SN 已预先校验过，投影的 save 不会失败。
+     */
+    private void commit(List<Pending> pending) {
+        if (pending.isEmpty()) {
+            return; // 空信封的长度为 0，回放会把它当成日志末尾
+        }
+        InventoryEventLog.endFrame(buffer, 0);
+        buffer.flip();
+        log.append(buffer);
+        for (Pending p : pending) {
+            StreamHead head = heads.computeIfAbsent(p.id, key -> new StreamHead());
+            head.position = p.position;
+            head.version = p.version;
+            head.changesSinceSnapshot = p.changesSinceSnapshot;
+            projection.save(p.item);
+            p.item.markChangesCommitted();
+        }
+    }
+
+    /**
+     * 与内存仓储相同的规则：非终态的库存项不能与其他库存项共用一个 SN。
+     */
+    private void checkSnAvailable(InventoryItem item, Set<SnCode> claimed) {
+        if (item.getStatus().isTerminal()) {
+            return;
+        }
+        SnCode snCode = item.getSnCode();
+        if (claimed != null && !claimed.add(snCode)) {
+            throw new IllegalStateException("SN [" + snCode + "] 在同一批次中重复");
+        }
+        if (projection.existsActiveBySnCode(snCode)) {
+            InventoryItemId holder = projection.findActiveBySnCode(snCode)
+                    .map(InventoryItem::getItemId)
+                    .orElse(null);
+            if (holder != null && !holder.equals(item.getItemId())) {
+                throw new IllegalStateException("SN [" + snCode + "] 已存在活跃库存记录: " + holder);
+            }
+        }
+    }
+
+    private void ensureCapacity() {
+        if (buffer.remaining() < InventoryEventCodec.MAX_FRAME_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    // ========== 启动恢复 ==========
+
+    private synchronized void recover() {
+        long from = loadCheckpoint();
+        log.replay(from, this::replayBatch);
+
+        for (StreamHead head : heads.values()) {
+            projection.restore(head.state.finish());
+            head.state = null;
+        }
+    }
+
+    /**
+     * 回放一个批次信封：日志已校验过整批的 CRC，逐个回放其中的内层帧。
+     *
+     * @param position 信封帧在日志中的位置；内层帧的位置 = position + 帧头 + 在信封内的偏移
+     */
+    private void replayBatch(long position, ByteBuffer batch, int offset, int length) {
+        int at = offset;
+        int end = offset + length;
+        while (at < end) {
+            int frameLength = batch.getInt(at);
+            if (frameLength <= 0 || at + InventoryEventLog.FRAME_HEADER_SIZE + frameLength > end) {
+                throw new IllegalStateException("事件日志损坏：批次 " + position + " 中的帧越界");
+            }
+            long framePosition = position + InventoryEventLog.FRAME_HEADER_SIZE + (at - offset);
+            replayFrame(framePosition, batch, at + InventoryEventLog.FRAME_HEADER_SIZE, frameLength);
+            at += InventoryEventLog.FRAME_HEADER_SIZE + frameLength;
+        }
+    }
+
+    /**
+     * 回放一帧：每帧一次哈希查找，CHANGE 帧直接作用于重建中的状态，不创建 InventoryItemChange。
+     */
+    private void replayFrame(long position, ByteBuffer frame, int offset, int length) {
+        long id = InventoryEventCodec.itemId(frame, offset);
+        StreamHead head = heads.get(id);
+        byte type = InventoryEventCodec.type(frame, offset);
+        if (type == InventoryEventCodec.CHANGE) {
+            if (head == null || head.state == null) {
+                throw new IllegalStateException("事件日志损坏：库存项 " + id + " 缺少入库或快照帧");
+            }
+            InventoryEventCodec.replayChange(frame, offset, head.state, scratch);
+            head.changesSinceSnapshot++;
+        } else {
+            if (head == null) {
+                head = new StreamHead();
+                heads.put(id, head);
+            }
+            head.state = InventoryEventCodec.readState(frame, offset, scratch);
+            head.changesSinceSnapshot = 0;
+        }
+        head.position = position;
+        head.version = InventoryEventCodec.version(frame, offset);
+    }
+
+    /**
+     * 加载检查点；不存在、不完整或与日志不匹配时返回 0（从头回放）。
+     *
+     * @return 检查点对应的日志位置
+     */
+    private long loadCheckpoint() {
+        if (!Files.isRegularFile(checkpointFile)) {
+            return 0L;
+        }
+        long[] header = {-1L, -1L};
+        try (InventoryEventLog in = new InventoryEventLog(checkpointFile)) {
+            in.replay(0L, (position, frame, offset, length) -> {
+                if (InventoryEventCodec.type(frame, offset) == InventoryEventCodec.CHECKPOINT) {
+                    header[0] = InventoryEventCodec.checkpointLogPosition(frame, offset);
+                    header[1] = InventoryEventCodec.checkpointItemCount(frame, offset);
+                    return;
+                }
+                StreamHead head = new StreamHead();
+                head.state = InventoryEventCodec.readState(frame, offset, scratch);
+                head.version = InventoryEventCodec.version(frame, offset);
+                head.position = InventoryEventCodec.prev(frame, offset);
+                heads.put(InventoryEventCodec.itemId(frame, offset), head);
+            });
+        } catch (RuntimeException e) {
+            header[0] = -1L; // 检查点损坏：回退为全量回放
+        }
+        if (header[0] < 0 || header[0] > log.size() || header[1] != heads.size()) {
+            heads.clear();
+            return 0L;
+        }
+        return header[0];
+    }
+
+    // ========== 内部结构 ==========
+
+    /**
+     * 一个库存项事件流的末端。
+     * 启动回放期间 state 持有正在重建的聚合根，载入投影后释放。
+     */
+    private static final class StreamHead {
+        long position;
+        long version;
+        int changesSinceSnapshot;
+        InventoryItem.Reconstruction state;
+    }
+
+    /**
+     * 已校验、已编码但尚未写入日志的一次保存。
+     */
+    private static final class Pending {
+        final InventoryItem item;
+        final long id;
+        final long position;
+        final long version;
+        final int changesSinceSnapshot;
+
+        Pending(InventoryItem item, long id, long position, long version, int changesSinceSnapshot) {
+            this.item = item;
+            this.id = id;
+            this.position = position;
+            this.version = version;
+            this.changesSinceSnapshot = changesSinceSnapshot;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.sample.inventory.infrastructure.eventstore;
+
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryItemChange;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * === 设计要点 ===
+ * 库存事件的二进制编码（帧的 payload）。
+ *
+ * 公共头（25 字节）：
+ * <pre>
+ * | type: byte | itemId: long | version: long | prev: long |
+ * </pre>
+ * - version：产生该帧的那次保存之后的聚合根版本号
+ * - prev：同一库存项上一个帧在日志中的位置（-1 表示没有），构成按聚合根回溯的反向链表
+ *
+ * 帧类型：
+ * - GENESIS：入库（SN、SKU、仓库、获取成本、来源），状态隐含为 PENDING_INSPECT
+ * - CHANGE：一次状态转换（目标状态、维修成本（分）、关联订单号/报废原因）
+ * - SNAPSHOT：完整状态，回放到这里可以丢弃之前的所有帧
+ * - CHECKPOINT：只出现在检查点文件开头（日志位置 + 库存项数量），不使用公共头
+ *
+ * 金额以"分"的 long 存储，字符串为 short 长度前缀 + UTF-8（-1 表示 null）。
+ * 所有读取都使用绝对位置，不修改 buffer 的 position，回放时可以直接在 mmap 窗口上解码。
+ */
+final class InventoryEventCodec {
+
+    static final byte GENESIS = 1;
+    static final byte CHANGE = 2;
+    static final byte SNAPSHOT = 3;
+    static final byte CHECKPOINT = 4;
+
+    static final long NO_PREVIOUS = -1L;
+
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+
+    /** 一帧的最大字节数：定长部分 + 4 个字符串上限，写入前据此预留空间 */
+    static final int MAX_FRAME_SIZE = InventoryEventLog.FRAME_HEADER_SIZE + 128 + 4 * (2 + MAX_STRING_BYTES);
+
+    private static final InventoryStatus[] STATUSES = InventoryStatus.values();
+    private static final SourceType[] SOURCE_TYPES = SourceType.values();
+
+    private static final int TYPE = 0;
+    private static final int ITEM_ID = 1;
+    private static final int VERSION = 9;
+    private static final int PREV = 17;
+    private static final int BODY = 25;
+
+    private InventoryEventCodec() {
+    }
+
+    // ========== 编码 ==========
+
+    static void writeGenesis(ByteBuffer buffer, InventoryItem item, long version, long prev) {
+        int start = InventoryEventLog.beginFrame(buffer);
+        writeHeader(buffer, GENESIS, item, version, prev);
+        writeIdentity(buffer, item);
+        InventoryEventLog.endFrame(buffer, start);
+    }
+
+    static void writeChange(ByteBuffer buffer, InventoryItem item, long version, long prev, InventoryItemChange change) {
+        int start = InventoryEventLog.beginFrame(buffer);
+        writeHeader(buffer, CHANGE, item, version, prev);
+        buffer.put((byte) change.getStatus().ordinal());
+        buffer.putLong(change.getAmount() == null ? 0L : change.getAmount().toCents());
+        writeString(buffer, change.getReference());
+        InventoryEventLog.endFrame(buffer, start);
+    }
+
+    static void writeSnapshot(ByteBuffer buffer, InventoryItem item, long version, long prev) {
+        int start = InventoryEventLog.beginFrame(buffer);
+        writeHeader(buffer, SNAPSHOT, item, version, prev);
+        writeIdentity(buffer, item);
+        buffer.put((byte) item.getStatus().ordinal());
+        buffer.putLong(item.getAccumulatedCost().toCents());
+        writeString(buffer, item.getLockedByOrderId());
+        InventoryEventLog.endFrame(buffer, start);
+    }
+
+    static void writeCheckpointHeader(ByteBuffer buffer, long logPosition, long itemCount) {
+        int start = InventoryEventLog.beginFrame(buffer);
+        buffer.put(CHECKPOINT);
+        buffer.putLong(logPosition);
+        buffer.putLong(itemCount);
+        InventoryEventLog.endFrame(buffer, start);
+    }
+
+    // ========== 解码：公共头 ==========
+
+    static byte type(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + TYPE);
+    }
+
+    static long itemId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + ITEM_ID);
+    }
+
+    static long version(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + VERSION);
+    }
+
+    static long prev(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + PREV);
+    }
+
+    // ========== 解码：检查点 ==========
+
+    static long checkpointLogPosition(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + 1);
+    }
+
+    static long checkpointItemCount(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + 9);
+    }
+
+    // ========== 解码：状态 ==========
+
+    /**
+     * 从 GENESIS / SNAPSHOT 帧开始重建聚合根（版本号已回填），之后的 CHANGE 帧经由 replayChange() 应用，
+     * 最后 finish() 取出聚合根。
+     *
+     * @param scratch 至少 MAX_STRING_BYTES 字节的临时数组，避免每帧分配
+     */
+    static InventoryItem.Reconstruction readState(ByteBuffer buffer, int offset, byte[] scratch) {
+        byte type = type(buffer, offset);
+        int at = offset + BODY;
+
+        int snLength = buffer.get(at) & 0xFF;
+        buffer.get(at + 1, scratch, 0, snLength);
+        SnCode snCode = SnCode.ofBytes(scratch, 0, snLength);
+        at += 1 + snLength;
+
+        long skuId = buffer.getLong(at);
+        long warehouseId = buffer.getLong(at + 8);
+        Money acquisitionCost = Money.ofCents(buffer.getLong(at + 16));
+        byte sourceType = buffer.get(at + 24);
+        at += 25;
+        String sourceOrderId = readString(buffer, at, scratch);
+        at += stringSize(buffer, at);
+
+        InventoryStatus status = InventoryStatus.PENDING_INSPECT;
+        Money accumulatedCost = acquisitionCost;
+        String lockedByOrderId = null;
+        if (type == SNAPSHOT) {
+            status = STATUSES[buffer.get(at)];
+            accumulatedCost = Money.ofCents(buffer.getLong(at + 1));
+            lockedByOrderId = readString(buffer, at + 9, scratch);
+        }
+
+        InventoryItem.Reconstruction item = InventoryItem.beginReconstruction(
+                InventoryItemId.of(itemId(buffer, offset)),
+                snCode,
+                skuId,
+                WarehouseId.of(warehouseId),
+                status,
+                acquisitionCost,
+                accumulatedCost,
+                sourceType < 0 ? null : SOURCE_TYPES[sourceType],
+                sourceOrderId,
+                lockedByOrderId);
+        item.assignVersion(version(buffer, offset));
+        return item;
+    }
+
+    /**
+     * 把 CHANGE 帧直接重放到聚合根上，不创建 InventoryItemChange。
+     * 关联字符串只有锁定时才影响状态，其余情况不解码。
+     */
+    static void replayChange(ByteBuffer buffer, int offset, InventoryItem.Reconstruction item, byte[] scratch) {
+        int at = offset + BODY;
+        InventoryStatus status = STATUSES[buffer.get(at)];
+        long amountCents = buffer.getLong(at + 1);
+        String reference = status == InventoryStatus.LOCKED ? readString(buffer, at + 9, scratch) : null;
+        item.replay(status, amountCents == 0L ? null : Money.ofCents(amountCents), reference);
+        item.assignVersion(version(buffer, offset));
+    }
+
+    /**
+     * 解码 CHANGE 帧为领域对象（查询履历用）。
+     */
+    static InventoryItemChange readChange(ByteBuffer buffer, int offset, byte[] scratch) {
+        int at = offset + BODY;
+        InventoryStatus status = STATUSES[buffer.get(at)];
+        long amountCents = buffer.getLong(at + 1);
+        return InventoryItemChange.of(
+                status,
+                amountCents == 0L ? null : Money.ofCents(amountCents),
+                readString(buffer, at + 9, scratch));
+    }
+
+    static byte[] newScratch() {
+        return new byte[MAX_STRING_BYTES];
+    }
+
+    // ========== 私有方法 ==========
+
+    private static void writeHeader(ByteBuffer buffer, byte type, InventoryItem item, long version, long prev) {
+        buffer.put(type);
+        buffer.putLong(item.getItemId().getValue());
+        buffer.putLong(version);
+        buffer.putLong(prev);
+    }
+
+    private static void writeIdentity(ByteBuffer buffer, InventoryItem item) {
+        byte[] sn = item.getSnCode().getValue().getBytes(StandardCharsets.US_ASCII);
+        buffer.put((byte) sn.length);
+        buffer.put(sn);
+        buffer.putLong(item.getSkuId());
+        buffer.putLong(item.getWarehouseId().getValue());
+        buffer.putLong(item.getAcquisitionCost().toCents());
+        buffer.put(item.getSourceType() == null ? -1 : (byte) item.getSourceType().ordinal());
+        writeString(buffer, item.getSourceOrderId());
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("字段过长（超过 " + MAX_STRING_BYTES + " 字节）: " + value.substring(0, 32) + "...");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer, int at, byte[] scratch) {
+        int length = buffer.getShort(at);
+        if (length < 0) {
+            return null;
+        }
+        buffer.get(at + 2, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(ByteBuffer buffer, int at) {
+        return 2 + Math.max(0, buffer.getShort(at));
+    }
+}
@@ -0,0 +1,271 @@
+package com.sample.inventory.infrastructure.eventstore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * === 设计要点 ===
+ * 库存事件日志：只追加的帧文件，事件溯源仓储的唯一真实数据源。
+ *
+ * 帧格式：
+ * <pre>
+ * | length: int | crc32c: int | payload: length 字节 |
+ * </pre>
+ * - 文件头 8 字节：magic + 格式版本
+ * - 帧的内容由 InventoryEventCodec 决定，日志本身不关心
+ * - 一次 append 写入一批完整的帧（一次保存产生的所有事件），只有一次系统调用
+ * - 格式版本 2：事件仓储把每次 append 的内容包成一个外层帧（批次信封），帧内嵌套各事件的帧；
+ *   版本 1 的日志没有信封，不能按版本 2 解读
+ *
+ * 崩溃恢复：进程在写入中途崩溃，文件末尾可能留下半个帧（长度越界或 CRC 不符）。
+ * replay() 扫描到第一个无效帧时停止，并把文件截断到最后一个有效帧之后。
+ * 外层帧是批次信封时，被截掉的就是整个未写完的批次。
+ *
+ * 回放：按窗口 mmap 文件顺序扫描，每帧只做一次 CRC32C（有硬件指令支持）和回调，
+ * 帧在映射窗口上原地交给回调，不复制到堆内数组；回调重建状态时（readState、金额）仍会创建对象。
+ *
+ * 并发：写入与随机读取都在本对象的监视器内；调用方（仓储）本来就是单写者。
+ */
+public class InventoryEventLog implements AutoCloseable {
+
+    /** 文件头：'I' 'E' 'V' 'L' */
+    private static final int MAGIC = 0x4945564C;
+    private static final int FORMAT_VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 8;
+
+    static final int FRAME_HEADER_SIZE = 8;
+
+    /** 回放时每次映射的窗口大小 */
+    private static final int SCAN_WINDOW = 64 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private long size;
+
+    /**
+     * 帧回调：payload 位于 buffer[offset, offset + length)，回调返回后 buffer 可能被重新映射，不能保留引用。
+     */
+    @FunctionalInterface
+    public interface FrameVisitor {
+        void visit(long position, ByteBuffer buffer, int offset, int length);
+    }
+
+    public InventoryEventLog(Path file) {
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+            if (size == 0) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+                writeFully(header, 0);
+                size = FILE_HEADER_SIZE;
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < FILE_HEADER_SIZE || header.getInt() != MAGIC) {
+                    throw new IllegalStateException("不是库存事件日志文件: " + file);
+                }
+                int version = header.getInt();
+                if (version != FORMAT_VERSION) {
+                    throw new IllegalStateException("不支持的事件日志格式版本: " + version);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开库存事件日志失败: " + file, e);
+        }
+    }
+
+    // ========== 帧的构建（由编码器调用） ==========
+
+    /**
+     * 开始一个帧：预留帧头，返回帧在 buffer 中的起始位置。
+     */
+    static int beginFrame(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + FRAME_HEADER_SIZE);
+        return start;
+    }
+
+    /**
+     * 结束一个帧：回填长度与校验和。
+     */
+    static void endFrame(ByteBuffer buffer, int start) {
+        int end = buffer.position();
+        int length = end - start - FRAME_HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + FRAME_HEADER_SIZE).limit(end);
+        crc.update(payload);
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    // ========== 写入 ==========
+
+    /**
+     * 追加一批帧（buffer 的 position ~ limit）。
+     *
+     * @return 这批帧在文件中的起始位置
+     */
+    public synchronized long append(ByteBuffer frames) {
+        long position = size;
+        int length = frames.remaining();
+        writeFully(frames, position);
+        size += length;
+        return position;
+    }
+
+    /**
+     * 下一次 append 的起始位置（单写者可据此预先计算每个帧的位置）。
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    // ========== 读取 ==========
+
+    /**
+     * 随机读取一个帧的 payload（用于按链回溯单个聚合根的事件）。
+     */
+    public synchronized ByteBuffer read(long position) {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+            readFully(header, position);
+            int length = header.getInt(0);
+            if (length <= 0 || position + FRAME_HEADER_SIZE + length > size) {
+                throw new IllegalStateException("无效的事件帧位置: " + position);
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + FRAME_HEADER_SIZE);
+            return payload;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取库存事件日志失败", e);
+        }
+    }
+
+    /**
+     * 从 fromPosition 开始顺序回放到文件末尾，并截掉末尾的半个帧。
+     *
+     * @param fromPosition 0 表示从头开始
+     * @return 回放结束的位置（= 之后的追加位置）
+     */
+    public synchronized long replay(long fromPosition, FrameVisitor visitor) {
+        long position = Math.max(fromPosition, FILE_HEADER_SIZE);
+        long minWindow = 0L;
+        CRC32C crc = new CRC32C();
+        try {
+            scan:
+            while (position < size) {
+                long windowSize = Math.min(Math.max(SCAN_WINDOW, minWindow), size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                ByteBuffer view = window.duplicate();
+                int offset = 0;
+                while (offset + FRAME_HEADER_SIZE <= windowSize) {
+                    int length = window.getInt(offset);
+                    if (length <= 0 || length > size - position - offset - FRAME_HEADER_SIZE) {
+                        position += offset;
+                        break scan; // 未写完的帧（或文件损坏）：到此为止
+                    }
+                    int end = offset + FRAME_HEADER_SIZE + length;
+                    if (end > windowSize) {
+                        // 帧跨越窗口边界：从该帧开始重新映射；比窗口还大的帧（大批次的信封）按帧长映射
+                        minWindow = offset == 0 ? end : 0L;
+                        break;
+                    }
+                    crc.reset();
+                    view.limit(end).position(offset + FRAME_HEADER_SIZE);
+                    crc.update(view);
+                    view.limit(view.capacity());
+                    if ((int) crc.getValue() != window.getInt(offset + 4)) {
+                        position += offset;
+                        break scan;
+                    }
+                    visitor.visit(position + offset, window, offset + FRAME_HEADER_SIZE, length);
+                    offset = end;
+                }
+                if (offset == 0 && minWindow == 0L) {
+                    break; // 剩余字节不足一个帧头：未写完的帧
+                }
+                if (offset > 0) {
+                    minWindow = 0L;
+                }
+                position += offset;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("回放库存事件日志失败", e);
+        }
+
+        if (position < size) {
+            truncate(position);
+        }
+        return position;
+    }
+
+    /**
+     * 把映射区与文件内容刷到磁盘。
+     */
+    public synchronized void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("刷新库存事件日志失败", e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("关闭库存事件日志失败", e);
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private void truncate(long position) {
+        try {
+            channel.truncate(position);
+            size = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("截断库存事件日志失败", e);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) {
+        try {
+            long at = position;
+            while (buffer.hasRemaining()) {
+                at += channel.write(buffer, at);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入库存事件日志失败", e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, at);
+            if (read < 0) {
+                throw new IllegalStateException("事件日志意外结束: " + at);
+            }
+            at += read;
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,222 @@
+package com.sample.inventory.infrastructure.filter;
+
+import com.sample.inventory.domain.vo.SnCode;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * === 设计要点 ===
+ * 计数布隆过滤器（Counting Bloom Filter）：支持删除的 SnMembershipFilter 实现。
+ *
+ * 结构：
+ * 1. 每个槽位是一个 4 bit 计数器，16 个计数器打包进一个 long（比 byte[] 省一半内存）
+ * 2. 每个 SN 经过一次 64 位哈希，再用双重哈希 h1 + i * h2 派生出 k 个槽位
+ * 3. add：k 个计数器各 +1；remove：各 -1；mightContain：k 个计数器全部 > 0
+ *
+ * 并发：计数器更新是对所在 long 的 CAS 循环，无锁；读只是 volatile 读。
+ *
+ * 溢出：计数器达到 15 后视为"饱和"，不再增减。
+ * 饱和只会让该槽位永远非零（多一点误判），不会产生漏判 —— 漏判才是不可接受的。
+ *
+ * 容量估算（n = 预期活跃 SN 数，p = 误判率）：
+ * - 槽位数 m = -n·ln(p) / (ln2)²，哈希函数个数 k = m/n·ln2
+ * - 例：n = 1000 万，p = 1% → m ≈ 9585 万槽位 ≈ 46 MB，k = 7
+ */
+public class CountingBloomFilter implements SnMembershipFilter {
+
+    /** 快照文件头：'S' 'N' 'C' 'B' */
+    private static final int SNAPSHOT_MAGIC = 0x534E4342;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xFL;
+
+    private final AtomicLongArray words;
+    private final long counterCount;
+    private final int hashCount;
+
+    private CountingBloomFilter(long counterCount, int hashCount) {
+        long wordCount = (counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("过滤器容量过大: " + counterCount);
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.counterCount = wordCount * COUNTERS_PER_WORD;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * 按预期容量与误判率创建。
+     *
+     * @param expectedInsertions 预期同时活跃的 SN 数
+     * @param falsePositiveRate  可接受的误判率，如 0.01
+     */
+    public static CountingBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("预期容量必须大于零: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("误判率必须在 (0, 1) 之间: " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        long m = Math.max(COUNTERS_PER_WORD,
+                (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int k = Math.max(1, (int) Math.round((double) m / expectedInsertions * ln2));
+        return new CountingBloomFilter(m, k);
+    }
+
+    /**
+     * 从快照恢复。
+     */
+    public static CountingBloomFilter readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("不是 SN 过滤器快照文件");
+        }
+        int version = data.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("不支持的快照版本: " + version);
+        }
+        long counters = data.readLong();
+        int k = data.readInt();
+        CountingBloomFilter filter = new CountingBloomFilter(counters, k);
+        for (int i = 0; i < filter.words.length(); i++) {
+            filter.words.set(i, data.readLong());
+        }
+        return filter;
+    }
+
+    // ========== SnMembershipFilter ==========
+
+    @Override
+    public void add(SnCode snCode) {
+        long hash = hash(snCode);
+        for (int i = 0; i < hashCount; i++) {
+            increment(slot(hash, i));
+        }
+    }
+
+    @Override
+    public void remove(SnCode snCode) {
+        long hash = hash(snCode);
+        for (int i = 0; i < hashCount; i++) {
+            decrement(slot(hash, i));
+        }
+    }
+
+    @Override
+    public boolean mightContain(SnCode snCode) {
+        long hash = hash(snCode);
+        for (int i = 0; i < hashCount; i++) {
+            if (counter(slot(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+
+    /**
+     * 快照格式：magic(int) + version(int) + 槽位数(long) + k(int) + 计数器字(long × n)。
+     *
+     * 写出期间的并发更新可能只有一部分进入快照，因此快照应在停止写入后（如优雅停机时）生成。
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(SNAPSHOT_MAGIC);
+        data.writeInt(SNAPSHOT_VERSION);
+        data.writeLong(counterCount);
+        data.writeInt(hashCount);
+        for (int i = 0; i < words.length(); i++) {
+            data.writeLong(words.get(i));
+        }
+        data.flush();
+    }
+
+    public long getCounterCount() {
+        return counterCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // ========== 计数器操作 ==========
+
+    private void increment(long slot) {
+        int index = (int) (slot / COUNTERS_PER_WORD);
+        int shift = (int) (slot % COUNTERS_PER_WORD) * 4;
+        while (true) {
+            long word = words.get(index);
+            long count = (word >>> shift) & COUNTER_MASK;
+            if (count == COUNTER_MASK) {
+                return; // 已饱和
+            }
+            if (words.compareAndSet(index, word, word + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(long slot) {
+        int index = (int) (slot / COUNTERS_PER_WORD);
+        int shift = (int) (slot % COUNTERS_PER_WORD) * 4;
+        while (true) {
+            long word = words.get(index);
+            long count = (word >>> shift) & COUNTER_MASK;
+            if (count == 0 || count == COUNTER_MASK) {
+                return; // 未计数（调用方违约）或已饱和，均不修改
+            }
+            if (words.compareAndSet(index, word, word - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private long counter(long slot) {
+        long word = words.get((int) (slot / COUNTERS_PER_WORD));
+        return (word >>> ((int) (slot % COUNTERS_PER_WORD) * 4)) & COUNTER_MASK;
+    }
+
+    // ========== 哈希 ==========
+
+    /**
+     * 双重哈希：第 i 个槽位 = (h1 + i * h2) mod m。
+     */
+    private long slot(long hash, int i) {
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1L; // 保证为奇数，避免所有槽位塌缩到同一个
+        return Math.floorMod(h1 + i * h2, counterCount);
+    }
+
+    /**
+     * 对 SN 字符逐个做 FNV-1a，再用 MurmurHash3 的 fmix64 打散高低位。
+     * 不使用 String.hashCode()：32 位不够派生 k 个独立槽位。
+     */
+    private static long hash(SnCode snCode) {
+        String value = snCode.getValue();
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
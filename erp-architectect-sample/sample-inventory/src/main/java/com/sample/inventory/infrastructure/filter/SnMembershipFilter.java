@@ -0,0 +1,48 @@
+package com.sample.inventory.infrastructure.filter;
+
+import com.sample.inventory.domain.vo.SnCode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * === 设计要点 ===
+ * SN 成员过滤器：放在仓储前面的"快速否定"判断。
+ *
+ * 语义（与布隆过滤器一致）：
+ * - mightContain() 返回 false → SN 一定没有活跃记录，可以直接跳过存储查询
+ * - mightContain() 返回 true  → 可能有，必须再查存储确认
+ *
+ * 与普通布隆过滤器的区别：必须支持删除。
+ * SN 进入终态（SOLD / SCRAPPED）后允许再次入库（如售后回收），过滤器要能把它移除，
+ * 否则随着时间推移所有 SN 都会变成"可能存在"，过滤器失去意义。
+ *
+ * 注意：过滤器只是性能优化，SN 唯一性的最终保证仍然是存储层的唯一约束。
+ */
+public interface SnMembershipFilter {
+
+    /**
+     * SN 进入活跃状态（入库，或从终态之外的状态首次保存）。
+     */
+    void add(SnCode snCode);
+
+    /**
+     * SN 离开活跃状态（进入终态）。只能对之前 add 过的 SN 调用，且次数一一对应。
+     */
+    void remove(SnCode snCode);
+
+    /**
+     * false 表示一定不存在；true 表示可能存在。
+     */
+    boolean mightContain(SnCode snCode);
+
+    /**
+     * 清空（用于全量重建）。
+     */
+    void clear();
+
+    /**
+     * 写出快照，重启时加载快照即可，不必全量扫描存储。
+     */
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.sample.inventory.infrastructure.integration;
+
+import com.sample.inventory.application.StockInBatchCommand;
+import com.sample.purchase.domain.event.PurchaseCompletedEvent;
+import com.sample.purchase.domain.model.PurchaseItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * === 设计要点 ===
+ * 防腐层：把采购上下文的 PurchaseCompletedEvent 翻译成库存上下文的 StockInBatchCommand。
+ *
+ * 库存中唯一引用采购模型的地方 —— 采购事件的结构变化只需要改这里，应用层与领域层不受影响。
+ *
+ * 来源单号取采购单 ID 的数值（不带 "PO-" 前缀）；财务的 CostLedgerProjector 按同一格式归集获取成本，
+ * 两边必须保持一致，维修与出库事件才能对上同一行账。
+ */
+public final class PurchaseCompletedTranslator {
+
+    private PurchaseCompletedTranslator() {
+    }
+
+    /**
+     * @param warehouseId 收货仓库（采购事件不携带仓库，由消费方决定）
+     */
+    public static StockInBatchCommand toStockInCommand(PurchaseCompletedEvent event, Long warehouseId) {
+        List<StockInBatchCommand.Line> lines = new ArrayList<>(event.getItems().size());
+        for (PurchaseItem item : event.getItems()) {
+            lines.add(StockInBatchCommand.Line.of(item.getSkuId(), item.getUnitPrice(), item.getReceivedSnCodes()));
+        }
+        return StockInBatchCommand.of(sourceOrderId(event), warehouseId, lines);
+    }
+
+    /**
+     * 采购单在库存与财务中的来源单号。
+     */
+    public static String sourceOrderId(PurchaseCompletedEvent event) {
+        return String.valueOf(event.getOrderId().getValue());
+    }
+}
@@ -0,0 +1,53 @@
+package com.sample.inventory.infrastructure.outbox;
+
+import com.sample.common.AggregateRoot;
+import com.sample.common.outbox.EventSerializer;
+import com.sample.common.outbox.JournalOutbox;
+import com.sample.common.outbox.OutboxJournal;
+import com.sample.common.outbox.SaveVerifier;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+import com.sample.inventory.domain.vo.InventoryItemId;
+
+/**
+ * === 设计要点 ===
+ * 库存项的保存核对：记录头里的键是库存项 ID，恢复时用 findById 加载。
+ *
+ * 为什么是 findById 而不是 findActiveBySnCode？
+ * 出库事件发生在库存项进入 SOLD 的那次保存里 —— 保存落地后它已不是活跃记录，按 SN 查不到，
+ * 那次真实的出库会被当成未落地而作废。按 ID 加载对终态库存项同样有效。
+ *
+ * 日志与仓储必须描述同一份存储：仓储是内存实现时，重启后存储为空，遗留的 PENDING 记录全部作废，这是正确的。
+ */
+public class InventoryItemSaveVerifier implements SaveVerifier {
+
+    private final InventoryItemRepository repository;
+
+    public InventoryItemSaveVerifier(InventoryItemRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * 打开库存的 Outbox：用本仓储核对日志中崩溃遗留的记录。每个日志只能打开一次，且要在接受写入之前。
+     */
+    public static JournalOutbox openOutbox(OutboxJournal journal, EventSerializer serializer,
+                                           InventoryItemRepository repository) {
+        return new JournalOutbox(journal, serializer, new InventoryItemSaveVerifier(repository));
+    }
+
+    @Override
+    public long keyOf(AggregateRoot aggregate) {
+        InventoryItem item = (InventoryItem) aggregate;
+        if (item.getItemId() == null) {
+            throw new IllegalStateException("库存项尚无标识，无法记录事件: " + item.getSnCode());
+        }
+        return item.getItemId().getValue();
+    }
+
+    @Override
+    public long storedVersion(long aggregateKey) {
+        return repository.findById(InventoryItemId.of(aggregateKey))
+                .map(InventoryItem::getVersion)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,216 @@
+package com.sample.inventory.infrastructure.repository;
+
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.filter.CountingBloomFilter;
+import com.sample.inventory.infrastructure.filter.SnMembershipFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * === 设计要点 ===
+ * 带 SN 过滤器的仓储装饰器：在任意 InventoryItemRepository 前面加一层"快速否定"。
+ *
+ * 为什么需要？
+ * - 绝大多数入库的 SN 是全新的，existsActiveBySnCode() 的答案几乎总是 false
+ * - 过滤器判定"一定不存在"时直接返回，完全不访问底层存储
+ *
+ * 过滤器的维护（以"活跃 = 非终态"为准，与 InventoryStatus.isTerminal() 对齐）：
+ * - 保存前：记录从"不存在/终态"变为"活跃" → add（先加后写，保证任何时刻都不会漏判）
+ * - 保存后：记录从"活跃"变为"终态" → remove（先写后删，理由同上）
+ * - 判断"之前是否活跃"需要读取上一次持久化的状态，因此更新已有记录时多一次 findById
+ *
+ * 前提：同一个库存项的保存是串行的（应用服务在 SN 锁内执行保存），否则并发的终态保存可能重复 remove。
+ *
+ * 重启：优雅停机时 writeSnapshot()，启动时 restore() 加载快照；快照缺失或损坏则回退为全量 rebuild()。
+ * 快照只在写出它的那次停机时是准确的：restore() 加载后立即删除快照文件，
+ * 之后若非正常退出（没有再次 writeSnapshot()），下次启动找不到快照，只能全量重建，
+ * 不会加载一份缺少新 SN 的旧快照而给出错误的"一定不存在"。
+ */
+public class FilteredInventoryItemRepository implements InventoryItemRepository {
+
+    private final InventoryItemRepository delegate;
+    private final SnMembershipFilter filter;
+
+    public FilteredInventoryItemRepository(InventoryItemRepository delegate, SnMembershipFilter filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    /**
+     * 启动时恢复：优先加载快照（加载后删除，见类注释），失败则新建过滤器并全量重建。
+     */
+    public static FilteredInventoryItemRepository restore(
+            InventoryItemRepository delegate,
+            Path snapshotFile,
+            long expectedInsertions,
+            double falsePositiveRate) {
+        if (Files.isReadable(snapshotFile)) {
+            SnMembershipFilter snapshot = null;
+            try (InputStream in = Files.newInputStream(snapshotFile)) {
+                snapshot = CountingBloomFilter.readFrom(in);
+            } catch (IOException e) {
+                // 快照损坏：回退为全量重建
+            }
+            try {
+                // 删不掉就不能用：否则下次非正常退出后会再次加载这份过期的快照
+                Files.delete(snapshotFile);
+                if (snapshot != null) {
+                    return new FilteredInventoryItemRepository(delegate, snapshot);
+                }
+            } catch (IOException e) {
+                // 回退为全量重建
+            }
+        }
+        FilteredInventoryItemRepository repository = new FilteredInventoryItemRepository(
+                delegate, CountingBloomFilter.create(expectedInsertions, falsePositiveRate));
+        repository.rebuild();
+        return repository;
+    }
+
+    // ========== 写操作：维护过滤器 ==========
+
+    @Override
+    public void save(InventoryItem item) {
+        boolean wasActive = wasActive(item);
+        boolean isActive = !item.getStatus().isTerminal();
+
+        if (isActive && !wasActive) {
+            filter.add(item.getSnCode());
+        }
+        try {
+            delegate.save(item);
+        } catch (RuntimeException e) {
+            if (isActive && !wasActive) {
+                filter.remove(item.getSnCode());
+            }
+            throw e;
+        }
+        if (wasActive && !isActive) {
+            filter.remove(item.getSnCode());
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<InventoryItem> items) {
+        List<InventoryItem> retired = new ArrayList<>();
+        for (InventoryItem item : items) {
+            boolean wasActive = wasActive(item);
+            boolean isActive = !item.getStatus().isTerminal();
+            if (isActive && !wasActive) {
+                filter.add(item.getSnCode());
+            } else if (wasActive && !isActive) {
+                retired.add(item);
+            }
+        }
+        // 批量保存部分失败时不回滚已加入的计数：多出来的计数只会增加误判，不会漏判
+        delegate.saveAll(items);
+        for (InventoryItem item : retired) {
+            filter.remove(item.getSnCode());
+        }
+    }
+
+    // ========== 查询：定不存在时跳过存储 ==========
+
+    @Override
+    public boolean existsActiveBySnCode(SnCode snCode) {
+        return filter.mightContain(snCode) && delegate.existsActiveBySnCode(snCode);
+    }
+
+    @Override
+    public Optional<InventoryItem> findActiveBySnCode(SnCode snCode) {
+        if (!filter.mightContain(snCode)) {
+            return Optional.empty();
+        }
+        return delegate.findActiveBySnCode(snCode);
+    }
+
+    @Override
+    public Set<SnCode> existsActiveBySnCodes(Collection<SnCode> snCodes) {
+        List<SnCode> candidates = new ArrayList<>();
+        for (SnCode snCode : snCodes) {
+            if (filter.mightContain(snCode)) {
+                candidates.add(snCode);
+            }
+        }
+        return candidates.isEmpty() ? Set.of() : delegate.existsActiveBySnCodes(candidates);
+    }
+
+    @Override
+    public Optional<InventoryItem> findById(InventoryItemId id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<InventoryItem> findByStatus(InventoryStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public List<InventoryItem> findBySkuId(Long skuId) {
+        return delegate.findBySkuId(skuId);
+    }
+
+    @Override
+    public List<InventoryItem> findByWarehouseId(WarehouseId warehouseId) {
+        return delegate.findByWarehouseId(warehouseId);
+    }
+
+    // ========== 重建与快照 ==========
+
+    /**
+     * 全量重建：清空过滤器，扫描所有非终态记录。
+     * 需在没有并发写入时执行（启动阶段）。
+     */
+    public void rebuild() {
+        filter.clear();
+        for (InventoryStatus status : InventoryStatus.values()) {
+            if (status.isTerminal()) {
+                continue;
+            }
+            for (InventoryItem item : delegate.findByStatus(status)) {
+                filter.add(item.getSnCode());
+            }
+        }
+    }
+
+    /**
+     * 写出过滤器快照：先写临时文件再原子替换，避免停机中断留下半个文件。
+     */
+    public void writeSnapshot(Path snapshotFile) throws IOException {
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            filter.writeTo(out);
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 上一次持久化时该记录是否处于活跃状态。
+     * 版本号为 0 的聚合根从未保存过，一定是新建的。
+     */
+    private boolean wasActive(InventoryItem item) {
+        if (item.getItemId() == null || item.getVersion() == 0L) {
+            return false;
+        }
+        return delegate.findById(item.getItemId())
+                .map(previous -> !previous.getStatus().isTerminal())
+                .orElse(false);
+    }
+}
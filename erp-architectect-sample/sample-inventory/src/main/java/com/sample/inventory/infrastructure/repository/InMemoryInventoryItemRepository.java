@@ -0,0 +1,321 @@
+package com.sample.inventory.infrastructure.repository;
+
+import com.sample.common.concurrency.VersionConflictException;
+import com.sample.common.id.IdGenerator;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.counter.StockCounters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * === 设计要点 ===
+ * InventoryItemRepository 的内存实现（Infrastructure 层）。
+ *
+ * 用途：单元测试、压测、本地演示 —— 不需要数据库即可跑通全部用例。
+ *
+ * 索引结构：
+ * 1.【主索引】InventoryItemId → 快照
+ * 2.【SN 唯一索引】活跃 SnCode → InventoryItemId，putIfAbsent 原子地保证"同一 SN 只有一条非终态记录"
+ * 3.【二级索引】InventoryStatus / skuId / WarehouseId → ID 集合
+ *
+ * 并发模型：
+ * - 读：全部基于 ConcurrentHashMap.get / 迭代，无锁
+ * - 写：以主索引的 compute() 作为单条记录的临界区，同一 ID 的 save 串行、不同 ID 并行；
+ *   SN 索引与二级索引都在临界区内维护，因此对同一条记录来说索引变更不会交错
+ * - 二级索引先加新键、后删旧键，读者可能短暂看到记录同时出现在新旧两个集合中，
+ *   查询时会再用主索引中的快照做一次过滤，保证返回结果与条件一致
+ *
+ * 快照语义（模拟数据库行为）：
+ * - save() 存入的是聚合根的副本，调用方之后修改聚合根不会"偷偷"改掉仓储中的数据
+ * - find*() 返回的也是副本，必须再次 save() 才会生效
+ * - 领域事件不属于持久化状态，不会被复制
+ *
+ * 乐观并发：save() 在主索引的临界区内比较版本号（相当于 UPDATE ... WHERE version = ?），
+ * 加载后被他人抢先保存过的聚合根会以 VersionConflictException 被拒绝，仓储状态不变。
+ *
+ * 实时计数（可选）：构造时传入 StockCounters，每次成功提交按新旧状态之差更新计数；
+ * 在临界区内、新快照可见之前 begin，可见之后 end，供计数对账判断单元是否正在变动。
+ *
+ * 内存：每条记录 = 一个快照对象 + 各索引中的一个条目（值对象在快照间共享，不复制）。
+ * 预估数据量较大时通过构造参数预设容量，避免千万级数据下反复扩容。
+ */
+public class InMemoryInventoryItemRepository implements InventoryItemRepository {
+
+    private static final int DEFAULT_EXPECTED_ITEMS = 1 << 16;
+
+    private final ConcurrentHashMap<InventoryItemId, InventoryItem> byId;
+    private final ConcurrentHashMap<SnCode, InventoryItemId> activeBySnCode;
+
+    /** 构造后只读的 EnumMap，内部的集合是并发安全的 */
+    private final Map<InventoryStatus, Set<InventoryItemId>> byStatus = new EnumMap<>(InventoryStatus.class);
+    private final ConcurrentHashMap<Long, Set<InventoryItemId>> bySkuId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<WarehouseId, Set<InventoryItemId>> byWarehouseId = new ConcurrentHashMap<>();
+
+    /** 实时计数，未启用时为 null */
+    private final StockCounters stockCounters;
+
+    public InMemoryInventoryItemRepository() {
+        this(DEFAULT_EXPECTED_ITEMS);
+    }
+
+    /**
+     * @param expectedItems 预估记录数，用于预设主索引与 SN 索引的容量
+     */
+    public InMemoryInventoryItemRepository(int expectedItems) {
+        this(expectedItems, null);
+    }
+
+    /**
+     * @param stockCounters 随提交同步维护的实时计数，null 表示不启用
+     */
+    public InMemoryInventoryItemRepository(int expectedItems, StockCounters stockCounters) {
+        if (expectedItems <= 0) {
+            throw new IllegalArgumentException("预估记录数必须大于零: " + expectedItems);
+        }
+        this.byId = new ConcurrentHashMap<>(expectedItems);
+        this.activeBySnCode = new ConcurrentHashMap<>(expectedItems);
+        this.stockCounters = stockCounters;
+        for (InventoryStatus status : InventoryStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    // ========== 写操作 ==========
+
+    @Override
+    public void save(InventoryItem item) {
+        if (item.getItemId() == null) {
+            // 与工厂方法同一个生成器：本地序列会与生成器在同一毫秒内分配的 ID 相撞
+            item.assignId(InventoryItemId.of(IdGenerator.getDefault().nextId()));
+        }
+
+        long expectedVersion = item.getVersion();
+        InventoryItem snapshot = copyOf(item);
+        snapshot.assignVersion(expectedVersion + 1);
+        InventoryItem[] replaced = new InventoryItem[1];
+        byId.compute(snapshot.getItemId(), (id, previous) -> {
+            long actualVersion = previous == null ? 0L : previous.getVersion();
+            if (actualVersion != expectedVersion) {
+                throw new VersionConflictException("库存项", id.getValue(), expectedVersion, actualVersion);
+            }
+            reindexSnCode(previous, snapshot);
+            reindexSecondary(previous, snapshot);
+            beginCount(previous, snapshot);
+            replaced[0] = previous;
+            return snapshot;
+        });
+        endCount(replaced[0], snapshot);
+        item.assignVersion(expectedVersion + 1);
+    }
+
+    /**
+     * 载入一条已持久化的状态：不比较版本号，原样保留 item 的版本号。
+     *
+     * 供以本仓储为查询投影的其他实现使用（如事件溯源仓储启动时回放出的状态），
+     * 业务代码的写入一律走 save()。
+     */
+    public void restore(InventoryItem item) {
+        if (item.getItemId() == null) {
+            throw new IllegalArgumentException("载入的库存项必须已有 ID");
+        }
+        InventoryItem snapshot = copyOf(item);
+        InventoryItem[] replaced = new InventoryItem[1];
+        byId.compute(snapshot.getItemId(), (id, previous) -> {
+            reindexSnCode(previous, snapshot);
+            reindexSecondary(previous, snapshot);
+            beginCount(previous, snapshot);
+            replaced[0] = previous;
+            return snapshot;
+        });
+        endCount(replaced[0], snapshot);
+    }
+
+    /**
+     * 逐条保存：每条记录各自原子，整批不是一个事务。
+     * SN 冲突、版本冲突等异常会在出错的那一条抛出，之前的记录已经生效。
+     */
+    @Override
+    public void saveAll(Collection<InventoryItem> items) {
+        for (InventoryItem item : items) {
+            save(item);
+        }
+    }
+
+    // ========== 查询 ==========
+
+    @Override
+    public Optional<InventoryItem> findById(InventoryItemId id) {
+        InventoryItem snapshot = byId.get(id);
+        return snapshot == null ? Optional.empty() : Optional.of(copyOf(snapshot));
+    }
+
+    @Override
+    public Optional<InventoryItem> findActiveBySnCode(SnCode snCode) {
+        InventoryItem snapshot = activeSnapshot(snCode);
+        return snapshot == null ? Optional.empty() : Optional.of(copyOf(snapshot));
+    }
+
+    @Override
+    public boolean existsActiveBySnCode(SnCode snCode) {
+        return activeSnapshot(snCode) != null;
+    }
+
+    @Override
+    public Set<SnCode> existsActiveBySnCodes(Collection<SnCode> snCodes) {
+        Set<SnCode> existing = new HashSet<>();
+        for (SnCode snCode : snCodes) {
+            if (activeSnapshot(snCode) != null) {
+                existing.add(snCode);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public List<InventoryItem> findByStatus(InventoryStatus status) {
+        return resolve(byStatus.get(status), item -> item.getStatus() == status);
+    }
+
+    @Override
+    public List<InventoryItem> findBySkuId(Long skuId) {
+        return resolve(bySkuId.get(skuId), item -> item.getSkuId().equals(skuId));
+    }
+
+    @Override
+    public List<InventoryItem> findByWarehouseId(WarehouseId warehouseId) {
+        return resolve(byWarehouseId.get(warehouseId), item -> item.getWarehouseId().equals(warehouseId));
+    }
+
+    /**
+     * 当前记录总数。
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    // ========== 索引维护（在主索引 compute() 临界区内调用） ==========
+
+    /**
+     * 维护活跃 SN 唯一索引。
+     * 非终态：占用 SN（已被其他记录占用则拒绝保存）；终态：释放 SN，允许同一 SN 再次入库。
+     */
+    private void reindexSnCode(InventoryItem previous, InventoryItem current) {
+        InventoryItemId id = current.getItemId();
+        SnCode snCode = current.getSnCode();
+
+        if (current.getStatus().isTerminal()) {
+            activeBySnCode.remove(snCode, id);
+        } else {
+            InventoryItemId holder = activeBySnCode.putIfAbsent(snCode, id);
+            if (holder != null && !holder.equals(id)) {
+                throw new IllegalStateException("SN [" + snCode + "] 已存在活跃库存记录: " + holder);
+            }
+        }
+
+        if (previous != null && !previous.getSnCode().equals(snCode)) {
+            activeBySnCode.remove(previous.getSnCode(), id);
+        }
+    }
+
+    private void reindexSecondary(InventoryItem previous, InventoryItem current) {
+        InventoryItemId id = current.getItemId();
+
+        byStatus.get(current.getStatus()).add(id);
+        bucket(bySkuId, current.getSkuId()).add(id);
+        bucket(byWarehouseId, current.getWarehouseId()).add(id);
+
+        if (previous == null) {
+            return;
+        }
+        if (previous.getStatus() != current.getStatus()) {
+            byStatus.get(previous.getStatus()).remove(id);
+        }
+        if (!previous.getSkuId().equals(current.getSkuId())) {
+            bucket(bySkuId, previous.getSkuId()).remove(id);
+        }
+        if (!previous.getWarehouseId().equals(current.getWarehouseId())) {
+            bucket(byWarehouseId, previous.getWarehouseId()).remove(id);
+        }
+    }
+
+    /**
+     * 在临界区的最后调用：此后不会再抛出异常，新快照随 compute() 返回而可见。
+     */
+    private void beginCount(InventoryItem previous, InventoryItem current) {
+        if (stockCounters != null) {
+            stockCounters.begin(previous, current);
+        }
+    }
+
+    private void endCount(InventoryItem previous, InventoryItem current) {
+        if (stockCounters != null) {
+            stockCounters.end(previous, current);
+        }
+    }
+
+    private static <K> Set<InventoryItemId> bucket(ConcurrentHashMap<K, Set<InventoryItemId>> index, K key) {
+        return index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    // ========== 私有方法 ==========
+
+    private InventoryItem activeSnapshot(SnCode snCode) {
+        InventoryItemId id = activeBySnCode.get(snCode);
+        if (id == null) {
+            return null;
+        }
+        InventoryItem snapshot = byId.get(id);
+        return snapshot != null && !snapshot.getStatus().isTerminal() ? snapshot : null;
+    }
+
+    private List<InventoryItem> resolve(Set<InventoryItemId> ids, Predicate<InventoryItem> filter) {
+        if (ids == null) {
+            return List.of();
+        }
+        List<InventoryItem> result = new ArrayList<>();
+        for (InventoryItemId id : ids) {
+            InventoryItem snapshot = byId.get(id);
+            if (snapshot != null && filter.test(snapshot)) {
+                result.add(copyOf(snapshot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 复制聚合根的持久化状态（含版本号；值对象不可变，直接共享引用）。
+     *
+     * 基础设施层保存快照的唯一实现（写缓存、分片引擎共用），InventoryItem 增加持久化字段时只需改这里。
+     */
+    public static InventoryItem copyOf(InventoryItem item) {
+        Objects.requireNonNull(item, "库存项不能为空");
+        InventoryItem copy = InventoryItem.reconstruct(
+                item.getItemId(),
+                item.getSnCode(),
+                item.getSkuId(),
+                item.getWarehouseId(),
+                item.getStatus(),
+                item.getAcquisitionCost(),
+                item.getAccumulatedCost(),
+                item.getSourceType(),
+                item.getSourceOrderId(),
+                item.getLockedByOrderId());
+        copy.assignVersion(item.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,242 @@
+package com.sample.inventory.infrastructure.repository;
+
+import com.sample.common.cache.BackingStore;
+import com.sample.common.cache.WriteBehindCache;
+import com.sample.common.cache.WriteBehindPolicy;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.repository.InventoryItemRepository;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.eventstore.EventSourcedInventoryItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * === 设计要点 ===
+ * 带写缓存的仓储装饰器：在任意 InventoryItemRepository 前面加一层 WriteBehindCache。
+ *
+ * 为什么需要？
+ * - 一台设备常在几秒内走完 startInspection → passInspection → lockForOrder，每一步都同步写同一行
+ * - 缓存合并刷新窗口内的多次保存，按批写入；findById 直接由内存返回
+ *
+ * 查询如何看到尚未刷新的保存？
+ * - findById：缓存中的最新状态
+ * - 按 SN 查询：新建的库存项同步写入，SN 不会改变，终态不会再转出 ——
+ *   所以"当前活跃"的候选只可能是底层存储认为活跃的那一条，用它在缓存中的最新状态再判断一次即可
+ * - 列表查询：底层结果逐条替换为缓存中的最新状态、去掉不再满足条件的，再补上满足条件的脏记录
+ *
+ * SN 唯一索引在 save() 时校验，而不是留到刷新时由底层存储拒绝：
+ * 回写模式下 save() 已经返回，刷新时被拒绝的写入只能丢弃。
+ * - 同一 SN 的旧记录在缓存中已到终态、但尚未刷新时，底层存储仍认为它占用着 SN：先单独刷新那条旧记录
+ * - 仍被另一条活跃记录占用 → 与底层存储相同的 IllegalStateException，保存不进入缓存
+ *
+ * 前提：底层存储的所有写入都经过本装饰器（多实例部署时按 SN 路由到固定实例）。
+ *
+ * 不能放在事件溯源仓储前面（直接或隔着其他装饰器都不行）：合并写入正是把多次状态转换压成一次，
+ * 刷新时交给底层的只有最新状态，没有 getUncommittedChanges() 中的转换履历，
+ * EventSourcedInventoryItemRepository 只能写出一个快照帧，loadHistory() 会丢掉中间的每一步。
+ * 构造时直接拒绝事件溯源仓储；需要完整履历的部署不使用写缓存。
+ * 保存进入缓存后调用方聚合根的变更记录即被清空（markChangesCommitted），不会随保存次数一直增长。
+ */
+public class WriteBehindInventoryItemRepository implements InventoryItemRepository, AutoCloseable {
+
+    private final InventoryItemRepository delegate;
+    private final WriteBehindCache<InventoryItemId, InventoryItem> cache;
+
+    public WriteBehindInventoryItemRepository(InventoryItemRepository delegate, WriteBehindPolicy policy) {
+        if (delegate instanceof EventSourcedInventoryItemRepository) {
+            throw new IllegalArgumentException("写缓存会合并状态转换，不能放在事件溯源仓储前面");
+        }
+        this.delegate = delegate;
+        this.cache = new WriteBehindCache<>("库存项", new DelegateStore(delegate), policy);
+    }
+
+    // ========== 写操作 ==========
+
+    @Override
+    public void save(InventoryItem item) {
+        checkSnCode(item);
+        cache.save(item);
+        item.markChangesCommitted();
+    }
+
+    @Override
+    public void saveAll(Collection<InventoryItem> items) {
+        for (InventoryItem item : items) {
+            checkSnCode(item);
+        }
+        cache.saveAll(items);
+        for (InventoryItem item : items) {
+            item.markChangesCommitted();
+        }
+    }
+
+    // ========== 查询 ==========
+
+    @Override
+    public Optional<InventoryItem> findById(InventoryItemId id) {
+        return cache.get(id);
+    }
+
+    @Override
+    public Optional<InventoryItem> findActiveBySnCode(SnCode snCode) {
+        return delegate.findActiveBySnCode(snCode)
+                .map(this::latest)
+                .filter(item -> !item.getStatus().isTerminal());
+    }
+
+    @Override
+    public boolean existsActiveBySnCode(SnCode snCode) {
+        return findActiveBySnCode(snCode).isPresent();
+    }
+
+    @Override
+    public Set<SnCode> existsActiveBySnCodes(Collection<SnCode> snCodes) {
+        Set<SnCode> existing = new HashSet<>();
+        for (SnCode snCode : delegate.existsActiveBySnCodes(snCodes)) {
+            if (existsActiveBySnCode(snCode)) {
+                existing.add(snCode);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public List<InventoryItem> findByStatus(InventoryStatus status) {
+        return overlay(delegate.findByStatus(status), item -> item.getStatus() == status);
+    }
+
+    @Override
+    public List<InventoryItem> findBySkuId(Long skuId) {
+        return overlay(delegate.findBySkuId(skuId), item -> item.getSkuId().equals(skuId));
+    }
+
+    @Override
+    public List<InventoryItem> findByWarehouseId(WarehouseId warehouseId) {
+        return overlay(delegate.findByWarehouseId(warehouseId), item -> item.getWarehouseId().equals(warehouseId));
+    }
+
+    // ========== 缓存管理 ==========
+
+    /**
+     * 立即写入所有尚未刷新的保存。
+     */
+    public int flush() {
+        return cache.flush();
+    }
+
+    /**
+     * 缓存本身（统计信息与手动刷新）。
+     */
+    public WriteBehindCache<InventoryItemId, InventoryItem> getCache() {
+        return cache;
+    }
+
+    /**
+     * 刷新剩余的保存并停止后台线程。
+     */
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 活跃的库存项要占用 SN：底层存储中占用该 SN 的其他记录若在缓存中有未刷新的保存，先把它写下去；
+     * 写下去之后仍被占用则拒绝保存。
+     */
+    private void checkSnCode(InventoryItem item) {
+        if (item.getStatus().isTerminal()) {
+            return;
+        }
+        SnCode snCode = item.getSnCode();
+        Optional<InventoryItemId> holder = otherHolder(snCode, item.getItemId());
+        if (holder.isEmpty()) {
+            return;
+        }
+        if (cache.isDirty(holder.get())) {
+            cache.flush(holder.get());
+            holder = otherHolder(snCode, item.getItemId());
+        }
+        if (holder.isPresent()) {
+            throw new IllegalStateException("SN [" + snCode + "] 已存在活跃库存记录: " + holder.get());
+        }
+    }
+
+    private Optional<InventoryItemId> otherHolder(SnCode snCode, InventoryItemId itemId) {
+        return delegate.findActiveBySnCode(snCode)
+                .map(InventoryItem::getItemId)
+                .filter(holder -> !holder.equals(itemId));
+    }
+
+    private InventoryItem latest(InventoryItem persisted) {
+        return cache.peek(persisted.getItemId()).orElse(persisted);
+    }
+
+    /**
+     * 用缓存中的最新状态覆盖底层存储的查询结果。
+     */
+    private List<InventoryItem> overlay(List<InventoryItem> persisted, Predicate<InventoryItem> filter) {
+        List<InventoryItem> result = new ArrayList<>(persisted.size());
+        Set<InventoryItemId> seen = new HashSet<>();
+        for (InventoryItem item : persisted) {
+            InventoryItem current = latest(item);
+            seen.add(current.getItemId());
+            if (filter.test(current)) {
+                result.add(current);
+            }
+        }
+        for (InventoryItem dirty : cache.dirtySnapshots()) {
+            if (!seen.contains(dirty.getItemId()) && filter.test(dirty)) {
+                result.add(dirty);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 把底层仓储适配为缓存的存储。
+     */
+    private static final class DelegateStore implements BackingStore<InventoryItemId, InventoryItem> {
+
+        private final InventoryItemRepository delegate;
+
+        DelegateStore(InventoryItemRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InventoryItemId idOf(InventoryItem item) {
+            return item.getItemId();
+        }
+
+        @Override
+        public InventoryItem copyOf(InventoryItem item) {
+            return InMemoryInventoryItemRepository.copyOf(item);
+        }
+
+        @Override
+        public Optional<InventoryItem> load(InventoryItemId id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public void write(InventoryItem item) {
+            delegate.save(item);
+        }
+
+        @Override
+        public void writeAll(Collection<InventoryItem> items) {
+            delegate.saveAll(items);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.sample.inventory.infrastructure.shard;
+
+import com.sample.common.outbox.Outbox;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+import com.sample.inventory.infrastructure.repository.InMemoryInventoryItemRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 一个分片：拥有若干仓库的库存项与索引，所有读写都在分片自己的写线程上执行。
+ *
+ * 状态只被写线程访问，因此用普通的 HashMap，不加任何锁；
+ * 其他线程通过 submit() 投递命令，拿到的是副本。
+ * 唯一跨分片共享的是活跃 SN 登记表（同一 SN 可能被入库到不同仓库），由引擎传入。
+ */
+final class InventoryShard {
+
+    private final Outbox outbox;
+    private final ConcurrentHashMap<SnCode, InventoryItemId> activeBySnCode;
+    private final ExecutorService writer;
+
+    // ========== 以下只由写线程访问 ==========
+    private final HashMap<InventoryItemId, InventoryItem> items = new HashMap<>();
+    private final HashMap<Long, Set<InventoryItemId>> bySkuId = new HashMap<>();
+
+    InventoryShard(int index, Outbox outbox, ConcurrentHashMap<SnCode, InventoryItemId> activeBySnCode) {
+        this.outbox = outbox;
+        this.activeBySnCode = activeBySnCode;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-shard-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 在写线程上执行，结果或异常通过 future 返回。
+     */
+    <R> CompletableFuture<R> submit(Supplier<R> command) {
+        return CompletableFuture.supplyAsync(command, writer);
+    }
+
+    // ========== 命令（在写线程上执行） ==========
+
+    /**
+     * 新建库存项（ID 已由引擎按本分片生成）：登记活跃 SN，保存。
+     */
+    InventoryItemId stockIn(InventoryItem item) {
+        InventoryItemId id = item.getItemId();
+        InventoryItemId holder = activeBySnCode.putIfAbsent(item.getSnCode(), id);
+        if (holder != null) {
+            throw new IllegalStateException("SN [" + item.getSnCode() + "] 已存在活跃库存记录: " + holder);
+        }
+        try {
+            outbox.saveAndRecord(item, () -> store(item, 1L));
+            item.assignVersion(1L);
+        } catch (RuntimeException e) {
+            activeBySnCode.remove(item.getSnCode(), id);
+            throw e;
+        }
+        return id;
+    }
+
+    /**
+     * 在副本上执行命令，成功后整体替换：命令中途抛出异常时存储不变。
+     *
+     * @return 执行命令后的库存项（含领域事件，接入 Outbox 时已被记录并清空）
+     */
+    InventoryItem execute(InventoryItemId id, Consumer<InventoryItem> command) {
+        InventoryItem current = items.get(id);
+        if (current == null) {
+            throw new IllegalArgumentException("库存项不存在: " + id.getValue());
+        }
+        InventoryItem working = InMemoryInventoryItemRepository.copyOf(current);
+        command.accept(working);
+        long version = current.getVersion() + 1;
+        outbox.saveAndRecord(working, () -> store(working, version));
+        working.assignVersion(version);
+        if (working.getStatus().isTerminal()) {
+            activeBySnCode.remove(working.getSnCode(), id);
+        }
+        return working;
+    }
+
+    // ========== 查询（在写线程上执行） ==========
+
+    Optional<InventoryItem> findById(InventoryItemId id) {
+        InventoryItem item = items.get(id);
+        return item == null ? Optional.empty() : Optional.of(InMemoryInventoryItemRepository.copyOf(item));
+    }
+
+    List<InventoryItem> findBySkuId(Long skuId) {
+        Set<InventoryItemId> ids = bySkuId.get(skuId);
+        if (ids == null) {
+            return List.of();
+        }
+        List<InventoryItem> result = new ArrayList<>(ids.size());
+        for (InventoryItemId id : ids) {
+            result.add(InMemoryInventoryItemRepository.copyOf(items.get(id)));
+        }
+        return result;
+    }
+
+    /**
+     * 本分片内某 SKU 按仓库、状态的数量：仓库 → 按 InventoryStatus.ordinal() 下标的计数。
+     */
+    Map<WarehouseId, long[]> countBySkuId(Long skuId) {
+        Set<InventoryItemId> ids = bySkuId.get(skuId);
+        if (ids == null) {
+            return Map.of();
+        }
+        Map<WarehouseId, long[]> counts = new HashMap<>();
+        for (InventoryItemId id : ids) {
+            InventoryItem item = items.get(id);
+            counts.computeIfAbsent(item.getWarehouseId(), k -> new long[InventoryStatus.values().length])
+                    [item.getStatus().ordinal()]++;
+        }
+        return counts;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private void store(InventoryItem item, long version) {
+        InventoryItem snapshot = InMemoryInventoryItemRepository.copyOf(item);
+        snapshot.assignVersion(version);
+        items.put(snapshot.getItemId(), snapshot);
+        bySkuId.computeIfAbsent(snapshot.getSkuId(), k -> new HashSet<>()).add(snapshot.getItemId());
+    }
+}
@@ -0,0 +1,190 @@
+package com.sample.inventory.infrastructure.shard;
+
+import com.sample.common.id.IdGenerator;
+import com.sample.common.outbox.Outbox;
+import com.sample.common.vo.Money;
+import com.sample.inventory.domain.model.InventoryItem;
+import com.sample.inventory.domain.model.SourceType;
+import com.sample.inventory.domain.vo.InventoryItemId;
+import com.sample.inventory.domain.vo.SnCode;
+import com.sample.inventory.domain.vo.WarehouseId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * === 设计要点 ===
+ * 按仓库分片的单写者库存引擎：每个分片独占一部分仓库的库存项与索引，由一个专属写线程串行处理命令。
+ *
+ * 为什么需要？
+ * - 共享仓储的每次写入都要经过 SN 条带锁 + 主索引临界区 + 版本比较，热点 SKU 上的争用随线程数上升
+ * - 库存操作天然按仓库聚集（入库、质检、出库都发生在某个仓库），把仓库固定到一个线程上，
+ *   分片内部就不再需要锁和乐观重试，吞吐随分片数近似线性增长
+ *
+ * 路由：
+ * 1. 入库按 floorMod(WarehouseId.hashCode(), shardCount) 选择分片
+ * 2. ID 由进程级的 IdGenerator.getDefault() 生成（节点号是进程的 sample.id.node），入库成功后登记 ID → 分片，
+ *    之后的命令按 ID 查表找到分片
+ *
+ * 为什么不把分片下标编进 ID 的节点号？节点号是区分进程的，分片下标占用它之后，
+ * 不同进程的同一分片、以及同一进程默认生成器（节点号 0）生成的 ID 会相撞。
+ * 登记表每个库存项一个条目，键直接引用库存项中的 InventoryItemId 实例，值是分片引用，不装箱。
+ *
+ * 唯一的跨分片不变量是 SN 唯一性（同一 SN 不能同时在两个仓库有活跃记录）：
+ * 活跃 SN 登记表是所有分片共享的 ConcurrentHashMap，入库时 putIfAbsent 抢占，进入终态时释放。
+ *
+ * 查询：
+ * - 按 ID 查询只访问一个分片
+ * - SKU 维度的视图（findBySkuId / skuView）向所有分片扇出，各分片在自己的写线程上计算局部结果后合并；
+ *   查询与命令在同一队列中排队，不会读到处理到一半的状态
+ *
+ * 所有方法都返回 CompletableFuture，结果在分片写线程上完成；需要同步语义的调用方自行 join()。
+ * 回调（thenApply 等）默认也在写线程上执行，耗时的后续处理应使用 *Async 变体切换线程。
+ */
+public class ShardedInventoryEngine implements AutoCloseable {
+
+    private final InventoryShard[] shards;
+    private final ConcurrentHashMap<InventoryItemId, InventoryShard> shardById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<SnCode, InventoryItemId> activeBySnCode = new ConcurrentHashMap<>();
+
+    public ShardedInventoryEngine(int shardCount) {
+        this(shardCount, Outbox.NONE);
+    }
+
+    /**
+     * @param outbox 分片的每次保存都在 outbox.saveAndRecord 中执行，事件记录也发生在分片写线程上
+     */
+    public ShardedInventoryEngine(int shardCount, Outbox outbox) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("分片数必须大于零: " + shardCount);
+        }
+        Objects.requireNonNull(outbox, "Outbox 不能为空");
+        this.shards = new InventoryShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new InventoryShard(i, outbox, activeBySnCode);
+        }
+    }
+
+    // ========== 命令 ==========
+
+    /**
+     * 用例：入库。值对象与聚合根的业务校验在调用线程上执行（校验失败直接抛出），保存在仓库所属分片上执行。
+     *
+     * @return 新库存项的 ID；SN 已有活跃记录时以 IllegalStateException 异常完成
+     */
+    public CompletableFuture<InventoryItemId> stockIn(
+            SnCode snCode,
+            Long skuId,
+            WarehouseId warehouseId,
+            Money acquisitionCost,
+            SourceType sourceType,
+            String sourceOrderId) {
+        InventoryItem item = InventoryItem.stockIn(InventoryItemId.of(IdGenerator.getDefault().nextId()),
+                snCode, skuId, warehouseId, acquisitionCost, sourceType, sourceOrderId);
+        InventoryShard shard = shards[shardIndexOf(warehouseId)];
+        return shard.submit(() -> {
+            InventoryItemId id = shard.stockIn(item);
+            // 在写线程上、future 完成之前登记：调用方拿到 ID 时一定能路由
+            shardById.put(id, shard);
+            return id;
+        });
+    }
+
+    /**
+     * 在库存项所属分片上执行命令（如 InventoryItem::passInspection）。
+     * 命令在副本上执行，抛出异常时分片状态不变；同一分片的命令严格按提交顺序执行。
+     *
+     * @return 执行命令后的库存项副本
+     */
+    public CompletableFuture<InventoryItem> execute(InventoryItemId itemId, Consumer<InventoryItem> command) {
+        Objects.requireNonNull(command, "命令不能为空");
+        InventoryShard shard = shardOf(itemId);
+        return shard.submit(() -> shard.execute(itemId, command));
+    }
+
+    // ========== 查询 ==========
+
+    public CompletableFuture<Optional<InventoryItem>> findById(InventoryItemId itemId) {
+        InventoryShard shard = shardOf(itemId);
+        return shard.submit(() -> shard.findById(itemId));
+    }
+
+    /**
+     * 持有该 SN 的活跃库存项（直接读共享登记表，不经过分片）。
+     */
+    public Optional<InventoryItemId> activeIdBySnCode(SnCode snCode) {
+        return Optional.ofNullable(activeBySnCode.get(snCode));
+    }
+
+    /**
+     * 扇出查询：所有仓库中该 SKU 的库存项。
+     */
+    public CompletableFuture<List<InventoryItem>> findBySkuId(Long skuId) {
+        return fanOut(shard -> shard.findBySkuId(skuId)).thenApply(partials -> {
+            List<InventoryItem> result = new ArrayList<>();
+            partials.forEach(result::addAll);
+            return result;
+        });
+    }
+
+    /**
+     * 扇出查询：该 SKU 按仓库、状态的库存分布。
+     */
+    public CompletableFuture<SkuStockView> skuView(Long skuId) {
+        return fanOut(shard -> shard.countBySkuId(skuId))
+                .thenApply(partials -> SkuStockView.merge(skuId, partials));
+    }
+
+    /**
+     * 仓库所属的分片下标。
+     */
+    public int shardIndexOf(WarehouseId warehouseId) {
+        Objects.requireNonNull(warehouseId, "仓库 ID 不能为空");
+        return Math.floorMod(warehouseId.hashCode(), shards.length);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 停止接收命令，等待各分片处理完已提交的命令。
+     */
+    @Override
+    public void close() {
+        for (InventoryShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private InventoryShard shardOf(InventoryItemId itemId) {
+        Objects.requireNonNull(itemId, "库存项 ID 不能为空");
+        InventoryShard shard = shardById.get(itemId);
+        if (shard == null) {
+            throw new IllegalArgumentException("库存项不存在: " + itemId.getValue());
+        }
+        return shard;
+    }
+
+    private <R> CompletableFuture<List<R>> fanOut(Function<InventoryShard, R> query) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.length);
+        for (InventoryShard shard : shards) {
+            futures.add(shard.submit(() -> query.apply(shard)));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<R> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.sample.inventory.infrastructure.shard;
+
+import com.sample.inventory.domain.model.InventoryStatus;
+import com.sample.inventory.domain.vo.WarehouseId;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 某个 SKU 在所有仓库的库存分布（按仓库、状态计数），由各分片的局部结果合并而成。
+ *
+ * 各分片的结果分别在自己的写线程上取得，合并后的视图不是同一时刻的全局快照：
+ * 跨分片的数字可能来自略有先后的时刻，但单个仓库的数字总是一致的（一个仓库只属于一个分片）。
+ */
+public final class SkuStockView {
+
+    private final Long skuId;
+    private final Map<WarehouseId, Map<InventoryStatus, Long>> byWarehouse;
+
+    private SkuStockView(Long skuId, Map<WarehouseId, Map<InventoryStatus, Long>> byWarehouse) {
+        this.skuId = skuId;
+        this.byWarehouse = byWarehouse;
+    }
+
+    /**
+     * 合并各分片的计数：仓库 → 按 InventoryStatus.ordinal() 下标的计数。
+     */
+    static SkuStockView merge(Long skuId, Iterable<Map<WarehouseId, long[]>> partials) {
+        InventoryStatus[] statuses = InventoryStatus.values();
+        Map<WarehouseId, Map<InventoryStatus, Long>> byWarehouse = new HashMap<>();
+        for (Map<WarehouseId, long[]> partial : partials) {
+            for (Map.Entry<WarehouseId, long[]> entry : partial.entrySet()) {
+                Map<InventoryStatus, Long> counts = new EnumMap<>(InventoryStatus.class);
+                long[] values = entry.getValue();
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] > 0) {
+                        counts.put(statuses[i], values[i]);
+                    }
+                }
+                byWarehouse.put(entry.getKey(), Collections.unmodifiableMap(counts));
+            }
+        }
+        return new SkuStockView(skuId, Collections.unmodifiableMap(byWarehouse));
+    }
+
+    public Long getSkuId() {
+        return skuId;
+    }
+
+    /** 有该 SKU 库存记录的仓库 */
+    public Set<WarehouseId> warehouses() {
+        return byWarehouse.keySet();
+    }
+
+    /** 某仓库某状态的数量 */
+    public long count(WarehouseId warehouseId, InventoryStatus status) {
+        return byWarehouse.getOrDefault(warehouseId, Map.of()).getOrDefault(status, 0L);
+    }
+
+    /** 所有仓库某状态的数量 */
+    public long count(InventoryStatus status) {
+        long total = 0;
+        for (Map<InventoryStatus, Long> counts : byWarehouse.values()) {
+            total += counts.getOrDefault(status, 0L);
+        }
+        return total;
+    }
+
+    /** 某仓库按状态的数量（只含非零项） */
+    public Map<InventoryStatus, Long> countsOf(WarehouseId warehouseId) {
+        return byWarehouse.getOrDefault(warehouseId, Map.of());
+    }
+
+    @Override
+    public String toString() {
+        return "SkuStockView{skuId=" + skuId + ", byWarehouse=" + byWarehouse + "}";
+    }
+}
@@ -1,10 +1,16 @@
 package com.sample.purchase.application;
 
+import com.sample.common.concurrency.RetryingCommandRunner;
+import com.sample.common.outbox.Outbox;
 import com.sample.common.vo.Money;
 import com.sample.purchase.domain.model.PurchaseOrder;
 import com.sample.purchase.domain.repository.PurchaseOrderRepository;
 import com.sample.purchase.domain.vo.PurchaseOrderId;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 /**
  * === 设计要点 ===
  * 采购应用服务 — L2 级别。
@@ -18,13 +24,34 @@ import com.sample.purchase.domain.vo.PurchaseOrderId;
  * L2 和 L3 的应用服务写法几乎相同。
  * 真正的差异在 Domain 层（聚合根的复杂度）。
  * 应用服务始终只做 "编排"，不做 "判断"。
+ *
+ * 并发：每个"加载 → 调用 → 保存"都交给 RetryingCommandRunner 执行，
+ * 保存时发生版本冲突（两个审核员同时操作同一张单）就基于最新状态整体重来。
  */
 public class PurchaseApplicationService {
 
     private final PurchaseOrderRepository repository;
+    private final Outbox outbox;
+    private final RetryingCommandRunner commandRunner;
 
     public PurchaseApplicationService(PurchaseOrderRepository repository) {
+        this(repository, Outbox.NONE);
+    }
+
+    /**
+     * @param outbox 接入持久化日志时用 PurchaseOrderSaveVerifier.openOutbox(journal, serializer, repository) 打开
+     */
+    public PurchaseApplicationService(PurchaseOrderRepository repository, Outbox outbox) {
+        this(repository, outbox, RetryingCommandRunner.defaults());
+    }
+
+    public PurchaseApplicationService(
+            PurchaseOrderRepository repository,
+            Outbox outbox,
+            RetryingCommandRunner commandRunner) {
         this.repository = repository;
+        this.outbox = outbox;
+        this.commandRunner = commandRunner;
     }
 
     /**
@@ -32,7 +59,7 @@ public class PurchaseApplicationService {
      */
     public PurchaseOrderId createDraft(Long supplierId, String remark) {
         PurchaseOrder order = PurchaseOrder.createDraft(supplierId, remark);
-        repository.save(order);
+        save(order);
         return order.getOrderId();
     }
 
@@ -40,56 +67,68 @@ public class PurchaseApplicationService {
      * 添加采购明细。
      */
     public void addItem(Long orderId, Long skuId, Integer quantity, String unitPriceStr) {
-        PurchaseOrder order = loadOrder(orderId);
-
         Money unitPrice = Money.of(unitPriceStr);
-        order.addItem(skuId, quantity, unitPrice);
-
-        repository.save(order);
+        execute(orderId, order -> order.addItem(skuId, quantity, unitPrice));
     }
 
     /**
      * 提交审核。
      */
     public void submit(Long orderId) {
-        PurchaseOrder order = loadOrder(orderId);
-        order.submit();
-        repository.save(order);
+        execute(orderId, PurchaseOrder::submit);
     }
 
     /**
      * 审核通过。
      */
     public void approve(Long orderId) {
-        PurchaseOrder order = loadOrder(orderId);
-        order.approve();
-        repository.save(order);
+        execute(orderId, PurchaseOrder::approve);
     }
 
     /**
      * 收货。
      */
     public void receiveItem(Long orderId, Long skuId, String snCode) {
-        PurchaseOrder order = loadOrder(orderId);
-        order.receiveItem(skuId, snCode);
-        repository.save(order);
+        execute(orderId, order -> order.receiveItem(skuId, snCode));
+    }
+
+    /**
+     * 批量收货：一次加载、一次保存。
+     *
+     * 大订单逐个扫码调用 receiveItem() 时，每个 SN 都是一次完整的加载 → 保存；
+     * 扫码枪/PDA 攒批后调用本方法，整批要么全部登记，要么全部拒绝。
+     *
+     * @param snCodesBySku skuId → 本批收到的 SN 列表
+     */
+    public void receiveItems(Long orderId, Map<Long, List<String>> snCodesBySku) {
+        execute(orderId, order -> order.receiveItems(snCodesBySku));
     }
 
     /**
      * 完成。
      */
     public void complete(Long orderId) {
-        PurchaseOrder order = loadOrder(orderId);
-        order.complete();
-        repository.save(order);
-
-        // 发布事件
-        // order.getDomainEvents().forEach(eventPublisher::publish);
-        // order.clearDomainEvents();
+        // PurchaseCompletedEvent 与订单在同一个工作单元内记录，由 Outbox Relay 投递
+        execute(orderId, PurchaseOrder::complete);
     }
 
     // ========== 私有方法 ==========
 
+    /**
+     * 加载 → 调用 → 保存；版本冲突时整体重试（每次重试都重新加载）。
+     */
+    private void execute(Long orderId, Consumer<PurchaseOrder> action) {
+        commandRunner.run(() -> {
+            PurchaseOrder order = loadOrder(orderId);
+            action.accept(order);
+            save(order);
+        });
+    }
+
+    private void save(PurchaseOrder order) {
+        outbox.saveAndRecord(order, () -> repository.save(order));
+    }
+
     private PurchaseOrder loadOrder(Long orderId) {
         return repository.findById(PurchaseOrderId.of(orderId))
                 .orElseThrow(() -> new IllegalArgumentException("采购订单不存在: " + orderId));
@@ -0,0 +1,53 @@
+package com.sample.purchase.application;
+
+import com.sample.common.concurrency.MailboxExecutor;
+import com.sample.purchase.domain.vo.PurchaseOrderId;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 采购命令的异步入口：同一张采购单的命令投递到它自己的信箱，按提交顺序串行执行。
+ *
+ * 多台 PDA 同时对一张大单扫码收货时，receiveItem 不再因版本冲突反复重试；
+ * 不同采购单之间完全并行。新建草稿还没有 ID，直接在承载执行器上执行。
+ */
+public class PurchaseCommandDispatcher {
+
+    private final PurchaseApplicationService service;
+    private final MailboxExecutor<PurchaseOrderId> mailboxes;
+
+    public PurchaseCommandDispatcher(PurchaseApplicationService service, MailboxExecutor<PurchaseOrderId> mailboxes) {
+        this.service = service;
+        this.mailboxes = mailboxes;
+    }
+
+    public CompletableFuture<PurchaseOrderId> createDraft(Long supplierId, String remark) {
+        return mailboxes.submitUnordered(() -> service.createDraft(supplierId, remark));
+    }
+
+    public CompletableFuture<Void> addItem(Long orderId, Long skuId, Integer quantity, String unitPrice) {
+        return mailboxes.execute(PurchaseOrderId.of(orderId), () -> service.addItem(orderId, skuId, quantity, unitPrice));
+    }
+
+    public CompletableFuture<Void> submit(Long orderId) {
+        return mailboxes.execute(PurchaseOrderId.of(orderId), () -> service.submit(orderId));
+    }
+
+    public CompletableFuture<Void> approve(Long orderId) {
+        return mailboxes.execute(PurchaseOrderId.of(orderId), () -> service.approve(orderId));
+    }
+
+    public CompletableFuture<Void> receiveItem(Long orderId, Long skuId, String snCode) {
+        return mailboxes.execute(PurchaseOrderId.of(orderId), () -> service.receiveItem(orderId, skuId, snCode));
+    }
+
+    public CompletableFuture<Void> receiveItems(Long orderId, Map<Long, List<String>> snCodesBySku) {
+        return mailboxes.execute(PurchaseOrderId.of(orderId), () -> service.receiveItems(orderId, snCodesBySku));
+    }
+
+    public CompletableFuture<Void> complete(Long orderId) {
+        return mailboxes.execute(PurchaseOrderId.of(orderId), () -> service.complete(orderId));
+    }
+}
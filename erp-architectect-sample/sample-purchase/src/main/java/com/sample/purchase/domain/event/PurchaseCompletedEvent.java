@@ -4,6 +4,7 @@ import com.sample.common.DomainEvent;
 import com.sample.purchase.domain.model.PurchaseItem;
 import com.sample.purchase.domain.vo.PurchaseOrderId;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -13,6 +14,9 @@ import java.util.List;
  * 消费者：
  * - 库存中心：为每个 SN 创建库存项 (PENDING_INSPECT)
  * - 财务中心：记录采购成本 (ACQUISITION)
+ *
+ * 载荷直接引用订单的明细与各行的 ReceivedSnSet（只读视图），不复制 —— 10 万台的大单也不会
+ * 在发布事件时多出一份 SN 列表。订单完成后不再允许收货，视图的内容因此不会再变化。
  */
 public class PurchaseCompletedEvent extends DomainEvent {
 
@@ -30,6 +34,20 @@ public class PurchaseCompletedEvent extends DomainEvent {
         this.items = items;
     }
 
+    /**
+     * 重建方法（反序列化使用），保留原始发生时间。
+     */
+    public PurchaseCompletedEvent(
+            PurchaseOrderId orderId,
+            Long supplierId,
+            List<PurchaseItem> items,
+            LocalDateTime occurredAt) {
+        super(orderId.toString(), occurredAt);
+        this.orderId = orderId;
+        this.supplierId = supplierId;
+        this.items = items;
+    }
+
     public PurchaseOrderId getOrderId() {
         return orderId;
     }
@@ -2,9 +2,8 @@ package com.sample.purchase.domain.model;
 
 import com.sample.common.vo.Money;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * === 设计要点 ===
@@ -19,6 +18,9 @@ import java.util.List;
  * - InventoryItem 本身就是聚合根
  * - PurchaseItem 是聚合根(PurchaseOrder)的内部实体
  * - 内部实体不能独立存在，必须依附于聚合根
+ *
+ * 已收 SN 存放在紧凑的 ReceivedSnSet 中：同一个 SN 重复扫码（含大小写、首尾空白不同的写法）会被拒绝，
+ * 而不是被计数两次。
  */
 public class PurchaseItem {
 
@@ -26,12 +28,16 @@ public class PurchaseItem {
     private Integer quantity;
     private Money unitPrice;
     private Integer receivedQty;
-    private final List<String> receivedSnCodes;
+    private final ReceivedSnSet receivedSnCodes;
 
     /**
      * 包级私有构造 — 只允许 PurchaseOrder 创建。
      */
     PurchaseItem(Long skuId, Integer quantity, Money unitPrice) {
+        this(skuId, quantity, unitPrice, null);
+    }
+
+    private PurchaseItem(Long skuId, Integer quantity, Money unitPrice, ReceivedSnSet received) {
         if (skuId == null)
             throw new IllegalArgumentException("SKU ID 不能为空");
         if (quantity == null || quantity <= 0)
@@ -42,8 +48,46 @@ public class PurchaseItem {
         this.skuId = skuId;
         this.quantity = quantity;
         this.unitPrice = unitPrice;
-        this.receivedQty = 0;
-        this.receivedSnCodes = new ArrayList<>();
+        // 大单按需扩容，避免一次性按采购数量分配
+        this.receivedSnCodes = received != null ? received : new ReceivedSnSet(Math.min(quantity, 64));
+        this.receivedQty = receivedSnCodes.size();
+    }
+
+    /**
+     * 重建方法（Repository 使用，与 PurchaseOrder.reconstruct() 配合）。
+     *
+     * 传入的是另一个明细的 ReceivedSnSet 时按数组整体复制，不逐个重新登记。
+     */
+    public static PurchaseItem reconstruct(
+            Long skuId,
+            Integer quantity,
+            Money unitPrice,
+            List<String> receivedSnCodes) {
+        ReceivedSnSet received;
+        if (receivedSnCodes instanceof ReceivedSnSet) {
+            received = ((ReceivedSnSet) receivedSnCodes).copy();
+        } else {
+            received = new ReceivedSnSet(receivedSnCodes.size());
+            for (String snCode : receivedSnCodes) {
+                if (!received.register(snCode)) {
+                    throw new IllegalStateException("SN [" + snCode + "] 在 SKU [" + skuId + "] 中重复");
+                }
+            }
+        }
+        return new PurchaseItem(skuId, quantity, unitPrice, received);
+    }
+
+    /**
+     * 修改采购数量。
+     * 包级私有 — 只能通过 PurchaseOrder.changeItemQuantity() 调用。
+     */
+    void changeQuantity(Integer quantity) {
+        if (quantity == null || quantity <= 0)
+            throw new IllegalArgumentException("采购数量必须大于零");
+        if (quantity < receivedQty)
+            throw new IllegalStateException(
+                    "SKU [" + skuId + "] 采购数量不能小于已收数量 " + receivedQty);
+        this.quantity = quantity;
     }
 
     /**
@@ -55,10 +99,52 @@ public class PurchaseItem {
             throw new IllegalStateException(
                     "SKU [" + skuId + "] 已收齐，计划 " + quantity + "，已收 " + receivedQty);
         }
-        this.receivedSnCodes.add(snCode);
+        if (!receivedSnCodes.register(snCode)) {
+            throw new IllegalStateException("SN [" + snCode + "] 已在 SKU [" + skuId + "] 收货，不允许重复扫码");
+        }
         this.receivedQty++;
     }
 
+    /**
+     * 校验一批 SN 能否整批收货：数量不超出、SN 可登记（与 register 同样的非空与长度规则）、
+     * 与本行已收 SN 不重复、与同一批次中的其他 SN 不重复。
+     * 包级私有 — PurchaseOrder.receiveItems() 在登记任何 SN 之前先校验整批。
+     *
+     * @param batch 本批次已校验过的 SN 规范形式（同一张单的所有明细行共用，用来发现跨行重复），校验通过的追加进去
+     */
+    void checkReceivable(List<String> snCodes, Set<String> batch) {
+        if (snCodes.size() > getRemainingQty()) {
+            throw new IllegalStateException(
+                    "SKU [" + skuId + "] 收货超量，计划 " + quantity + "，已收 " + receivedQty + "，本次 " + snCodes.size());
+        }
+        for (String snCode : snCodes) {
+            String canonical = ReceivedSnSet.checkRegistrable(snCode);
+            if (receivedSnCodes.contains(canonical)) {
+                throw new IllegalStateException("SN [" + snCode + "] 已在 SKU [" + skuId + "] 收货，不允许重复扫码");
+            }
+            if (!batch.add(canonical)) {
+                throw new IllegalStateException("SN [" + snCode + "] 在本次收货中重复");
+            }
+        }
+    }
+
+    /**
+     * 本行是否已收过该 SN（按规范形式比较）。
+     */
+    boolean hasReceived(String snCode) {
+        return receivedSnCodes.contains(snCode);
+    }
+
+    /**
+     * 批量登记 SN。
+     * 包级私有 — 只能通过 PurchaseOrder.receiveItems() 调用，且调用前已经过 checkReceivable()。
+     */
+    void receiveSns(List<String> snCodes) {
+        for (String snCode : snCodes) {
+            receiveSn(snCode);
+        }
+    }
+
     /**
      * 是否已全部收货。
      */
@@ -79,11 +165,28 @@ public class PurchaseItem {
         return unitPrice;
     }
 
+    /**
+     * 明细金额 = 单价 × 数量。
+     */
+    public Money getAmount() {
+        return unitPrice.multiply(quantity);
+    }
+
     public Integer getReceivedQty() {
         return receivedQty;
     }
 
+    /**
+     * 尚未收货的数量。
+     */
+    public int getRemainingQty() {
+        return quantity - receivedQty;
+    }
+
+    /**
+     * 已收 SN（按收货顺序），只读视图，不复制。
+     */
     public List<String> getReceivedSnCodes() {
-        return Collections.unmodifiableList(receivedSnCodes);
+        return receivedSnCodes;
     }
 }
@@ -1,13 +1,18 @@
 package com.sample.purchase.domain.model;
 
 import com.sample.common.AggregateRoot;
+import com.sample.common.id.IdGenerator;
 import com.sample.common.vo.Money;
 import com.sample.purchase.domain.event.PurchaseCompletedEvent;
 import com.sample.purchase.domain.vo.PurchaseOrderId;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * === 设计要点 ===
@@ -47,6 +52,12 @@ public class PurchaseOrder extends AggregateRoot {
     // ========== 明细 ==========
     private final List<PurchaseItem> items = new ArrayList<>();
 
+    /**
+     * skuId → 明细行的索引，收货时 O(1) 定位明细（框架订单可达数千行、数万次扫码）。
+     * 同一 SKU 出现在多行时指向第一行，与原先"按顺序查找第一个匹配行"的语义一致。
+     */
+    private final Map<Long, PurchaseItem> itemsBySku = new HashMap<>();
+
     // ========== 其他 ==========
     private Money totalAmount;
     private String remark;
@@ -57,7 +68,7 @@ public class PurchaseOrder extends AggregateRoot {
     }
 
     /**
-     * 工厂方法：创建草稿采购单。
+     * 工厂方法：创建草稿采购单。标识由进程级的 IdGenerator 生成，创建后立即可用。
      */
     public static PurchaseOrder createDraft(Long supplierId, String remark) {
         if (supplierId == null) {
@@ -65,6 +76,7 @@ public class PurchaseOrder extends AggregateRoot {
         }
 
         PurchaseOrder order = new PurchaseOrder();
+        order.orderId = PurchaseOrderId.of(IdGenerator.getDefault().nextId());
         order.supplierId = supplierId;
         order.status = PurchaseStatus.DRAFT;
         order.remark = remark;
@@ -77,6 +89,8 @@ public class PurchaseOrder extends AggregateRoot {
     /**
      * 添加采购明细。
      * 只有 DRAFT 状态下才能添加。
+     *
+     * 总金额增量维护：只加上新明细的金额，而不是每次重新遍历所有明细（大订单 O(n²) → O(n)）。
      */
     public void addItem(Long skuId, Integer quantity, Money unitPrice) {
         // L2 风格的状态校验 — 直接用 if 判断，简单明了
@@ -86,9 +100,48 @@ public class PurchaseOrder extends AggregateRoot {
 
         PurchaseItem item = new PurchaseItem(skuId, quantity, unitPrice);
         items.add(item);
+        itemsBySku.putIfAbsent(skuId, item);
+
+        this.totalAmount = totalAmount.add(item.getAmount());
+    }
+
+    /**
+     * 修改明细的采购数量（同一 SKU 有多行时修改第一行）。
+     * 只有 DRAFT 状态下才能修改。
+     */
+    public void changeItemQuantity(Long skuId, Integer quantity) {
+        if (status != PurchaseStatus.DRAFT) {
+            throw new IllegalStateException("只有草稿状态才能修改明细，当前状态: " + status);
+        }
+
+        PurchaseItem item = findItem(skuId);
+        Money before = item.getAmount();
+        item.changeQuantity(quantity);
 
-        // 重新计算总金额
-        recalculateTotal();
+        this.totalAmount = totalAmount.subtract(before).add(item.getAmount());
+    }
+
+    /**
+     * 删除明细（同一 SKU 有多行时删除第一行）。
+     * 只有 DRAFT 状态下才能删除。
+     */
+    public void removeItem(Long skuId) {
+        if (status != PurchaseStatus.DRAFT) {
+            throw new IllegalStateException("只有草稿状态才能删除明细，当前状态: " + status);
+        }
+
+        PurchaseItem item = findItem(skuId);
+        items.remove(item);
+        itemsBySku.remove(skuId);
+        // 同一 SKU 还有其他行时，索引指向下一行（罕见情况，线性查找即可）
+        for (PurchaseItem remaining : items) {
+            if (remaining.getSkuId().equals(skuId)) {
+                itemsBySku.put(skuId, remaining);
+                break;
+            }
+        }
+
+        this.totalAmount = totalAmount.subtract(item.getAmount());
     }
 
     // ========== 流程操作 ==========
@@ -142,23 +195,48 @@ public class PurchaseOrder extends AggregateRoot {
      * 首次收货时自动从 APPROVED 转为 RECEIVING。
      */
     public void receiveItem(Long skuId, String snCode) {
-        if (status != PurchaseStatus.APPROVED && status != PurchaseStatus.RECEIVING) {
-            throw new IllegalStateException("当前状态不允许收货: " + status);
-        }
+        checkReceivable();
+        PurchaseItem item = findItem(skuId);
+        checkNotReceivedOnOtherLines(item, ReceivedSnSet.checkRegistrable(snCode), snCode);
 
-        // 找到对应的明细行
-        PurchaseItem item = items.stream()
-                .filter(i -> i.getSkuId().equals(skuId))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("未找到 SKU: " + skuId));
-
-        // 委托给内部实体执行（实体自己校验数量是否超出）
+        // 委托给内部实体执行（实体自己校验数量是否超出、本行是否重复）
         item.receiveSn(snCode);
 
-        // 首次收货，状态变更
-        if (status == PurchaseStatus.APPROVED) {
-            this.status = PurchaseStatus.RECEIVING;
+        markReceiving();
+    }
+
+    /**
+     * 批量收货：一次扫码会话内收到的所有 SN，按 SKU 分组。
+     *
+     * 全部成功或全部失败 —— 先校验整批（SKU 存在、数量不超出、SN 可登记且在整张单内不重复），
+     * 校验通过后才登记，不会出现"前半批已登记、后半批超量或格式非法"的半完成状态。
+     * 一台设备只能属于一个 SKU：同一 SN 出现在两个明细行（本批次内或已收货的其他行）同样拒绝。
+     */
+    public void receiveItems(Map<Long, List<String>> snCodesBySku) {
+        checkReceivable();
+        if (snCodesBySku == null || snCodesBySku.isEmpty()) {
+            throw new IllegalArgumentException("收货明细不能为空");
+        }
+
+        // 第一轮：校验
+        Set<String> batch = new HashSet<>();
+        for (Map.Entry<Long, List<String>> entry : snCodesBySku.entrySet()) {
+            PurchaseItem item = findItem(entry.getKey());
+            List<String> snCodes = entry.getValue() == null ? List.of() : entry.getValue();
+            item.checkReceivable(snCodes, batch);
+            for (String snCode : snCodes) {
+                checkNotReceivedOnOtherLines(item, ReceivedSnSet.canonical(snCode), snCode);
+            }
+        }
+
+        // 第二轮：登记
+        for (Map.Entry<Long, List<String>> entry : snCodesBySku.entrySet()) {
+            if (entry.getValue() != null) {
+                itemsBySku.get(entry.getKey()).receiveSns(entry.getValue());
+            }
         }
+
+        markReceiving();
     }
 
     /**
@@ -193,13 +271,39 @@ public class PurchaseOrder extends AggregateRoot {
 
     // ========== 私有方法 ==========
 
-    private void recalculateTotal() {
-        this.totalAmount = items.stream()
-                .map(item -> item.getUnitPrice()
-                        .add(Money.of(String.valueOf(item.getQuantity() - 1))
-                                .subtract(Money.of(String.valueOf(item.getQuantity() - 1)))))
-                // 简化计算：unitPrice * quantity
-                .reduce(Money.ZERO, Money::add);
+    private void checkReceivable() {
+        if (status != PurchaseStatus.APPROVED && status != PurchaseStatus.RECEIVING) {
+            throw new IllegalStateException("当前状态不允许收货: " + status);
+        }
+    }
+
+    /**
+     * 首次收货，状态变更。
+     */
+    private void markReceiving() {
+        if (status == PurchaseStatus.APPROVED) {
+            this.status = PurchaseStatus.RECEIVING;
+        }
+    }
+
+    /**
+     * 同一 SN 不能在同一张单的两个明细行收货。
+     */
+    private void checkNotReceivedOnOtherLines(PurchaseItem target, String canonical, String snCode) {
+        for (PurchaseItem other : items) {
+            if (other != target && other.hasReceived(canonical)) {
+                throw new IllegalStateException(
+                        "SN [" + snCode + "] 已在 SKU [" + other.getSkuId() + "] 收货，不允许重复扫码");
+            }
+        }
+    }
+
+    private PurchaseItem findItem(Long skuId) {
+        PurchaseItem item = itemsBySku.get(skuId);
+        if (item == null) {
+            throw new IllegalArgumentException("未找到 SKU: " + skuId);
+        }
+        return item;
     }
 
     // ========== Getters ==========
@@ -227,6 +331,19 @@ public class PurchaseOrder extends AggregateRoot {
         return remark;
     }
 
+    /**
+     * 回填持久化层分配的标识（仅在首次保存时由 Repository 实现调用）。
+     */
+    public void assignId(PurchaseOrderId orderId) {
+        if (orderId == null) {
+            throw new IllegalArgumentException("采购订单 ID 不能为空");
+        }
+        if (this.orderId != null && !this.orderId.equals(orderId)) {
+            throw new IllegalStateException("采购订单 ID 已分配，不允许修改: " + this.orderId);
+        }
+        this.orderId = orderId;
+    }
+
     /**
      * 重建方法（Repository 使用）。
      */
@@ -241,7 +358,10 @@ public class PurchaseOrder extends AggregateRoot {
         order.orderId = orderId;
         order.supplierId = supplierId;
         order.status = status;
-        order.items.addAll(items);
+        for (PurchaseItem item : items) {
+            order.items.add(item);
+            order.itemsBySku.putIfAbsent(item.getSkuId(), item);
+        }
         order.totalAmount = totalAmount;
         order.remark = remark;
         return order;
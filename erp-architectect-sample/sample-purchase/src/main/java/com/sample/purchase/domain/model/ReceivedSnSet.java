@@ -0,0 +1,260 @@
+package com.sample.purchase.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * === 设计要点 ===
+ * ReceivedSnSet — 明细行已收 SN 的紧凑集合。
+ *
+ * 为什么不用 ArrayList&lt;String&gt;？
+ * - 每个 SN 一个 String 对象（对象头 + byte[] 对象头 + 引用），10 万台设备的大单光对象开销就有数 MB
+ * - 重复扫码无法发现：同一个 SN 扫两次会被计入两次 receivedQty
+ *
+ * 结构：
+ * 1. 字节池（arena）：所有 SN 的 UTF-8 字节首尾相接存放，每个 SN 前面 1 字节长度
+ * 2. offsets[i]：第 i 个 SN 在字节池中的起始位置 —— 保留收货顺序，支持按下标随机访问
+ * 3. 开放寻址哈希表 slots：存放 SN 的下标 + 1（0 表示空槽），线性探测，负载因子不超过 2/3
+ *
+ * 每个 SN 的内存 ≈ SN 字节数 + 1 + 4（offsets）+ 约 6（哈希表），没有任何对象头。
+ *
+ * 登记与查询前先规范化（canonical()，与库存上下文 SnCode 的规则一致：去首尾空白、ASCII 小写转大写），
+ * "abc-12345"、" ABC-12345" 与 "ABC-12345" 是同一个 SN，只能登记一次；集合中保存的是规范形式。
+ *
+ * 对外是只读的 List&lt;String&gt;（读取时按需解码），领域事件可以直接引用而不必复制；
+ * 写入只能经由 PurchaseItem（包级私有的 register）。
+ */
+public final class ReceivedSnSet extends AbstractList<String> implements RandomAccess {
+
+    /** 长度前缀只有 1 字节 */
+    private static final int MAX_SN_BYTES = 255;
+
+    private byte[] arena;
+    private int arenaSize;
+
+    private int[] offsets;
+    private int size;
+
+    private int[] slots;
+    private int mask;
+
+    ReceivedSnSet(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        this.arena = new byte[capacity * 16];
+        this.offsets = new int[capacity];
+        int tableSize = 8;
+        while (tableSize * 2 < capacity * 3) {
+            tableSize <<= 1;
+        }
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    private ReceivedSnSet(ReceivedSnSet source) {
+        this.arena = Arrays.copyOf(source.arena, source.arena.length);
+        this.arenaSize = source.arenaSize;
+        this.offsets = Arrays.copyOf(source.offsets, source.offsets.length);
+        this.size = source.size;
+        this.slots = Arrays.copyOf(source.slots, source.slots.length);
+        this.mask = source.mask;
+    }
+
+    /**
+     * 深拷贝：几次数组整体复制，不重新计算哈希。
+     */
+    ReceivedSnSet copy() {
+        return new ReceivedSnSet(this);
+    }
+
+    // ========== 写入（包级私有） ==========
+
+    /**
+     * 登记一个 SN（按规范形式）。
+     *
+     * @return false 表示该 SN 已登记过（重复扫码），集合不变
+     */
+    boolean register(String snCode) {
+        byte[] bytes = encode(canonical(snCode));
+        int hash = hash(bytes);
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            if (matches(slots[slot] - 1, bytes)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        if (arenaSize + 1 + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + 1 + bytes.length));
+        }
+        offsets[size] = arenaSize;
+        arena[arenaSize] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, arena, arenaSize + 1, bytes.length);
+        arenaSize += 1 + bytes.length;
+
+        slots[slot] = ++size;
+        if (size * 3 > slots.length * 2) {
+            rehash();
+        }
+        modCount++;
+        return true;
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * O(1) 判断 SN 是否已登记。
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof String)) {
+            return -1;
+        }
+        String snCode = canonical((String) o);
+        if (snCode.isEmpty()) {
+            return -1;
+        }
+        byte[] bytes = snCode.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_SN_BYTES) {
+            return -1;
+        }
+        int slot = hash(bytes) & mask;
+        while (slots[slot] != 0) {
+            if (matches(slots[slot] - 1, bytes)) {
+                return slots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o); // 元素唯一
+    }
+
+    /**
+     * 按收货顺序取第 index 个 SN（每次调用解码出一个新的 String）。
+     */
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("下标越界: " + index + "，共 " + size + " 个 SN");
+        }
+        int offset = offsets[index];
+        return new String(arena, offset + 1, arena[offset] & 0xFF, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * SN 的规范形式：去掉首尾空白（≤ ' ' 的字符），ASCII 小写字母转大写。已是规范形式时返回原对象。
+     * 只做规范化，不校验字符集 —— 格式校验属于库存上下文的 SnCode。
+     */
+    static String canonical(String snCode) {
+        if (snCode == null) {
+            return null;
+        }
+        int start = 0;
+        int end = snCode.length();
+        while (start < end && snCode.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && snCode.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int firstLower = start;
+        while (firstLower < end && !isAsciiLower(snCode.charAt(firstLower))) {
+            firstLower++;
+        }
+        if (firstLower == end) {
+            return start == 0 && end == snCode.length() ? snCode : snCode.substring(start, end);
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            char c = snCode.charAt(i);
+            chars[i - start] = isAsciiLower(c) ? (char) (c - ('a' - 'A')) : c;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 按 register() 的规则校验 SN（非空、规范化后非空白、UTF-8 不超过 255 字节），返回规范形式。
+     * 批量收货在登记任何 SN 之前先用它校验整批，register() 就不会在中途抛出。
+     *
+     * @throws IllegalArgumentException SN 不能登记
+     */
+    static String checkRegistrable(String snCode) {
+        String canonical = canonical(snCode);
+        encode(canonical);
+        return canonical;
+    }
+
+    // ========== 私有方法 ==========
+
+    private static boolean isAsciiLower(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static byte[] encode(String snCode) {
+        if (snCode == null || snCode.isEmpty()) {
+            throw new IllegalArgumentException("SN 不能为空");
+        }
+        byte[] bytes = snCode.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_SN_BYTES) {
+            throw new IllegalArgumentException("SN 过长（超过 " + MAX_SN_BYTES + " 字节）: " + snCode);
+        }
+        return bytes;
+    }
+
+    private boolean matches(int index, byte[] bytes) {
+        int offset = offsets[index];
+        int length = arena[offset] & 0xFF;
+        return length == bytes.length
+                && Arrays.equals(arena, offset + 1, offset + 1 + length, bytes, 0, length);
+    }
+
+    private void rehash() {
+        int[] table = new int[slots.length * 2];
+        int newMask = table.length - 1;
+        for (int index = 0; index < size; index++) {
+            int offset = offsets[index];
+            int slot = hash(arena, offset + 1, arena[offset] & 0xFF) & newMask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & newMask;
+            }
+            table[slot] = index + 1;
+        }
+        this.slots = table;
+        this.mask = newMask;
+    }
+
+    private static int hash(byte[] bytes) {
+        return hash(bytes, 0, bytes.length);
+    }
+
+    /**
+     * FNV-1a，再把高位混入低位（槽位只取低位）。
+     */
+    private static int hash(byte[] bytes, int from, int length) {
+        int h = 0x811c9dc5;
+        for (int i = from; i < from + length; i++) {
+            h ^= bytes[i] & 0xFF;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
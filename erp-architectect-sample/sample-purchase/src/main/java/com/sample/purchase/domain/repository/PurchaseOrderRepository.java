@@ -11,6 +11,12 @@ import java.util.Optional;
  */
 public interface PurchaseOrderRepository {
 
+    /**
+     * 保存（新增或更新）。新增时标识通常已由工厂方法生成；尚无标识的由实现分配并通过 PurchaseOrder.assignId() 回填。
+     *
+     * 比较并交换语义：仅当存储中的版本号等于 order.getVersion() 时写入，成功后版本号加一并回填；
+     * 否则抛出 VersionConflictException。
+     */
     void save(PurchaseOrder order);
 
     Optional<PurchaseOrder> findById(PurchaseOrderId id);
@@ -0,0 +1,157 @@
+package com.sample.purchase.infrastructure.codec;
+
+import com.sample.common.codec.BinaryCodec;
+import com.sample.common.codec.DomainEventCodec;
+import com.sample.common.codec.WireFormat;
+import com.sample.common.vo.Money;
+import com.sample.purchase.domain.event.PurchaseCompletedEvent;
+import com.sample.purchase.domain.model.PurchaseItem;
+import com.sample.purchase.domain.model.PurchaseOrder;
+import com.sample.purchase.domain.model.PurchaseStatus;
+import com.sample.purchase.domain.vo.PurchaseOrderId;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * === 设计要点 ===
+ * 采购上下文的二进制编解码器：PurchaseOrder 的持久化状态，以及 PurchaseCompletedEvent。
+ *
+ * 字段编码见 WireFormat；状态按 ordinal 写 1 字节，PurchaseStatus 只能在末尾追加新值。
+ *
+ * PurchaseOrder（版本 1）：
+ * <pre>
+ * | orderId (0 = 未分配) | version | supplierId | status | totalAmount | remark | items |
+ * items = | count | (skuId | quantity | unitPrice | snCount | sn...)* |
+ * </pre>
+ * 已收 SN 按收货顺序逐个写出（varint 长度 + ASCII），10 万台的大单约为 SN 字节总数 + 10 万字节，
+ * 没有逐个字段的键名开销。PurchaseCompletedEvent 的明细使用同一种编码。
+ */
+public final class PurchaseBinaryCodecs {
+
+    /** DomainEventCodec 中的事件类型标签（采购区段 32–63），一经写入不可更改 */
+    public static final int PURCHASE_COMPLETED_EVENT_TAG = 32;
+
+    public static final BinaryCodec<PurchaseOrder> PURCHASE_ORDER = new PurchaseOrderCodec();
+    public static final BinaryCodec<PurchaseCompletedEvent> PURCHASE_COMPLETED_EVENT = new PurchaseCompletedEventCodec();
+
+    private static final PurchaseStatus[] STATUSES = PurchaseStatus.values();
+
+    private PurchaseBinaryCodecs() {
+    }
+
+    /**
+     * 把采购上下文的事件注册到序列化器。
+     */
+    public static DomainEventCodec registerEvents(DomainEventCodec codec) {
+        return codec.register(PURCHASE_COMPLETED_EVENT_TAG, PurchaseCompletedEvent.class, PURCHASE_COMPLETED_EVENT);
+    }
+
+    // ========== PurchaseOrder ==========
+
+    private static final class PurchaseOrderCodec implements BinaryCodec<PurchaseOrder> {
+
+        @Override
+        public int schemaVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encodeBody(PurchaseOrder order, ByteBuffer buffer) {
+            WireFormat.putVarLong(buffer, order.getOrderId() == null ? 0L : order.getOrderId().getValue());
+            WireFormat.putVarLong(buffer, order.getVersion());
+            WireFormat.putSignedVarLong(buffer, order.getSupplierId());
+            buffer.put((byte) order.getStatus().ordinal());
+            WireFormat.putMoney(buffer, order.getTotalAmount());
+            WireFormat.putString(buffer, order.getRemark());
+            putItems(buffer, order.getItems());
+        }
+
+        @Override
+        public PurchaseOrder decodeBody(ByteBuffer buffer, int schemaVersion) {
+            long orderId = WireFormat.getVarLong(buffer);
+            long version = WireFormat.getVarLong(buffer);
+            Long supplierId = WireFormat.getSignedVarLong(buffer);
+            PurchaseStatus status = WireFormat.getEnum(buffer, STATUSES);
+            Money totalAmount = WireFormat.getMoney(buffer);
+            String remark = WireFormat.getString(buffer);
+            PurchaseOrder order = PurchaseOrder.reconstruct(
+                    orderId == 0L ? null : PurchaseOrderId.of(orderId),
+                    supplierId,
+                    status,
+                    getItems(buffer),
+                    totalAmount,
+                    remark);
+            order.assignVersion(version);
+            return order;
+        }
+    }
+
+    // ========== 领域事件 ==========
+
+    private static final class PurchaseCompletedEventCodec implements BinaryCodec<PurchaseCompletedEvent> {
+
+        @Override
+        public int schemaVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encodeBody(PurchaseCompletedEvent event, ByteBuffer buffer) {
+            WireFormat.putTimestamp(buffer, event.getOccurredAt());
+            WireFormat.putVarLong(buffer, event.getOrderId().getValue());
+            WireFormat.putSignedVarLong(buffer, event.getSupplierId());
+            putItems(buffer, event.getItems());
+        }
+
+        @Override
+        public PurchaseCompletedEvent decodeBody(ByteBuffer buffer, int schemaVersion) {
+            LocalDateTime occurredAt = WireFormat.getTimestamp(buffer);
+            return new PurchaseCompletedEvent(
+                    PurchaseOrderId.of(WireFormat.getVarLong(buffer)),
+                    WireFormat.getSignedVarLong(buffer),
+                    getItems(buffer),
+                    occurredAt);
+        }
+    }
+
+    // ========== 明细 ==========
+
+    private static void putItems(ByteBuffer buffer, List<PurchaseItem> items) {
+        WireFormat.putVarInt(buffer, items.size());
+        for (PurchaseItem item : items) {
+            WireFormat.putSignedVarLong(buffer, item.getSkuId());
+            WireFormat.putVarInt(buffer, item.getQuantity());
+            WireFormat.putMoney(buffer, item.getUnitPrice());
+            List<String> snCodes = item.getReceivedSnCodes();
+            int count = snCodes.size();
+            WireFormat.putVarInt(buffer, count);
+            for (int i = 0; i < count; i++) {
+                WireFormat.putString(buffer, snCodes.get(i));
+            }
+        }
+    }
+
+    private static List<PurchaseItem> getItems(ByteBuffer buffer) {
+        int itemCount = WireFormat.getCount(buffer);
+        List<PurchaseItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Long skuId = WireFormat.getSignedVarLong(buffer);
+            Integer quantity = WireFormat.getVarInt(buffer);
+            PurchaseItem item = PurchaseItem.reconstruct(skuId, quantity, WireFormat.getMoney(buffer), getSnCodes(buffer));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static List<String> getSnCodes(ByteBuffer buffer) {
+        int count = WireFormat.getCount(buffer);
+        List<String> snCodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            snCodes.add(WireFormat.getString(buffer));
+        }
+        return snCodes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.sample.purchase.infrastructure.outbox;
+
+import com.sample.common.AggregateRoot;
+import com.sample.common.outbox.EventSerializer;
+import com.sample.common.outbox.JournalOutbox;
+import com.sample.common.outbox.OutboxJournal;
+import com.sample.common.outbox.SaveVerifier;
+import com.sample.purchase.domain.model.PurchaseOrder;
+import com.sample.purchase.domain.repository.PurchaseOrderRepository;
+import com.sample.purchase.domain.vo.PurchaseOrderId;
+
+/**
+ * 采购单的保存核对：记录头里的键是采购单 ID，恢复时用 findById 加载并比较版本号。
+ */
+public class PurchaseOrderSaveVerifier implements SaveVerifier {
+
+    private final PurchaseOrderRepository repository;
+
+    public PurchaseOrderSaveVerifier(PurchaseOrderRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * 打开采购的 Outbox：用本仓储核对日志中崩溃遗留的记录。每个日志只能打开一次，且要在接受写入之前。
+     */
+    public static JournalOutbox openOutbox(OutboxJournal journal, EventSerializer serializer,
+                                           PurchaseOrderRepository repository) {
+        return new JournalOutbox(journal, serializer, new PurchaseOrderSaveVerifier(repository));
+    }
+
+    @Override
+    public long keyOf(AggregateRoot aggregate) {
+        PurchaseOrder order = (PurchaseOrder) aggregate;
+        if (order.getOrderId() == null) {
+            throw new IllegalStateException("采购单尚无标识，无法记录事件");
+        }
+        return order.getOrderId().getValue();
+    }
+
+    @Override
+    public long storedVersion(long aggregateKey) {
+        return repository.findById(PurchaseOrderId.of(aggregateKey))
+                .map(PurchaseOrder::getVersion)
+                .orElse(0L);
+    }
+}
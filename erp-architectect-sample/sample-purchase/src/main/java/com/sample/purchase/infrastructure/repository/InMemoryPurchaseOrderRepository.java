@@ -0,0 +1,78 @@
+package com.sample.purchase.infrastructure.repository;
+
+import com.sample.common.concurrency.VersionConflictException;
+import com.sample.common.id.IdGenerator;
+import com.sample.purchase.domain.model.PurchaseItem;
+import com.sample.purchase.domain.model.PurchaseOrder;
+import com.sample.purchase.domain.repository.PurchaseOrderRepository;
+import com.sample.purchase.domain.vo.PurchaseOrderId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PurchaseOrderRepository 的内存实现（测试、压测、本地演示用）。
+ *
+ * L2 的采购订单没有复杂的查询需求，只需要按 ID 存取。
+ * 与库存的内存仓储一样按快照保存（经由 reconstruct 复制），find 返回的也是副本：
+ * 两个并发请求各自持有独立的聚合根，版本号比较才有意义。
+ *
+ * 已收 SN 的复制是几次数组整体拷贝；但大单逐个扫码时每次保存仍要复制整张单，
+ * 这种场景应使用批量收货（receiveItems）。
+ */
+public class InMemoryPurchaseOrderRepository implements PurchaseOrderRepository {
+
+    private final ConcurrentHashMap<PurchaseOrderId, PurchaseOrder> byId = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(PurchaseOrder order) {
+        if (order.getOrderId() == null) {
+            // 与工厂方法同一个生成器：本地序列会与生成器在同一毫秒内分配的 ID 相撞
+            order.assignId(PurchaseOrderId.of(IdGenerator.getDefault().nextId()));
+        }
+
+        long expectedVersion = order.getVersion();
+        PurchaseOrder snapshot = copyOf(order);
+        snapshot.assignVersion(expectedVersion + 1);
+        byId.compute(order.getOrderId(), (id, previous) -> {
+            long actualVersion = previous == null ? 0L : previous.getVersion();
+            if (actualVersion != expectedVersion) {
+                throw new VersionConflictException("采购订单", id.getValue(), expectedVersion, actualVersion);
+            }
+            return snapshot;
+        });
+        order.assignVersion(expectedVersion + 1);
+    }
+
+    @Override
+    public Optional<PurchaseOrder> findById(PurchaseOrderId id) {
+        PurchaseOrder snapshot = byId.get(id);
+        return snapshot == null ? Optional.empty() : Optional.of(copyOf(snapshot));
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * 复制聚合根的持久化状态（含明细与版本号；领域事件不复制）。
+     */
+    static PurchaseOrder copyOf(PurchaseOrder order) {
+        List<PurchaseItem> items = new ArrayList<>(order.getItems().size());
+        for (PurchaseItem item : order.getItems()) {
+            items.add(PurchaseItem.reconstruct(
+                    item.getSkuId(), item.getQuantity(), item.getUnitPrice(), item.getReceivedSnCodes()));
+        }
+        PurchaseOrder copy = PurchaseOrder.reconstruct(
+                order.getOrderId(),
+                order.getSupplierId(),
+                order.getStatus(),
+                items,
+                order.getTotalAmount(),
+                order.getRemark());
+        copy.assignVersion(order.getVersion());
+        return copy;
+    }
+}
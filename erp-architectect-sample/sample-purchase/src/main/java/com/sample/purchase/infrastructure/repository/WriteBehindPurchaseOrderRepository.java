@@ -0,0 +1,89 @@
+package com.sample.purchase.infrastructure.repository;
+
+import com.sample.common.cache.BackingStore;
+import com.sample.common.cache.WriteBehindCache;
+import com.sample.common.cache.WriteBehindPolicy;
+import com.sample.purchase.domain.model.PurchaseOrder;
+import com.sample.purchase.domain.repository.PurchaseOrderRepository;
+import com.sample.purchase.domain.vo.PurchaseOrderId;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * 带写缓存的采购订单仓储装饰器。
+ *
+ * 逐个扫码收货时同一张采购单在短时间内被保存几十上百次，
+ * 缓存把刷新窗口内的保存合并为一次写入；采购单只按 ID 存取，没有需要覆盖的查询。
+ * 新建的采购单同步写入。前提同库存：底层存储的所有写入都经过本装饰器。
+ */
+public class WriteBehindPurchaseOrderRepository implements PurchaseOrderRepository, AutoCloseable {
+
+    private final WriteBehindCache<PurchaseOrderId, PurchaseOrder> cache;
+
+    public WriteBehindPurchaseOrderRepository(PurchaseOrderRepository delegate, WriteBehindPolicy policy) {
+        this.cache = new WriteBehindCache<>("采购订单", new DelegateStore(delegate), policy);
+    }
+
+    @Override
+    public void save(PurchaseOrder order) {
+        cache.save(order);
+    }
+
+    @Override
+    public Optional<PurchaseOrder> findById(PurchaseOrderId id) {
+        return cache.get(id);
+    }
+
+    public int flush() {
+        return cache.flush();
+    }
+
+    public WriteBehindCache<PurchaseOrderId, PurchaseOrder> getCache() {
+        return cache;
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    /**
+     * 把底层仓储适配为缓存的存储；采购单仓储没有批量接口，批量写入逐条保存。
+     */
+    private static final class DelegateStore implements BackingStore<PurchaseOrderId, PurchaseOrder> {
+
+        private final PurchaseOrderRepository delegate;
+
+        DelegateStore(PurchaseOrderRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public PurchaseOrderId idOf(PurchaseOrder order) {
+            return order.getOrderId();
+        }
+
+        @Override
+        public PurchaseOrder copyOf(PurchaseOrder order) {
+            return InMemoryPurchaseOrderRepository.copyOf(order);
+        }
+
+        @Override
+        public Optional<PurchaseOrder> load(PurchaseOrderId id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public void write(PurchaseOrder order) {
+            delegate.save(order);
+        }
+
+        @Override
+        public void writeAll(Collection<PurchaseOrder> orders) {
+            for (PurchaseOrder order : orders) {
+                delegate.save(order);
+            }
+        }
+    }
+}